@@ -0,0 +1,11 @@
+package com.farmatodo.reto.catalog;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class CatalogApplication {
+	public static void main(String[] args) {
+		SpringApplication.run(CatalogApplication.class, args);
+	}
+}
@@ -0,0 +1,11 @@
+package com.farmatodo.reto.catalog;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+
+/** Read-only view of the product table owned by the main API (same JSON shape) */
+@Table("product")
+public record Product(@Id Long id, String name, String description, BigDecimal price, Integer stock) {
+}
@@ -0,0 +1,66 @@
+package com.farmatodo.reto.catalog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Objects;
+
+/**
+ * Public catalog reads. With {@code Accept: application/x-ndjson} search results are
+ * written one product per line as rows arrive from Postgres; plain JSON gets the usual
+ * array. {@code limit} cancels the query once enough rows were sent. Every search is recorded
+ * in product_search_log like the servlet API does, without delaying the response.
+ */
+@RestController
+@RequestMapping("/products")
+public class ProductController {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductController.class);
+
+    private final ProductReadRepository products;
+    private final ProductSearchLogRepository searchLogs;
+    private final int minStock;
+    private final int maxLimit;
+
+    public ProductController(ProductReadRepository products, ProductSearchLogRepository searchLogs,
+            @Value("${product.min-stock:0}") int minStock,
+            @Value("${catalog.max-limit:1000}") int maxLimit) {
+        this.products = products;
+        this.searchLogs = searchLogs;
+        this.minStock = minStock;
+        this.maxLimit = maxLimit;
+    }
+
+    @GetMapping(produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE })
+    public Flux<Product> search(@RequestParam(required = false) String q,
+            @RequestParam(required = false) Long customerId,
+            @RequestParam(required = false) Integer limit) {
+        String term = Objects.requireNonNullElse(q, "").trim();
+        logSearch(term, customerId);
+        int max = limit == null ? maxLimit : Math.min(Math.max(limit, 1), maxLimit);
+        return products.findByNameContainingIgnoreCaseAndStockGreaterThanEqualOrderById(term, minStock)
+                .take(max);
+    }
+
+    // Fuera del flujo de la respuesta: si el insert falla, la búsqueda igual se sirve
+    private void logSearch(String term, Long customerId) {
+        searchLogs.save(ProductSearchLog.of(term, customerId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .subscribe(saved -> { },
+                        e -> log.warn("[CATALOGO] No se pudo registrar la búsqueda '{}': {}", term, e.getMessage()));
+    }
+
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<Product> detail(@PathVariable Long id) {
+        return products.findById(id)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Producto no existe: " + id)));
+    }
+}
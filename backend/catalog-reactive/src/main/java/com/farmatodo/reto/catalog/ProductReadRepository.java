@@ -0,0 +1,10 @@
+package com.farmatodo.reto.catalog;
+
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+
+public interface ProductReadRepository extends ReactiveCrudRepository<Product, Long> {
+
+    /** Same filter as the servlet API's search, ordered so streamed pages are stable */
+    Flux<Product> findByNameContainingIgnoreCaseAndStockGreaterThanEqualOrderById(String term, Integer minStock);
+}
@@ -0,0 +1,15 @@
+package com.farmatodo.reto.catalog;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/** Row of the main API's search analytics table; customerId is optional */
+@Table("product_search_log")
+public record ProductSearchLog(@Id Long id, String term, Long customerId, LocalDateTime createdAt) {
+
+    static ProductSearchLog of(String term, Long customerId) {
+        return new ProductSearchLog(null, term, customerId, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,6 @@
+package com.farmatodo.reto.catalog;
+
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+public interface ProductSearchLogRepository extends ReactiveCrudRepository<ProductSearchLog, Long> {
+}
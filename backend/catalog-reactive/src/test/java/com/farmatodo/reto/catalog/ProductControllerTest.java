@@ -0,0 +1,128 @@
+package com.farmatodo.reto.catalog;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@WebFluxTest(ProductController.class)
+class ProductControllerTest {
+
+    @Autowired
+    private WebTestClient client;
+
+    @MockitoBean
+    private ProductReadRepository products;
+
+    @MockitoBean
+    private ProductSearchLogRepository searchLogs;
+
+    @BeforeEach
+    void setUp() {
+        when(searchLogs.save(any())).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+    }
+
+    private static Product product(long id) {
+        return new Product(id, "Acetaminofén " + id, "Analgésico", new BigDecimal("3.50"), 10);
+    }
+
+    @Test
+    void search_withNdjson_shouldStreamOneProductPerLine() {
+        // Arrange
+        when(products.findByNameContainingIgnoreCaseAndStockGreaterThanEqualOrderById("aceta", 0))
+                .thenReturn(Flux.just(product(1), product(2)));
+
+        // Act
+        Flux<Product> body = client.get().uri("/products?q= aceta ")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Product.class).getResponseBody();
+
+        // Assert
+        StepVerifier.create(body)
+                .expectNextMatches(p -> p.id() == 1L)
+                .expectNextMatches(p -> p.id() == 2L)
+                .verifyComplete();
+    }
+
+    @Test
+    void search_withLimit_shouldCancelUpstreamAfterLimit() {
+        // Arrange
+        AtomicInteger emitted = new AtomicInteger();
+        when(products.findByNameContainingIgnoreCaseAndStockGreaterThanEqualOrderById("", 0))
+                .thenReturn(Flux.range(1, 1_000).map(i -> product(i)).doOnNext(p -> emitted.incrementAndGet()));
+
+        // Act & Assert
+        client.get().uri("/products?limit=3")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.length()").isEqualTo(3);
+        assertEquals(3, emitted.get());
+    }
+
+    @Test
+    void search_shouldRecordTermAndCustomer() {
+        // Arrange
+        when(products.findByNameContainingIgnoreCaseAndStockGreaterThanEqualOrderById("aceta", 0))
+                .thenReturn(Flux.just(product(1)));
+
+        // Act
+        client.get().uri("/products?q=aceta&customerId=7").accept(MediaType.APPLICATION_JSON)
+                .exchange().expectStatus().isOk();
+
+        // Assert
+        verify(searchLogs, timeout(1_000)).save(argThat(l ->
+                l.id() == null && "aceta".equals(l.term()) && l.customerId() == 7L && l.createdAt() != null));
+    }
+
+    @Test
+    void search_whenSearchLogFails_shouldStillReturnResults() {
+        // Arrange
+        when(products.findByNameContainingIgnoreCaseAndStockGreaterThanEqualOrderById("", 0))
+                .thenReturn(Flux.just(product(1)));
+        doReturn(Mono.error(new IllegalStateException("sin conexión"))).when(searchLogs).save(any());
+
+        // Act & Assert
+        client.get().uri("/products").accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.length()").isEqualTo(1);
+    }
+
+    @Test
+    void detail_whenMissing_shouldReturn404() {
+        // Arrange
+        when(products.findById(99L)).thenReturn(Mono.empty());
+
+        // Act & Assert
+        client.get().uri("/products/99").exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void detail_whenFound_shouldReturnProduct() {
+        // Arrange
+        when(products.findById(1L)).thenReturn(Mono.just(product(1)));
+
+        // Act & Assert
+        client.get().uri("/products/1").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.name").isEqualTo("Acetaminofén 1");
+    }
+}
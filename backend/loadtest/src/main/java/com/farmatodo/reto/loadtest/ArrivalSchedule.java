@@ -0,0 +1,31 @@
+package com.farmatodo.reto.loadtest;
+
+import java.util.Random;
+
+/**
+ * Intended start times of an open workload: arrivals are fixed in advance by the rate, not by
+ * when earlier requests finish, so a slow server gets more concurrent work instead of less
+ * (no coordinated omission). POISSON draws exponential gaps, UNIFORM spaces them evenly.
+ */
+public class ArrivalSchedule {
+
+    public enum Kind { POISSON, UNIFORM }
+
+    private final Kind kind;
+    private final double meanGapNanos;
+    private final Random random;
+    private double next;
+
+    public ArrivalSchedule(Kind kind, double ratePerSecond, long seed) {
+        this.kind = kind;
+        this.meanGapNanos = 1e9 / ratePerSecond;
+        this.random = new Random(seed);
+    }
+
+    /** Offset in nanoseconds from the start of the run of the next arrival */
+    public long nextOffsetNanos() {
+        long current = Math.round(next);
+        next += kind == Kind.UNIFORM ? meanGapNanos : -Math.log(1 - random.nextDouble()) * meanGapNanos;
+        return current;
+    }
+}
@@ -0,0 +1,141 @@
+package com.farmatodo.reto.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * One customer going through the purchase flow: register, tokenize a card, add a product to
+ * the cart and check out. Steps are chained on the HttpClient's async API, so no thread waits
+ * on the server; the first failed step ends the journey. The first request is timed from the
+ * journey's scheduled arrival, the later ones from when the previous step finished.
+ */
+public class CheckoutJourney {
+
+    public static final String REGISTER = "POST /auth/register";
+    public static final String TOKENIZE = "POST /tokens";
+    public static final String ADD_TO_CART = "POST /cart/items";
+    public static final String CHECKOUT = "POST /cart/checkout";
+    public static final List<String> ENDPOINTS = List.of(REGISTER, TOKENIZE, ADD_TO_CART, CHECKOUT);
+
+    public enum Outcome { PAID, FAILED, ERROR }
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final String apiKey;
+    private final ObjectMapper json = new ObjectMapper();
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+    // Prefijo por corrida para que correo y teléfono no choquen con corridas anteriores
+    private final long runStamp = System.currentTimeMillis() / 1000 % 1_000_000;
+
+    public CheckoutJourney(HttpClient http, String baseUrl, String apiKey) {
+        this.http = http;
+        this.baseUrl = baseUrl;
+        this.apiKey = apiKey;
+        ENDPOINTS.forEach(e -> stats.put(e, new EndpointStats(e)));
+    }
+
+    /** Stats per endpoint, in flow order */
+    public Map<String, EndpointStats> stats() {
+        return stats;
+    }
+
+    /**
+     * @param n              sequence number of the journey, makes email and phone unique
+     * @param intendedNanos  System.nanoTime() at which the journey was scheduled to start
+     * @param measured       false during the warmup
+     */
+    public CompletableFuture<Outcome> run(long n, long productId, long intendedNanos, boolean measured) {
+        String id = runStamp + "-" + n;
+        Map<String, Object> customer = body(
+                "firstName", "Carga", "lastName", "Test", "email", "carga-" + id + "@example.com",
+                "phone", String.format("+1%012d", runStamp * 1_000_000 + n % 1_000_000),
+                "address", "Caracas", "password", "secreto123");
+
+        return post(REGISTER, "/auth/register", customer, false, intendedNanos, measured)
+                .thenCompose(c -> {
+                    long customerId = c.path("id").asLong();
+                    Map<String, Object> card = body("customerId", customerId, "cardNumber", "4111111111111111",
+                            "cvv", "123", "expDate", "12/30");
+                    return post(TOKENIZE, "/tokens", card, true, System.nanoTime(), measured)
+                            .thenCompose(t -> post(ADD_TO_CART, "/cart/items",
+                                    body("customerId", customerId, "productId", productId, "quantity", 1),
+                                    true, System.nanoTime(), measured)
+                                    .thenCompose(cart -> post(CHECKOUT, "/cart/checkout",
+                                            body("customerId", customerId, "deliveryAddress", "Caracas",
+                                                    "cardToken", t.path("token").asText()),
+                                            true, System.nanoTime(), measured)));
+                })
+                .handle((order, err) -> {
+                    if (err != null) return Outcome.ERROR;
+                    return "PAID".equals(order.path("status").asText()) ? Outcome.PAID : Outcome.FAILED;
+                });
+    }
+
+    private CompletableFuture<JsonNode> post(String endpoint, String path, Map<String, Object> body,
+            boolean authenticated, long startNanos, boolean measured) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(write(body)));
+        if (authenticated) {
+            request.header("X-API-KEY", apiKey);
+        }
+        EndpointStats s = stats.get(endpoint);
+        return http.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray())
+                .handle((res, err) -> {
+                    long latency = System.nanoTime() - startNanos;
+                    if (err != null) {
+                        Throwable cause = err instanceof CompletionException && err.getCause() != null
+                                ? err.getCause() : err;
+                        if (measured) s.failure(cause.getClass().getSimpleName());
+                        throw new CompletionException(cause);
+                    }
+                    if (res.statusCode() / 100 != 2) {
+                        if (measured) s.failure(String.valueOf(res.statusCode()));
+                        throw new CompletionException(new IOException(endpoint + " → " + res.statusCode()));
+                    }
+                    if (measured) s.success(latency);
+                    return read(res.body());
+                });
+    }
+
+    private static Map<String, Object> body(Object... pairs) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            m.put((String) pairs[i], pairs[i + 1]);
+        }
+        return m;
+    }
+
+    private byte[] write(Object body) {
+        try {
+            return json.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private JsonNode read(byte[] body) {
+        try {
+            return body.length == 0 ? json.nullNode() : json.readTree(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
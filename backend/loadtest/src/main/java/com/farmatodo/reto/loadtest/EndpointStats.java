@@ -0,0 +1,55 @@
+package com.farmatodo.reto.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies (microseconds, 3 significant digits) and failures of one endpoint. Only requests
+ * of journeys that arrived after the warmup are recorded.
+ */
+public class EndpointStats {
+
+    private static final long MAX_MICROS = 3_600_000_000L;
+
+    private final String name;
+    private final Histogram latency = new ConcurrentHistogram(1, MAX_MICROS, 3);
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    public EndpointStats(String name) {
+        this.name = name;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /** A 2xx answer; latency measured from when the request was meant to be sent */
+    public void success(long latencyNanos) {
+        latency.recordValue(Math.min(MAX_MICROS, Math.max(1, latencyNanos / 1_000)));
+    }
+
+    /** An HTTP error status, or the exception class for timeouts and connection failures */
+    public void failure(String cause) {
+        errors.computeIfAbsent(cause, k -> new LongAdder()).increment();
+    }
+
+    public Histogram latency() {
+        return latency;
+    }
+
+    public long errorCount() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    /** Failures by cause, e.g. {503=12, HttpTimeoutException=3} */
+    public Map<String, Long> errorsByCause() {
+        Map<String, Long> out = new TreeMap<>();
+        errors.forEach((k, v) -> out.put(k, v.sum()));
+        return out;
+    }
+}
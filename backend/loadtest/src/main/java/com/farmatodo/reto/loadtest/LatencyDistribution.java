@@ -0,0 +1,29 @@
+package com.farmatodo.reto.loadtest;
+
+import java.util.Random;
+
+/**
+ * Log-normal latency given by its median and 99th percentile, the usual shape of a remote
+ * dependency: most calls near the median and a long right tail. With p99 <= median every
+ * sample is the median.
+ */
+public record LatencyDistribution(double medianMs, double p99Ms) {
+
+    // Cuantil 0.99 de la normal estándar
+    private static final double Z99 = 2.3263478740408408;
+    private static final double MAX_MS = 60_000;
+
+    public LatencyDistribution {
+        if (medianMs < 0 || p99Ms < 0) {
+            throw new IllegalArgumentException("latencias negativas");
+        }
+    }
+
+    public long sampleMillis(Random random) {
+        if (medianMs == 0 || p99Ms <= medianMs) {
+            return Math.round(medianMs);
+        }
+        double sigma = Math.log(p99Ms / medianMs) / Z99;
+        return Math.round(Math.min(MAX_MS, medianMs * Math.exp(sigma * random.nextGaussian())));
+    }
+}
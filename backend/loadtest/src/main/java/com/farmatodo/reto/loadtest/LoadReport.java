@@ -0,0 +1,63 @@
+package com.farmatodo.reto.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+
+/**
+ * Per-endpoint throughput and latency table, plus journey, gateway and SMTP totals. Throughput
+ * is successful requests over the measured window; percentiles are in milliseconds.
+ */
+public class LoadReport {
+
+    private LoadReport() {}
+
+    public static void print(PrintStream out, LoadTestConfig config, LoadRun.Result result,
+            Collection<EndpointStats> endpoints, PaymentGatewayStub gateway, SmtpSink smtp) {
+        out.printf("%n== %.1f viajes/s (%s), %d s medidos tras %d s de calentamiento ==%n", config.rate(),
+                config.arrivals().name().toLowerCase(), config.duration().toSeconds(), config.warmup().toSeconds());
+        out.printf("%-22s %8s %8s %8s %9s %9s %9s %9s %9s%n",
+                "endpoint", "ok", "errores", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (EndpointStats s : endpoints) {
+            Histogram h = s.latency();
+            out.printf("%-22s %8d %8d %8.2f %9.1f %9.1f %9.1f %9.1f %9.1f%n", s.name(), h.getTotalCount(),
+                    s.errorCount(), h.getTotalCount() / result.measuredSeconds(), ms(h, 50), ms(h, 90), ms(h, 99),
+                    ms(h, 99.9), h.getMaxValue() / 1000.0);
+        }
+        out.printf("viajes: %d iniciados, %d PAID, %d FAILED, %d con error, %d descartados, %d sin terminar%n",
+                result.started(), result.outcomes().get(CheckoutJourney.Outcome.PAID),
+                result.outcomes().get(CheckoutJourney.Outcome.FAILED),
+                result.outcomes().get(CheckoutJourney.Outcome.ERROR), result.dropped(), result.unfinished());
+        if (gateway != null) {
+            out.printf("pasarela: %d aprobados, %d rechazados, %d errores%n",
+                    gateway.approved(), gateway.declined(), gateway.failed());
+        }
+        if (smtp != null) {
+            out.printf("smtp: %d correos%n", smtp.messages());
+        }
+        for (EndpointStats s : endpoints) {
+            if (s.errorCount() > 0) {
+                out.printf("errores %s: %s%n", s.name(), s.errorsByCause());
+            }
+        }
+    }
+
+    /** One HdrHistogram percentile file per endpoint (values in ms), e.g. POST_cart_checkout.hgrm */
+    public static void writeHistograms(Path dir, Collection<EndpointStats> endpoints) throws IOException {
+        Files.createDirectories(dir);
+        for (EndpointStats s : endpoints) {
+            Path file = dir.resolve(s.name().replaceAll("[^A-Za-z0-9]+", "_") + ".hgrm");
+            try (PrintStream ps = new PrintStream(Files.newOutputStream(file))) {
+                s.latency().outputPercentileDistribution(ps, 1000.0);
+            }
+        }
+    }
+
+    private static double ms(Histogram h, double percentile) {
+        return h.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
@@ -0,0 +1,72 @@
+package com.farmatodo.reto.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model driver: starts a journey at every arrival of the schedule whether or not earlier
+ * journeys have finished. Past max-in-flight an arrival is dropped and counted rather than
+ * delayed, which would silently turn the test into a closed one.
+ */
+public class LoadRun {
+
+    /** Journey counts over the measured window */
+    public record Result(long started, long dropped, long unfinished, Map<CheckoutJourney.Outcome, Long> outcomes,
+            double measuredSeconds) {}
+
+    private final LoadTestConfig config;
+    private final CheckoutJourney journey;
+
+    public LoadRun(LoadTestConfig config, CheckoutJourney journey) {
+        this.config = config;
+        this.journey = journey;
+    }
+
+    public Result execute() throws InterruptedException {
+        ArrivalSchedule schedule = new ArrivalSchedule(config.arrivals(), config.rate(), config.seed());
+        AtomicInteger inFlight = new AtomicInteger();
+        Map<CheckoutJourney.Outcome, LongAdder> outcomes = new EnumMap<>(CheckoutJourney.Outcome.class);
+        for (CheckoutJourney.Outcome o : CheckoutJourney.Outcome.values()) {
+            outcomes.put(o, new LongAdder());
+        }
+        long started = 0;
+        long dropped = 0;
+
+        long start = System.nanoTime();
+        long warmupEnd = start + config.warmup().toNanos();
+        long end = warmupEnd + config.duration().toNanos();
+        for (long n = 0; ; n++) {
+            long intended = start + schedule.nextOffsetNanos();
+            if (intended - end >= 0) break;
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = intended - warmupEnd >= 0;
+            if (inFlight.get() >= config.maxInFlight()) {
+                if (measured) dropped++;
+                continue;
+            }
+            if (measured) started++;
+            inFlight.incrementAndGet();
+            long productId = config.productIds().get((int) (n % config.productIds().size()));
+            journey.run(n, productId, intended, measured).whenComplete((outcome, err) -> {
+                inFlight.decrementAndGet();
+                if (measured) outcomes.get(outcome != null ? outcome : CheckoutJourney.Outcome.ERROR).increment();
+            });
+        }
+
+        // Se espera a los viajes en curso; los que no terminan a tiempo se reportan aparte
+        long drainUntil = System.nanoTime() + config.drain().toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() - drainUntil < 0) {
+            Thread.sleep(50);
+        }
+
+        Map<CheckoutJourney.Outcome, Long> counts = new EnumMap<>(CheckoutJourney.Outcome.class);
+        outcomes.forEach((k, v) -> counts.put(k, v.sum()));
+        return new Result(started, dropped, inFlight.get(), counts, config.duration().toNanos() / 1e9);
+    }
+}
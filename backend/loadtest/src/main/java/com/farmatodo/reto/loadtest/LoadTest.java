@@ -0,0 +1,75 @@
+package com.farmatodo.reto.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * End-to-end load test of the purchase flow. Starts the payment gateway and SMTP stubs, waits
+ * for the API to answer, drives it at the configured arrival rate and prints a per-endpoint
+ * report. The API must already be running with payment.gateway.url and spring.mail.port pointing
+ * at the stubs, and ratelimit.enabled=false (see loadtest-e2e.sh).
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config;
+        try {
+            config = LoadTestConfig.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(64);
+            return;
+        }
+
+        PaymentGatewayStub gateway = config.gatewayPort() > 0
+                ? PaymentGatewayStub.start(config.gatewayPort(), config.gatewayLatency(),
+                        config.gatewayRejectRate(), config.gatewayErrorRate(), config.seed())
+                : null;
+        SmtpSink smtp = config.smtpPort() > 0 ? SmtpSink.start(config.smtpPort()) : null;
+        try {
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            if (!awaitReady(http, config)) {
+                System.err.printf("La API no respondió en %s después de %d s%n", config.baseUrl(),
+                        config.readyTimeout().toSeconds());
+                System.exit(2);
+            }
+
+            CheckoutJourney journey = new CheckoutJourney(http, config.baseUrl(), config.apiKey());
+            System.out.printf("▶ %s: %.1f viajes/s durante %d s (+%d s de calentamiento)%n", config.baseUrl(),
+                    config.rate(), config.duration().toSeconds(), config.warmup().toSeconds());
+            LoadRun.Result result = new LoadRun(config, journey).execute();
+
+            LoadReport.print(System.out, config, result, journey.stats().values(), gateway, smtp);
+            LoadReport.writeHistograms(config.out(), journey.stats().values());
+            System.out.println("Histogramas en " + config.out().toAbsolutePath());
+        } finally {
+            if (gateway != null) gateway.close();
+            if (smtp != null) smtp.close();
+        }
+    }
+
+    // GET /products es público y pasa por la BD, así que un 200 indica que la API está lista
+    private static boolean awaitReady(HttpClient http, LoadTestConfig config) throws InterruptedException {
+        HttpRequest probe = HttpRequest.newBuilder(URI.create(config.baseUrl() + "/products?q=a"))
+                .timeout(Duration.ofSeconds(5)).GET().build();
+        long deadline = System.nanoTime() + config.readyTimeout().toNanos();
+        while (System.nanoTime() - deadline < 0) {
+            try {
+                if (http.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return true;
+                }
+            } catch (IOException e) {
+                // todavía arrancando
+            }
+            Thread.sleep(500);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,107 @@
+package com.farmatodo.reto.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Options of a run, from {@code --name=value} arguments. Rates are journeys (register →
+ * tokenize → cart → checkout) started per second, independent of how fast the API answers.
+ */
+public record LoadTestConfig(
+        String baseUrl,
+        String apiKey,
+        double rate,
+        ArrivalSchedule.Kind arrivals,
+        Duration warmup,
+        Duration duration,
+        Duration drain,
+        Duration readyTimeout,
+        int maxInFlight,
+        List<Long> productIds,
+        long seed,
+        int gatewayPort,
+        LatencyDistribution gatewayLatency,
+        double gatewayRejectRate,
+        double gatewayErrorRate,
+        int smtpPort,
+        Path out) {
+
+    static final String USAGE = """
+            Uso: java -jar loadtest.jar [--opción=valor ...]
+              --base-url=http://localhost:8080   API bajo prueba
+              --api-key=SECRET123                X-API-KEY para tokens y carrito
+              --rate=5                           viajes iniciados por segundo (ciclo abierto)
+              --arrivals=poisson                 poisson | uniform
+              --warmup=10 --duration=60          segundos; el calentamiento no se mide
+              --drain=30                         segundos de espera a los viajes en curso al final
+              --ready-timeout=120                segundos esperando a que la API responda
+              --max-in-flight=2000               viajes simultáneos; los que sobran se descartan
+              --products=1                       ids de producto con stock, separados por coma
+              --seed=42                          semilla de llegadas y de la pasarela
+              --gateway-port=9099                stub de pasarela: POST /charge (0 = no levantarlo)
+              --gateway-median-ms=80 --gateway-p99-ms=400   latencia log-normal de la pasarela
+              --gateway-reject-rate=0.3          fracción de cobros rechazados (402)
+              --gateway-error-rate=0             fracción de cobros con error (503)
+              --smtp-port=2525                   SMTP falso (0 = no levantarlo)
+              --out=build/loadtest               histogramas .hgrm por endpoint
+            """;
+
+    private static final Set<String> KNOWN = Set.of("base-url", "api-key", "rate", "arrivals", "warmup",
+            "duration", "drain", "ready-timeout", "max-in-flight", "products", "seed", "gateway-port",
+            "gateway-median-ms", "gateway-p99-ms", "gateway-reject-rate", "gateway-error-rate", "smtp-port", "out");
+
+    public LoadTestConfig {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("rate debe ser > 0");
+        }
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("max-in-flight debe ser > 0");
+        }
+        if (productIds.isEmpty()) {
+            throw new IllegalArgumentException("products no puede estar vacío");
+        }
+        if (gatewayRejectRate < 0 || gatewayErrorRate < 0 || gatewayRejectRate + gatewayErrorRate > 1) {
+            throw new IllegalArgumentException("gateway-reject-rate + gateway-error-rate debe estar en [0, 1]");
+        }
+    }
+
+    public static LoadTestConfig parse(String... args) {
+        Map<String, String> o = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0 || !KNOWN.contains(arg.substring(2, eq))) {
+                throw new IllegalArgumentException("Opción desconocida: " + arg + "\n" + USAGE);
+            }
+            o.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return new LoadTestConfig(
+                o.getOrDefault("base-url", "http://localhost:8080").replaceAll("/+$", ""),
+                o.getOrDefault("api-key", "SECRET123"),
+                Double.parseDouble(o.getOrDefault("rate", "5")),
+                ArrivalSchedule.Kind.valueOf(o.getOrDefault("arrivals", "poisson").toUpperCase()),
+                seconds(o.getOrDefault("warmup", "10")),
+                seconds(o.getOrDefault("duration", "60")),
+                seconds(o.getOrDefault("drain", "30")),
+                seconds(o.getOrDefault("ready-timeout", "120")),
+                Integer.parseInt(o.getOrDefault("max-in-flight", "2000")),
+                Arrays.stream(o.getOrDefault("products", "1").split(",")).map(String::trim)
+                        .filter(s -> !s.isEmpty()).map(Long::valueOf).toList(),
+                Long.parseLong(o.getOrDefault("seed", "42")),
+                Integer.parseInt(o.getOrDefault("gateway-port", "9099")),
+                new LatencyDistribution(Double.parseDouble(o.getOrDefault("gateway-median-ms", "80")),
+                        Double.parseDouble(o.getOrDefault("gateway-p99-ms", "400"))),
+                Double.parseDouble(o.getOrDefault("gateway-reject-rate", "0.3")),
+                Double.parseDouble(o.getOrDefault("gateway-error-rate", "0")),
+                Integer.parseInt(o.getOrDefault("smtp-port", "2525")),
+                Path.of(o.getOrDefault("out", "build/loadtest")));
+    }
+
+    private static Duration seconds(String value) {
+        return Duration.ofMillis(Math.round(Double.parseDouble(value) * 1000));
+    }
+}
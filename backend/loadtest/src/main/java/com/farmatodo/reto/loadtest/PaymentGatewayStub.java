@@ -0,0 +1,115 @@
+package com.farmatodo.reto.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stand-in for the card processor. POST /charge answers 200 (approved), 402 (declined) or 503
+ * (gateway error) after a log-normal delay; replies are scheduled instead of slept, so a slow
+ * gateway ties up no threads here. The API uses it with payment.gateway.url=http://host:port/charge.
+ */
+public class PaymentGatewayStub implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService handlers;
+    private final ScheduledExecutorService replies;
+    private final LatencyDistribution latency;
+    private final double rejectRate;
+    private final double errorRate;
+    private final Random random;
+    private final LongAdder approved = new LongAdder();
+    private final LongAdder declined = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private PaymentGatewayStub(int port, LatencyDistribution latency, double rejectRate, double errorRate, long seed)
+            throws IOException {
+        this.latency = latency;
+        this.rejectRate = rejectRate;
+        this.errorRate = errorRate;
+        this.random = new Random(seed);
+        this.handlers = Executors.newFixedThreadPool(4, daemon("gateway-http"));
+        this.replies = Executors.newScheduledThreadPool(2, daemon("gateway-reply"));
+        this.server = HttpServer.create(new InetSocketAddress(port), 1024);
+        this.server.createContext("/charge", this::charge);
+        this.server.setExecutor(handlers);
+        this.server.start();
+    }
+
+    public static PaymentGatewayStub start(int port, LatencyDistribution latency, double rejectRate,
+            double errorRate, long seed) throws IOException {
+        return new PaymentGatewayStub(port, latency, rejectRate, errorRate, seed);
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public long approved() {
+        return approved.sum();
+    }
+
+    public long declined() {
+        return declined.sum();
+    }
+
+    public long failed() {
+        return failed.sum();
+    }
+
+    private void charge(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            reply(exchange, 405);
+            return;
+        }
+        double u;
+        long delayMs;
+        synchronized (random) {
+            u = random.nextDouble();
+            delayMs = latency.sampleMillis(random);
+        }
+        int status = u < errorRate ? 503 : u < errorRate + rejectRate ? 402 : 200;
+        replies.schedule(() -> reply(exchange, status), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void reply(HttpExchange exchange, int status) {
+        switch (status) {
+            case 200 -> approved.increment();
+            case 402 -> declined.increment();
+            case 503 -> failed.increment();
+            default -> { }
+        }
+        try {
+            exchange.sendResponseHeaders(status, -1);
+        } catch (IOException e) {
+            // el cliente ya se fue (timeout); no hay a quién responder
+        } finally {
+            exchange.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        replies.shutdownNow();
+        handlers.shutdownNow();
+    }
+
+    static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
@@ -0,0 +1,105 @@
+package com.farmatodo.reto.loadtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Minimal SMTP server that accepts every message and only counts it, so the order e-mails
+ * the API sends during checkout succeed without a real relay (spring.mail.host/port).
+ */
+public class SmtpSink implements AutoCloseable {
+
+    private final ServerSocket server;
+    private final ExecutorService sessions = Executors.newCachedThreadPool(PaymentGatewayStub.daemon("smtp-session"));
+    private final LongAdder messages = new LongAdder();
+
+    private SmtpSink(int port) throws IOException {
+        this.server = new ServerSocket();
+        this.server.setReuseAddress(true);
+        this.server.bind(new InetSocketAddress(port), 256);
+        Thread acceptor = PaymentGatewayStub.daemon("smtp-accept").newThread(this::acceptLoop);
+        acceptor.start();
+    }
+
+    public static SmtpSink start(int port) throws IOException {
+        return new SmtpSink(port);
+    }
+
+    public int port() {
+        return server.getLocalPort();
+    }
+
+    /** Messages received so far */
+    public long messages() {
+        return messages.sum();
+    }
+
+    private void acceptLoop() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                sessions.execute(() -> session(socket));
+            } catch (IOException e) {
+                // close() cierra el socket y termina el ciclo
+            }
+        }
+    }
+
+    private void session(Socket socket) {
+        try (socket) {
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+            OutputStream out = socket.getOutputStream();
+            reply(out, "220 smtp-sink ESMTP");
+            boolean inData = false;
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (inData) {
+                    if (line.equals(".")) {
+                        inData = false;
+                        messages.increment();
+                        reply(out, "250 OK");
+                    }
+                    continue;
+                }
+                String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase(Locale.ROOT) : line;
+                switch (command) {
+                    case "EHLO", "HELO" -> reply(out, "250 smtp-sink");
+                    case "MAIL", "RCPT", "RSET", "NOOP" -> reply(out, "250 OK");
+                    case "DATA" -> {
+                        inData = true;
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                    }
+                    case "QUIT" -> {
+                        reply(out, "221 Bye");
+                        return;
+                    }
+                    default -> reply(out, "502 Command not implemented");
+                }
+            }
+        } catch (IOException e) {
+            // conexión cortada por el cliente
+        }
+    }
+
+    private static void reply(OutputStream out, String line) throws IOException {
+        out.write((line + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        sessions.shutdownNow();
+    }
+}
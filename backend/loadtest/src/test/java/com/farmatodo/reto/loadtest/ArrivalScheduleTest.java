@@ -0,0 +1,36 @@
+package com.farmatodo.reto.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArrivalScheduleTest {
+
+    @Test
+    void uniform_shouldSpaceArrivalsEvenly() {
+        // Arrange
+        ArrivalSchedule schedule = new ArrivalSchedule(ArrivalSchedule.Kind.UNIFORM, 4, 1);
+
+        // Act & Assert
+        assertEquals(0, schedule.nextOffsetNanos());
+        assertEquals(250_000_000L, schedule.nextOffsetNanos());
+        assertEquals(500_000_000L, schedule.nextOffsetNanos());
+    }
+
+    @Test
+    void poisson_shouldKeepTheMeanRateAndBeReproducible() {
+        // Arrange
+        ArrivalSchedule a = new ArrivalSchedule(ArrivalSchedule.Kind.POISSON, 100, 42);
+        ArrivalSchedule b = new ArrivalSchedule(ArrivalSchedule.Kind.POISSON, 100, 42);
+
+        // Act
+        long last = 0;
+        for (int i = 0; i < 10_000; i++) {
+            last = a.nextOffsetNanos();
+            assertEquals(last, b.nextOffsetNanos());
+        }
+
+        // Assert: 10 000 llegadas a 100/s ≈ 100 s
+        assertEquals(100.0, last / 1e9, 3.0);
+    }
+}
@@ -0,0 +1,59 @@
+package com.farmatodo.reto.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentGatewayStubTest {
+
+    @Test
+    void charge_shouldAnswerWithConfiguredRates() throws Exception {
+        // Arrange
+        HttpClient http = HttpClient.newHttpClient();
+        try (PaymentGatewayStub gateway = PaymentGatewayStub.start(0, new LatencyDistribution(0, 0), 0.3, 0.1, 7)) {
+            HttpRequest charge = HttpRequest.newBuilder(URI.create("http://localhost:" + gateway.port() + "/charge"))
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"cardToken\":\"t\",\"amount\":10.00}"))
+                    .build();
+
+            // Act
+            int ok = 0;
+            for (int i = 0; i < 500; i++) {
+                int status = http.send(charge, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (status == 200) ok++;
+            }
+
+            // Assert: ~60% aprobados, ~30% rechazados (402), ~10% con error (503)
+            assertEquals(500, gateway.approved() + gateway.declined() + gateway.failed());
+            assertEquals(ok, gateway.approved());
+            assertTrue(gateway.approved() > 240 && gateway.approved() < 360, "aprobados " + gateway.approved());
+            assertTrue(gateway.declined() > 100 && gateway.declined() < 200, "rechazados " + gateway.declined());
+            assertTrue(gateway.failed() > 20 && gateway.failed() < 80, "errores " + gateway.failed());
+        }
+    }
+
+    @Test
+    void latencyDistribution_shouldMatchMedianAndP99() {
+        // Arrange
+        LatencyDistribution latency = new LatencyDistribution(80, 400);
+        Random random = new Random(1);
+
+        // Act
+        long[] samples = new long[20_000];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = latency.sampleMillis(random);
+        }
+        Arrays.sort(samples);
+
+        // Assert
+        assertEquals(80, samples[samples.length / 2], 5);
+        assertEquals(400, samples[(int) (samples.length * 0.99)], 40);
+        assertEquals(25, new LatencyDistribution(25, 0).sampleMillis(random));
+    }
+}
@@ -0,0 +1,45 @@
+package com.farmatodo.reto.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SmtpSinkTest {
+
+    @Test
+    void session_shouldAcceptAndCountMessages() throws Exception {
+        try (SmtpSink sink = SmtpSink.start(0);
+             Socket socket = new Socket("localhost", sink.port())) {
+            // Arrange
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            OutputStream out = socket.getOutputStream();
+            assertTrue(in.readLine().startsWith("220"));
+
+            // Act: dos mensajes en la misma sesión, como hace JavaMail al reutilizar la conexión
+            assertEquals('2', send(out, in, "EHLO api").charAt(0));
+            for (int i = 0; i < 2; i++) {
+                assertEquals('2', send(out, in, "MAIL FROM:<noreply@farmatodo.com>").charAt(0));
+                assertEquals('2', send(out, in, "RCPT TO:<cliente@example.com>").charAt(0));
+                assertEquals('3', send(out, in, "DATA").charAt(0));
+                assertEquals('2', send(out, in, "Subject: Orden pagada\r\n\r\nGracias\r\n.").charAt(0));
+            }
+            String bye = send(out, in, "QUIT");
+
+            // Assert
+            assertTrue(bye.startsWith("221"));
+            assertEquals(2, sink.messages());
+        }
+    }
+
+    private static String send(OutputStream out, BufferedReader in, String lines) throws Exception {
+        out.write((lines + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        return in.readLine();
+    }
+}
@@ -0,0 +1,71 @@
+package com.farmatodo.reto.controller;
+
+import com.farmatodo.reto.dto.ProductView;
+import com.farmatodo.reto.entity.Product;
+import com.farmatodo.reto.service.ProductJsonCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of a GET /products response body: {@code size} products written to
+ * bytes. {@code entities} is the previous body (JPA entities through a plain ObjectMapper),
+ * {@code views} the response records through Blackbird and {@code cached} the concatenation
+ * of precomputed bytes that ProductController serves.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductJsonBenchmark {
+
+  @Param({"20", "500"})
+  int size;
+
+  private List<Product> products;
+  private ObjectWriter entityWriter;
+  private ObjectWriter viewWriter;
+  private ProductJsonCache cache;
+
+  @Setup
+  public void setUp() {
+    ObjectMapper plain = Jackson2ObjectMapperBuilder.json().build();
+    ObjectMapper tuned = Jackson2ObjectMapperBuilder.json().modulesToInstall(new BlackbirdModule()).build();
+    entityWriter = plain.writerFor(plain.getTypeFactory().constructCollectionType(List.class, Product.class));
+    viewWriter = tuned.writerFor(tuned.getTypeFactory().constructCollectionType(List.class, ProductView.class));
+    cache = new ProductJsonCache(tuned, 10_000, new SimpleMeterRegistry());
+
+    products = new ArrayList<>(size);
+    for (long id = 1; id <= size; id++) {
+      Product p = new Product();
+      p.setId(id);
+      p.setName("Acetaminofén 500mg x " + id);
+      p.setDescription("Analgésico y antipirético, caja con " + (id % 40 + 10) + " tabletas");
+      p.setPrice(new BigDecimal("3.49").add(BigDecimal.valueOf(id, 2)));
+      p.setStock((int) (id * 7 % 300));
+      products.add(p);
+    }
+  }
+
+  @Benchmark
+  public byte[] entities() throws Exception {
+    return entityWriter.writeValueAsBytes(products);
+  }
+
+  @Benchmark
+  public byte[] views() throws Exception {
+    return viewWriter.writeValueAsBytes(products.stream().map(ProductView::of).toList());
+  }
+
+  @Benchmark
+  public byte[] cached() {
+    return cache.writeArray(products.stream().map(ProductView::of).toList());
+  }
+}
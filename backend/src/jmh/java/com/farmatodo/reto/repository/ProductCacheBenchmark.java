@@ -0,0 +1,135 @@
+package com.farmatodo.reto.repository;
+
+import com.farmatodo.reto.entity.Product;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One shopper against an in-memory H2: search, add {@link #ITEMS} products to the cart,
+ * check out. {@code cached=false} runs the old data access (findAllById-style IN queries,
+ * stock written through the entity); {@code cached=true} runs the second-level/query
+ * cache path with the conditional stock UPDATE and its eviction. SQL statements per flow
+ * are printed when the trial ends.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductCacheBenchmark {
+
+  private static final int CATALOG = 50;
+  private static final int ITEMS = 3;
+  private static final LongAdder STATEMENTS = new LongAdder();
+
+  @Param({"false", "true"})
+  boolean cached;
+
+  private SessionFactory sessionFactory;
+
+  private long statements;
+  private long checkouts;
+
+  @Setup
+  public void setUp() {
+    Configuration cfg = new Configuration()
+        .addAnnotatedClass(Product.class)
+        .setProperty("hibernate.connection.url", "jdbc:h2:mem:catalog-" + cached + ";DB_CLOSE_DELAY=-1")
+        .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+        .setProperty("hibernate.cache.use_second_level_cache", String.valueOf(cached))
+        .setProperty("hibernate.cache.use_query_cache", String.valueOf(cached))
+        .setProperty("hibernate.cache.region.factory_class", "jcache")
+        .setProperty("hibernate.javax.cache.provider", "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider")
+        .setProperty("hibernate.javax.cache.uri", "hibernate-cache.conf");
+    cfg.setStatementInspector(sql -> {
+      STATEMENTS.increment();
+      return sql;
+    });
+    sessionFactory = cfg.buildSessionFactory();
+    sessionFactory.inTransaction(s -> {
+      for (int i = 1; i <= CATALOG; i++) {
+        Product p = new Product();
+        p.setName("Acetaminofén " + i);
+        p.setDescription("Caja x " + i);
+        p.setPrice(new BigDecimal("3.50").add(BigDecimal.valueOf(i)));
+        p.setStock(Integer.MAX_VALUE);
+        s.persist(p);
+      }
+    });
+  }
+
+  @TearDown
+  public void tearDown() {
+    System.out.printf("%n[cached=%s] viajes a la BD por compra: %.2f%n", cached, (double) statements / checkouts);
+    sessionFactory.close();
+  }
+
+  @Benchmark
+  public int checkoutFlow() {
+    long before = STATEMENTS.sum();
+    List<Long> picked = new ArrayList<>(ITEMS);
+    ThreadLocalRandom rnd = ThreadLocalRandom.current();
+    for (int i = 0; i < ITEMS; i++) {
+      picked.add(1L + rnd.nextInt(CATALOG));
+    }
+
+    // GET /products?q=
+    int found = sessionFactory.fromTransaction(s -> s
+        .createSelectionQuery("from Product p where lower(p.name) like :q and p.stock >= 0", Product.class)
+        .setParameter("q", "%acetaminof%")
+        .setCacheable(true)
+        .setCacheRegion(Product.SEARCH_CACHE_REGION)
+        .getResultList().size());
+
+    // POST /cart/items, uno por producto
+    for (Long id : picked) {
+      sessionFactory.inTransaction(s -> {
+        if (cached) {
+          s.find(Product.class, id);
+        } else {
+          byIds(s, List.of(id));
+        }
+      });
+    }
+
+    // POST /orders
+    sessionFactory.inTransaction(s -> {
+      if (cached) {
+        s.byMultipleIds(Product.class).with(CacheMode.NORMAL).enableSessionCheck(true).multiLoad(picked);
+        // JDBC directo, como el JdbcTemplate de decrementStock: Hibernate no vacía regiones por su cuenta
+        s.doWork(conn -> {
+          try (var ps = conn.prepareStatement("update product set stock = stock - 1 where id = ? and stock >= 1")) {
+            for (Long id : picked) {
+              ps.setLong(1, id);
+              ps.executeUpdate();
+              STATEMENTS.increment();
+            }
+          }
+        });
+        picked.forEach(id -> sessionFactory.getCache().evictEntityData(Product.class, id));
+        sessionFactory.getCache().evictQueryRegion(Product.SEARCH_CACHE_REGION);
+      } else {
+        for (Product p : byIds(s, picked)) {
+          p.setStock(p.getStock() - 1);
+        }
+      }
+    });
+
+    statements += STATEMENTS.sum() - before;
+    checkouts++;
+    return found;
+  }
+
+  private static List<Product> byIds(Session s, List<Long> ids) {
+    return s.createSelectionQuery("from Product p where p.id in :ids", Product.class)
+        .setParameter("ids", ids).getResultList();
+  }
+}
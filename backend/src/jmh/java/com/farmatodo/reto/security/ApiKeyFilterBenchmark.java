@@ -0,0 +1,66 @@
+package com.farmatodo.reto.security;
+
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of ApiKeyFilter with 10k registered keys: a protected route with a
+ * valid key, a public route, and {@code baseline} (same mock request, no filter), so
+ * the overhead is {@code filter - baseline} in ns/op.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ApiKeyFilterBenchmark {
+
+  private static final FilterChain NOOP = (req, res) -> { };
+
+  private ApiKeyFilter filter;
+  private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    List<ApiKeyRegistry.Entry> keys = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      keys.add(new ApiKeyRegistry.Entry("client-" + i, ApiKeyRegistry.sha256Hex("key-" + i)));
+    }
+    ApiKeyRegistry registry = new ApiKeyRegistry("SECRET123", null, () -> keys);
+    registry.reload();
+    filter = new ApiKeyFilter(registry, List.of());
+  }
+
+  private static MockHttpServletRequest request(String method, String uri) {
+    MockHttpServletRequest r = new MockHttpServletRequest(method, uri);
+    r.addHeader("X-API-KEY", "key-4242");
+    return r;
+  }
+
+  @Benchmark
+  public Object baseline() throws Exception {
+    MockHttpServletRequest r = request("POST", "/orders");
+    NOOP.doFilter(r, response);
+    return r;
+  }
+
+  @Benchmark
+  public Object protectedRoute() throws Exception {
+    MockHttpServletRequest r = request("POST", "/orders");
+    filter.doFilter(r, response, NOOP);
+    SecurityContextHolder.clearContext();
+    return r;
+  }
+
+  @Benchmark
+  public Object publicRoute() throws Exception {
+    MockHttpServletRequest r = request("GET", "/products/12");
+    filter.doFilter(r, response, NOOP);
+    return r;
+  }
+}
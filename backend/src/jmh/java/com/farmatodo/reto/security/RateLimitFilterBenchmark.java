@@ -0,0 +1,72 @@
+package com.farmatodo.reto.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of RateLimitFilter on an allowed request (limits set high enough that
+ * nothing is rejected), against {@code baseline} which builds the same request and
+ * runs the chain without the filter. {@code acquire} is the limiter alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(4)
+public class RateLimitFilterBenchmark {
+
+  private static final FilterChain NOOP = (req, res) -> { };
+
+  private RateLimiter limiter;
+  private RateLimitFilter filter;
+
+  @State(Scope.Thread)
+  public static class Client {
+    final MockHttpServletResponse response = new MockHttpServletResponse();
+    long customerId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      customerId = ThreadLocalRandom.current().nextLong(1, 1_000);
+      SecurityContextHolder.getContext().setAuthentication(
+          new UsernamePasswordAuthenticationToken(customerId, null, List.of()));
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    RateLimiter.Limit generous = new RateLimiter.Limit(TokenBucket.MAX_CAPACITY, 1e9);
+    limiter = new RateLimiter(List.of(
+        new RateLimiter.Rule("POST", "/tokens/**", generous),
+        new RateLimiter.Rule("POST", "/orders", generous)),
+        generous, 100_000, RateLimiter.monotonicClock());
+    filter = new RateLimitFilter(limiter, new SimpleMeterRegistry());
+  }
+
+  @Benchmark
+  public RateLimiter.Decision acquire(Client c) {
+    return limiter.acquire("POST", "/orders", "customer:" + c.customerId);
+  }
+
+  @Benchmark
+  public Object baseline(Client c) throws Exception {
+    MockHttpServletRequest r = new MockHttpServletRequest("POST", "/orders");
+    NOOP.doFilter(r, c.response);
+    return r;
+  }
+
+  @Benchmark
+  public Object filter(Client c) throws Exception {
+    MockHttpServletRequest r = new MockHttpServletRequest("POST", "/orders");
+    filter.doFilter(r, c.response, NOOP);
+    return r;
+  }
+}
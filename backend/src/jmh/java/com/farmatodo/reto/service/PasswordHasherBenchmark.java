@@ -0,0 +1,45 @@
+package com.farmatodo.reto.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login verification through the bounded hashing executor, per bcrypt cost and pool
+ * size. Callers are request threads (@Threads); SampleTime reports p99 including the
+ * time queued, Throughput the logins per second. Vary callers with {@code -t N}, e.g.
+ * {@code java -jar build/libs/*-jmh.jar PasswordHasherBenchmark -t 64}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(16)
+public class PasswordHasherBenchmark {
+
+  @Param({"8", "10", "12"})
+  public int cost;
+
+  @Param({"2", "4"})
+  public int poolThreads;
+
+  private PasswordHasher hasher;
+  private String stored;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    // cola amplia: aquí se mide latencia encolada, no rechazos
+    hasher = new PasswordHasher(cost, poolThreads, 4096, new SimpleMeterRegistry());
+    stored = hasher.hash("benchmark-password").join();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    hasher.close();
+  }
+
+  @Benchmark
+  public PasswordHasher.Verdict login() {
+    return hasher.verify("benchmark-password", stored).join();
+  }
+}
@@ -0,0 +1,43 @@
+package com.farmatodo.reto.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token acquisition under contention: inline UUID.randomUUID() (shared SecureRandom)
+ * against a poll from the pre-generated TokenPool with its refill thread running.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+public class TokenPoolBenchmark {
+
+  private TokenPool pool;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    pool = new TokenPool(65_536, 16_384, ids -> List.of(), new SimpleMeterRegistry());
+    pool.refill();
+    pool.start();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    pool.close();
+  }
+
+  @Benchmark
+  public String inlineUuid() {
+    return UUID.randomUUID().toString();
+  }
+
+  @Benchmark
+  public String pooled() {
+    return pool.take();
+  }
+}
@@ -0,0 +1,40 @@
+package com.farmatodo.reto.service.impl;
+
+import com.farmatodo.reto.dto.CartDtos;
+import com.farmatodo.reto.entity.Cart;
+import com.farmatodo.reto.entity.CartItem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Cart entity to response view mapping, run on every cart read and update */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CartViewBenchmark {
+
+  @Param({"5", "50"})
+  int items;
+
+  private Cart cart;
+
+  @Setup
+  public void setUp() {
+    cart = new Cart();
+    cart.setId(1L);
+    cart.setCustomerId(1L);
+    for (long id = 1; id <= items; id++) {
+      CartItem it = new CartItem();
+      it.setCart(cart);
+      it.setProductId(id);
+      it.setProductName("Producto " + id);
+      it.setQuantity(2);
+      cart.getItems().add(it);
+    }
+  }
+
+  @Benchmark
+  public CartDtos.View toView() {
+    return CartServiceImpl.toView(cart);
+  }
+}
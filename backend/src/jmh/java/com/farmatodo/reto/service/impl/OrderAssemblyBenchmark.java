@@ -0,0 +1,56 @@
+package com.farmatodo.reto.service.impl;
+
+import com.farmatodo.reto.dto.CreateOrderRequest;
+import com.farmatodo.reto.entity.Order;
+import com.farmatodo.reto.entity.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU part of POST /orders: stock checks, OrderItem assembly and the BigDecimal total
+ * for a cart of {@code items} lines, with the products already loaded.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OrderAssemblyBenchmark {
+
+  @Param({"5", "50"})
+  int items;
+
+  private CreateOrderRequest request;
+  private Map<Long, Product> products;
+
+  @Setup
+  public void setUp() {
+    products = new HashMap<>();
+    request = new CreateOrderRequest();
+    request.customerId = 1L;
+    request.deliveryAddress = "Calle 1";
+    request.cardToken = "tok";
+    request.items = new ArrayList<>();
+    for (long id = 1; id <= items; id++) {
+      Product p = new Product();
+      p.setId(id);
+      p.setName("Producto " + id);
+      p.setPrice(new BigDecimal("12.99").add(BigDecimal.valueOf(id)));
+      p.setStock(1_000);
+      products.put(id, p);
+
+      CreateOrderRequest.Item it = new CreateOrderRequest.Item();
+      it.productId = id;
+      it.quantity = (int) (id % 3) + 1;
+      request.items.add(it);
+    }
+  }
+
+  @Benchmark
+  public Order assemble() {
+    return OrderServiceImpl.assemble(request, products);
+  }
+}
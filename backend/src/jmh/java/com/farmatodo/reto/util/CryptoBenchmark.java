@@ -0,0 +1,58 @@
+package com.farmatodo.reto.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Card encryption throughput: the original per-call Cipher setup against the cached
+ * CryptoEngine, for a single card and for a parallel batch like POST /tokens/batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(4)
+public class CryptoBenchmark {
+
+  private static final String SECRET = "1234567890123456";
+  private static final String CARD = "4111111111111111|123|12/25";
+
+  @Param({"100"})
+  int batchSize;
+
+  private List<String> batch;
+
+  @Setup
+  public void setUp() {
+    batch = new ArrayList<>(batchSize);
+    for (int i = 0; i < batchSize; i++) {
+      batch.add(String.format("41111111%08d|%03d|12/25", i, i % 1000));
+    }
+  }
+
+  @Benchmark
+  public String singleLegacy() throws Exception {
+    var key = new SecretKeySpec(SECRET.getBytes(), "AES");
+    var cipher = Cipher.getInstance("AES/ECB/PKCS5Padding");
+    cipher.init(Cipher.ENCRYPT_MODE, key);
+    return Base64.getEncoder().encodeToString(cipher.doFinal(CARD.getBytes()));
+  }
+
+  @Benchmark
+  public String singleEngine() {
+    return CryptoUtil.aesEncrypt(CARD, SECRET);
+  }
+
+  @Benchmark
+  @Threads(1)
+  @OperationsPerInvocation(100)
+  public List<String> batchEngine() {
+    CryptoEngine engine = CryptoEngine.forSecret(SECRET);
+    return batch.parallelStream().map(engine::encrypt).toList();
+  }
+}
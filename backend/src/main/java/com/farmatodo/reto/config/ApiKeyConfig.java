@@ -0,0 +1,23 @@
+package com.farmatodo.reto.config;
+
+import com.farmatodo.reto.repository.ApiKeyRepository;
+import com.farmatodo.reto.security.ApiKeyRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+public class ApiKeyConfig {
+
+    @Bean(initMethod = "reload")
+    public ApiKeyRegistry apiKeyRegistry(ApiKeyRepository repo,
+            @Value("${app.api-key:}") String legacyKey,
+            @Value("${app.api-keys.file:}") String file) {
+        return new ApiKeyRegistry(legacyKey, file.isBlank() ? null : Path.of(file),
+                () -> repo.findByEnabledTrue().stream()
+                        .map(k -> new ApiKeyRegistry.Entry(k.getName(), k.getKeyHash()))
+                        .toList());
+    }
+}
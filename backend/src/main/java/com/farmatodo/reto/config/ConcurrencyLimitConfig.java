@@ -0,0 +1,48 @@
+package com.farmatodo.reto.config;
+
+import com.farmatodo.reto.security.ConcurrencyLimitFilter;
+import com.farmatodo.reto.security.ConcurrencyLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.List;
+
+@Configuration
+@ConditionalOnProperty(prefix = "concurrency", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public ConcurrencyLimitFilter concurrencyLimitFilter(ConcurrencyLimitProperties props, MeterRegistry registry) {
+        List<ConcurrencyLimiter.GroupSpec> groups = props.groups() == null ? List.of() : props.groups().stream()
+                .map(g -> new ConcurrencyLimiter.GroupSpec(g.name(), g.priority(), g.routes(),
+                        g.initialLimit(), g.minLimit(), g.maxLimit()))
+                .toList();
+        ConcurrencyLimiter.Tuning d = ConcurrencyLimiter.Tuning.DEFAULTS;
+        ConcurrencyLimiter.Tuning tuning = new ConcurrencyLimiter.Tuning(
+                props.windowMs() > 0 ? props.windowMs() * 1_000_000L : d.windowNanos(),
+                props.minWindowSamples() > 0 ? props.minWindowSamples() : d.minWindowSamples(),
+                props.rttTolerance() > 0 ? props.rttTolerance() : d.rttTolerance(),
+                props.smoothing() > 0 ? props.smoothing() : d.smoothing(),
+                d.longWindows(),
+                props.lowPriorityShare() > 0 ? props.lowPriorityShare() : d.lowPriorityShare());
+        return new ConcurrencyLimitFilter(new ConcurrencyLimiter(groups, tuning, System::nanoTime), registry);
+    }
+
+    // Como filtro de servlet, justo después de ServerTimingFilter y antes de Spring Security:
+    // lo que se descarta no llega a validar tokens ni a tomar conexión
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilterRegistration(
+            ConcurrencyLimitFilter filter) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> reg = new FilterRegistrationBean<>(filter);
+        reg.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        reg.setDispatcherTypes(DispatcherType.REQUEST);
+        return reg;
+    }
+}
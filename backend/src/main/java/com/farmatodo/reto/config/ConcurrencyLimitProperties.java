@@ -0,0 +1,20 @@
+package com.farmatodo.reto.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/**
+ * concurrency.groups[n].{name,priority,routes,initial-limit,min-limit,max-limit} are checked
+ * in order; each route is {@code "METHOD /path"} or {@code "/path"}, the path exact or
+ * {@code /prefix/**}. Requests no group matches are not limited. The remaining keys tune the
+ * gradient (zero keeps the default).
+ */
+@ConfigurationProperties(prefix = "concurrency")
+public record ConcurrencyLimitProperties(long windowMs, int minWindowSamples, double rttTolerance,
+                                         double smoothing, double lowPriorityShare, List<Group> groups) {
+
+    public record Group(String name, int priority, List<String> routes, int initialLimit, int minLimit,
+                        int maxLimit) {
+    }
+}
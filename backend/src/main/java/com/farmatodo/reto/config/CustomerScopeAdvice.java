@@ -0,0 +1,38 @@
+package com.farmatodo.reto.config;
+
+import com.farmatodo.reto.dto.CustomerScoped;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.lang.reflect.Type;
+
+/**
+ * Copies the customerId of a {@link CustomerScoped} request body into a request attribute,
+ * where code below the controller (e.g. replica routing) can find it without the body.
+ */
+@ControllerAdvice
+public class CustomerScopeAdvice extends RequestBodyAdviceAdapter {
+
+    public static final String CUSTOMER_ATTRIBUTE = CustomerScopeAdvice.class.getName() + ".customerId";
+
+    @Override
+    public boolean supports(MethodParameter parameter, Type targetType,
+            Class<? extends HttpMessageConverter<?>> converterType) {
+        return CustomerScoped.class.isAssignableFrom(parameter.getParameterType());
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter,
+            Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+        RequestAttributes attrs = RequestContextHolder.getRequestAttributes();
+        if (attrs != null && body instanceof CustomerScoped scoped && scoped.customerId() != null) {
+            attrs.setAttribute(CUSTOMER_ATTRIBUTE, scoped.customerId(), RequestAttributes.SCOPE_REQUEST);
+        }
+        return body;
+    }
+}
@@ -0,0 +1,10 @@
+package com.farmatodo.reto.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Map;
+
+/** encryption.kek.active-version and encryption.kek.keys.&lt;version&gt;=&lt;secret&gt; */
+@ConfigurationProperties(prefix = "encryption.kek")
+public record EncryptionProperties(int activeVersion, Map<Integer, String> keys) {
+}
@@ -0,0 +1,42 @@
+package com.farmatodo.reto.config;
+
+import com.farmatodo.reto.service.ProductJsonCache;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.NativeDetector;
+
+/**
+ * Tuning of the ObjectMapper that Spring Boot builds for MVC. Blackbird replaces reflective
+ * getter calls with generated lambdas; it is skipped in a native image, where classes cannot
+ * be defined at runtime.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer jacksonTuning() {
+        return builder -> builder
+                // Los nombres de campo ya se deduplican en la tabla de símbolos; intern() sobra
+                .factory(JsonFactory.builder().disable(JsonFactory.Feature.INTERN_FIELD_NAMES).build())
+                // Sin flush tras cada writeValue: JsonArrayWriter y los converters hacen flush al final
+                .featuresToDisable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .postConfigurer(mapper -> {
+                    if (!NativeDetector.inNativeImage()) {
+                        mapper.registerModule(new BlackbirdModule());
+                    }
+                });
+    }
+
+    @Bean
+    public ProductJsonCache productJsonCache(ObjectMapper mapper, MeterRegistry registry,
+            @Value("${product.json-cache.max-size:10000}") int maxSize) {
+        return new ProductJsonCache(mapper, maxSize, registry);
+    }
+}
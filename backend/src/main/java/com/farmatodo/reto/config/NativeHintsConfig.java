@@ -0,0 +1,63 @@
+package com.farmatodo.reto.config;
+
+import com.farmatodo.reto.util.SqlCountingInspector;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reflection and resource hints for the GraalVM native image (-Pnative). Only read by
+ * Spring AOT at build time; on the JVM it does nothing. Spring infers most hints itself;
+ * this covers what is reached by name or bound reflectively: the DTOs Jackson reads and
+ * writes (public fields, nested holder classes), the entities, the Hibernate statement
+ * inspector and JCache provider configured as class names, and the cache config files.
+ */
+@Configuration
+@ImportRuntimeHints(NativeHintsConfig.Hints.class)
+public class NativeHintsConfig {
+
+    static class Hints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                    scan("com.farmatodo.reto.dto", classLoader).toArray(Class<?>[]::new));
+            for (Class<?> entity : scan("com.farmatodo.reto.entity", classLoader)) {
+                hints.reflection().registerType(entity, MemberCategory.values());
+            }
+            hints.reflection().registerType(SqlCountingInspector.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            hints.reflection().registerType(
+                    TypeReference.of("com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider"),
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            hints.resources().registerPattern("hibernate-cache.conf");
+            hints.resources().registerPattern("reference.conf");
+        }
+
+        /** Every top-level and static nested class in the package */
+        static List<Class<?>> scan(String basePackage, ClassLoader classLoader) {
+            var scanner = new ClassPathScanningCandidateComponentProvider(false) {
+                @Override
+                protected boolean isCandidateComponent(AnnotatedBeanDefinition definition) {
+                    return definition.getMetadata().isIndependent();
+                }
+            };
+            scanner.addIncludeFilter((reader, factory) -> true);
+            List<Class<?>> types = new ArrayList<>();
+            for (BeanDefinition definition : scanner.findCandidateComponents(basePackage)) {
+                types.add(ClassUtils.resolveClassName(definition.getBeanClassName(), classLoader));
+            }
+            return types;
+        }
+    }
+}
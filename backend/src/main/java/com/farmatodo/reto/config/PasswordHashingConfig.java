@@ -0,0 +1,26 @@
+package com.farmatodo.reto.config;
+
+import com.farmatodo.reto.service.PasswordHasher;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class PasswordHashingConfig {
+
+    /**
+     * auth.password.target-ms > 0 calibrates the cost on this machine (never below
+     * auth.password.cost); 0 uses auth.password.cost as is.
+     */
+    @Bean(destroyMethod = "close")
+    public PasswordHasher passwordHasher(MeterRegistry registry,
+            @Value("${auth.password.cost:10}") int cost,
+            @Value("${auth.password.target-ms:0}") long targetMs,
+            @Value("${auth.password.threads:0}") int threads,
+            @Value("${auth.password.queue-capacity:256}") int queueCapacity) {
+        int effectiveCost = targetMs > 0 ? PasswordHasher.calibrate(targetMs, cost) : cost;
+        int effectiveThreads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new PasswordHasher(effectiveCost, effectiveThreads, queueCapacity, registry);
+    }
+}
@@ -0,0 +1,39 @@
+package com.farmatodo.reto.config;
+
+import com.farmatodo.reto.security.RateLimitFilter;
+import com.farmatodo.reto.security.RateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+@ConditionalOnProperty(prefix = "ratelimit", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    @Bean
+    public RateLimitFilter rateLimitFilter(RateLimitProperties props, MeterRegistry registry) {
+        List<RateLimiter.Rule> rules = props.routes() == null ? List.of() : props.routes().stream()
+                .map(r -> new RateLimiter.Rule(r.method(), r.path(),
+                        new RateLimiter.Limit(r.capacity(), r.refillPerSecond())))
+                .toList();
+        RateLimitProperties.Limit d = props.defaultLimit();
+        RateLimiter.Limit defaultLimit = d == null ? null : new RateLimiter.Limit(d.capacity(), d.refillPerSecond());
+        int maxBuckets = props.maxBuckets() > 0 ? props.maxBuckets() : 100_000;
+        return new RateLimitFilter(new RateLimiter(rules, defaultLimit, maxBuckets, RateLimiter.monotonicClock()),
+                registry, props.trustedProxies());
+    }
+
+    // Solo dentro de la cadena de Spring Security (después de autenticar), no como filtro de servlet suelto
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter filter) {
+        FilterRegistrationBean<RateLimitFilter> reg = new FilterRegistrationBean<>(filter);
+        reg.setEnabled(false);
+        return reg;
+    }
+}
@@ -0,0 +1,22 @@
+package com.farmatodo.reto.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/**
+ * ratelimit.default-limit.* applies to any request no route matches (omit it to leave them
+ * unlimited); ratelimit.routes[n].{method,path,capacity,refill-per-second} are checked in
+ * order, path being exact or {@code /prefix/**}. ratelimit.trusted-proxies is how many
+ * proxies in front of the app append to X-Forwarded-For (0 = use the connection address).
+ */
+@ConfigurationProperties(prefix = "ratelimit")
+public record RateLimitProperties(int maxBuckets, Limit defaultLimit, List<Route> routes,
+        int trustedProxies) {
+
+    public record Limit(long capacity, double refillPerSecond) {
+    }
+
+    public record Route(String method, String path, long capacity, double refillPerSecond) {
+    }
+}
@@ -0,0 +1,14 @@
+package com.farmatodo.reto.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/**
+ * datasource.replicas.urls lists the read replicas (JDBC URLs, comma separated); empty
+ * keeps the single-DataSource setup. Credentials default to spring.datasource.*.
+ */
+@ConfigurationProperties(prefix = "datasource.replicas")
+public record ReplicaProperties(List<String> urls, String username, String password, int poolSize,
+        long readYourWritesMs, long healthCheckIntervalMs) {
+}
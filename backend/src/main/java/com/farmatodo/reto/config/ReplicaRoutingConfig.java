@@ -0,0 +1,101 @@
+package com.farmatodo.reto.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Only active when datasource.replicas.urls is set: replaces Boot's single pool with the
+ * primary pool plus one pool per replica behind ReplicaRoutingDataSource.
+ */
+@Configuration
+@ConditionalOnExpression("!'${datasource.replicas.urls:}'.isBlank()")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties props) {
+        HikariDataSource ds = props.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        ds.setPoolName("primary");
+        return ds;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+            DataSourceProperties primaryProps, ReplicaProperties props, MeterRegistry registry) {
+        List<ReplicaRoutingDataSource.Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < props.urls().size(); i++) {
+            String name = "replica-" + i;
+            HikariDataSource ds = new HikariDataSource();
+            ds.setPoolName(name);
+            ds.setJdbcUrl(props.urls().get(i).strip());
+            ds.setUsername(props.username() != null ? props.username() : primaryProps.determineUsername());
+            ds.setPassword(props.password() != null ? props.password() : primaryProps.determinePassword());
+            ds.setMaximumPoolSize(props.poolSize() > 0 ? props.poolSize() : primaryDataSource.getMaximumPoolSize());
+            ds.setReadOnly(true);
+            // Una réplica caída no debe impedir el arranque: queda fuera hasta el próximo chequeo
+            ds.setInitializationFailTimeout(-1);
+            replicas.add(new ReplicaRoutingDataSource.Replica(name, ds));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, props.readYourWritesMs(),
+                ReplicaRoutingConfig::currentSubject, System::currentTimeMillis, registry);
+    }
+
+    /** The DataSource JPA, JdbcTemplate and the transaction manager use */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routing) {
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    // La ventana de lectura propia es por cliente final: el customerId de la sesión o, con API
+    // key, el customerId del request (cuerpo o ?customerId=). Solo sin cliente se usa la integración
+    static String currentSubject() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || auth instanceof AnonymousAuthenticationToken || !auth.isAuthenticated()) {
+            return null;
+        }
+        if (auth.getPrincipal() instanceof Long customerId) {
+            return "customer:" + customerId;
+        }
+        Long customerId = requestCustomerId();
+        return customerId != null ? "customer:" + customerId : "client:" + auth.getName();
+    }
+
+    private static Long requestCustomerId() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attrs)) {
+            return null;
+        }
+        HttpServletRequest request = attrs.getRequest();
+        if (request.getAttribute(CustomerScopeAdvice.CUSTOMER_ATTRIBUTE) instanceof Long customerId) {
+            return customerId;
+        }
+        String param = request.getParameter("customerId");
+        if (param == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(param.strip());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.farmatodo.reto.config;
+
+import com.farmatodo.reto.util.PrimaryReads;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.net.ConnectException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Sends connections for read-only transactions to a healthy replica (round robin) and
+ * everything else to the primary. A replica that cannot be reached is marked down; one that
+ * is merely out of pooled connections is skipped for that read. Either way the next one
+ * (finally the primary) is tried; {@link #checkHealth()} brings a down replica back. After a subject (customer or API client) commits a write, its reads stay on the
+ * primary for readYourWritesMs so it never sees its own change missing.
+ *
+ * <p>Must be wrapped in a LazyConnectionDataSourceProxy: the transaction's read-only flag
+ * is only set after the transaction manager asks for a connection.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+  /** Why a connection went where it went (the "reason" tag) */
+  enum Reason { READ_WRITE, READ_ONLY, FORCED, RECENT_WRITE, FAILOVER }
+
+  public record Replica(String name, DataSource dataSource) {}
+
+  private static final class Node {
+    final Replica replica;
+    final Counter reads;
+    volatile boolean healthy = true;
+
+    Node(Replica replica, Counter reads) {
+      this.replica = replica;
+      this.reads = reads;
+    }
+  }
+
+  private final DataSource primary;
+  private final List<Node> replicas;
+  private final long readYourWritesMs;
+  private final Supplier<String> subject;
+  private final LongSupplier clockMs;
+  private final Map<String, Long> lastWrite = new ConcurrentHashMap<>();
+  private final Map<Reason, Counter> toPrimary = new EnumMap<>(Reason.class);
+  private final AtomicInteger next = new AtomicInteger();
+
+  /**
+   * @param subject who is calling (null if unknown); reads of a subject with a recent
+   *                write are kept on the primary
+   */
+  public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas, long readYourWritesMs,
+      Supplier<String> subject, LongSupplier clockMs, MeterRegistry registry) {
+    this.primary = primary;
+    this.readYourWritesMs = readYourWritesMs;
+    this.subject = subject;
+    this.clockMs = clockMs;
+    for (Reason r : Reason.values()) {
+      if (r != Reason.READ_ONLY) toPrimary.put(r, route(registry, "primary", r));
+    }
+    this.replicas = replicas.stream()
+        .map(r -> new Node(r, route(registry, r.name(), Reason.READ_ONLY)))
+        .toList();
+    Gauge.builder("datasource.replicas.healthy", this, ReplicaRoutingDataSource::healthyReplicas)
+        .description("Replicas currently receiving read-only transactions")
+        .register(registry);
+  }
+
+  private static Counter route(MeterRegistry registry, String target, Reason reason) {
+    return Counter.builder("datasource.routes")
+        .tag("target", target).tag("reason", reason.name().toLowerCase().replace('_', '-'))
+        .description("Connections handed out, by target and routing reason")
+        .register(registry);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return route(null, null);
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return route(username, password);
+  }
+
+  private Connection route(String username, String password) throws SQLException {
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      rememberWrite();
+      return primary(Reason.READ_WRITE, username, password);
+    }
+    if (PrimaryReads.forced()) {
+      return primary(Reason.FORCED, username, password);
+    }
+    String who = subject.get();
+    if (who != null && wroteRecently(who)) {
+      return primary(Reason.RECENT_WRITE, username, password);
+    }
+    int n = replicas.size();
+    int start = Math.floorMod(next.getAndIncrement(), n);
+    for (int i = 0; i < n; i++) {
+      Node node = replicas.get((start + i) % n);
+      if (!node.healthy) continue;
+      try {
+        Connection c = username == null
+            ? node.replica.dataSource().getConnection()
+            : node.replica.dataSource().getConnection(username, password);
+        node.reads.increment();
+        return c;
+      } catch (SQLException e) {
+        // Un pool agotado en una réplica sana solo desvía esta lectura; no la saca de rotación
+        if (isConnectFailure(e)) {
+          markDown(node, e.getMessage());
+        }
+      }
+    }
+    return primary(Reason.FAILOVER, username, password);
+  }
+
+  private Connection primary(Reason reason, String username, String password) throws SQLException {
+    toPrimary.get(reason).increment();
+    return username == null ? primary.getConnection() : primary.getConnection(username, password);
+  }
+
+  // Se cuenta desde el commit: antes, la réplica no puede tener la fila de todos modos
+  private void rememberWrite() {
+    if (readYourWritesMs <= 0) return;
+    String who = subject.get();
+    if (who == null) return;
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          lastWrite.put(who, clockMs.getAsLong());
+        }
+      });
+    } else {
+      lastWrite.put(who, clockMs.getAsLong());
+    }
+  }
+
+  boolean wroteRecently(String who) {
+    Long at = lastWrite.get(who);
+    return at != null && clockMs.getAsLong() - at < readYourWritesMs;
+  }
+
+  /** Probe every replica; returns how many are healthy */
+  public int checkHealth() {
+    for (Node node : replicas) {
+      boolean ok;
+      String error = null;
+      try (Connection c = node.replica.dataSource().getConnection()) {
+        ok = c.isValid(2);
+        error = "validación fallida";
+      } catch (SQLException e) {
+        if (!isConnectFailure(e)) continue;
+        ok = false;
+        error = e.getMessage();
+      }
+      if (ok && !node.healthy) {
+        node.healthy = true;
+        log.info("[REPLICAS] {} disponible de nuevo", node.replica.name());
+      } else if (!ok) {
+        markDown(node, error);
+      }
+    }
+    return healthyReplicas();
+  }
+
+  @Scheduled(fixedDelayString = "${datasource.replicas.health-check-interval-ms:5000}")
+  public void scheduledHealthCheck() {
+    checkHealth();
+  }
+
+  @Scheduled(fixedDelay = 60_000)
+  public void scheduledSweep() {
+    sweep();
+  }
+
+  /** Forget writes older than the window; returns how many subjects remain */
+  public int sweep() {
+    long cutoff = clockMs.getAsLong() - readYourWritesMs;
+    lastWrite.values().removeIf(at -> at <= cutoff);
+    return lastWrite.size();
+  }
+
+  public int healthyReplicas() {
+    int n = 0;
+    for (Node node : replicas) {
+      if (node.healthy) n++;
+    }
+    return n;
+  }
+
+  /** Closes the replica pools; the primary belongs to the caller */
+  @Override
+  public void close() {
+    for (Node node : replicas) {
+      if (node.replica.dataSource() instanceof AutoCloseable c) {
+        try {
+          c.close();
+        } catch (Exception e) {
+          log.warn("[REPLICAS] Error cerrando {}: {}", node.replica.name(), e.getMessage());
+        }
+      }
+    }
+  }
+
+  /**
+   * True when the failure means the replica itself is unreachable: SQLState class 08
+   * (connection exception) or 57P (server shutting down / starting up) anywhere in the
+   * cause chain. A pool timeout such as Hikari's "Connection is not available" carries
+   * neither unless the pool could not open connections at all.
+   */
+  static boolean isConnectFailure(SQLException e) {
+    for (Throwable t = e; t != null; t = t.getCause()) {
+      if (t instanceof ConnectException) return true;
+      if (t instanceof SQLException s && s.getSQLState() != null
+          && (s.getSQLState().startsWith("08") || s.getSQLState().startsWith("57P"))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void markDown(Node node, String error) {
+    if (node.healthy) {
+      node.healthy = false;
+      log.warn("[REPLICAS] {} fuera de rotación: {}", node.replica.name(), error);
+    }
+  }
+}
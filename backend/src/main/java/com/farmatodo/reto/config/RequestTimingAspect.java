@@ -0,0 +1,38 @@
+package com.farmatodo.reto.config;
+
+import com.farmatodo.reto.util.RequestTiming;
+import com.farmatodo.reto.util.RequestTiming.Segment;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/** Charges repository, payment gateway and mail calls to the request's RequestTiming */
+@Aspect
+@Component
+public class RequestTimingAspect {
+
+  @Around("this(org.springframework.data.repository.Repository)")
+  public Object repository(ProceedingJoinPoint pjp) throws Throwable {
+    return timed(Segment.DB, pjp);
+  }
+
+  @Around("execution(* com.farmatodo.reto.service.PaymentService.tryCharge(..))")
+  public Object payment(ProceedingJoinPoint pjp) throws Throwable {
+    return timed(Segment.PAYMENT, pjp);
+  }
+
+  @Around("execution(* com.farmatodo.reto.service.NotificationService.*(..))")
+  public Object mail(ProceedingJoinPoint pjp) throws Throwable {
+    return timed(Segment.MAIL, pjp);
+  }
+
+  private static Object timed(Segment segment, ProceedingJoinPoint pjp) throws Throwable {
+    long token = RequestTiming.enter(segment);
+    try {
+      return pjp.proceed();
+    } finally {
+      RequestTiming.exit(segment, token);
+    }
+  }
+}
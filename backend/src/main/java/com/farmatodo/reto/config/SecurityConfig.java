@@ -1,6 +1,10 @@
 package com.farmatodo.reto.config;
 
 import com.farmatodo.reto.security.ApiKeyFilter;
+import com.farmatodo.reto.security.RateLimitFilter;
+import com.farmatodo.reto.security.SessionTokenFilter;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -19,9 +23,14 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     private final ApiKeyFilter apiKeyFilter;
+    private final SessionTokenFilter sessionTokenFilter;
+    private final ObjectProvider<RateLimitFilter> rateLimitFilter;
 
-    public SecurityConfig(ApiKeyFilter apiKeyFilter) {
+    public SecurityConfig(ApiKeyFilter apiKeyFilter, SessionTokenFilter sessionTokenFilter,
+            ObjectProvider<RateLimitFilter> rateLimitFilter) {
         this.apiKeyFilter = apiKeyFilter;
+        this.sessionTokenFilter = sessionTokenFilter;
+        this.rateLimitFilter = rateLimitFilter;
     }
 
     @Bean
@@ -36,15 +45,21 @@ public class SecurityConfig {
                 // Sin sesión de servidor, tipo API
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
 
-                // Add API Key filter before authentication
-                .addFilterBefore(apiKeyFilter, UsernamePasswordAuthenticationFilter.class)
+                // Token de sesión (Bearer) primero; si no viene, decide el API key
+                .addFilterBefore(sessionTokenFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(apiKeyFilter, SessionTokenFilter.class)
 
                 .authorizeHttpRequests(auth -> auth
+                        // Despachos async (SSE) ya fueron autorizados en la petición original
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // Permitir preflight
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
 
-                        // Permitir actuator endpoints (para health checks)
-                        .requestMatchers("/actuator/**").permitAll()
+                        // Solo health es público (probes de Cloud Run / k8s); métricas, prometheus e
+                        // info exponen datos de negocio y latencias: requieren API key
+                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("API")
 
                         // Permitir autenticación/registro sin token ni API key
                         .requestMatchers("/auth/**").permitAll()
@@ -52,8 +67,21 @@ public class SecurityConfig {
                         // Permitir lectura de productos sin autenticación
                         .requestMatchers(HttpMethod.GET, "/products/**").permitAll()
 
-                        // Todo lo demás requiere autenticación (validado por API key filter)
-                        .anyRequest().authenticated());
+                        // Un cliente con token de sesión solo opera sobre lo suyo (el dueño lo valida
+                        // @PreAuthorize en cada controller); las integraciones con API key, sobre todo
+                        .requestMatchers("/cart/**").hasAnyRole("API", "CUSTOMER")
+                        .requestMatchers(HttpMethod.POST, "/orders").hasAnyRole("API", "CUSTOMER")
+                        .requestMatchers(HttpMethod.POST, "/tokens").hasAnyRole("API", "CUSTOMER")
+                        .requestMatchers(HttpMethod.DELETE, "/tokens/*").hasAnyRole("API", "CUSTOMER")
+
+                        // Rotación de llaves: solo los clientes de app.api-keys.admins
+                        .requestMatchers("/keys/**").hasRole("ADMIN")
+
+                        // Todo lo demás requiere API key
+                        .anyRequest().hasRole("API"));
+
+        // Límite por cliente, ya autenticado (ratelimit.enabled=false lo desactiva)
+        rateLimitFilter.ifAvailable(f -> http.addFilterAfter(f, ApiKeyFilter.class));
 
         return http.build();
     }
@@ -0,0 +1,157 @@
+package com.farmatodo.reto.config;
+
+import com.farmatodo.reto.util.RequestTiming;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Opens a RequestTiming for every request, adds the {@code Server-Timing} header just
+ * before the response is committed and writes one {@code [TIMING]} line when it
+ * completes: INFO from app.timing.slow-threshold-ms, DEBUG below. Runs ahead of the
+ * security chain so rejected requests are measured too.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+  static final String HEADER = "Server-Timing";
+
+  private static final Logger log = LoggerFactory.getLogger(ServerTimingFilter.class);
+
+  private final boolean header;
+  private final long slowNanos;
+
+  public ServerTimingFilter(@Value("${app.timing.header-enabled:true}") boolean header,
+      @Value("${app.timing.slow-threshold-ms:500}") long slowThresholdMs) {
+    this.header = header;
+    this.slowNanos = slowThresholdMs * 1_000_000L;
+  }
+
+  @Override
+  protected void doFilterInternal(@NonNull HttpServletRequest request,
+      @NonNull HttpServletResponse response,
+      @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+    RequestTiming timing = RequestTiming.begin();
+    HttpServletResponse target = header ? new TimingResponse(response, timing) : response;
+    try {
+      filterChain.doFilter(request, target);
+    } finally {
+      RequestTiming.end();
+      if (request.isAsyncStarted()) {
+        request.getAsyncContext().addListener(new LogOnComplete(request, response, timing));
+      } else {
+        if (target instanceof TimingResponse t) t.stamp();
+        log(request, response, timing);
+      }
+    }
+  }
+
+  private void log(HttpServletRequest request, HttpServletResponse response, RequestTiming timing) {
+    boolean slow = timing.elapsedNanos() >= slowNanos;
+    if (slow ? log.isInfoEnabled() : log.isDebugEnabled()) {
+      String line = "[TIMING] {} {} status={} {}";
+      Object[] args = { request.getMethod(), request.getRequestURI(), response.getStatus(), timing.summary() };
+      if (slow) log.info(line, args);
+      else log.debug(line, args);
+    }
+  }
+
+  /** Sets the header once, at the first point where the response could be committed */
+  private static final class TimingResponse extends HttpServletResponseWrapper {
+
+    private final RequestTiming timing;
+    private boolean stamped;
+
+    TimingResponse(HttpServletResponse response, RequestTiming timing) {
+      super(response);
+      this.timing = timing;
+    }
+
+    void stamp() {
+      if (stamped) return;
+      stamped = true;
+      if (!isCommitted()) setHeader(HEADER, timing.serverTiming());
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+      stamp();
+      return super.getOutputStream();
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+      stamp();
+      return super.getWriter();
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+      stamp();
+      super.flushBuffer();
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+      stamp();
+      super.sendError(sc);
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+      stamp();
+      super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+      stamp();
+      super.sendRedirect(location);
+    }
+  }
+
+  private final class LogOnComplete implements AsyncListener {
+
+    private final HttpServletRequest request;
+    private final HttpServletResponse response;
+    private final RequestTiming timing;
+
+    LogOnComplete(HttpServletRequest request, HttpServletResponse response, RequestTiming timing) {
+      this.request = request;
+      this.response = response;
+      this.timing = timing;
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+      log(request, response, timing);
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) { }
+
+    @Override
+    public void onError(AsyncEvent event) { }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) { }
+  }
+}
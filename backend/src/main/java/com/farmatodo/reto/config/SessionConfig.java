@@ -0,0 +1,28 @@
+package com.farmatodo.reto.config;
+
+import com.farmatodo.reto.security.SessionTokens;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+
+@Configuration
+public class SessionConfig {
+
+    /**
+     * auth.session.secret is required: a per-instance random key would make every token
+     * invalid on the other instances and after a restart.
+     */
+    @Bean
+    public SessionTokens sessionTokens(@Value("${auth.session.secret:}") String secret,
+            @Value("${auth.session.ttl-minutes:60}") long ttlMinutes) {
+        if (secret.isBlank()) {
+            throw new IllegalStateException("auth.session.secret (SESSION_SECRET) es obligatorio");
+        }
+        byte[] key = secret.getBytes(StandardCharsets.UTF_8);
+        return new SessionTokens(key, Duration.ofMinutes(ttlMinutes), Clock.systemUTC());
+    }
+}
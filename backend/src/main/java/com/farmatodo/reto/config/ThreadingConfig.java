@@ -0,0 +1,36 @@
+package com.farmatodo.reto.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * With spring.threads.virtual.enabled=true on Java 21+, Boot already runs Tomcat,
+ * {@code @Async}, {@code @Scheduled} and MVC async requests on virtual threads; this
+ * extends the same switch to our own blocking background workers. CPU-bound pools
+ * (bcrypt, the token generator, re-encryption) stay on bounded platform threads.
+ */
+@Configuration
+public class ThreadingConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ThreadingConfig.class);
+
+    @Bean
+    public ThreadFactory backgroundThreadFactory(Environment env) {
+        if (Threading.VIRTUAL.isActive(env)) {
+            log.info("[THREADS] Hilos virtuales activos (Tomcat, @Async, @Scheduled y workers en segundo plano)");
+            return new VirtualThreadTaskExecutor("background-").getVirtualThreadFactory();
+        }
+        return r -> {
+            Thread t = new Thread(r);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
@@ -0,0 +1,47 @@
+package com.farmatodo.reto.config;
+
+import com.farmatodo.reto.repository.CardTokenRepository;
+import com.farmatodo.reto.service.CardSealingPool;
+import com.farmatodo.reto.service.CardTokenCache;
+import com.farmatodo.reto.service.KeyRing;
+import com.farmatodo.reto.service.TokenPool;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableConfigurationProperties(EncryptionProperties.class)
+public class TokenizationConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public TokenPool tokenPool(CardTokenRepository repo, MeterRegistry registry,
+            @Value("${tokenization.pool.capacity:1024}") int capacity,
+            @Value("${tokenization.pool.low-water:256}") int lowWater) {
+        return new TokenPool(capacity, lowWater, repo::findExistingTokens, registry);
+    }
+
+    @Bean
+    public CardTokenCache cardTokenCache(CardTokenRepository repo, MeterRegistry registry,
+            @Value("${tokenization.cache.max-size:10000}") int maxSize,
+            @Value("${tokenization.cache.ttl-seconds:60}") long ttlSeconds) {
+        return new CardTokenCache(maxSize, Duration.ofSeconds(ttlSeconds), repo::findByToken, registry);
+    }
+
+    /** tokenization.batch.threads=0 uses one thread per core */
+    @Bean(destroyMethod = "close")
+    public CardSealingPool cardSealingPool(
+            @Value("${tokenization.batch.threads:0}") int threads,
+            @Value("${tokenization.batch.queue-capacity:64}") int queueCapacity) {
+        int n = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new CardSealingPool(n, queueCapacity);
+    }
+
+    @Bean
+    public KeyRing keyRing(@Value("${encryption.secret}") String legacySecret, EncryptionProperties props) {
+        return new KeyRing(legacySecret, props.activeVersion(), props.keys());
+    }
+}
@@ -1,12 +1,18 @@
 package com.farmatodo.reto.controller;
 
 import com.farmatodo.reto.dto.CustomerRegistrationRequest;
-import com.farmatodo.reto.dto.CustomerResponse;
 import com.farmatodo.reto.dto.LoginRequest;
 import com.farmatodo.reto.service.AuthService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
 @RestController
 @RequestMapping("/auth")
 @CrossOrigin // por si accedes desde localhost:3000
@@ -18,26 +24,52 @@ public class AuthController {
         this.auth = auth;
     }
 
+    // Devuelve un CompletableFuture: el hilo de Tomcat se libera mientras se calcula el hash
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody CustomerRegistrationRequest request) {
-        try {
-            CustomerResponse response = auth.register(request);
-            return ResponseEntity.ok(response);
-        } catch (IllegalArgumentException ex) {
-            return ResponseEntity.badRequest().body(
-                    new ErrorMessage(ex.getMessage()));
-        }
+    public CompletableFuture<ResponseEntity<?>> register(@RequestBody CustomerRegistrationRequest request) {
+        return respond(() -> auth.register(request));
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest request) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest request) {
+        return respond(() -> auth.login(request));
+    }
+
+    /** Revoke the session token sent as Authorization: Bearer */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            auth.logout(authorization.substring("Bearer ".length()));
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    private static <T> CompletableFuture<ResponseEntity<?>> respond(Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> future;
         try {
-            CustomerResponse response = auth.login(request);
-            return ResponseEntity.ok(response);
+            future = call.get();
         } catch (IllegalArgumentException ex) {
-            return ResponseEntity.badRequest().body(
-                    new ErrorMessage(ex.getMessage()));
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(
+                    new ErrorMessage(ex.getMessage())));
+        }
+        return future.<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                .exceptionally(AuthController::toError);
+    }
+
+    private static ResponseEntity<?> toError(Throwable t) {
+        Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+        if (cause instanceof IllegalArgumentException) {
+            return ResponseEntity.badRequest().body(new ErrorMessage(cause.getMessage()));
+        }
+        if (cause instanceof RejectedExecutionException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new ErrorMessage("Servicio ocupado, intenta de nuevo."));
+        }
+        if (cause instanceof RuntimeException re) {
+            throw re; // lo maneja GlobalExceptionHandler (p.ej. correo duplicado)
         }
+        throw new CompletionException(cause);
     }
 
     public record ErrorMessage(String message) {
@@ -1,8 +1,10 @@
 package com.farmatodo.reto.controller;
 
 import com.farmatodo.reto.dto.CartDtos;
+import com.farmatodo.reto.dto.CreateOrderResponse;
 import com.farmatodo.reto.service.CartService;
 import jakarta.validation.Valid;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -17,31 +19,36 @@ public class CartController {
 
     // Ver carrito (lo crea si no existe)
     @GetMapping
+    @PreAuthorize("hasRole('API') or #customerId == principal")
     public CartDtos.View get(@RequestParam Long customerId) {
         return cartService.get(customerId);
     }
 
     // Agregar/actualizar item
     @PostMapping("/items")
+    @PreAuthorize("hasRole('API') or #req.customerId == principal")
     public CartDtos.View upsert(@Valid @RequestBody CartDtos.UpsertItemRequest req) {
         return cartService.upsertItem(req);
     }
 
     // Eliminar item
     @DeleteMapping("/items")
+    @PreAuthorize("hasRole('API') or #req.customerId == principal")
     public CartDtos.View remove(@Valid @RequestBody CartDtos.RemoveItemRequest req) {
         return cartService.removeItem(req);
     }
 
     // Vaciar carrito
     @DeleteMapping
+    @PreAuthorize("hasRole('API') or #customerId == principal")
     public void clear(@RequestParam Long customerId) {
         cartService.clear(customerId);
     }
 
     // Checkout => crea Order y vacía el carrito
     @PostMapping("/checkout")
-    public Object checkout(@Valid @RequestBody CartDtos.CheckoutRequest req) {
+    @PreAuthorize("hasRole('API') or #req.customerId == principal")
+    public CreateOrderResponse checkout(@Valid @RequestBody CartDtos.CheckoutRequest req) {
         return cartService.checkout(req);
     }
 }
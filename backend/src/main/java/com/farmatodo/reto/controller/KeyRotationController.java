@@ -0,0 +1,37 @@
+package com.farmatodo.reto.controller;
+
+import com.farmatodo.reto.dto.KeyRotationProgress;
+import com.farmatodo.reto.service.KeyRotationJob;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/keys/rotation")
+public class KeyRotationController {
+
+    private final KeyRotationJob job;
+
+    public KeyRotationController(KeyRotationJob job) {
+        this.job = job;
+    }
+
+    // Arranca (o reanuda) la re-encriptación en segundo plano
+    @PostMapping("/{targetVersion}")
+    public ResponseEntity<KeyRotationProgress> start(@PathVariable int targetVersion) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(KeyRotationProgress.of(job.start(targetVersion)));
+    }
+
+    @GetMapping
+    public List<KeyRotationProgress> progress() {
+        return job.progress().stream().map(KeyRotationProgress::of).toList();
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> cancel() {
+        job.cancel();
+        return ResponseEntity.accepted().build();
+    }
+}
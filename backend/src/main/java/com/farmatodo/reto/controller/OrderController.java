@@ -4,6 +4,7 @@ import com.farmatodo.reto.dto.CreateOrderRequest;
 import com.farmatodo.reto.dto.CreateOrderResponse;
 import com.farmatodo.reto.service.OrderService;
 import jakarta.validation.Valid;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -16,7 +17,9 @@ public class OrderController {
         this.orderService = orderService;
     }
 
+    // Con token de sesión, solo órdenes propias
     @PostMapping
+    @PreAuthorize("hasRole('API') or #req.customerId == principal")
     public CreateOrderResponse create(@Valid @RequestBody CreateOrderRequest req) {
         return orderService.createOrder(req);
     }
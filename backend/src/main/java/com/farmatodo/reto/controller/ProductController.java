@@ -1,23 +1,28 @@
 package com.farmatodo.reto.controller;
 
-import com.farmatodo.reto.entity.Product;
+import com.farmatodo.reto.service.ProductJsonCache;
 import com.farmatodo.reto.service.ProductService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import java.util.List;
 
 @RestController
 @RequestMapping("/products")
 public class ProductController {
 
     private final ProductService service;
+    private final ProductJsonCache json;
 
-    public ProductController(ProductService service) {
+    public ProductController(ProductService service, ProductJsonCache json) {
         this.service = service;
+        this.json = json;
     }
 
+    // El cuerpo se arma con el JSON ya serializado de cada producto (ver ProductJsonCache)
     @GetMapping
-    public List<Product> search(@RequestParam String q,
+    public ResponseEntity<byte[]> search(@RequestParam String q,
             @RequestParam(required = false) Long customerId) {
-        return service.search(q, customerId);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+                .body(json.writeArray(service.search(q, customerId)));
     }
 }
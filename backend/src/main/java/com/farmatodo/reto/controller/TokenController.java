@@ -1,11 +1,15 @@
 package com.farmatodo.reto.controller;
 
+import com.farmatodo.reto.dto.TokenizeBatchRequest;
+import com.farmatodo.reto.dto.TokenizeBatchResponse;
 import com.farmatodo.reto.dto.TokenizeRequest;
 import com.farmatodo.reto.dto.TokenizeResponse;
 import com.farmatodo.reto.service.TokenizationService;
 import jakarta.validation.Valid;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -17,7 +21,20 @@ public class TokenController {
   public TokenController(TokenizationService service) { this.service = service; }
 
   @PostMapping
+  @PreAuthorize("hasRole('API') or #req.customerId() == principal")
   public ResponseEntity<TokenizeResponse> create(@RequestBody @Valid TokenizeRequest req) {
     return ResponseEntity.status(HttpStatus.CREATED).body(service.tokenize(req));
   }
+
+  @PostMapping("/batch")
+  public ResponseEntity<TokenizeBatchResponse> createBatch(@RequestBody @Valid TokenizeBatchRequest req) {
+    return ResponseEntity.status(HttpStatus.CREATED).body(service.tokenizeBatch(req.cards()));
+  }
+
+  // Con sesión solo se revocan los tokens propios; el API key puede revocar cualquiera
+  @DeleteMapping("/{token}")
+  public ResponseEntity<Void> revoke(@PathVariable String token, Authentication auth) {
+    service.revoke(token, auth.getPrincipal() instanceof Long customerId ? customerId : null);
+    return ResponseEntity.noContent().build();
+  }
 }
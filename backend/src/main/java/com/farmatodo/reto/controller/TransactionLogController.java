@@ -1,25 +1,94 @@
 package com.farmatodo.reto.controller;
 
+import com.farmatodo.reto.dto.TransactionLogPage;
+import com.farmatodo.reto.dto.TransactionLogView;
 import com.farmatodo.reto.repository.TransactionLogRepository;
+import com.farmatodo.reto.service.TransactionLogBroadcaster;
+import com.farmatodo.reto.service.TransactionLogService;
+import com.farmatodo.reto.util.JsonArrayWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/transactions")
 public class TransactionLogController {
 
     private final TransactionLogRepository repo;
+    private final TransactionLogService service;
+    private final TransactionLogBroadcaster broadcaster;
+    private final ObjectMapper mapper;
+
+    @Value("${transactions.page.max-limit:500}")
+    private int maxLimit;
 
-    public TransactionLogController(TransactionLogRepository repo) {
+    public TransactionLogController(TransactionLogRepository repo, TransactionLogService service,
+            TransactionLogBroadcaster broadcaster, ObjectMapper mapper) {
         this.repo = repo;
+        this.service = service;
+        this.broadcaster = broadcaster;
+        this.mapper = mapper;
     }
 
+    // Con ?limit= devuelve una página y nextCursor; sin limit transmite toda la línea de tiempo.
+    // payload solo se incluye con ?includePayload=true
     @GetMapping("/{orderId}/logs")
-    public Object byOrder(@PathVariable Long orderId) {
-        return repo.findByOrderIdOrderByCreatedAtAsc(orderId);
+    public ResponseEntity<?> byOrder(@PathVariable Long orderId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includePayload) {
+        if (limit != null) {
+            return ResponseEntity.ok(service.pageByOrder(orderId, cursor, clamp(limit), includePayload));
+        }
+        return stream(c -> service.pageByOrder(orderId, c, maxLimit, includePayload));
     }
 
     @GetMapping("/uuid/{tx}/logs")
-    public Object byTx(@PathVariable String tx) {
-        return repo.findByTransactionUuidOrderByCreatedAtAsc(tx);
+    public ResponseEntity<?> byTx(@PathVariable String tx,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includePayload) {
+        if (limit != null) {
+            return ResponseEntity.ok(service.pageByTransaction(tx, cursor, clamp(limit), includePayload));
+        }
+        return stream(c -> service.pageByTransaction(tx, c, maxLimit, includePayload));
+    }
+
+    // Timeline en vivo: se suscribe antes de leer la DB (nada se pierde entre ambos pasos),
+    // reenvía lo ya registrado y luego empuja cada evento nuevo, sin repetir los del replay.
+    // Se cierra sola al llegar a ORDER_PAID / ORDER_FAILED.
+    @GetMapping(path = "/uuid/{tx}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@PathVariable String tx) {
+        TransactionLogBroadcaster.Subscription subscription = broadcaster.subscribe(tx);
+        broadcaster.replay(subscription, repo.findByTransactionUuidOrderByCreatedAtAscIdAsc(tx));
+        return subscription.emitter();
+    }
+
+    private int clamp(int limit) {
+        return Math.max(1, Math.min(limit, maxLimit));
+    }
+
+    // Recorre las páginas escribiendo cada fila al vuelo; el servicio ya pagina sobre los
+    // segmentos archivados cuando la DB no tiene filas
+    private ResponseEntity<StreamingResponseBody> stream(Function<String, TransactionLogPage> pages) {
+        StreamingResponseBody body = out -> {
+            try (JsonArrayWriter writer = new JsonArrayWriter(mapper, out)) {
+                String cursor = null;
+                do {
+                    TransactionLogPage page = pages.apply(cursor);
+                    for (TransactionLogView v : page.items()) {
+                        writer.write(v);
+                    }
+                    cursor = page.nextCursor();
+                } while (cursor != null);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 }
@@ -4,20 +4,30 @@ import jakarta.validation.constraints.*;
 import java.util.List;
 
 public class CartDtos {
-    public static class UpsertItemRequest {
+    public static class UpsertItemRequest implements CustomerScoped {
         @NotNull
         public Long customerId;
         @NotNull
         public Long productId;
         @Min(1)
         public Integer quantity;
+
+        @Override
+        public Long customerId() {
+            return customerId;
+        }
     }
 
-    public static class RemoveItemRequest {
+    public static class RemoveItemRequest implements CustomerScoped {
         @NotNull
         public Long customerId;
         @NotNull
         public Long productId;
+
+        @Override
+        public Long customerId() {
+            return customerId;
+        }
     }
 
     public static class View {
@@ -32,12 +42,17 @@ public class CartDtos {
         public Integer quantity;
     }
 
-    public static class CheckoutRequest {
+    public static class CheckoutRequest implements CustomerScoped {
         @NotNull
         public Long customerId;
         @NotBlank
         public String deliveryAddress;
         @NotBlank
         public String cardToken;
+
+        @Override
+        public Long customerId() {
+            return customerId;
+        }
     }
 }
@@ -3,7 +3,7 @@ package com.farmatodo.reto.dto;
 import jakarta.validation.constraints.*;
 import java.util.List;
 
-public class CreateOrderRequest {
+public class CreateOrderRequest implements CustomerScoped {
 
     @NotNull
     public Long customerId;
@@ -17,6 +17,11 @@ public class CreateOrderRequest {
     @NotEmpty
     public List<Item> items;
 
+    @Override
+    public Long customerId() {
+        return customerId;
+    }
+
     public static class Item {
         @NotNull
         public Long productId;
@@ -0,0 +1,10 @@
+package com.farmatodo.reto.dto;
+
+/**
+ * Request body sent on behalf of one customer. Lets the read-your-writes window follow the
+ * customer even when the caller authenticates with a shared API key.
+ */
+public interface CustomerScoped {
+
+    Long customerId();
+}
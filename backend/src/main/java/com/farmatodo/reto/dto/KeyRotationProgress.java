@@ -0,0 +1,19 @@
+package com.farmatodo.reto.dto;
+
+import com.farmatodo.reto.entity.KeyRotationCheckpoint;
+
+import java.time.LocalDateTime;
+
+public record KeyRotationProgress(
+        Integer targetVersion,
+        Long lastId,
+        Long maxId,
+        Long migrated,
+        boolean completed,
+        LocalDateTime updatedAt) {
+
+    public static KeyRotationProgress of(KeyRotationCheckpoint c) {
+        return new KeyRotationProgress(c.getTargetVersion(), c.getLastId(), c.getMaxId(), c.getMigrated(),
+                c.isCompleted(), c.getUpdatedAt());
+    }
+}
@@ -0,0 +1,20 @@
+package com.farmatodo.reto.dto;
+
+import java.time.Instant;
+
+/** CustomerResponse fields plus the session token to send as {@code Authorization: Bearer} */
+public record LoginResponse(
+        Long id,
+        String firstName,
+        String lastName,
+        String email,
+        String phone,
+        String address,
+        String token,
+        Instant expiresAt) {
+
+    public static LoginResponse of(CustomerResponse c, String token, Instant expiresAt) {
+        return new LoginResponse(c.id(), c.firstName(), c.lastName(), c.email(), c.phone(), c.address(),
+                token, expiresAt);
+    }
+}
@@ -0,0 +1,13 @@
+package com.farmatodo.reto.dto;
+
+import com.farmatodo.reto.entity.Product;
+
+import java.math.BigDecimal;
+
+/** Catalog entry as returned by GET /products; same JSON shape as the entity it replaces */
+public record ProductView(Long id, String name, String description, BigDecimal price, Integer stock) {
+
+    public static ProductView of(Product p) {
+        return new ProductView(p.getId(), p.getName(), p.getDescription(), p.getPrice(), p.getStock());
+    }
+}
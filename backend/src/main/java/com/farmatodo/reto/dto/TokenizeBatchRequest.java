@@ -0,0 +1,10 @@
+package com.farmatodo.reto.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public record TokenizeBatchRequest(
+  @NotEmpty @Size(max = 500) List<@Valid TokenizeRequest> cards
+) {}
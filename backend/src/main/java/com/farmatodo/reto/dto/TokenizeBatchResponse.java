@@ -0,0 +1,11 @@
+package com.farmatodo.reto.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+
+// Un resultado por tarjeta, en el mismo orden del request
+public record TokenizeBatchResponse(List<Result> results) {
+
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public record Result(String token, String error) {}
+}
@@ -8,4 +8,4 @@ public record TokenizeRequest(
   @NotBlank String cardNumber,
   @NotBlank String cvv,
   @NotBlank String expDate
-) {}
+) implements CustomerScoped {}
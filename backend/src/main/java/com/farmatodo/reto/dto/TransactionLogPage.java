@@ -0,0 +1,59 @@
+package com.farmatodo.reto.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+public record TransactionLogPage(List<TransactionLogView> items, String nextCursor) {
+
+    /**
+     * Keyset position (created_at, id) of the last row returned; opaque to clients.
+     * {@code archived} marks a page served from the archived segments, so the next one
+     * is read from there too.
+     */
+    public record Cursor(LocalDateTime createdAt, long id, boolean archived) {
+
+        public static final Cursor START = new Cursor(LocalDateTime.of(1970, 1, 1, 0, 0), 0L);
+
+        public Cursor(LocalDateTime createdAt, long id) {
+            this(createdAt, id, false);
+        }
+
+        public static Cursor after(TransactionLogView last) {
+            return new Cursor(last.createdAt(), last.id());
+        }
+
+        public static Cursor afterArchived(TransactionLogView last) {
+            return new Cursor(last.createdAt(), last.id(), true);
+        }
+
+        /** true if the row at (createdAt, id) comes after this position */
+        public boolean isBefore(LocalDateTime rowCreatedAt, long rowId) {
+            int c = rowCreatedAt.compareTo(createdAt);
+            return c > 0 || (c == 0 && rowId > id);
+        }
+
+        public String encode() {
+            String raw = createdAt + "|" + id + (archived ? "|a" : "");
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public static Cursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return START;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\|");
+                if (parts.length > 3 || (parts.length == 3 && !"a".equals(parts[2]))) {
+                    throw new IllegalArgumentException();
+                }
+                return new Cursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]), parts.length == 3);
+            } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+        }
+    }
+}
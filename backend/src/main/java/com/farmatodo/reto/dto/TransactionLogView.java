@@ -0,0 +1,32 @@
+package com.farmatodo.reto.dto;
+
+import com.farmatodo.reto.entity.TransactionLog;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.LocalDateTime;
+
+public record TransactionLogView(
+        Long id,
+        String transactionUuid,
+        Long orderId,
+        TransactionLog.Event event,
+        String message,
+        LocalDateTime createdAt,
+        @JsonRawValue @JsonInclude(JsonInclude.Include.NON_NULL) String payload) {
+
+    // Proyección JPQL sin la columna payload
+    public TransactionLogView(Long id, String transactionUuid, Long orderId, TransactionLog.Event event,
+            String message, LocalDateTime createdAt) {
+        this(id, transactionUuid, orderId, event, message, createdAt, null);
+    }
+
+    public TransactionLogView withPayload(String payload) {
+        return new TransactionLogView(id, transactionUuid, orderId, event, message, createdAt, payload);
+    }
+
+    public static TransactionLogView of(TransactionLog t, boolean includePayload) {
+        return new TransactionLogView(t.getId(), t.getTransactionUuid(), t.getOrderId(), t.getEvent(),
+                t.getMessage(), t.getCreatedAt(), includePayload ? t.getPayload() : null);
+    }
+}
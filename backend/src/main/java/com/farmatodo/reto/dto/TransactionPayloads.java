@@ -0,0 +1,25 @@
+package com.farmatodo.reto.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Typed payloads stored in TransactionLog.payload (jsonb), one record per
+ * TransactionLog.Event. Field names are part of the analytics contract.
+ */
+public class TransactionPayloads {
+
+    public sealed interface Payload permits OrderCreated, PaymentAttempt, OrderPaid, OrderFailed {
+    }
+
+    public record OrderCreated(Long customerId, BigDecimal total) implements Payload {
+    }
+
+    public record PaymentAttempt(int attempt, boolean approved) implements Payload {
+    }
+
+    public record OrderPaid(int attempts) implements Payload {
+    }
+
+    public record OrderFailed(String reason) implements Payload {
+    }
+}
@@ -0,0 +1,18 @@
+package com.farmatodo.reto.entity;
+
+import jakarta.persistence.*;
+
+/** API key de una integración; solo se guarda el SHA-256 (hex) de la llave */
+@Entity
+@Table(name = "api_keys", uniqueConstraints = @UniqueConstraint(name = "uk_api_key_hash", columnNames = "key_hash"))
+public class ApiKey {
+  @Id @GeneratedValue(strategy = GenerationType.IDENTITY) private Long id;
+  @Column(nullable = false, length = 80) private String name;
+  @Column(name = "key_hash", nullable = false, length = 64) private String keyHash;
+  @Column(nullable = false) private boolean enabled = true;
+
+  public Long getId(){return id;} public void setId(Long id){this.id=id;}
+  public String getName(){return name;} public void setName(String n){this.name=n;}
+  public String getKeyHash(){return keyHash;} public void setKeyHash(String h){this.keyHash=h;}
+  public boolean isEnabled(){return enabled;} public void setEnabled(boolean e){this.enabled=e;}
+}
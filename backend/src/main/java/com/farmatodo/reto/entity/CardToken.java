@@ -5,14 +5,22 @@ import jakarta.persistence.*;
 @Entity
 @Table(name="card_tokens", indexes = @Index(name="idx_card_token_token", columnList="token"))
 public class CardToken {
+  public enum Status { ACTIVE, REVOKED }
+
   @Id @GeneratedValue(strategy = GenerationType.IDENTITY) private Long id;
   @Column(nullable=false) private Long customerId;
   @Column(nullable=false, unique=true, length=60) private String token;        // UUID recortado/normal
-  @Column(nullable=false, length=512) private String encryptedData;            // num+cvv+exp cifrados
+  @Column(nullable=false, length=512) private String encryptedData;            // num+cvv+exp cifrados con la DEK
+  @Column(name="key_version") private Integer keyVersion;                       // null/0 = legado (encryption.secret directo)
+  @Column(name="wrapped_key", length=128) private String wrappedKey;            // DEK cifrada con la KEK de keyVersion
+  @Enumerated(EnumType.STRING) @Column(length=16) private Status status = Status.ACTIVE;  // null en filas antiguas = ACTIVE
 
   // getters/setters
   public Long getId(){return id;} public void setId(Long id){this.id=id;}
   public Long getCustomerId(){return customerId;} public void setCustomerId(Long c){this.customerId=c;}
   public String getToken(){return token;} public void setToken(String t){this.token=t;}
   public String getEncryptedData(){return encryptedData;} public void setEncryptedData(String e){this.encryptedData=e;}
+  public Integer getKeyVersion(){return keyVersion;} public void setKeyVersion(Integer v){this.keyVersion=v;}
+  public String getWrappedKey(){return wrappedKey;} public void setWrappedKey(String w){this.wrappedKey=w;}
+  public Status getStatus(){return status;} public void setStatus(Status s){this.status=s;}
 }
@@ -28,8 +28,7 @@ public class Customer {
     @Column(nullable = false, length = 255)
     private String address;
 
-    // Para el reto lo dejamos en texto plano.
-    // En producción se debe usar hash (BCrypt, etc.).
+    // Hash BCrypt; filas antiguas en texto plano se re-hashean al iniciar sesión
     @Column(nullable = false, length = 255)
     private String password;
 
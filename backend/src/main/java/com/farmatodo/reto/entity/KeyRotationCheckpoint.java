@@ -0,0 +1,72 @@
+package com.farmatodo.reto.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/** Progress of a card_tokens re-encryption towards one key version; one row per target version */
+@Entity
+@Table(name = "key_rotation_checkpoint")
+public class KeyRotationCheckpoint {
+
+    @Id
+    private Integer targetVersion;
+
+    // Todo id <= lastId ya está en targetVersion
+    private Long lastId = 0L;
+
+    private Long maxId;
+
+    private Long migrated = 0L;
+
+    private boolean completed;
+
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    public Integer getTargetVersion() {
+        return targetVersion;
+    }
+
+    public void setTargetVersion(Integer targetVersion) {
+        this.targetVersion = targetVersion;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+
+    public void setLastId(Long lastId) {
+        this.lastId = lastId;
+    }
+
+    public Long getMaxId() {
+        return maxId;
+    }
+
+    public void setMaxId(Long maxId) {
+        this.maxId = maxId;
+    }
+
+    public Long getMigrated() {
+        return migrated;
+    }
+
+    public void setMigrated(Long migrated) {
+        this.migrated = migrated;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -1,10 +1,23 @@
 package com.farmatodo.reto.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
 
+/**
+ * Catalog entry, held in the second-level cache (region {@value #CACHE_REGION}). Stock is
+ * never written through this entity: {@code ProductRepository.decrementStock} updates it
+ * with a conditional UPDATE and evicts the cached copy, so the cached stock is only shown
+ * in listings and never trusted for a sale.
+ */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Product.CACHE_REGION)
 public class Product {
+  public static final String CACHE_REGION = "product";
+  public static final String SEARCH_CACHE_REGION = "product-search";
+
   @Id @GeneratedValue(strategy = GenerationType.IDENTITY) private Long id;
   private String name;
   private String description;
@@ -1,12 +1,15 @@
 package com.farmatodo.reto.entity;
 
+import com.fasterxml.jackson.annotation.JsonRawValue;
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "transaction_log", indexes = {
-        @Index(name = "idx_tlog_tx", columnList = "transaction_uuid"),
-        @Index(name = "idx_tlog_order", columnList = "order_id")
+        @Index(name = "idx_tlog_tx_created", columnList = "transaction_uuid, created_at, id"),
+        @Index(name = "idx_tlog_order_created", columnList = "order_id, created_at, id")
 })
 public class TransactionLog {
 
@@ -34,9 +37,10 @@ public class TransactionLog {
     @Column(nullable = false)
     private String message;
 
-    @Lob
-    @Column(columnDefinition = "TEXT")
-    private String payload; // JSON opcional
+    // JSON opcional (ver TransactionPayloads); jsonb con índice GIN en Postgres
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private String payload;
 
     @Column(nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
@@ -82,6 +86,7 @@ public class TransactionLog {
         this.message = message;
     }
 
+    @JsonRawValue
     public String getPayload() {
         return payload;
     }
@@ -0,0 +1,9 @@
+package com.farmatodo.reto.repository;
+
+import com.farmatodo.reto.entity.ApiKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.List;
+
+public interface ApiKeyRepository extends JpaRepository<ApiKey, Long> {
+  List<ApiKey> findByEnabledTrue();
+}
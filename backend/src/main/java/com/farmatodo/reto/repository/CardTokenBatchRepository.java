@@ -0,0 +1,9 @@
+package com.farmatodo.reto.repository;
+
+import com.farmatodo.reto.entity.CardToken;
+import java.util.List;
+
+public interface CardTokenBatchRepository {
+  /** Inserts all rows in a single JDBC batch (IDENTITY ids disable Hibernate batching) */
+  void insertBatch(List<CardToken> tokens);
+}
@@ -0,0 +1,27 @@
+package com.farmatodo.reto.repository;
+
+import com.farmatodo.reto.entity.CardToken;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.util.List;
+
+public class CardTokenBatchRepositoryImpl implements CardTokenBatchRepository {
+
+  private static final String INSERT =
+      "insert into card_tokens (customer_id, token, encrypted_data, key_version, wrapped_key, status) values (?, ?, ?, ?, ?, ?)";
+
+  private final JdbcTemplate jdbc;
+
+  public CardTokenBatchRepositoryImpl(JdbcTemplate jdbc) { this.jdbc = jdbc; }
+
+  @Override
+  public void insertBatch(List<CardToken> tokens) {
+    jdbc.batchUpdate(INSERT, tokens, tokens.size(), (ps, t) -> {
+      ps.setLong(1, t.getCustomerId());
+      ps.setString(2, t.getToken());
+      ps.setString(3, t.getEncryptedData());
+      ps.setInt(4, t.getKeyVersion());
+      ps.setString(5, t.getWrappedKey());
+      ps.setString(6, t.getStatus().name());
+    });
+  }
+}
@@ -2,8 +2,20 @@ package com.farmatodo.reto.repository;
 
 import com.farmatodo.reto.entity.CardToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface CardTokenRepository extends JpaRepository<CardToken, Long> {
+public interface CardTokenRepository extends JpaRepository<CardToken, Long>, CardTokenBatchRepository {
   Optional<CardToken> findByToken(String token);
+
+  @Query("select c.token from CardToken c where c.token in :tokens")
+  List<String> findExistingTokens(Collection<String> tokens);
+
+  /** Change only the status column; never rewrites the key or ciphertext columns */
+  @Modifying
+  @Query("update CardToken c set c.status = :status where c.token = :token")
+  int updateStatus(String token, CardToken.Status status);
 }
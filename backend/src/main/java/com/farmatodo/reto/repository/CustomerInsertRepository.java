@@ -0,0 +1,12 @@
+package com.farmatodo.reto.repository;
+
+import com.farmatodo.reto.entity.Customer;
+import java.util.Optional;
+
+public interface CustomerInsertRepository {
+    /**
+     * Single INSERT ... ON CONFLICT DO NOTHING; the generated id, or empty if any unique
+     * constraint (email, lower(email), phone) rejected the row
+     */
+    Optional<Long> insertIfAbsent(Customer customer);
+}
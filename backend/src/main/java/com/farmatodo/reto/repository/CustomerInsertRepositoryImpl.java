@@ -0,0 +1,25 @@
+package com.farmatodo.reto.repository;
+
+import com.farmatodo.reto.entity.Customer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.util.List;
+import java.util.Optional;
+
+public class CustomerInsertRepositoryImpl implements CustomerInsertRepository {
+
+    private static final String INSERT = "insert into customers (first_name, last_name, email, phone, address, password) "
+            + "values (?, ?, ?, ?, ?, ?) on conflict do nothing returning id";
+
+    private final JdbcTemplate jdbc;
+
+    public CustomerInsertRepositoryImpl(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public Optional<Long> insertIfAbsent(Customer c) {
+        List<Long> ids = jdbc.query(INSERT, (rs, i) -> rs.getLong(1),
+                c.getFirstName(), c.getLastName(), c.getEmail(), c.getPhone(), c.getAddress(), c.getPassword());
+        return ids.stream().findFirst();
+    }
+}
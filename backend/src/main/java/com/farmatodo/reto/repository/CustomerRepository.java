@@ -2,14 +2,26 @@ package com.farmatodo.reto.repository;
 
 import com.farmatodo.reto.entity.Customer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
-public interface CustomerRepository extends JpaRepository<Customer, Long> {
+public interface CustomerRepository extends JpaRepository<Customer, Long>, CustomerInsertRepository {
 
+    // lower() explícito: las consultas IgnoreCase derivadas usan upper() y no aprovechan uk_customer_email_lower
+    @Query("select case when count(c) > 0 then true else false end from Customer c where lower(c.email) = lower(:email)")
     boolean existsByEmailIgnoreCase(String email);
 
     boolean existsByPhone(String phone);
 
+    @Query("select c from Customer c where lower(c.email) = lower(:email)")
     Optional<Customer> findByEmailIgnoreCase(String email);
+
+    /** Replace the stored password only if nobody changed it since it was read */
+    @Transactional
+    @Modifying
+    @Query("update Customer c set c.password = :newHash where c.id = :id and c.password = :current")
+    int replacePassword(Long id, String current, String newHash);
 }
@@ -0,0 +1,10 @@
+package com.farmatodo.reto.repository;
+
+import com.farmatodo.reto.entity.KeyRotationCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface KeyRotationCheckpointRepository extends JpaRepository<KeyRotationCheckpoint, Integer> {
+    List<KeyRotationCheckpoint> findByCompletedFalse();
+}
@@ -2,6 +2,9 @@ package com.farmatodo.reto.repository;
 
 import com.farmatodo.reto.entity.Order;
 import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.List;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
+    // idx_orders_customer
+    List<Order> findByCustomerIdOrderByIdDesc(Long customerId);
 }
@@ -2,6 +2,9 @@ package com.farmatodo.reto.repository;
 
 import com.farmatodo.reto.entity.PaymentAttempt;
 import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.List;
 
 public interface PaymentAttemptRepository extends JpaRepository<PaymentAttempt, Long> {
+  // idx_payment_attempts_order
+  List<PaymentAttempt> findByOrderIdOrderByAttemptNumber(Long orderId);
 }
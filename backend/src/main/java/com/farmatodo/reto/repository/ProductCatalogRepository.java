@@ -0,0 +1,19 @@
+package com.farmatodo.reto.repository;
+
+import com.farmatodo.reto.entity.Product;
+import java.util.Collection;
+import java.util.List;
+
+public interface ProductCatalogRepository {
+  /** Loads by id through the second-level cache; only misses reach the database (findAllById always queries) */
+  List<Product> findAllCached(Collection<Long> ids);
+
+  /**
+   * Atomic {@code stock = stock - quantity} guarded by {@code stock >= quantity}; evicts the
+   * cached product. Returns false when there was not enough stock.
+   */
+  boolean decrementStock(long productId, int quantity);
+
+  /** Gives back stock taken by {@link #decrementStock} (an order whose payment failed) */
+  void restoreStock(long productId, int quantity);
+}
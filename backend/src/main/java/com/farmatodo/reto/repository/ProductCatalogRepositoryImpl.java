@@ -0,0 +1,71 @@
+package com.farmatodo.reto.repository;
+
+import com.farmatodo.reto.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Cache;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+public class ProductCatalogRepositoryImpl implements ProductCatalogRepository {
+
+  private static final String DECREMENT = "update product set stock = stock - ? where id = ? and stock >= ?";
+  private static final String RESTORE = "update product set stock = stock + ? where id = ?";
+
+  private final JdbcTemplate jdbc;
+
+  @PersistenceContext
+  private EntityManager em;
+
+  public ProductCatalogRepositoryImpl(JdbcTemplate jdbc) { this.jdbc = jdbc; }
+
+  @Override
+  public List<Product> findAllCached(Collection<Long> ids) {
+    // sin CacheMode explícito multiLoad no consulta la caché de segundo nivel
+    return em.unwrap(Session.class).byMultipleIds(Product.class)
+        .with(CacheMode.NORMAL)
+        .enableSessionCheck(true)
+        .multiLoad(List.copyOf(ids)).stream()
+        .filter(Objects::nonNull)
+        .toList();
+  }
+
+  @Override
+  public boolean decrementStock(long productId, int quantity) {
+    boolean updated = jdbc.update(DECREMENT, quantity, productId, quantity) == 1;
+    evictAround(productId);
+    return updated;
+  }
+
+  @Override
+  public void restoreStock(long productId, int quantity) {
+    jdbc.update(RESTORE, quantity, productId);
+    evictAround(productId);
+  }
+
+  private void evictAround(long productId) {
+    Cache cache = em.getEntityManagerFactory().getCache().unwrap(Cache.class);
+    evict(cache, productId);
+    // otra transacción podría volver a cachear la fila vieja antes del commit
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          evict(cache, productId);
+        }
+      });
+    }
+  }
+
+  // Solo la entidad: las búsquedas cacheadas guardan ids y leen el stock de aquí; vaciar su
+  // región en cada checkout la dejaba inútil bajo carga (su TTL acota el filtro por stock)
+  private static void evict(Cache cache, long productId) {
+    cache.evictEntityData(Product.class, productId);
+  }
+}
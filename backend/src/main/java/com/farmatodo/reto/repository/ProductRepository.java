@@ -1,9 +1,17 @@
 package com.farmatodo.reto.repository;
 
 import com.farmatodo.reto.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import java.util.List;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductCatalogRepository {
+  // Resultado (ids) en la caché de consultas; el stock de cada producto sale de la caché de entidades
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+      @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Product.SEARCH_CACHE_REGION)
+  })
   List<Product> findByNameContainingIgnoreCaseAndStockGreaterThanEqual(String name, Integer stock);
 }
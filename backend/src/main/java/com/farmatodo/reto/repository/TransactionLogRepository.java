@@ -1,12 +1,36 @@
 package com.farmatodo.reto.repository;
 
+import com.farmatodo.reto.dto.TransactionLogView;
 import com.farmatodo.reto.entity.TransactionLog;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface TransactionLogRepository extends JpaRepository<TransactionLog, Long> {
-    List<TransactionLog> findByTransactionUuidOrderByCreatedAtAsc(String transactionUuid);
+    List<TransactionLog> findByTransactionUuidOrderByCreatedAtAscIdAsc(String transactionUuid);
 
-    List<TransactionLog> findByOrderIdOrderByCreatedAtAsc(Long orderId);
+    // Keyset sobre (created_at, id); no lee payload
+    @Query("select new com.farmatodo.reto.dto.TransactionLogView(t.id, t.transactionUuid, t.orderId, t.event, "
+            + "t.message, t.createdAt) from TransactionLog t where t.transactionUuid = :tx "
+            + "and (t.createdAt > :afterTs or (t.createdAt = :afterTs and t.id > :afterId)) "
+            + "order by t.createdAt asc, t.id asc")
+    List<TransactionLogView> pageByTransactionUuid(String tx, LocalDateTime afterTs, Long afterId, Limit limit);
+
+    @Query("select new com.farmatodo.reto.dto.TransactionLogView(t.id, t.transactionUuid, t.orderId, t.event, "
+            + "t.message, t.createdAt) from TransactionLog t where t.orderId = :orderId "
+            + "and (t.createdAt > :afterTs or (t.createdAt = :afterTs and t.id > :afterId)) "
+            + "order by t.createdAt asc, t.id asc")
+    List<TransactionLogView> pageByOrderId(Long orderId, LocalDateTime afterTs, Long afterId, Limit limit);
+
+    @Query("select t.id, t.payload from TransactionLog t where t.id in :ids")
+    List<Object[]> findPayloads(Collection<Long> ids);
+
+    // Containment (@>) sobre jsonb, resuelto por idx_tlog_payload. Ej: {"approved":false}
+    @Query(value = "select * from transaction_log where event = :event and payload @> cast(:filter as jsonb) "
+            + "order by created_at", nativeQuery = true)
+    List<TransactionLog> findByEventAndPayloadContaining(String event, String filter);
 }
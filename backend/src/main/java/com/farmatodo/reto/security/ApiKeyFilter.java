@@ -5,69 +5,122 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.lang.NonNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Component
 public class ApiKeyFilter extends OncePerRequestFilter {
 
   private static final Logger log = LoggerFactory.getLogger(ApiKeyFilter.class);
 
-  @Value("${app.api-key}")
-  private String apiKey;
+  private static final List<GrantedAuthority> API = List.of(new SimpleGrantedAuthority("ROLE_API"));
+  private static final List<GrantedAuthority> ADMIN = List.of(
+      new SimpleGrantedAuthority("ROLE_API"), new SimpleGrantedAuthority("ROLE_ADMIN"));
+
+  /** Request attribute with the client name of a valid X-API-KEY, read by RateLimitFilter */
+  public static final String CLIENT_ATTRIBUTE = ApiKeyFilter.class.getName() + ".client";
+
+  // Rutas públicas, compiladas una sola vez
+  private static final List<PathPattern> PUBLIC = compile("/ping", "/error", "/h2-console/**",
+      "/actuator/health", "/actuator/health/**", "/auth/**");
+  private static final List<PathPattern> PUBLIC_GET = compile("/products/**");
+
+  private final ApiKeyRegistry registry;
+  private final Set<String> admins;
+
+  /** @param admins client names that also get ROLE_ADMIN (key rotation and other operations) */
+  public ApiKeyFilter(ApiKeyRegistry registry, @Value("${app.api-keys.admins:}") List<String> admins) {
+    this.registry = registry;
+    this.admins = admins.stream().map(String::trim).filter(s -> !s.isEmpty()).collect(Collectors.toUnmodifiableSet());
+  }
 
   @Override
   protected void doFilterInternal(@NonNull HttpServletRequest request,
       @NonNull HttpServletResponse response,
       @NonNull FilterChain filterChain) throws ServletException, IOException {
 
-    String path = request.getRequestURI();
     String method = request.getMethod();
-    log.debug("Processing request to: {} [{}]", path, method);
+    if (log.isDebugEnabled()) {
+      log.debug("Processing request to: {} [{}]", request.getRequestURI(), method);
+    }
 
-    // Allow OPTIONS requests (CORS preflight) to pass through
-    if ("OPTIONS".equals(method)) {
+    // Allow OPTIONS requests (CORS preflight) and requests already authenticated by SessionTokenFilter;
+    // a session only carries ROLE_CUSTOMER, which SecurityConfig limits to the customer's own routes
+    if (HttpMethod.OPTIONS.matches(method)) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+    if (SecurityContextHolder.getContext().getAuthentication() != null) {
+      // La key que acompaña a la sesión no autentica, pero su cuota se cobra igual
+      String header = request.getHeader("X-API-KEY");
+      String client = header != null ? registry.lookup(header) : null;
+      if (client != null) {
+        request.setAttribute(CLIENT_ATTRIBUTE, client);
+      }
       filterChain.doFilter(request, response);
       return;
     }
 
     // Allow public endpoints without API key
-    if ("/ping".equals(path) || "/error".equals(path) || path.startsWith("/h2-console") 
-        || path.startsWith("/actuator") || path.startsWith("/auth/") 
-        || ("GET".equals(method) && path.startsWith("/products"))) {
+    if (isPublic(method, request.getRequestURI())) {
       filterChain.doFilter(request, response);
       return;
     }
 
     String header = request.getHeader("X-API-KEY");
-    log.debug("API Key header: {}, Expected: {}", header != null ? "[PRESENT]" : "[MISSING]",
-        apiKey != null ? "[CONFIGURED]" : "[NOT CONFIGURED]");
-
-    if (header != null && header.equals(apiKey)) {
-      log.debug("API Key valid, setting authentication");
-      var auth = new UsernamePasswordAuthenticationToken(
-          "api-key-user", null, List.of(new SimpleGrantedAuthority("ROLE_API")));
-      auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+    String client = header != null ? registry.lookup(header) : null;
 
+    if (client != null) {
+      request.setAttribute(CLIENT_ATTRIBUTE, client);
+      var auth = new UsernamePasswordAuthenticationToken(client, null, admins.contains(client) ? ADMIN : API);
       var context = SecurityContextHolder.createEmptyContext();
       context.setAuthentication(auth);
       SecurityContextHolder.setContext(context);
-      log.debug("Authentication set, proceeding with filter chain");
+      if (log.isDebugEnabled()) {
+        log.debug("API key valid for client '{}'", client);
+      }
       filterChain.doFilter(request, response);
       return;
     }
 
-    log.debug("API Key invalid, returning 401");
+    if (log.isDebugEnabled()) {
+      log.debug("API key {}, returning 401", header == null ? "missing" : "unknown");
+    }
     response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid API key");
   }
+
+  static boolean isPublic(String method, String uri) {
+    PathContainer path = PathContainer.parsePath(uri);
+    for (PathPattern p : PUBLIC) {
+      if (p.matches(path)) return true;
+    }
+    if (HttpMethod.GET.matches(method)) {
+      for (PathPattern p : PUBLIC_GET) {
+        if (p.matches(path)) return true;
+      }
+    }
+    return false;
+  }
+
+  private static List<PathPattern> compile(String... patterns) {
+    PathPatternParser parser = new PathPatternParser();
+    return Arrays.stream(patterns).map(parser::parse).toList();
+  }
 }
@@ -0,0 +1,133 @@
+package com.farmatodo.reto.security;
+
+import com.farmatodo.reto.util.BoundedPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Registry of API keys stored as SHA-256 digests, from three sources merged on reload:
+ * the legacy {@code app.api-key} (name "default"), a file of {@code name:sha256hex}
+ * lines and the api_keys table. A lookup hashes the presented key and does one HashMap
+ * get on the digest: the work does not depend on how much of a real key was guessed,
+ * and raw keys are never kept in memory. Reloads build a new map and swap it in, so
+ * readers never lock.
+ */
+public class ApiKeyRegistry {
+
+  private static final Logger log = LoggerFactory.getLogger(ApiKeyRegistry.class);
+  private static final HexFormat HEX = HexFormat.of();
+  private static final BoundedPool<MessageDigest> SHA256 = new BoundedPool<>(() -> {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }, BoundedPool.defaultSize());
+
+  /** name and hex digest of one key */
+  public record Entry(String name, String sha256Hex) {}
+
+  private final String legacyKeyHash;
+  private final Path file;
+  private final Supplier<List<Entry>> database;
+  private volatile Map<String, String> byDigest = Map.of();
+  private final ReentrantLock reloadLock = new ReentrantLock();
+
+  /**
+   * @param legacyKey plain key from app.api-key, or null
+   * @param file      key file, or null
+   * @param database  enabled rows of api_keys
+   */
+  public ApiKeyRegistry(String legacyKey, Path file, Supplier<List<Entry>> database) {
+    this.legacyKeyHash = legacyKey == null || legacyKey.isBlank() ? null : sha256Hex(legacyKey);
+    this.file = file;
+    this.database = database;
+  }
+
+  /** Name of the client owning {@code presentedKey}, or null if it is not registered */
+  public String lookup(String presentedKey) {
+    return byDigest.get(sha256Hex(presentedKey));
+  }
+
+  public int size() {
+    return byDigest.size();
+  }
+
+  /** Rebuild the registry from every source; a failing source keeps its previous keys out */
+  public void reload() {
+    reloadLock.lock();
+    try {
+      merge();
+    } finally {
+      reloadLock.unlock();
+    }
+  }
+
+  private void merge() {
+    Map<String, String> next = new HashMap<>();
+    if (legacyKeyHash != null) {
+      next.put(legacyKeyHash, "default");
+    }
+    if (file != null && Files.exists(file)) {
+      try {
+        parse(Files.readAllLines(file, StandardCharsets.UTF_8), next);
+      } catch (IOException e) {
+        log.warn("[API-KEYS] No se pudo leer {}: {}", file, e.getMessage());
+      }
+    }
+    try {
+      for (Entry e : database.get()) {
+        next.put(e.sha256Hex().toLowerCase(), e.name());
+      }
+    } catch (RuntimeException e) {
+      log.warn("[API-KEYS] No se pudieron cargar las llaves de la BD: {}", e.getMessage());
+    }
+    if (!next.equals(byDigest)) {
+      byDigest = Map.copyOf(next);
+      log.info("[API-KEYS] {} llaves cargadas", next.size());
+    }
+  }
+
+  /** Hot reload: picks up edits to the key file and to api_keys without a restart */
+  @Scheduled(fixedDelayString = "${app.api-keys.reload-interval-ms:30000}",
+      initialDelayString = "${app.api-keys.reload-interval-ms:30000}")
+  public void scheduledReload() {
+    reload();
+  }
+
+  private static void parse(List<String> lines, Map<String, String> into) {
+    for (String raw : lines) {
+      String line = raw.strip();
+      if (line.isEmpty() || line.startsWith("#")) continue;
+      int sep = line.indexOf(':');
+      String hash = sep > 0 ? line.substring(sep + 1).strip().toLowerCase() : "";
+      if (hash.length() != 64 || !hash.chars().allMatch(c -> Character.digit(c, 16) >= 0)) {
+        log.warn("[API-KEYS] Línea ignorada (se espera nombre:sha256hex)");
+        continue;
+      }
+      into.put(hash, line.substring(0, sep).strip());
+    }
+  }
+
+  public static String sha256Hex(String key) {
+    // digest() deja el MessageDigest listo para el siguiente uso
+    MessageDigest md = SHA256.take();
+    byte[] digest = md.digest(key.getBytes(StandardCharsets.UTF_8));
+    SHA256.release(md);
+    return HEX.formatHex(digest);
+  }
+}
@@ -0,0 +1,106 @@
+package com.farmatodo.reto.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Load shedding ahead of the security chain: a request whose group is at its adaptive
+ * limit ends here with 503 and {@code Retry-After: 1}, before it can wait for a Tomcat
+ * thread or a connection. Async requests hold their slot until they complete.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+  private static final String BODY = "{\"message\":\"Servicio saturado, intenta de nuevo en unos segundos.\"}";
+
+  private final ConcurrencyLimiter limiter;
+  private final MeterRegistry registry;
+
+  public ConcurrencyLimitFilter(ConcurrencyLimiter limiter, MeterRegistry registry) {
+    this.limiter = limiter;
+    this.registry = registry;
+    for (ConcurrencyLimiter.Group g : limiter.groups()) {
+      Gauge.builder("concurrency.limit", g, ConcurrencyLimiter.Group::limit)
+          .tag("group", g.name())
+          .description("Current adaptive in-flight limit")
+          .register(registry);
+      Gauge.builder("concurrency.inflight", g, ConcurrencyLimiter.Group::inFlight)
+          .tag("group", g.name())
+          .description("Requests in flight")
+          .register(registry);
+    }
+  }
+
+  @Override
+  protected void doFilterInternal(@NonNull HttpServletRequest request,
+      @NonNull HttpServletResponse response,
+      @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+    ConcurrencyLimiter.Group group = limiter.route(request.getMethod(), request.getRequestURI());
+    if (group == null) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+    if (!limiter.tryAcquire(group)) {
+      registry.counter("concurrency.rejected", "group", group.name()).increment();
+      response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+      response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+      response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+      response.setCharacterEncoding("UTF-8");
+      response.getWriter().write(BODY);
+      return;
+    }
+
+    long start = limiter.now();
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      if (request.isAsyncStarted()) {
+        request.getAsyncContext().addListener(new ReleaseOnComplete(group, start));
+      } else {
+        limiter.release(group, start);
+      }
+    }
+  }
+
+  private final class ReleaseOnComplete implements AsyncListener {
+
+    private final ConcurrencyLimiter.Group group;
+    private final long start;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    ReleaseOnComplete(ConcurrencyLimiter.Group group, long start) {
+      this.group = group;
+      this.start = start;
+    }
+
+    // onComplete llega también tras un timeout o un error
+    @Override
+    public void onComplete(AsyncEvent event) {
+      if (released.compareAndSet(false, true)) {
+        limiter.release(group, start);
+      }
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) { }
+
+    @Override
+    public void onError(AsyncEvent event) { }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) { }
+  }
+}
@@ -0,0 +1,187 @@
+package com.farmatodo.reto.security;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Adaptive in-flight limits per route group, gradient style. Each window a group compares
+ * its recent average latency with its long-term average: while they agree (within
+ * rttTolerance) the limit grows by about sqrt(limit), and when recent latency climbs because
+ * requests queue for Tomcat threads or Hikari connections it shrinks in proportion. A request
+ * over its group's limit is refused at once instead of joining the queue. Groups carry a
+ * priority (0 = highest); while a higher one is at its limit, lower ones only get
+ * lowPriorityShare of theirs, so catalog reads give way to checkouts first.
+ */
+public class ConcurrencyLimiter {
+
+  /** routes are {@code "METHOD /path"} or {@code "/path"}, the path exact or {@code /prefix/**} */
+  public record GroupSpec(String name, int priority, List<String> routes, int initialLimit, int minLimit,
+      int maxLimit) {}
+
+  public record Tuning(long windowNanos, int minWindowSamples, double rttTolerance, double smoothing,
+      int longWindows, double lowPriorityShare) {
+    public static final Tuning DEFAULTS = new Tuning(100_000_000L, 10, 1.5, 0.2, 100, 0.5);
+  }
+
+  public static final class Group {
+    private final String name;
+    private final int priority;
+    private final String[] methods;
+    private final String[] paths;
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+    private final LongAdder rttNanos = new LongAdder();
+    private final LongAdder samples = new LongAdder();
+    private final AtomicLong windowStart;
+    private final ReentrantLock update = new ReentrantLock();
+    private volatile double limit;
+    private double longRtt; // solo bajo update
+
+    Group(GroupSpec spec, long now) {
+      if (spec.minLimit() <= 0 || spec.maxLimit() < spec.minLimit()) {
+        throw new IllegalArgumentException("min-limit/max-limit inválidos en el grupo " + spec.name());
+      }
+      this.name = spec.name();
+      this.priority = spec.priority();
+      this.methods = new String[spec.routes().size()];
+      this.paths = new String[spec.routes().size()];
+      for (int i = 0; i < methods.length; i++) {
+        String route = spec.routes().get(i).strip();
+        int sp = route.indexOf(' ');
+        methods[i] = sp > 0 ? route.substring(0, sp).toUpperCase() : null;
+        paths[i] = sp > 0 ? route.substring(sp + 1).strip() : route;
+      }
+      this.minLimit = spec.minLimit();
+      this.maxLimit = spec.maxLimit();
+      this.limit = Math.max(minLimit, Math.min(maxLimit, spec.initialLimit()));
+      this.windowStart = new AtomicLong(now);
+    }
+
+    public String name() { return name; }
+
+    public int limit() { return (int) limit; }
+
+    public int inFlight() { return inFlight.get(); }
+
+    boolean matches(String method, String uri) {
+      for (int i = 0; i < paths.length; i++) {
+        if (methods[i] != null && !methods[i].equals(method)) continue;
+        String path = paths[i];
+        if (path.endsWith("/**")) {
+          String prefix = path.substring(0, path.length() - 3);
+          if (uri.startsWith(prefix) && (uri.length() == prefix.length() || uri.charAt(prefix.length()) == '/')) {
+            return true;
+          }
+        } else if (path.equals(uri)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private final Group[] groups;
+  private final Tuning tuning;
+  private final double longAlpha;
+  private final LongSupplier clockNanos;
+
+  public ConcurrencyLimiter(List<GroupSpec> specs, Tuning tuning, LongSupplier clockNanos) {
+    long now = clockNanos.getAsLong();
+    this.groups = specs.stream().map(s -> new Group(s, now)).toArray(Group[]::new);
+    this.tuning = tuning;
+    this.longAlpha = 2.0 / (tuning.longWindows() + 1);
+    this.clockNanos = clockNanos;
+  }
+
+  public List<Group> groups() {
+    return List.of(groups);
+  }
+
+  public long now() {
+    return clockNanos.getAsLong();
+  }
+
+  /** First group whose routes match, or null if the request is not limited */
+  public Group route(String method, String uri) {
+    for (Group g : groups) {
+      if (g.matches(method, uri)) return g;
+    }
+    return null;
+  }
+
+  /** Take a slot in the group; false means the request should be shed */
+  public boolean tryAcquire(Group g) {
+    int n = g.inFlight.incrementAndGet();
+    if (n > effectiveLimit(g)) {
+      g.inFlight.decrementAndGet();
+      return false;
+    }
+    if (n > g.peak.get()) {
+      g.peak.accumulateAndGet(n, Math::max);
+    }
+    return true;
+  }
+
+  /** Free the slot and feed the request's latency into the group's estimate */
+  public void release(Group g, long startNanos) {
+    long now = clockNanos.getAsLong();
+    g.inFlight.decrementAndGet();
+    g.rttNanos.add(now - startNanos);
+    g.samples.increment();
+
+    long start = g.windowStart.get();
+    // Un solo hilo recalcula por ventana; los demás solo suman
+    if (now - start >= tuning.windowNanos() && g.samples.sum() >= tuning.minWindowSamples()
+        && g.update.tryLock()) {
+      try {
+        if (g.windowStart.get() == start) {
+          adjust(g, now);
+        }
+      } finally {
+        g.update.unlock();
+      }
+    }
+  }
+
+  int effectiveLimit(Group g) {
+    int limit = (int) g.limit;
+    for (Group h : groups) {
+      if (h.priority < g.priority && h.inFlight.get() >= (int) h.limit) {
+        return Math.max(g.minLimit, (int) (limit * tuning.lowPriorityShare()));
+      }
+    }
+    return limit;
+  }
+
+  private void adjust(Group g, long now) {
+    long count = g.samples.sumThenReset();
+    double shortRtt = (double) g.rttNanos.sumThenReset() / count;
+    int peak = g.peak.getAndSet(g.inFlight.get());
+    g.windowStart.set(now);
+
+    if (g.longRtt == 0) {
+      g.longRtt = shortRtt;
+    } else {
+      g.longRtt += (shortRtt - g.longRtt) * longAlpha;
+    }
+    // Si la latencia bajó mucho, la referencia la sigue más rápido
+    if (g.longRtt > 2 * shortRtt) {
+      g.longRtt *= 0.95;
+    }
+    // Sin demanda suficiente la latencia no dice nada del límite
+    if (peak < g.limit / 2) {
+      return;
+    }
+
+    double gradient = Math.max(0.5, Math.min(1.0, tuning.rttTolerance() * g.longRtt / shortRtt));
+    double next = g.limit * gradient + Math.sqrt(g.limit);
+    next = g.limit * (1 - tuning.smoothing()) + next * tuning.smoothing();
+    g.limit = Math.max(g.minLimit, Math.min(g.maxLimit, next));
+  }
+}
@@ -0,0 +1,112 @@
+package com.farmatodo.reto.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Runs after ApiKeyFilter/SessionTokenFilter. A request is charged to every client it
+ * carries: the authenticated customer (session token) and the API key, when present, so
+ * minting sessions does not escape the key's quota. Anonymous requests are charged to the
+ * client address, taken from X-Forwarded-For when the app runs behind trusted proxies.
+ * Over the limit the request ends here with 429 and {@code Retry-After} in seconds.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+  private static final String BODY = "{\"message\":\"Demasiadas solicitudes, intenta de nuevo más tarde.\"}";
+
+  private final RateLimiter limiter;
+  private final MeterRegistry registry;
+  private final int trustedProxies;
+
+  public RateLimitFilter(RateLimiter limiter, MeterRegistry registry) {
+    this(limiter, registry, 0);
+  }
+
+  /**
+   * @param trustedProxies proxies in front of the app that append to X-Forwarded-For
+   *                       (Cloud Run: 1); 0 uses the connection address
+   */
+  public RateLimitFilter(RateLimiter limiter, MeterRegistry registry, int trustedProxies) {
+    this.limiter = limiter;
+    this.registry = registry;
+    this.trustedProxies = trustedProxies;
+    Gauge.builder("ratelimit.buckets", limiter, RateLimiter::bucketCount)
+        .description("Clients with a live token bucket")
+        .register(registry);
+  }
+
+  @Override
+  protected void doFilterInternal(@NonNull HttpServletRequest request,
+      @NonNull HttpServletResponse response,
+      @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+    RateLimiter.Decision d = acquire(request);
+    if (d.allowed()) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    registry.counter("ratelimit.rejected", "route", d.route()).increment();
+    response.setStatus(429);
+    response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf((d.retryAfterMs() + 999) / 1000));
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    response.setCharacterEncoding("UTF-8");
+    response.getWriter().write(BODY);
+  }
+
+  private RateLimiter.Decision acquire(HttpServletRequest request) {
+    String method = request.getMethod();
+    String uri = request.getRequestURI();
+    Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+    Long customerId = auth != null && auth.getPrincipal() instanceof Long id ? id : null;
+    String apiClient = (String) request.getAttribute(ApiKeyFilter.CLIENT_ATTRIBUTE);
+    if (apiClient == null && auth != null && customerId == null) {
+      apiClient = auth.getName();
+    }
+    if (customerId == null && apiClient == null) {
+      return limiter.acquire(method, uri, "ip:" + clientAddress(request));
+    }
+    // La key primero: si su cuota se agotó no se gasta la del cliente
+    if (apiClient != null) {
+      RateLimiter.Decision d = limiter.acquire(method, uri, "api:" + apiClient);
+      if (!d.allowed() || customerId == null) {
+        return d;
+      }
+    }
+    return limiter.acquire(method, uri, "customer:" + customerId);
+  }
+
+  /**
+   * Each trusted proxy appends the address it saw, so the entry trustedProxies places from
+   * the end is the one the outermost proxy received; anything before it is client-supplied.
+   */
+  String clientAddress(HttpServletRequest request) {
+    if (trustedProxies <= 0) {
+      return request.getRemoteAddr();
+    }
+    String forwarded = request.getHeader("X-Forwarded-For");
+    if (forwarded == null || forwarded.isBlank()) {
+      return request.getRemoteAddr();
+    }
+    String[] hops = forwarded.split(",");
+    return hops[Math.max(0, hops.length - trustedProxies)].trim();
+  }
+
+  @Scheduled(fixedDelayString = "${ratelimit.sweep-interval-ms:60000}")
+  public void sweepIdleBuckets() {
+    limiter.sweep();
+  }
+}
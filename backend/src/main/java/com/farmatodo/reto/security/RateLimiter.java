@@ -0,0 +1,132 @@
+package com.farmatodo.reto.security;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-route token buckets keyed by client (API key or customer). Routes are matched in
+ * order, by method and by an exact path or a {@code /prefix/**} pattern; requests that
+ * match no route use the default limit, or are not limited if there is none. Each route
+ * keeps at most maxBuckets clients; full buckets are idle and are swept out first.
+ */
+public class RateLimiter {
+
+  public record Limit(long capacity, double refillPerSecond) {}
+
+  public record Rule(String method, String path, Limit limit) {}
+
+  static final class Route {
+    final String name;
+    final String method;
+    final String exact;
+    final String prefix;
+    final TokenBucket bucket;
+    final Decision allowed;
+    final Map<String, AtomicLong> clients = new ConcurrentHashMap<>();
+
+    Route(String name, String method, String path, Limit limit) {
+      this.name = name;
+      this.method = method == null || method.isBlank() ? null : method.toUpperCase();
+      boolean wildcard = path.endsWith("/**");
+      this.exact = wildcard ? null : path;
+      this.prefix = wildcard ? path.substring(0, path.length() - 3) : null;
+      this.bucket = new TokenBucket(limit.capacity(), limit.refillPerSecond());
+      this.allowed = new Decision(name, 0L);
+    }
+
+    boolean matches(String m, String uri) {
+      if (method != null && !method.equals(m)) return false;
+      if (exact != null) return exact.equals(uri);
+      return uri.startsWith(prefix) && (uri.length() == prefix.length() || uri.charAt(prefix.length()) == '/');
+    }
+  }
+
+  private final Route[] routes;
+  private final Route fallback;
+  private final int maxBuckets;
+  private final LongSupplier clockMs;
+
+  public RateLimiter(List<Rule> rules, Limit defaultLimit, int maxBuckets, LongSupplier clockMs) {
+    this.routes = rules.stream()
+        .map(r -> new Route((r.method() != null ? r.method() + " " : "") + r.path(), r.method(), r.path(), r.limit()))
+        .toArray(Route[]::new);
+    this.fallback = defaultLimit != null ? new Route("default", null, "/**", defaultLimit) : null;
+    this.maxBuckets = maxBuckets;
+    this.clockMs = clockMs;
+  }
+
+  /** Monotonic ms clock, starting near zero so it fits TokenBucket's 40-bit timestamp */
+  public static LongSupplier monotonicClock() {
+    long origin = System.nanoTime();
+    return () -> (System.nanoTime() - origin) / 1_000_000L;
+  }
+
+  /** Result of an acquire: which route limited the call and how long to wait (0 = allowed) */
+  public record Decision(String route, long retryAfterMs) {
+    static final Decision UNLIMITED = new Decision(null, 0L);
+
+    public boolean allowed() { return retryAfterMs == 0L; }
+  }
+
+  public Decision acquire(String method, String uri, String client) {
+    Route route = route(method, uri);
+    if (route == null) return Decision.UNLIMITED;
+    long now = clockMs.getAsLong();
+    AtomicLong state = route.clients.get(client);
+    if (state == null) {
+      if (route.clients.size() >= maxBuckets) evict(route, now);
+      state = route.clients.computeIfAbsent(client, k -> new AtomicLong(route.bucket.full(now)));
+    }
+    long wait = route.bucket.tryAcquire(state, now);
+    return wait == 0L ? route.allowed : new Decision(route.name, wait);
+  }
+
+  /** Drop every idle (full) bucket; returns how many */
+  public int sweep() {
+    long now = clockMs.getAsLong();
+    int removed = 0;
+    for (Route r : allRoutes()) removed += sweep(r, now);
+    return removed;
+  }
+
+  public int bucketCount() {
+    int n = 0;
+    for (Route r : allRoutes()) n += r.clients.size();
+    return n;
+  }
+
+  private Route route(String method, String uri) {
+    for (Route r : routes) {
+      if (r.matches(method, uri)) return r;
+    }
+    return fallback;
+  }
+
+  private List<Route> allRoutes() {
+    List<Route> all = new ArrayList<>(List.of(routes));
+    if (fallback != null) all.add(fallback);
+    return all;
+  }
+
+  // Un hilo que ya tomó la referencia puede gastar un token de un bucket recién barrido:
+  // a lo sumo un token extra, a cambio de no sincronizar nada
+  private static int sweep(Route r, long now) {
+    int before = r.clients.size();
+    r.clients.values().removeIf(s -> r.bucket.isFull(s.get(), now));
+    return before - r.clients.size();
+  }
+
+  private void evict(Route r, long now) {
+    if (sweep(r, now) > 0) return;
+    // Sin buckets ociosos: se descarta uno cualquiera (su cliente empieza con el bucket lleno)
+    var it = r.clients.keySet().iterator();
+    if (it.hasNext()) {
+      it.next();
+      it.remove();
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package com.farmatodo.reto.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Authenticates {@code Authorization: Bearer <session token>} entirely in memory. The
+ * principal is the customerId (Long), the credentials the verified Session. Requests
+ * without a bearer token fall through to ApiKeyFilter; a bearer token that does not
+ * verify is rejected with 401.
+ */
+@Component
+public class SessionTokenFilter extends OncePerRequestFilter {
+
+  private static final String BEARER = "Bearer ";
+  private static final List<GrantedAuthority> CUSTOMER = List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER"));
+
+  private final SessionTokens tokens;
+
+  public SessionTokenFilter(SessionTokens tokens) {
+    this.tokens = tokens;
+  }
+
+  @Override
+  protected void doFilterInternal(@NonNull HttpServletRequest request,
+      @NonNull HttpServletResponse response,
+      @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+    String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+    if (header == null || !header.startsWith(BEARER)) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    Optional<SessionTokens.Session> session = tokens.verify(header.substring(BEARER.length()));
+    if (session.isEmpty()) {
+      response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid session token");
+      return;
+    }
+
+    var auth = new UsernamePasswordAuthenticationToken(session.get().customerId(), session.get(), CUSTOMER);
+    var context = SecurityContextHolder.createEmptyContext();
+    context.setAuthentication(auth);
+    SecurityContextHolder.setContext(context);
+    filterChain.doFilter(request, response);
+  }
+
+  /** Revoked ids are only needed until their token expires on its own */
+  @Scheduled(fixedDelayString = "${auth.session.purge-interval-ms:600000}")
+  public void purgeRevoked() {
+    tokens.purgeExpired();
+  }
+}
@@ -0,0 +1,119 @@
+package com.farmatodo.reto.security;
+
+import com.farmatodo.reto.util.BoundedPool;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stateless session tokens: {@code base64url(payload).base64url(HMAC-SHA256(payload))}
+ * where payload is version, customerId, expiry (epoch seconds) and a random token id.
+ * Verification is pure CPU (one HMAC on a thread-local Mac) plus a lookup in the
+ * revocation map; revoked ids are kept only until their token would have expired.
+ */
+public final class SessionTokens {
+
+  public record Session(long customerId, long tokenId, Instant expiresAt) {}
+
+  public record Issued(String token, Instant expiresAt) {}
+
+  private static final String ALGORITHM = "HmacSHA256";
+  private static final byte VERSION = 1;
+  private static final int PAYLOAD_BYTES = 1 + 8 + 8 + 8;
+  private static final int SIGNATURE_BYTES = 32;
+  private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+  private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+  private final BoundedPool<Mac> macs;
+  private final Duration ttl;
+  private final Clock clock;
+  private final SecureRandom random = new SecureRandom();
+  private final Map<Long, Instant> revoked = new ConcurrentHashMap<>();
+
+  public SessionTokens(byte[] secret, Duration ttl, Clock clock) {
+    if (secret.length < 32) {
+      throw new IllegalArgumentException("session secret must be at least 32 bytes");
+    }
+    SecretKeySpec key = new SecretKeySpec(secret, ALGORITHM);
+    newMac(key); // valida la clave al arrancar
+    this.macs = new BoundedPool<>(() -> newMac(key), BoundedPool.defaultSize());
+    this.ttl = ttl;
+    this.clock = clock;
+  }
+
+  public Issued issue(long customerId) {
+    Instant expiresAt = clock.instant().plus(ttl);
+    ByteBuffer payload = ByteBuffer.allocate(PAYLOAD_BYTES)
+        .put(VERSION)
+        .putLong(customerId)
+        .putLong(expiresAt.getEpochSecond())
+        .putLong(random.nextLong());
+    byte[] p = payload.array();
+    String token = ENCODER.encodeToString(p) + "." + ENCODER.encodeToString(sign(p));
+    return new Issued(token, Instant.ofEpochSecond(expiresAt.getEpochSecond()));
+  }
+
+  /** The session, or empty if the token is malformed, forged, expired or revoked */
+  public Optional<Session> verify(String token) {
+    int dot = token.indexOf('.');
+    if (dot <= 0 || dot == token.length() - 1) return Optional.empty();
+    byte[] p;
+    byte[] sig;
+    try {
+      p = DECODER.decode(token.substring(0, dot));
+      sig = DECODER.decode(token.substring(dot + 1));
+    } catch (IllegalArgumentException e) {
+      return Optional.empty();
+    }
+    if (p.length != PAYLOAD_BYTES || sig.length != SIGNATURE_BYTES || p[0] != VERSION) return Optional.empty();
+    if (!MessageDigest.isEqual(sign(p), sig)) return Optional.empty();
+
+    ByteBuffer b = ByteBuffer.wrap(p, 1, PAYLOAD_BYTES - 1);
+    long customerId = b.getLong();
+    Instant expiresAt = Instant.ofEpochSecond(b.getLong());
+    long tokenId = b.getLong();
+    if (!clock.instant().isBefore(expiresAt)) return Optional.empty();
+    if (!revoked.isEmpty() && revoked.containsKey(tokenId)) return Optional.empty();
+    return Optional.of(new Session(customerId, tokenId, expiresAt));
+  }
+
+  public void revoke(Session session) {
+    revoked.put(session.tokenId(), session.expiresAt());
+  }
+
+  /** Drop revocations whose token already expired on its own; returns how many */
+  public int purgeExpired() {
+    Instant now = clock.instant();
+    int before = revoked.size();
+    revoked.values().removeIf(exp -> !now.isBefore(exp));
+    return before - revoked.size();
+  }
+
+  public int revokedCount() { return revoked.size(); }
+
+  private byte[] sign(byte[] payload) {
+    // doFinal deja el Mac listo para el siguiente mensaje
+    Mac m = macs.take();
+    byte[] signature = m.doFinal(payload);
+    macs.release(m);
+    return signature;
+  }
+
+  private static Mac newMac(SecretKeySpec key) {
+    try {
+      Mac m = Mac.getInstance(ALGORITHM);
+      m.init(key);
+      return m;
+    } catch (GeneralSecurityException e) { throw new IllegalStateException(e); }
+  }
+}
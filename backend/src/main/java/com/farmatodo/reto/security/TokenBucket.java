@@ -0,0 +1,70 @@
+package com.farmatodo.reto.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket whose whole state is one long: the upper 40 bits hold the time of the
+ * last take (ms on the limiter's clock) and the lower 24 bits the tokens left in
+ * thousandths. Taking a token is a single CAS; nothing is written on a rejection. The
+ * limit itself (capacity, refill rate) is shared by every bucket of a route.
+ */
+public final class TokenBucket {
+
+  private static final int TOKEN_BITS = 24;
+  private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+  private static final long MILLI = 1000;
+  public static final long MAX_CAPACITY = TOKEN_MASK / MILLI;
+
+  private final long capacityMilli;
+  private final double milliPerMs; // milésimas por ms == tokens por segundo
+
+  public TokenBucket(long capacity, double refillPerSecond) {
+    if (capacity < 1 || capacity > MAX_CAPACITY) {
+      throw new IllegalArgumentException("capacity must be in 1.." + MAX_CAPACITY);
+    }
+    if (refillPerSecond <= 0) {
+      throw new IllegalArgumentException("refill-per-second must be > 0");
+    }
+    this.capacityMilli = capacity * MILLI;
+    this.milliPerMs = refillPerSecond;
+  }
+
+  /** State of a full bucket at {@code nowMs} */
+  public long full(long nowMs) {
+    return (nowMs << TOKEN_BITS) | capacityMilli;
+  }
+
+  /** Take one token; 0 on success, otherwise the ms until a token will be available */
+  public long tryAcquire(AtomicLong state, long nowMs) {
+    while (true) {
+      long s = state.get();
+      long tokens = tokensAt(s, nowMs);
+      if (tokens < MILLI) {
+        return Math.max(1L, (long) Math.ceil((MILLI - tokens) / milliPerMs));
+      }
+      long last = Math.max(s >>> TOKEN_BITS, nowMs);
+      if (state.compareAndSet(s, (last << TOKEN_BITS) | (tokens - MILLI))) {
+        return 0L;
+      }
+    }
+  }
+
+  /** Tokens left (whole) at {@code nowMs} */
+  public long available(long s, long nowMs) {
+    return tokensAt(s, nowMs) / MILLI;
+  }
+
+  /** A full bucket is indistinguishable from a new one, so it can be dropped */
+  public boolean isFull(long s, long nowMs) {
+    return tokensAt(s, nowMs) >= capacityMilli;
+  }
+
+  private long tokensAt(long s, long nowMs) {
+    long tokens = s & TOKEN_MASK;
+    long elapsed = nowMs - (s >>> TOKEN_BITS);
+    if (elapsed <= 0) {
+      return tokens;
+    }
+    return Math.min(capacityMilli, tokens + (long) (elapsed * milliPerMs));
+  }
+}
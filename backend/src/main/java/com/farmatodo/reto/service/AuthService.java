@@ -3,22 +3,49 @@ package com.farmatodo.reto.service;
 import com.farmatodo.reto.dto.CustomerRegistrationRequest;
 import com.farmatodo.reto.dto.CustomerResponse;
 import com.farmatodo.reto.dto.LoginRequest;
+import com.farmatodo.reto.dto.LoginResponse;
 import com.farmatodo.reto.entity.Customer;
 import com.farmatodo.reto.repository.CustomerRepository;
+import com.farmatodo.reto.security.SessionTokens;
+import com.farmatodo.reto.util.PrimaryReads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Registration and login. Password hashing runs on the PasswordHasher executor, so both
+ * operations return a future; the request thread only does the (short) DB lookups. The
+ * writes that follow a hash (insert, rehash) hop to the application task executor, so
+ * the bounded bcrypt threads never wait on the database.
+ */
 @Service
 public class AuthService {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthService.class);
+
     private final CustomerRepository customers;
+    private final PasswordHasher hasher;
+    private final CustomerUniqueness uniqueness;
+    private final SessionTokens sessions;
+    private final Executor io;
 
-    public AuthService(CustomerRepository customers) {
+    public AuthService(CustomerRepository customers, PasswordHasher hasher, CustomerUniqueness uniqueness,
+            SessionTokens sessions,
+            @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor io) {
         this.customers = customers;
+        this.hasher = hasher;
+        this.uniqueness = uniqueness;
+        this.sessions = sessions;
+        this.io = io;
     }
 
-    @Transactional
-    public CustomerResponse register(CustomerRegistrationRequest request) {
+    public CompletableFuture<CustomerResponse> register(CustomerRegistrationRequest request) {
 
         if (request.firstName() == null || request.firstName().isBlank()
                 || request.lastName() == null || request.lastName().isBlank()
@@ -29,53 +56,93 @@ public class AuthService {
             throw new IllegalArgumentException("Todos los campos son obligatorios.");
         }
 
-        if (customers.existsByEmailIgnoreCase(request.email())) {
-            throw new IllegalArgumentException("El correo ya está registrado.");
-        }
-
-        if (customers.existsByPhone(request.phone())) {
-            throw new IllegalArgumentException("El teléfono ya está registrado.");
-        }
+        // Se rechaza antes de pagar el hash; el filtro evita la consulta si el dato es nuevo
+        rejectIfTaken(uniqueness.firstConflict(request.email(), request.phone()));
 
         Customer c = new Customer();
         c.setFirstName(request.firstName().trim());
         c.setLastName(request.lastName().trim());
         c.setEmail(request.email().trim());
-        c.setPhone(request.phone().trim());
+        c.setPhone(CustomerUniqueness.normalizePhone(request.phone()));
         c.setAddress(request.address().trim());
-        c.setPassword(request.password()); // **Reto**: texto plano
-
-        Customer saved = customers.save(c);
 
-        return new CustomerResponse(
-                saved.getId(),
-                saved.getFirstName(),
-                saved.getLastName(),
-                saved.getEmail(),
-                saved.getPhone(),
-                saved.getAddress());
+        // El ON CONFLICT cubre el registro concurrente del mismo correo o teléfono
+        return hasher.hash(request.password()).thenApplyAsync(hash -> {
+            c.setPassword(hash);
+            rejectIfTaken(uniqueness.insert(c));
+            return toResponse(c);
+        }, io);
     }
 
-    @Transactional(readOnly = true)
-    public CustomerResponse login(LoginRequest request) {
+    /** Verify credentials and issue a signed session token for later requests */
+    public CompletableFuture<LoginResponse> login(LoginRequest request) {
         if (request.email() == null || request.email().isBlank()
                 || request.password() == null || request.password().isBlank()) {
             throw new IllegalArgumentException("Correo y contraseña son obligatorios.");
         }
 
-        Customer customer = customers.findByEmailIgnoreCase(request.email())
-                .orElseThrow(() -> new IllegalArgumentException("Credenciales inválidas."));
+        Optional<Customer> found = customers.findByEmailIgnoreCase(request.email());
+        if (found.isEmpty()) {
+            // Recién registrado: puede que la réplica de lectura aún no tenga la fila
+            found = PrimaryReads.call(() -> customers.findByEmailIgnoreCase(request.email()));
+        }
+        if (found.isEmpty()) {
+            // mismo costo que un login real, para no revelar qué correos existen
+            return hasher.verifyAgainstDummy(request.password()).thenApply(v -> {
+                throw new IllegalArgumentException("Credenciales inválidas.");
+            });
+        }
 
-        if (!customer.getPassword().equals(request.password())) {
-            throw new IllegalArgumentException("Credenciales inválidas.");
+        Customer customer = found.get();
+        String stored = customer.getPassword();
+        return hasher.verify(request.password(), stored).thenCompose(verdict -> switch (verdict) {
+            case MISMATCH -> throw new IllegalArgumentException("Credenciales inválidas.");
+            case MATCH -> CompletableFuture.completedFuture(toResponse(customer));
+            case MATCH_NEEDS_REHASH -> rehash(customer, stored, request.password());
+        }).thenApply(this::withSession);
+    }
+
+    /** Revoke the session carried by the token; unknown or expired tokens are ignored */
+    public void logout(String token) {
+        sessions.verify(token).ifPresent(sessions::revoke);
+    }
+
+    private LoginResponse withSession(CustomerResponse customer) {
+        SessionTokens.Issued issued = sessions.issue(customer.id());
+        return LoginResponse.of(customer, issued.token(), issued.expiresAt());
+    }
+
+    /** Upgrade a legacy or low-cost password; a failure here never fails the login */
+    private CompletableFuture<CustomerResponse> rehash(Customer customer, String stored, String raw) {
+        return hasher.hash(raw)
+                .thenApplyAsync(hash -> customers.replacePassword(customer.getId(), stored, hash), io)
+                .handle((updated, ex) -> {
+                    if (ex != null) {
+                        log.warn("[AUTH] No se pudo re-hashear la contraseña del cliente {}: {}",
+                                customer.getId(), ex.getMessage());
+                    } else if (updated == 1) {
+                        log.info("[AUTH] Contraseña del cliente {} migrada a bcrypt", customer.getId());
+                    }
+                    return toResponse(customer);
+                });
+    }
+
+    private static void rejectIfTaken(CustomerUniqueness.Conflict conflict) {
+        if (conflict == CustomerUniqueness.Conflict.EMAIL) {
+            throw new IllegalArgumentException("El correo ya está registrado.");
         }
+        if (conflict == CustomerUniqueness.Conflict.PHONE) {
+            throw new IllegalArgumentException("El teléfono ya está registrado.");
+        }
+    }
 
+    private static CustomerResponse toResponse(Customer c) {
         return new CustomerResponse(
-                customer.getId(),
-                customer.getFirstName(),
-                customer.getLastName(),
-                customer.getEmail(),
-                customer.getPhone(),
-                customer.getAddress());
+                c.getId(),
+                c.getFirstName(),
+                c.getLastName(),
+                c.getEmail(),
+                c.getPhone(),
+                c.getAddress());
     }
 }
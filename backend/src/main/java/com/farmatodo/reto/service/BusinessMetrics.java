@@ -0,0 +1,92 @@
+package com.farmatodo.reto.service;
+
+import com.farmatodo.reto.entity.Order;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Business counters for the order, payment, tokenization and search flows. Every meter
+ * is registered up front with a closed set of tag values (order status, attempt number
+ * capped at {@link #MAX_ATTEMPT_TAG}, approved/rejected...), so the hot paths only
+ * increment and the Prometheus series count stays fixed.
+ */
+@Component
+public class BusinessMetrics {
+
+    /** Attempts past this one share the tag "N+" */
+    static final int MAX_ATTEMPT_TAG = 5;
+
+    private final Map<Order.Status, Counter> orders = new EnumMap<>(Order.Status.class);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter[] approvedAttempts = new Counter[MAX_ATTEMPT_TAG];
+    private final Counter[] rejectedAttempts = new Counter[MAX_ATTEMPT_TAG];
+    private final Counter cardsAccepted;
+    private final Counter cardsRejected;
+    private final Counter searchesFound;
+    private final Counter searchesEmpty;
+
+    public BusinessMetrics(MeterRegistry registry) {
+        for (Order.Status s : Order.Status.values()) {
+            orders.put(s, Counter.builder("orders").tag("status", s.name())
+                    .description("Orders by status: PENDING when created, then PAID or FAILED")
+                    .register(registry));
+        }
+        Gauge.builder("orders.in.flight", inFlight, AtomicInteger::get)
+                .description("Orders created and still charging")
+                .register(registry);
+        for (int i = 0; i < MAX_ATTEMPT_TAG; i++) {
+            String attempt = i + 1 == MAX_ATTEMPT_TAG ? MAX_ATTEMPT_TAG + "+" : String.valueOf(i + 1);
+            approvedAttempts[i] = attempt(registry, attempt, "approved");
+            rejectedAttempts[i] = attempt(registry, attempt, "rejected");
+        }
+        cardsAccepted = Counter.builder("tokenization.cards").tag("result", "accepted")
+                .description("Cards submitted for tokenization")
+                .register(registry);
+        cardsRejected = Counter.builder("tokenization.cards").tag("result", "rejected")
+                .description("Cards submitted for tokenization")
+                .register(registry);
+        searchesFound = Counter.builder("products.searches").tag("result", "found")
+                .description("Product searches, by whether anything matched")
+                .register(registry);
+        searchesEmpty = Counter.builder("products.searches").tag("result", "empty")
+                .description("Product searches, by whether anything matched")
+                .register(registry);
+    }
+
+    private static Counter attempt(MeterRegistry registry, String attempt, String outcome) {
+        return Counter.builder("payment.attempts").tag("attempt", attempt).tag("outcome", outcome)
+                .description("Payment gateway calls by attempt number and outcome")
+                .register(registry);
+    }
+
+    public void orderCreated() {
+        orders.get(Order.Status.PENDING).increment();
+        inFlight.incrementAndGet();
+    }
+
+    /** Final status of an order previously counted as created; PENDING means it aborted with an error */
+    public void orderCompleted(Order.Status status) {
+        if (status != Order.Status.PENDING) orders.get(status).increment();
+        inFlight.decrementAndGet();
+    }
+
+    public void paymentAttempt(int attempt, boolean approved) {
+        int i = Math.min(Math.max(attempt, 1), MAX_ATTEMPT_TAG) - 1;
+        (approved ? approvedAttempts : rejectedAttempts)[i].increment();
+    }
+
+    public void cardsTokenized(int accepted, int rejected) {
+        if (accepted > 0) cardsAccepted.increment(accepted);
+        if (rejected > 0) cardsRejected.increment(rejected);
+    }
+
+    public void productSearch(int results) {
+        (results > 0 ? searchesFound : searchesEmpty).increment();
+    }
+}
@@ -0,0 +1,52 @@
+package com.farmatodo.reto.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Dedicated, bounded executor for the CPU-bound card encryption of POST /tokens/batch,
+ * kept off the common ForkJoinPool. When the queue is full new work is rejected
+ * (RejectedExecutionException) instead of piling up. Not itself an Executor bean, so
+ * Boot still creates its applicationTaskExecutor.
+ */
+public class CardSealingPool implements AutoCloseable {
+
+    private final Executor executor;
+
+    public CardSealingPool(int threads, int queueCapacity) {
+        this(newExecutor(threads, queueCapacity));
+    }
+
+    // Para tests: p.ej. Runnable::run ejecuta en el hilo que llama
+    public CardSealingPool(Executor executor) {
+        this.executor = executor;
+    }
+
+    private static ThreadPoolExecutor newExecutor(int threads, int queueCapacity) {
+        AtomicInteger seq = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "card-seal-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /** Run {@code work} on the pool; throws RejectedExecutionException when the queue is full */
+    public <T> CompletableFuture<T> submit(Supplier<T> work) {
+        return CompletableFuture.supplyAsync(work, executor);
+    }
+
+    @Override
+    public void close() {
+        if (executor instanceof ExecutorService es) {
+            es.shutdown();
+        }
+    }
+}
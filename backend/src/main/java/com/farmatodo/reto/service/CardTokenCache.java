@@ -0,0 +1,180 @@
+package com.farmatodo.reto.service;
+
+import com.farmatodo.reto.entity.CardToken;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Bounded token → (customerId, keyVersion, status) cache for the checkout path. Entries
+ * are written on tokenization and on first lookup; a revocation overwrites the entry with
+ * REVOKED and a concurrent load never replaces an existing entry, so a stale ACTIVE row
+ * cannot win over a revocation. Past maxSize an arbitrary entry is evicted; tokens are
+ * random UUIDs, so this behaves like random eviction without any shared LRU bookkeeping.
+ * A revocation only reaches the instance that handled it, so every entry also expires
+ * {@code ttl} after it was written and is then reloaded: that bounds how long another
+ * instance keeps charging a revoked card.
+ */
+public class CardTokenCache {
+
+    public record Entry(long customerId, int keyVersion, CardToken.Status status) {
+
+        static Entry of(CardToken t) {
+            return new Entry(t.getCustomerId(),
+                    t.getKeyVersion() != null ? t.getKeyVersion() : KeyRing.LEGACY_VERSION,
+                    t.getStatus() != null ? t.getStatus() : CardToken.Status.ACTIVE);
+        }
+
+        public boolean usableBy(long customerId) {
+            return status == CardToken.Status.ACTIVE && this.customerId == customerId;
+        }
+    }
+
+    // El vencimiento no se toca al cambiar la versión de llave (rekeyed)
+    private record Slot(Entry entry, long expiresAt) {}
+
+    private final Map<String, Slot> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final Function<String, Optional<CardToken>> loader;
+    private final Counter hits;
+    private final Counter misses;
+
+    /** @param loader looks a token up in the database on a miss */
+    public CardTokenCache(int maxSize, Duration ttl, Function<String, Optional<CardToken>> loader,
+            MeterRegistry registry) {
+        this(maxSize, ttl, loader, registry, Clock.systemUTC());
+    }
+
+    public CardTokenCache(int maxSize, Duration ttl, Function<String, Optional<CardToken>> loader,
+            MeterRegistry registry, Clock clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("max-size must be > 0");
+        }
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl must be > 0");
+        }
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        this.loader = loader;
+        this.hits = Counter.builder("tokenization.cache.requests").tag("result", "hit")
+                .description("Card token lookups on the payment path")
+                .register(registry);
+        this.misses = Counter.builder("tokenization.cache.requests").tag("result", "miss")
+                .description("Card token lookups on the payment path")
+                .register(registry);
+        Gauge.builder("tokenization.cache.size", entries, Map::size)
+                .description("Card tokens held in the resolution cache")
+                .register(registry);
+        Gauge.builder("tokenization.cache.hit.ratio", this, CardTokenCache::hitRatio)
+                .description("Hits over total lookups since startup")
+                .register(registry);
+    }
+
+    /** Cached entry for the token, loading it on a miss; empty if the token does not exist */
+    public Optional<Entry> resolve(String token) {
+        Slot s = entries.get(token);
+        if (s != null) {
+            if (s.expiresAt() > clock.millis()) {
+                hits.increment();
+                return Optional.of(s.entry());
+            }
+            // vencida: se recarga de la BD, donde otra instancia pudo haberla revocado
+            entries.remove(token, s);
+        }
+        misses.increment();
+        Optional<Entry> loaded = loader.apply(token).map(Entry::of);
+        loaded.ifPresent(l -> store(token, l, false));
+        return loaded;
+    }
+
+    /** Cache freshly stored tokens; inside a transaction this waits for the commit */
+    public void put(Collection<CardToken> tokens) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<CardToken> pending = List.copyOf(tokens);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pending.forEach(t -> store(t.getToken(), Entry.of(t), false));
+                }
+            });
+            return;
+        }
+        tokens.forEach(t -> store(t.getToken(), Entry.of(t), false));
+    }
+
+    public void put(CardToken token) {
+        put(List.of(token));
+    }
+
+    /**
+     * Mark a token revoked (whatever its status field says), overwriting whatever is cached; inside a transaction this waits
+     * for the commit, so a rolled-back revocation never leaves the token unusable
+     */
+    public void revoked(CardToken token) {
+        Entry loaded = Entry.of(token);
+        Entry entry = new Entry(loaded.customerId(), loaded.keyVersion(), CardToken.Status.REVOKED);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    store(token.getToken(), entry, true);
+                }
+            });
+            return;
+        }
+        store(token.getToken(), entry, true);
+    }
+
+    /** Follow a key rotation without evicting the entry */
+    public void rekeyed(String token, int keyVersion) {
+        entries.computeIfPresent(token, (k, s) -> new Slot(
+                new Entry(s.entry().customerId(), keyVersion, s.entry().status()), s.expiresAt()));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public double hitRatio() {
+        double h = hits.count();
+        double total = h + misses.count();
+        return total == 0 ? 0.0 : h / total;
+    }
+
+    private void store(String token, Entry entry, boolean overwrite) {
+        Slot slot = new Slot(entry, clock.millis() + ttlMillis);
+        if (overwrite) {
+            entries.put(token, slot);
+        } else if (entries.putIfAbsent(token, slot) != null) {
+            return;
+        }
+        if (entries.size() > maxSize) {
+            evictOne(token);
+        }
+    }
+
+    private void evictOne(String keep) {
+        Iterator<String> it = entries.keySet().iterator();
+        while (it.hasNext()) {
+            if (!it.next().equals(keep)) {
+                it.remove();
+                return;
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.farmatodo.reto.service;
 
 import com.farmatodo.reto.dto.CartDtos;
+import com.farmatodo.reto.dto.CreateOrderResponse;
 
 public interface CartService {
     CartDtos.View get(Long customerId);
@@ -11,5 +12,5 @@ public interface CartService {
 
     void clear(Long customerId);
 
-    Object checkout(CartDtos.CheckoutRequest req);
+    CreateOrderResponse checkout(CartDtos.CheckoutRequest req);
 }
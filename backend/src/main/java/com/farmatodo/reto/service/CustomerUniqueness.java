@@ -0,0 +1,136 @@
+package com.farmatodo.reto.service;
+
+import com.farmatodo.reto.entity.Customer;
+import com.farmatodo.reto.repository.CustomerRepository;
+import com.farmatodo.reto.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Locale;
+
+/**
+ * Signup pre-check for email and phone. A Bloom filter seeded from customers answers
+ * "definitely new" without touching the database; only a "maybe" runs the exists query.
+ * The filter is never the final word: inserts still go through ON CONFLICT DO NOTHING
+ * against the unique indexes (see CustomerInsertRepository). Until seeding finishes
+ * every answer is "maybe". Emails and phones go through {@link #normalizeEmail} and
+ * {@link #normalizePhone} everywhere: filter keys, lookups and the stored phone.
+ */
+@Component
+public class CustomerUniqueness {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerUniqueness.class);
+
+    public enum Conflict { EMAIL, PHONE }
+
+    private static final String SEED_PAGE = "select id, email, phone from customers where id > ? order by id limit ?";
+
+    private final CustomerRepository customers;
+    private final JdbcTemplate jdbc;
+    private final BloomFilter emails;
+    private final BloomFilter phones;
+    private final Counter definitelyNew;
+    private final Counter maybe;
+    private final int seedPageSize;
+    private volatile boolean ready;
+
+    public CustomerUniqueness(CustomerRepository customers, JdbcTemplate jdbc, MeterRegistry registry,
+            @Value("${customers.bloom.expected-insertions:1000000}") long expectedInsertions,
+            @Value("${customers.bloom.false-positive-rate:0.01}") double falsePositiveRate,
+            @Value("${customers.bloom.seed-page-size:5000}") int seedPageSize) {
+        this.customers = customers;
+        this.jdbc = jdbc;
+        this.seedPageSize = seedPageSize;
+        this.emails = new BloomFilter(expectedInsertions, falsePositiveRate);
+        this.phones = new BloomFilter(expectedInsertions, falsePositiveRate);
+        this.definitelyNew = Counter.builder("customers.uniqueness.precheck").tag("result", "definitely_new")
+                .description("Signup uniqueness checks answered by the Bloom filter")
+                .register(registry);
+        this.maybe = Counter.builder("customers.uniqueness.precheck").tag("result", "maybe")
+                .description("Signup uniqueness checks that needed a database query")
+                .register(registry);
+    }
+
+    /**
+     * Load every existing email and phone, one keyset page (by id) at a time, so no single
+     * query holds the whole table; inserts during the scan are added directly
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        try {
+            long[] page = {0, 0}; // último id, filas de la página
+            long rows = 0;
+            do {
+                page[1] = 0;
+                jdbc.query(SEED_PAGE, rs -> {
+                    page[0] = rs.getLong(1);
+                    emails.put(normalizeEmail(rs.getString(2)));
+                    phones.put(normalizePhone(rs.getString(3)));
+                    page[1]++;
+                }, page[0], seedPageSize);
+                rows += page[1];
+            } while (page[1] == seedPageSize);
+            ready = true;
+            log.info("[CUSTOMERS] filtro de unicidad cargado: {} clientes", rows);
+        } catch (Exception e) {
+            log.warn("[CUSTOMERS] No se pudo cargar el filtro de unicidad; se consulta siempre la BD: {}", e.getMessage());
+        }
+    }
+
+    /** First field already taken, or null; a blank phone is not checked */
+    public Conflict firstConflict(String email, String phone) {
+        String e = normalizeEmail(email);
+        if (mayExist(emails, e) && customers.existsByEmailIgnoreCase(e)) {
+            return Conflict.EMAIL;
+        }
+        String p = normalizePhone(phone);
+        if (!p.isEmpty() && mayExist(phones, p) && customers.existsByPhone(p)) {
+            return Conflict.PHONE;
+        }
+        return null;
+    }
+
+    /**
+     * Insert through ON CONFLICT; on success the id is set on {@code c} and the filters
+     * learn the new keys. On conflict returns which field lost the race.
+     */
+    @Transactional
+    public Conflict insert(Customer c) {
+        var id = customers.insertIfAbsent(c);
+        if (id.isEmpty()) {
+            // Solo en el camino raro (conflicto) se pregunta cuál campo chocó
+            return customers.existsByEmailIgnoreCase(normalizeEmail(c.getEmail())) ? Conflict.EMAIL : Conflict.PHONE;
+        }
+        c.setId(id.get());
+        emails.put(normalizeEmail(c.getEmail()));
+        phones.put(normalizePhone(c.getPhone()));
+        return null;
+    }
+
+    private boolean mayExist(BloomFilter filter, String key) {
+        if (ready && !filter.mightContain(key)) {
+            definitelyNew.increment();
+            return false;
+        }
+        maybe.increment();
+        return true;
+    }
+
+    /** Key an email is compared by; the stored value keeps the customer's casing */
+    public static String normalizeEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** Phone as stored and compared; null becomes "" (not checked for uniqueness) */
+    public static String normalizePhone(String phone) {
+        return phone == null ? "" : phone.trim();
+    }
+}
@@ -0,0 +1,149 @@
+package com.farmatodo.reto.service;
+
+import com.farmatodo.reto.util.CryptoEngine;
+import com.farmatodo.reto.util.EnvelopeCipher;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Versioned key-encryption keys (KEKs) for card data. Each card is encrypted with its
+ * own random data key (DEK) and only the DEK is wrapped with the KEK, so rotating the
+ * KEK means re-wrapping a few bytes per row. Version 0 is the legacy scheme: the card
+ * encrypted directly with encryption.secret.
+ *
+ * <p>A configured KEK is either a 256-bit key written as {@code base64:<32 bytes>} or a
+ * secret of at least 16 bytes stretched to 256 bits with HKDF-SHA256 (RFC 5869). The
+ * version is the HKDF context, so one secret never yields the same KEK for two versions.
+ */
+public class KeyRing {
+
+    public static final int LEGACY_VERSION = 0;
+
+    static final String BASE64_PREFIX = "base64:";
+    private static final int KEK_BYTES = 32;
+    private static final int MIN_SECRET_BYTES = 16;
+    private static final byte[] HKDF_SALT = "farmatodo-reto/card-kek".getBytes(StandardCharsets.UTF_8);
+
+    /** Card data as stored in card_tokens */
+    public record Sealed(int keyVersion, String wrappedKey, String encryptedData) {
+    }
+
+    private final CryptoEngine legacy;
+    private final int activeVersion;
+    private final Map<Integer, SecretKeySpec> keks = new HashMap<>();
+
+    public KeyRing(String legacySecret, int activeVersion, Map<Integer, String> keks) {
+        this.legacy = CryptoEngine.forSecret(legacySecret);
+        keks.forEach((version, secret) -> this.keks.put(version, kekFor(version, secret)));
+        this.activeVersion = activeVersion;
+        kek(activeVersion); // falla al arrancar si la versión activa no está configurada
+    }
+
+    public int activeVersion() {
+        return activeVersion;
+    }
+
+    public boolean hasVersion(int version) {
+        return version == LEGACY_VERSION || keks.containsKey(version);
+    }
+
+    /** Encrypt with a fresh DEK wrapped by the active KEK */
+    public Sealed seal(String plain) {
+        return seal(plain, activeVersion);
+    }
+
+    public String open(Sealed s) {
+        if (s.keyVersion() == LEGACY_VERSION) {
+            return legacy.decrypt(s.encryptedData());
+        }
+        SecretKeySpec dek = unwrap(s.keyVersion(), s.wrappedKey());
+        byte[] plain = EnvelopeCipher.decrypt(dek, Base64.getDecoder().decode(s.encryptedData()));
+        return new String(plain, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Move a row to {@code targetVersion}. Envelope rows only get their DEK re-wrapped;
+     * legacy rows are decrypted and sealed with a new DEK.
+     */
+    public Sealed rotate(Sealed s, int targetVersion) {
+        if (s.keyVersion() == targetVersion) {
+            return s;
+        }
+        if (s.keyVersion() == LEGACY_VERSION) {
+            return seal(legacy.decrypt(s.encryptedData()), targetVersion);
+        }
+        SecretKeySpec dek = unwrap(s.keyVersion(), s.wrappedKey());
+        return new Sealed(targetVersion, wrap(targetVersion, dek.getEncoded()), s.encryptedData());
+    }
+
+    private Sealed seal(String plain, int version) {
+        byte[] dek = EnvelopeCipher.newDataKey();
+        byte[] data = EnvelopeCipher.encrypt(new SecretKeySpec(dek, "AES"), plain.getBytes(StandardCharsets.UTF_8));
+        return new Sealed(version, wrap(version, dek), Base64.getEncoder().encodeToString(data));
+    }
+
+    private String wrap(int version, byte[] dek) {
+        return Base64.getEncoder().encodeToString(EnvelopeCipher.encrypt(kek(version), dek));
+    }
+
+    private SecretKeySpec unwrap(int version, String wrappedKey) {
+        byte[] dek = EnvelopeCipher.decrypt(kek(version), Base64.getDecoder().decode(wrappedKey));
+        return new SecretKeySpec(dek, "AES");
+    }
+
+    static SecretKeySpec kekFor(int version, String secret) {
+        if (secret.startsWith(BASE64_PREFIX)) {
+            byte[] key = Base64.getDecoder().decode(secret.substring(BASE64_PREFIX.length()));
+            if (key.length != KEK_BYTES) {
+                throw new IllegalArgumentException("La KEK v" + version + " en base64 debe tener " + KEK_BYTES + " bytes");
+            }
+            return new SecretKeySpec(key, "AES");
+        }
+        byte[] ikm = secret.getBytes(StandardCharsets.UTF_8);
+        if (ikm.length < MIN_SECRET_BYTES) {
+            throw new IllegalArgumentException("El secreto de la KEK v" + version + " debe tener al menos "
+                    + MIN_SECRET_BYTES + " bytes");
+        }
+        byte[] info = ("kek-v" + version).getBytes(StandardCharsets.UTF_8);
+        return new SecretKeySpec(hkdfSha256(ikm, HKDF_SALT, info, KEK_BYTES), "AES");
+    }
+
+    /** HKDF-SHA256 extract-and-expand (RFC 5869) */
+    static byte[] hkdfSha256(byte[] ikm, byte[] salt, byte[] info, int length) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(salt, "HmacSHA256"));
+            byte[] prk = mac.doFinal(ikm);
+
+            mac.init(new SecretKeySpec(prk, "HmacSHA256"));
+            byte[] out = new byte[length];
+            byte[] t = new byte[0];
+            for (int pos = 0, i = 1; pos < length; i++) {
+                mac.update(t);
+                mac.update(info);
+                mac.update((byte) i);
+                t = mac.doFinal();
+                int n = Math.min(t.length, length - pos);
+                System.arraycopy(t, 0, out, pos, n);
+                pos += n;
+            }
+            return out;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HKDF no disponible", e);
+        }
+    }
+
+    private SecretKeySpec kek(int version) {
+        SecretKeySpec k = keks.get(version);
+        if (k == null) {
+            throw new IllegalArgumentException("Versión de llave no configurada: " + version);
+        }
+        return k;
+    }
+}
@@ -0,0 +1,224 @@
+package com.farmatodo.reto.service;
+
+import com.farmatodo.reto.entity.KeyRotationCheckpoint;
+import com.farmatodo.reto.repository.KeyRotationCheckpointRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Online re-encryption of card_tokens to a new key version. The id space is walked in
+ * fixed-size chunks; each wave of chunks runs in parallel on a ForkJoinPool, every chunk
+ * commits on its own, and the checkpoint only advances past a fully finished wave, so a
+ * restart resumes from the last wave at most. A rows/second budget throttles the job.
+ */
+@Service
+public class KeyRotationJob {
+
+    private static final Logger log = LoggerFactory.getLogger(KeyRotationJob.class);
+
+    private static final String SELECT_CHUNK = "select id, token, key_version, wrapped_key, encrypted_data "
+            + "from card_tokens where id between ? and ? and coalesce(key_version, 0) <> ?";
+
+    // Solo actualiza si nadie cambió la fila entre la lectura y la escritura
+    private static final String UPDATE_ROW = "update card_tokens set key_version = ?, wrapped_key = ?, "
+            + "encrypted_data = ? where id = ? and coalesce(key_version, 0) = ? "
+            + "and wrapped_key is not distinct from ? and encrypted_data = ?";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final KeyRing keyRing;
+    private final KeyRotationCheckpointRepository checkpoints;
+    private final CardTokenCache tokenCache;
+    private final ThreadFactory threads;
+    private final AtomicReference<Thread> running = new AtomicReference<>();
+    private volatile boolean cancelled;
+
+    @Value("${encryption.rotation.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Value("${encryption.rotation.parallelism:4}")
+    private int parallelism = 4;
+
+    @Value("${encryption.rotation.max-rows-per-second:2000}")
+    private int maxRowsPerSecond = 2000;
+
+    @Value("${encryption.rotation.resume-on-startup:true}")
+    private boolean resumeOnStartup = true;
+
+    public KeyRotationJob(JdbcTemplate jdbc, PlatformTransactionManager txManager, KeyRing keyRing,
+            KeyRotationCheckpointRepository checkpoints, CardTokenCache tokenCache,
+            ThreadFactory backgroundThreadFactory) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(txManager);
+        this.keyRing = keyRing;
+        this.checkpoints = checkpoints;
+        this.tokenCache = tokenCache;
+        this.threads = backgroundThreadFactory;
+    }
+
+    /** Start (or resume) rotation to {@code targetVersion} in the background */
+    public KeyRotationCheckpoint start(int targetVersion) {
+        if (!keyRing.hasVersion(targetVersion) || targetVersion == KeyRing.LEGACY_VERSION) {
+            throw new IllegalArgumentException("Versión de llave no configurada: " + targetVersion);
+        }
+        Thread worker = threads.newThread(() -> run(targetVersion));
+        worker.setName("key-rotation-v" + targetVersion);
+        if (!running.compareAndSet(null, worker)) {
+            throw new IllegalStateException("Ya hay una rotación de llaves en curso");
+        }
+        KeyRotationCheckpoint saved;
+        try {
+            KeyRotationCheckpoint cp = checkpoints.findById(targetVersion).orElseGet(() -> {
+                KeyRotationCheckpoint c = new KeyRotationCheckpoint();
+                c.setTargetVersion(targetVersion);
+                return c;
+            });
+            // Filas insertadas después de arrancar ya nacen con la versión activa
+            Long maxId = jdbc.queryForObject("select coalesce(max(id), 0) from card_tokens", Long.class);
+            cp.setMaxId(Math.max(maxId, cp.getMaxId() != null ? cp.getMaxId() : 0L));
+            if (cp.isCompleted()) {
+                // nueva pasada completa (p.ej. se volvió a una versión anterior)
+                cp.setLastId(0L);
+                cp.setMigrated(0L);
+            }
+            cp.setCompleted(false);
+            saved = checkpoints.save(cp);
+        } catch (RuntimeException e) {
+            running.set(null);
+            throw e;
+        }
+        cancelled = false;
+        worker.start();
+        return saved;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isRunning() {
+        return running.get() != null;
+    }
+
+    public List<KeyRotationCheckpoint> progress() {
+        return checkpoints.findAll();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePending() {
+        if (!resumeOnStartup) {
+            return;
+        }
+        for (KeyRotationCheckpoint cp : checkpoints.findByCompletedFalse()) {
+            if (keyRing.hasVersion(cp.getTargetVersion()) && !isRunning()) {
+                log.info("[KEY-ROTATION] reanudando v{} desde id {}", cp.getTargetVersion(), cp.getLastId());
+                start(cp.getTargetVersion());
+            }
+        }
+    }
+
+    private void run(int target) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        long started = System.nanoTime();
+        long rows = 0;
+        try {
+            KeyRotationCheckpoint cp = checkpoints.findById(target).orElseThrow();
+            long from = cp.getLastId() + 1;
+            long maxId = cp.getMaxId();
+
+            while (from <= maxId && !cancelled) {
+                List<Callable<Integer>> wave = new ArrayList<>(parallelism);
+                long waveEnd = from - 1;
+                for (int i = 0; i < parallelism && waveEnd < maxId; i++) {
+                    long lo = waveEnd + 1;
+                    long hi = Math.min(lo + chunkSize - 1, maxId);
+                    wave.add(() -> migrateChunk(lo, hi, target));
+                    waveEnd = hi;
+                }
+                int migrated = 0;
+                for (Future<Integer> f : pool.invokeAll(wave)) {
+                    migrated += f.get();
+                }
+                rows += migrated;
+
+                cp.setLastId(waveEnd);
+                cp.setMigrated(cp.getMigrated() + migrated);
+                cp.setUpdatedAt(LocalDateTime.now());
+                checkpoints.save(cp);
+                from = waveEnd + 1;
+
+                throttle(started, rows);
+            }
+            if (!cancelled) {
+                cp.setCompleted(true);
+                checkpoints.save(cp);
+                log.info("[KEY-ROTATION] v{} completada: {} filas", target, cp.getMigrated());
+            } else {
+                log.info("[KEY-ROTATION] v{} cancelada en id {}", target, cp.getLastId());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RuntimeException e) {
+            log.error("[KEY-ROTATION] v{} falló; se puede reanudar desde el último checkpoint", target, e);
+        } finally {
+            pool.shutdown();
+            running.set(null);
+        }
+    }
+
+    private int migrateChunk(long lo, long hi, int target) {
+        List<String> tokens = new ArrayList<>();
+        Integer updated = tx.execute(status -> {
+            List<Object[]> batch = new ArrayList<>();
+            jdbc.query(SELECT_CHUNK, rs -> {
+                int from = rs.getInt("key_version");
+                KeyRing.Sealed current = new KeyRing.Sealed(from, rs.getString("wrapped_key"),
+                        rs.getString("encrypted_data"));
+                KeyRing.Sealed next = keyRing.rotate(current, target);
+                // se reemplaza solo si la fila sigue siendo la que se leyó, no solo su versión
+                batch.add(new Object[] { next.keyVersion(), next.wrappedKey(), next.encryptedData(),
+                        rs.getLong("id"), from, current.wrappedKey(), current.encryptedData() });
+                tokens.add(rs.getString("token"));
+            }, lo, hi, target);
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            int n = 0;
+            for (int r : jdbc.batchUpdate(UPDATE_ROW, batch)) {
+                n += r == Statement.SUCCESS_NO_INFO ? 1 : Math.max(r, 0);
+            }
+            return n;
+        });
+        tokens.forEach(t -> tokenCache.rekeyed(t, target));
+        return updated != null ? updated : 0;
+    }
+
+    private void throttle(long startedNanos, long rows) throws InterruptedException {
+        if (maxRowsPerSecond <= 0) {
+            return;
+        }
+        long expectedMillis = rows * 1000L / maxRowsPerSecond;
+        long elapsedMillis = (System.nanoTime() - startedNanos) / 1_000_000L;
+        if (expectedMillis > elapsedMillis) {
+            Thread.sleep(expectedMillis - elapsedMillis);
+        }
+    }
+}
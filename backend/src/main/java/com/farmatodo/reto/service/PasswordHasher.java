@@ -0,0 +1,164 @@
+package com.farmatodo.reto.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt hashing on a dedicated, bounded executor so the CPU-heavy work never runs on
+ * request threads. The cost factor is either fixed or calibrated at startup to the
+ * largest one whose single hash stays under a latency target. When the queue is full
+ * new work is rejected (RejectedExecutionException) instead of piling up.
+ * Stored values that are not bcrypt hashes are legacy plain-text passwords; they still
+ * verify, and are reported as needing a rehash. Values starting with {@link #UNUSABLE_PREFIX}
+ * mark accounts without a password (created through POST /customers) and never verify.
+ */
+public class PasswordHasher implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHasher.class);
+
+    public static final int MIN_COST = 4;
+    public static final int MAX_COST = 16;
+    private static final Pattern BCRYPT = Pattern.compile("^\\$2[aby]?\\$\\d\\d\\$[./A-Za-z0-9]{53}$");
+
+    public static final String UNUSABLE_PREFIX = "!";
+
+    public enum Verdict { MISMATCH, MATCH, MATCH_NEEDS_REHASH }
+
+    private final BCryptPasswordEncoder encoder;
+    private final int cost;
+    private final ThreadPoolExecutor executor;
+    private final Timer hashTimer;
+    private final Timer verifyTimer;
+    private final Counter rejected;
+    // Hash de referencia para igualar el tiempo de respuesta cuando el correo no existe
+    private final String dummyHash;
+
+    public PasswordHasher(int cost, int threads, int queueCapacity, MeterRegistry registry) {
+        if (cost < MIN_COST || cost > MAX_COST) {
+            throw new IllegalArgumentException("cost must be in " + MIN_COST + ".." + MAX_COST);
+        }
+        this.cost = cost;
+        this.encoder = new BCryptPasswordEncoder(cost);
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "password-hash-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.dummyHash = encoder.encode("dummy-password");
+
+        this.hashTimer = Timer.builder("auth.password.hashing").tag("op", "hash")
+                .description("BCrypt work, excluding time queued")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        this.verifyTimer = Timer.builder("auth.password.hashing").tag("op", "verify")
+                .description("BCrypt work, excluding time queued")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        this.rejected = Counter.builder("auth.password.rejected")
+                .description("Hashing requests refused because the queue was full")
+                .register(registry);
+        Gauge.builder("auth.password.queue", executor, e -> e.getQueue().size())
+                .description("Hashing requests waiting for a thread")
+                .register(registry);
+        log.info("[AUTH] bcrypt cost={} threads={} queue={}", cost, threads, queueCapacity);
+    }
+
+    /**
+     * Largest cost in [{@code floor}, MAX_COST] whose hash takes at most {@code targetMs} on
+     * this machine; {@code floor} if even that is slower than the target.
+     */
+    public static int calibrate(long targetMs, int floor) {
+        int chosen = floor;
+        for (int c = floor; c <= MAX_COST; c++) {
+            BCryptPasswordEncoder probe = new BCryptPasswordEncoder(c);
+            long start = System.nanoTime();
+            probe.encode("calibration-password");
+            long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (ms > targetMs) {
+                break;
+            }
+            chosen = c;
+            // el siguiente costo tarda el doble: no vale la pena medirlo si ya se pasa
+            if (ms * 2 > targetMs) {
+                break;
+            }
+        }
+        return chosen;
+    }
+
+    public int cost() {
+        return cost;
+    }
+
+    public CompletableFuture<String> hash(String raw) {
+        return submit(() -> hashTimer.record(() -> encoder.encode(raw)));
+    }
+
+    public CompletableFuture<Verdict> verify(String raw, String stored) {
+        return submit(() -> verifyTimer.record(() -> verdict(raw, stored)));
+    }
+
+    /** Burn the same work as a real verification; used when the account does not exist */
+    public CompletableFuture<Verdict> verifyAgainstDummy(String raw) {
+        return verify(raw, dummyHash).thenApply(v -> Verdict.MISMATCH);
+    }
+
+    /** Stored value for an account with no password yet: no input verifies against it */
+    public static String unusablePassword() {
+        return UNUSABLE_PREFIX + UUID.randomUUID();
+    }
+
+    public static boolean isHash(String stored) {
+        return stored != null && BCRYPT.matcher(stored).matches();
+    }
+
+    private Verdict verdict(String raw, String stored) {
+        if (stored == null || stored.startsWith(UNUSABLE_PREFIX)) {
+            // cuenta sin contraseña: ni siquiera el valor guardado sirve como texto plano
+            return Verdict.MISMATCH;
+        }
+        if (!isHash(stored)) {
+            // fila legada en texto plano
+            boolean eq = stored != null && MessageDigest.isEqual(
+                    raw.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+            return eq ? Verdict.MATCH_NEEDS_REHASH : Verdict.MISMATCH;
+        }
+        if (!encoder.matches(raw, stored)) {
+            return Verdict.MISMATCH;
+        }
+        return encoder.upgradeEncoding(stored) ? Verdict.MATCH_NEEDS_REHASH : Verdict.MATCH;
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(work, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
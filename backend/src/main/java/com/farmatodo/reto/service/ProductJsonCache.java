@@ -0,0 +1,115 @@
+package com.farmatodo.reto.service;
+
+import com.farmatodo.reto.dto.ProductView;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serialized JSON of each catalog entry, keyed by product id. A cached entry is reused only
+ * while the view it was written from still equals the current one, so a price or stock change
+ * reserializes that product on its next read without any explicit invalidation. GET /products
+ * bodies are assembled by concatenating the cached bytes; Jackson only runs on a miss.
+ */
+public class ProductJsonCache {
+
+    private record Serialized(ProductView view, byte[] json) {}
+
+    private final Map<Long, Serialized> entries = new ConcurrentHashMap<>();
+    private final ObjectWriter writer;
+    private final int maxSize;
+    private final Counter hits;
+    private final Counter misses;
+
+    public ProductJsonCache(ObjectMapper mapper, int maxSize, MeterRegistry registry) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("max-size must be > 0");
+        }
+        this.writer = mapper.writerFor(ProductView.class);
+        this.maxSize = maxSize;
+        this.hits = Counter.builder("product.json.cache.requests").tag("result", "hit")
+                .description("Catalog entries written to a GET /products body")
+                .register(registry);
+        this.misses = Counter.builder("product.json.cache.requests").tag("result", "miss")
+                .description("Catalog entries written to a GET /products body")
+                .register(registry);
+        Gauge.builder("product.json.cache.size", entries, Map::size)
+                .description("Catalog entries held as serialized JSON")
+                .register(registry);
+    }
+
+    /** JSON array of the given products, byte for byte what Jackson would write for the list */
+    public byte[] writeArray(List<ProductView> products) {
+        byte[][] parts = new byte[products.size()][];
+        int length = 2 + Math.max(0, parts.length - 1);
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = json(products.get(i));
+            length += parts[i].length;
+        }
+
+        byte[] out = new byte[length];
+        int pos = 0;
+        out[pos++] = '[';
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) out[pos++] = ',';
+            System.arraycopy(parts[i], 0, out, pos, parts[i].length);
+            pos += parts[i].length;
+        }
+        out[pos] = ']';
+        return out;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public double hitRatio() {
+        double h = hits.count();
+        double total = h + misses.count();
+        return total == 0 ? 0.0 : h / total;
+    }
+
+    private byte[] json(ProductView product) {
+        Serialized cached = product.id() != null ? entries.get(product.id()) : null;
+        if (cached != null && cached.view().equals(product)) {
+            hits.increment();
+            return cached.json();
+        }
+        misses.increment();
+        byte[] json = serialize(product);
+        if (product.id() != null) {
+            // Dos hilos pueden serializar la misma versión a la vez; cualquiera de los dos sirve
+            entries.put(product.id(), new Serialized(product, json));
+            if (entries.size() > maxSize) {
+                evictOne(product.id());
+            }
+        }
+        return json;
+    }
+
+    private byte[] serialize(ProductView product) {
+        try {
+            return writer.writeValueAsBytes(product);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void evictOne(Long keep) {
+        Iterator<Long> it = entries.keySet().iterator();
+        while (it.hasNext()) {
+            if (!it.next().equals(keep)) {
+                it.remove();
+                return;
+            }
+        }
+    }
+}
@@ -1,8 +1,8 @@
 package com.farmatodo.reto.service;
 
-import com.farmatodo.reto.entity.Product;
+import com.farmatodo.reto.dto.ProductView;
 import java.util.List;
 
 public interface ProductService {
-    List<Product> search(String q, Long customerId);
+    List<ProductView> search(String q, Long customerId);
 }
@@ -0,0 +1,143 @@
+package com.farmatodo.reto.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Bounded pool of pre-generated card token identifiers. UUID.randomUUID() draws from the
+ * shared SecureRandom, so generation happens on a background thread and request threads
+ * only do a lock-free poll. When the pool is empty the token is generated inline and
+ * counted as a fallback.
+ */
+public class TokenPool implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenPool.class);
+
+    private static final int REFILL_BATCH = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final ConcurrentLinkedQueue<String> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final int capacity;
+    private final int lowWater;
+    private final Function<Collection<String>, Collection<String>> existingTokens;
+    private final Counter fallbacks;
+    private final Counter collisions;
+
+    private volatile boolean running;
+    private volatile Thread refiller;
+
+    /**
+     * @param existingTokens returns which of the candidates are already stored, so they
+     *                       are never handed out
+     */
+    public TokenPool(int capacity, int lowWater,
+            Function<Collection<String>, Collection<String>> existingTokens,
+            MeterRegistry registry) {
+        if (lowWater <= 0 || lowWater > capacity) {
+            throw new IllegalArgumentException("low-water must be in 1.." + capacity);
+        }
+        this.capacity = capacity;
+        this.lowWater = lowWater;
+        this.existingTokens = existingTokens;
+        Gauge.builder("tokenization.pool.depth", depth, AtomicInteger::get)
+                .description("Pre-generated card tokens ready to use")
+                .register(registry);
+        this.fallbacks = Counter.builder("tokenization.pool.fallback")
+                .description("Tokens generated inline because the pool was empty")
+                .register(registry);
+        this.collisions = Counter.builder("tokenization.pool.collisions")
+                .description("Generated tokens discarded because they already existed")
+                .register(registry);
+    }
+
+    /** Next token; never blocks */
+    public String take() {
+        String token = queue.poll();
+        if (token != null) {
+            if (depth.decrementAndGet() < lowWater) {
+                wakeRefiller();
+            }
+            return token;
+        }
+        fallbacks.increment();
+        wakeRefiller();
+        return UUID.randomUUID().toString();
+    }
+
+    public int depth() {
+        return depth.get();
+    }
+
+    public void start() {
+        running = true;
+        Thread t = new Thread(this::refillLoop, "token-pool-refill");
+        t.setDaemon(true);
+        refiller = t;
+        t.start();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        wakeRefiller();
+    }
+
+    /** Top the pool up to capacity; returns how many tokens were added */
+    public int refill() {
+        int added = 0;
+        int missing;
+        while ((missing = capacity - depth.get()) > 0) {
+            int n = Math.min(REFILL_BATCH, missing);
+            Set<String> candidates = new LinkedHashSet<>(n * 2);
+            while (candidates.size() < n) {
+                candidates.add(UUID.randomUUID().toString());
+            }
+            Collection<String> taken = existingTokens.apply(candidates);
+            if (!taken.isEmpty()) {
+                collisions.increment(taken.size());
+                candidates.removeAll(taken);
+            }
+            for (String c : candidates) {
+                queue.offer(c);
+                depth.incrementAndGet();
+            }
+            added += candidates.size();
+        }
+        return added;
+    }
+
+    private void refillLoop() {
+        while (running) {
+            if (depth.get() < lowWater) {
+                try {
+                    refill();
+                } catch (RuntimeException e) {
+                    // p.ej. DB caída en la verificación de colisiones; take() sigue con fallback
+                    log.warn("[TOKEN-POOL] refill failed: {}", e.getMessage());
+                }
+            }
+            LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+        }
+    }
+
+    private void wakeRefiller() {
+        Thread t = refiller;
+        if (t != null) {
+            LockSupport.unpark(t);
+        }
+    }
+}
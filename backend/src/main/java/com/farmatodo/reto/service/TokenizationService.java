@@ -1,8 +1,15 @@
 package com.farmatodo.reto.service;
 
+import com.farmatodo.reto.dto.TokenizeBatchResponse;
 import com.farmatodo.reto.dto.TokenizeRequest;
 import com.farmatodo.reto.dto.TokenizeResponse;
+import java.util.List;
 
 public interface TokenizationService {
   TokenizeResponse tokenize(TokenizeRequest req);
+
+  TokenizeBatchResponse tokenizeBatch(List<TokenizeRequest> cards);
+
+  /** @param customerId owner the caller acts as, or null for an API-key caller */
+  void revoke(String token, Long customerId);
 }
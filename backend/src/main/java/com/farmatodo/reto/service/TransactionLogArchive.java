@@ -0,0 +1,123 @@
+package com.farmatodo.reto.service;
+
+import com.farmatodo.reto.entity.TransactionLog;
+import com.farmatodo.reto.util.LogSegment;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Read side of the cold storage: memory-mapped lookups over the archived
+ * TransactionLog segments written by TransactionLogArchiver. A reload keeps the
+ * segments that are still on disk mapped and unmaps the ones that are gone.
+ */
+@Component
+public class TransactionLogArchive {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionLogArchive.class);
+
+    private final Path dir;
+    private volatile List<LogSegment> segments = List.of();
+    // Solo bajo reloadLock
+    private final Map<Path, LogSegment> open = new HashMap<>();
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    public TransactionLogArchive(@Value("${archive.transaction-log.dir:./archive/transaction-log}") String dir) {
+        this.dir = Path.of(dir);
+    }
+
+    public Path dir() {
+        return dir;
+    }
+
+    /** (Re)scan the archive directory for committed segments */
+    @PostConstruct
+    public void reload() {
+        reloadLock.lock();
+        try {
+            scan();
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        reloadLock.lock();
+        try {
+            segments = List.of();
+            open.values().forEach(LogSegment::close);
+            open.clear();
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private void scan() {
+        Map<Path, LogSegment> previous = new HashMap<>(open);
+        open.clear();
+        if (Files.isDirectory(dir)) {
+            try (DirectoryStream<Path> idx = Files.newDirectoryStream(dir, "*" + LogSegment.INDEX_EXT)) {
+                for (Path p : idx) {
+                    LogSegment s = previous.remove(p);
+                    try {
+                        open.put(p, s != null ? s : LogSegment.open(p));
+                    } catch (IOException e) {
+                        log.warn("Segmento de archivo ilegible {}: {}", p, e.getMessage());
+                    }
+                }
+            } catch (IOException e) {
+                // Sin listado no se sabe qué sigue en disco: se conservan los ya abiertos
+                log.warn("No se pudo leer el directorio de archivo {}: {}", dir, e.getMessage());
+                open.putAll(previous);
+                previous.clear();
+            }
+        }
+        segments = List.copyOf(open.values());
+        // Los que ya no están se liberan cuando terminan las búsquedas en curso
+        previous.values().forEach(LogSegment::close);
+        log.info("Archivo de transaction_log: {} segmentos en {}", open.size(), dir);
+    }
+
+    public List<TransactionLog> findByTransactionUuid(String uuid) {
+        List<TransactionLog> out = new ArrayList<>();
+        for (LogSegment s : segments) {
+            out.addAll(s.findByTransactionUuid(uuid));
+        }
+        return sorted(out);
+    }
+
+    public List<TransactionLog> findByOrderId(Long orderId) {
+        List<TransactionLog> out = new ArrayList<>();
+        for (LogSegment s : segments) {
+            out.addAll(s.findByOrderId(orderId));
+        }
+        return sorted(out);
+    }
+
+    // Un archivado interrumpido a mitad puede dejar filas repetidas en dos segmentos
+    private static List<TransactionLog> sorted(List<TransactionLog> logs) {
+        Map<Long, TransactionLog> byId = new LinkedHashMap<>();
+        for (TransactionLog t : logs) {
+            byId.putIfAbsent(t.getId(), t);
+        }
+        List<TransactionLog> out = new ArrayList<>(byId.values());
+        out.sort(Comparator.comparing(TransactionLog::getCreatedAt).thenComparing(TransactionLog::getId));
+        return out;
+    }
+}
@@ -0,0 +1,205 @@
+package com.farmatodo.reto.service;
+
+import com.farmatodo.reto.entity.TransactionLog;
+import com.farmatodo.reto.util.LogSegment;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves TransactionLog rows older than the retention window out of Postgres into
+ * compressed segment files (see LogSegment), then deletes them in small chunks.
+ */
+@Service
+public class TransactionLogArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionLogArchiver.class);
+
+    // collate "C": el orden debe coincidir con String.compareTo del índice disperso
+    private static final String SELECT_OLD = "select id, transaction_uuid, order_id, event, message, "
+            + "payload::text as payload, created_at from transaction_log where created_at < ? "
+            + "order by transaction_uuid collate \"C\", created_at, id";
+
+    private static final String DELETE_CHUNK = "delete from transaction_log where id in ("
+            + "select id from transaction_log where created_at < ? and id <= ? limit ?)";
+
+    private final JdbcTemplate jdbc;
+    private final JdbcTemplate cursorJdbc;
+    private final TransactionTemplate readTx;
+    private final TransactionLogArchive archive;
+    // Un lock explícito y no synchronized: la pasada hace I/O de BD y disco, y un hilo
+    // virtual bloqueado dentro de synchronized deja fijo (pinned) su hilo portador
+    private final ReentrantLock runLock = new ReentrantLock();
+
+    @Value("${archive.transaction-log.enabled:false}")
+    private boolean enabled;
+
+    @Value("${archive.transaction-log.retention-days:90}")
+    private int retentionDays = 90;
+
+    @Value("${archive.transaction-log.block-size:256}")
+    private int blockSize = 256;
+
+    @Value("${archive.transaction-log.segment-max-bytes:268435456}")
+    private long segmentMaxBytes = 256L * 1024 * 1024;
+
+    @Value("${archive.transaction-log.delete-chunk-size:1000}")
+    private int deleteChunkSize = 1000;
+
+    public TransactionLogArchiver(DataSource dataSource,
+            PlatformTransactionManager txManager,
+            TransactionLogArchive archive,
+            @Value("${archive.transaction-log.fetch-size:500}") int fetchSize) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        // Postgres solo usa cursor del lado del servidor con autocommit=false y fetchSize > 0
+        this.cursorJdbc = new JdbcTemplate(dataSource);
+        this.cursorJdbc.setFetchSize(fetchSize);
+        this.readTx = new TransactionTemplate(txManager);
+        this.readTx.setReadOnly(true);
+        this.archive = archive;
+    }
+
+    // El corte se revisa antes de cada transacción nueva, así que un segmento puede pasarse
+    // en un bloque: se deja la mitad de lo que admite un solo mapeo como margen
+    @PostConstruct
+    void checkSegmentSize() {
+        if (segmentMaxBytes <= 0 || segmentMaxBytes > LogSegment.MAX_BYTES / 2) {
+            throw new IllegalStateException("archive.transaction-log.segment-max-bytes debe estar entre 1 y "
+                    + LogSegment.MAX_BYTES / 2);
+        }
+    }
+
+    @Scheduled(cron = "${archive.transaction-log.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        if (!enabled) {
+            return;
+        }
+        archiveOlderThan(LocalDateTime.now().minusDays(retentionDays));
+    }
+
+    /** Archive and delete every row created before {@code cutoff}; returns rows archived */
+    public long archiveOlderThan(LocalDateTime cutoff) {
+        runLock.lock();
+        try {
+            return archive(cutoff);
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    private long archive(LocalDateTime cutoff) {
+        Timestamp ts = Timestamp.valueOf(cutoff);
+        SegmentSink sink = new SegmentSink();
+        try {
+            readTx.executeWithoutResult(s -> cursorJdbc.query(SELECT_OLD, rs -> {
+                sink.accept(map(rs));
+            }, ts));
+            sink.finish();
+        } catch (RuntimeException e) {
+            sink.abort();
+            throw e;
+        }
+        if (sink.records == 0) {
+            return 0;
+        }
+        archive.reload();
+
+        // Solo se borra lo que ya quedó en segmentos confirmados (id <= maxId)
+        long deleted = 0;
+        int n;
+        do {
+            n = jdbc.update(DELETE_CHUNK, ts, sink.maxId, deleteChunkSize);
+            deleted += n;
+        } while (n == deleteChunkSize);
+
+        log.info("[ARCHIVE] transaction_log < {}: {} archivados en {} segmentos, {} borrados",
+                cutoff, sink.records, sink.segments, deleted);
+        return sink.records;
+    }
+
+    private static TransactionLog map(ResultSet rs) throws SQLException {
+        TransactionLog t = new TransactionLog();
+        t.setId(rs.getLong("id"));
+        t.setTransactionUuid(rs.getString("transaction_uuid"));
+        long orderId = rs.getLong("order_id");
+        t.setOrderId(rs.wasNull() ? null : orderId);
+        t.setEvent(TransactionLog.Event.valueOf(rs.getString("event")));
+        t.setMessage(rs.getString("message"));
+        t.setPayload(rs.getString("payload"));
+        t.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        return t;
+    }
+
+    /** Rolls over to a new segment file once the current one reaches segmentMaxBytes */
+    private final class SegmentSink {
+        private final String prefix = "tlog-" + System.currentTimeMillis() + "-";
+        private LogSegment.Writer writer;
+        private long records;
+        private long maxId;
+        private int segments;
+
+        void accept(TransactionLog t) {
+            try {
+                if (writer != null && writer.bytesWritten() >= segmentMaxBytes
+                        && !t.getTransactionUuid().equals(writer.lastUuid())) {
+                    commitCurrent();
+                }
+                if (writer == null) {
+                    writer = LogSegment.create(archive.dir(), prefix + segments, blockSize);
+                }
+                writer.append(t);
+                records++;
+                maxId = Math.max(maxId, t.getId());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void finish() {
+            try {
+                commitCurrent();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void abort() {
+            try {
+                if (writer != null) {
+                    writer.close();
+                }
+            } catch (IOException e) {
+                log.warn("[ARCHIVE] No se pudo descartar el segmento parcial: {}", e.getMessage());
+            }
+        }
+
+        private void commitCurrent() throws IOException {
+            if (writer == null) {
+                return;
+            }
+            try (LogSegment.Writer w = writer) {
+                if (w.records() > 0) {
+                    w.commit();
+                    segments++;
+                }
+            } finally {
+                writer = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.farmatodo.reto.service;
+
+import com.farmatodo.reto.dto.TransactionLogView;
+import com.farmatodo.reto.entity.TransactionLog;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process fan-out of TransactionLog events to the SSE clients subscribed to a
+ * transactionUuid. An idle stream holds no thread, only its Subscription in the map.
+ * {@link #publish} only queues: each stream is written by one sender task at a time, on a
+ * bounded executor, so events keep their order and a slow client never blocks the caller.
+ */
+@Component
+public class TransactionLogBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionLogBroadcaster.class);
+
+    private final Map<String, List<Subscription>> subscribers = new ConcurrentHashMap<>();
+    private final Executor sender;
+
+    @Value("${transactions.stream.timeout-ms:300000}")
+    private long timeoutMs = 300_000L;
+
+    @Autowired
+    public TransactionLogBroadcaster(ThreadFactory backgroundThreadFactory,
+            @Value("${transactions.stream.send-threads:2}") int threads,
+            @Value("${transactions.stream.send-queue-capacity:10000}") int queueCapacity) {
+        this(new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), backgroundThreadFactory,
+                new ThreadPoolExecutor.AbortPolicy()));
+    }
+
+    public TransactionLogBroadcaster(Executor sender) {
+        this.sender = sender;
+    }
+
+    /** One client's stream; live events wait until {@link #replay} has sent the history */
+    public final class Subscription {
+
+        private final String txUuid;
+        private final SseEmitter emitter;
+        private final Queue<TransactionLog> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean live;
+        private volatile boolean closed;
+        // Último id enviado; solo lo toca quien envía (replay y luego una tarea a la vez)
+        private long lastId;
+
+        private Subscription(String txUuid, SseEmitter emitter) {
+            this.txUuid = txUuid;
+            this.emitter = emitter;
+        }
+
+        public SseEmitter emitter() {
+            return emitter;
+        }
+
+        /** false once the stream is closed (terminal event, error or timeout) */
+        private boolean deliver(TransactionLog event) {
+            if (closed) {
+                return false;
+            }
+            if (event.getId() != null && event.getId() <= lastId) {
+                return true; // ya salió en el replay
+            }
+            try {
+                emitter.send(toSse(event));
+            } catch (IOException | IllegalStateException e) {
+                close();
+                return false;
+            }
+            if (event.getId() != null) {
+                lastId = event.getId();
+            }
+            if (isTerminal(event.getEvent())) {
+                close();
+                emitter.complete();
+                return false;
+            }
+            return true;
+        }
+
+        private void close() {
+            closed = true;
+            pending.clear();
+            remove(this);
+        }
+    }
+
+    /** Register a new stream for the given transaction */
+    public Subscription subscribe(String txUuid) {
+        Subscription s = new Subscription(txUuid, new SseEmitter(timeoutMs));
+        subscribers.computeIfAbsent(txUuid, k -> new CopyOnWriteArrayList<>()).add(s);
+
+        s.emitter.onCompletion(s::close);
+        s.emitter.onTimeout(() -> {
+            s.close();
+            s.emitter.complete();
+        });
+        s.emitter.onError(e -> s.close());
+        return s;
+    }
+
+    /**
+     * Send the stored history on the caller's thread, then let live events through. The
+     * last replayed id is the watermark: live events at or below it were already sent.
+     * The events of one transaction are written one after another, so their ids grow in
+     * commit order and nothing committed after the replay query can fall below it.
+     */
+    public void replay(Subscription s, List<TransactionLog> history) {
+        for (TransactionLog event : history) {
+            if (!s.deliver(event)) {
+                return;
+            }
+        }
+        s.live = true;
+        schedule(s);
+    }
+
+    /** Queue an event for every stream of its transaction; terminal events close the streams */
+    public void publish(TransactionLog event) {
+        String txUuid = event.getTransactionUuid();
+        List<Subscription> subs = subscribers.get(txUuid);
+        if (subs == null) {
+            return;
+        }
+        for (Subscription s : subs) {
+            s.pending.add(event);
+            if (s.live) {
+                schedule(s);
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("[SSE] tx={} event={} subscribers={}", txUuid, event.getEvent(), subs.size());
+        }
+    }
+
+    public static boolean isTerminal(TransactionLog.Event event) {
+        return event == TransactionLog.Event.ORDER_PAID || event == TransactionLog.Event.ORDER_FAILED;
+    }
+
+    /** Number of open streams, across all transactions */
+    public int activeStreams() {
+        return subscribers.values().stream().mapToInt(List::size).sum();
+    }
+
+    @PreDestroy
+    public void close() {
+        if (sender instanceof ExecutorService es) {
+            es.shutdownNow();
+        }
+    }
+
+    // Una sola tarea de envío por stream a la vez: la que ve wip en 0 la lanza
+    private void schedule(Subscription s) {
+        if (s.wip.getAndIncrement() != 0) {
+            return;
+        }
+        try {
+            sender.execute(() -> drain(s));
+        } catch (RejectedExecutionException e) {
+            log.warn("[SSE] Cola de envío llena; se cierra el stream de tx={}", s.txUuid);
+            s.close();
+            s.emitter.complete();
+        }
+    }
+
+    private void drain(Subscription s) {
+        int missed = 1;
+        do {
+            TransactionLog event;
+            while ((event = s.pending.poll()) != null) {
+                if (!s.deliver(event)) {
+                    return;
+                }
+            }
+            missed = s.wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void remove(Subscription s) {
+        subscribers.computeIfPresent(s.txUuid, (k, list) -> {
+            list.remove(s);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    private static SseEmitter.SseEventBuilder toSse(TransactionLog event) {
+        SseEmitter.SseEventBuilder b = SseEmitter.event()
+                .name(event.getEvent().name())
+                .data(TransactionLogView.of(event, true));
+        if (event.getId() != null) {
+            b.id(String.valueOf(event.getId()));
+        }
+        return b;
+    }
+}
@@ -1,7 +1,14 @@
 package com.farmatodo.reto.service;
 
+import com.farmatodo.reto.dto.TransactionLogPage;
+import com.farmatodo.reto.dto.TransactionPayloads;
 import com.farmatodo.reto.entity.TransactionLog;
 
 public interface TransactionLogService {
-    void log(String txUuid, Long orderId, TransactionLog.Event event, String message, String payloadJson);
+    void log(String txUuid, Long orderId, TransactionLog.Event event, String message,
+            TransactionPayloads.Payload payload);
+
+    TransactionLogPage pageByTransaction(String txUuid, String cursor, int limit, boolean includePayload);
+
+    TransactionLogPage pageByOrder(Long orderId, String cursor, int limit, boolean includePayload);
 }
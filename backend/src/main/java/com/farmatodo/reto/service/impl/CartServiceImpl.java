@@ -5,6 +5,7 @@ package com.farmatodo.reto.service.impl;
 
 import com.farmatodo.reto.dto.CartDtos;
 import com.farmatodo.reto.dto.CreateOrderRequest;
+import com.farmatodo.reto.dto.CreateOrderResponse;
 import com.farmatodo.reto.entity.Cart;
 import com.farmatodo.reto.entity.CartItem;
 import com.farmatodo.reto.entity.Product;
@@ -12,25 +13,31 @@ import com.farmatodo.reto.repository.CartRepository;
 import com.farmatodo.reto.repository.ProductRepository;
 import com.farmatodo.reto.service.CartService;
 import com.farmatodo.reto.service.OrderService;
+import io.micrometer.core.annotation.Timed;
 import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "service.calls", histogram = true)
 public class CartServiceImpl implements CartService {
 
     private final CartRepository cartRepository;
     private final ProductRepository productRepository;
     private final OrderService orderService;
+    private final TransactionTemplate tx;
 
     public CartServiceImpl(CartRepository cartRepository,
             ProductRepository productRepository,
-            OrderService orderService) {
+            OrderService orderService,
+            PlatformTransactionManager txManager) {
         this.cartRepository = cartRepository;
         this.productRepository = productRepository;
         this.orderService = orderService;
+        this.tx = new TransactionTemplate(txManager);
     }
 
     /** Get or create cart for customer */
@@ -52,12 +59,9 @@ public class CartServiceImpl implements CartService {
         Cart cart = cartRepository.findByCustomerId(req.customerId)
                 .orElseGet(() -> cartRepository.save(newCart(req.customerId)));
 
-        Map<Long, Product> prods = productRepository.findAllById(List.of(req.productId))
-                .stream().collect(Collectors.toMap(Product::getId, p -> p));
-
-        Product p = prods.get(req.productId);
-        if (p == null)
-            throw new IllegalArgumentException("Producto no existe: " + req.productId);
+        // findById pasa por la caché de segundo nivel
+        Product p = productRepository.findById(req.productId)
+                .orElseThrow(() -> new IllegalArgumentException("Producto no existe: " + req.productId));
 
         // Update existing item quantity or create new item
         Optional<CartItem> existing = cart.getItems().stream()
@@ -99,10 +103,13 @@ public class CartServiceImpl implements CartService {
         });
     }
 
-    /** Process checkout: create order and clear cart */
+    /**
+     * Process checkout: create order and clear cart. Deliberately not transactional:
+     * createOrder runs its own short transactions and charges outside them, which an
+     * enclosing transaction would undo (they would join it and hold its connection).
+     */
     @Override
-    @Transactional
-    public Object checkout(CartDtos.CheckoutRequest req) {
+    public CreateOrderResponse checkout(CartDtos.CheckoutRequest req) {
         Cart cart = cartRepository.findByCustomerId(req.customerId)
                 .orElseThrow(() -> new IllegalArgumentException("Carrito no existe"));
 
@@ -121,20 +128,29 @@ public class CartServiceImpl implements CartService {
             return it;
         }).toList();
 
-        Object resp = orderService.createOrder(orderReq);
+        CreateOrderResponse resp = orderService.createOrder(orderReq);
 
-        cart.getItems().clear();
-        cartRepository.save(cart);
+        // Se quitan solo los ítems cobrados: lo que se agregó mientras tanto queda en el carrito
+        tx.executeWithoutResult(status -> removeOrdered(req.customerId, orderReq.items));
         return resp;
     }
 
+    private void removeOrdered(Long customerId, List<CreateOrderRequest.Item> ordered) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        ordered.forEach(it -> quantities.put(it.productId, it.quantity));
+        cartRepository.findByCustomerId(customerId).ifPresent(c -> {
+            c.getItems().removeIf(i -> Objects.equals(quantities.get(i.getProductId()), i.getQuantity()));
+            cartRepository.save(c);
+        });
+    }
+
     private Cart newCart(Long customerId) {
         Cart c = new Cart();
         c.setCustomerId(customerId);
         return c;
     }
 
-    private CartDtos.View toView(Cart cart) {
+    static CartDtos.View toView(Cart cart) {
         CartDtos.View v = new CartDtos.View();
         v.cartId = cart.getId();
         v.customerId = cart.getCustomerId();
@@ -3,33 +3,27 @@ package com.farmatodo.reto.service.impl;
 import com.farmatodo.reto.dto.CreateCustomerRequest;
 import com.farmatodo.reto.dto.CustomerDto;
 import com.farmatodo.reto.entity.Customer;
-import com.farmatodo.reto.repository.CustomerRepository;
 import com.farmatodo.reto.service.CustomerService;
+import com.farmatodo.reto.service.CustomerUniqueness;
+import com.farmatodo.reto.service.PasswordHasher;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 @Service
+@Timed(value = "service.calls", histogram = true)
 public class CustomerServiceImpl implements CustomerService {
 
-    private final CustomerRepository repo;
+    private final CustomerUniqueness uniqueness;
 
-    public CustomerServiceImpl(CustomerRepository repo) {
-        this.repo = repo;
+    public CustomerServiceImpl(CustomerUniqueness uniqueness) {
+        this.uniqueness = uniqueness;
     }
 
     @Override
-    @Transactional
     public CustomerDto create(CreateCustomerRequest req) {
-        // Unicidad por aplicación (además de la constraint en DB)
-        if (repo.existsByEmailIgnoreCase(req.email())) {
-            throw new DataIntegrityViolationException("email-duplicate");
-        }
-        if (req.phone() != null && !req.phone().isBlank()) {
-            if (repo.existsByPhone(req.phone())) {
-                throw new DataIntegrityViolationException("phone-duplicate");
-            }
-        }
+        // Pre-chequeo (filtro Bloom + BD solo si hace falta); la constraint en DB decide al insertar
+        rejectIfTaken(uniqueness.firstConflict(req.email(), req.phone()));
 
         // Split name into firstName and lastName
         String[] nameParts = req.name().trim().split("\\s+", 2);
@@ -40,18 +34,25 @@ public class CustomerServiceImpl implements CustomerService {
         c.setFirstName(firstName);
         c.setLastName(lastName);
         c.setEmail(req.email().trim());
-        c.setPhone(req.phone() != null ? req.phone().trim() : "");
+        c.setPhone(CustomerUniqueness.normalizePhone(req.phone()));
         c.setAddress(req.address() != null ? req.address().trim() : "");
-        // Set a default password since it's required but not in CreateCustomerRequest
-        // In a real scenario, this should be handled differently (e.g., generate temp
-        // password)
-        c.setPassword("CHANGE_ME");
+        // Sin contraseña en CreateCustomerRequest: valor inutilizable, /auth/login nunca lo acepta
+        c.setPassword(PasswordHasher.unusablePassword());
 
-        Customer saved = repo.save(c);
+        rejectIfTaken(uniqueness.insert(c));
         // Combine firstName and lastName for the DTO
-        String fullName = saved.getFirstName() + (saved.getLastName() != null && !saved.getLastName().isBlank()
-                ? " " + saved.getLastName()
+        String fullName = c.getFirstName() + (c.getLastName() != null && !c.getLastName().isBlank()
+                ? " " + c.getLastName()
                 : "");
-        return new CustomerDto(saved.getId(), fullName, saved.getEmail(), saved.getPhone(), saved.getAddress());
+        return new CustomerDto(c.getId(), fullName, c.getEmail(), c.getPhone(), c.getAddress());
+    }
+
+    private static void rejectIfTaken(CustomerUniqueness.Conflict conflict) {
+        if (conflict == CustomerUniqueness.Conflict.EMAIL) {
+            throw new DataIntegrityViolationException("email-duplicate");
+        }
+        if (conflict == CustomerUniqueness.Conflict.PHONE) {
+            throw new DataIntegrityViolationException("phone-duplicate");
+        }
     }
 }
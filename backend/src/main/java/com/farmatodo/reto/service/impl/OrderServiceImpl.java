@@ -5,32 +5,45 @@ package com.farmatodo.reto.service.impl;
 
 import com.farmatodo.reto.dto.CreateOrderRequest;
 import com.farmatodo.reto.dto.CreateOrderResponse;
+import com.farmatodo.reto.dto.TransactionPayloads;
 import com.farmatodo.reto.entity.Order;
 import com.farmatodo.reto.entity.OrderItem;
 import com.farmatodo.reto.entity.PaymentAttempt;
 import com.farmatodo.reto.entity.Product;
 import com.farmatodo.reto.entity.TransactionLog;
 import com.farmatodo.reto.repository.*;
+import com.farmatodo.reto.service.BusinessMetrics;
+import com.farmatodo.reto.service.CardTokenCache;
 import com.farmatodo.reto.service.NotificationService;
 import com.farmatodo.reto.service.OrderService;
 import com.farmatodo.reto.service.PaymentService;
 import com.farmatodo.reto.service.TransactionLogService;
-import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.util.*;
 
 @Service
+@Timed(value = "service.calls", histogram = true)
 public class OrderServiceImpl implements OrderService {
 
+    private static final Logger log = LoggerFactory.getLogger(OrderServiceImpl.class);
+
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
     private final PaymentAttemptRepository paymentAttemptRepository;
     private final PaymentService paymentService;
     private final NotificationService notificationService;
     private final TransactionLogService tlog;
+    private final CardTokenCache tokenCache;
+    private final BusinessMetrics metrics;
+    private final TransactionTemplate tx;
 
     @Value("${payment.max-retries:3}")
     private int maxRetries;
@@ -40,120 +53,190 @@ public class OrderServiceImpl implements OrderService {
             PaymentAttemptRepository paymentAttemptRepository,
             PaymentService paymentService,
             NotificationService notificationService,
-            TransactionLogService tlog) {
+            TransactionLogService tlog,
+            CardTokenCache tokenCache,
+            BusinessMetrics metrics,
+            PlatformTransactionManager txManager) {
         this.orderRepository = orderRepository;
         this.productRepository = productRepository;
         this.paymentAttemptRepository = paymentAttemptRepository;
         this.paymentService = paymentService;
         this.notificationService = notificationService;
         this.tlog = tlog;
+        this.tokenCache = tokenCache;
+        this.metrics = metrics;
+        this.tx = new TransactionTemplate(txManager);
     }
 
-    /** Create order: validate products, calculate total, process payment with retries */
+    /** Create order: validate card token, then products, total and payment with retries */
     @Override
-    @Transactional
     public CreateOrderResponse createOrder(CreateOrderRequest req) {
+        // Step 0: token check from cache, before taking a connection for the transaction
+        CardTokenCache.Entry token = tokenCache.resolve(req.cardToken)
+                .filter(t -> t.customerId() == req.customerId)
+                .orElseThrow(() -> new IllegalArgumentException("Token de tarjeta inválido"));
+        if (!token.usableBy(req.customerId))
+            throw new IllegalArgumentException("Token de tarjeta revocado");
+
+        // Tres pasos: reservar (transacción corta), cobrar fuera de toda transacción y cerrar
+        // (otra transacción corta). Así la latencia de la pasarela no retiene una conexión del pool
+        Order order = tx.execute(status -> reserve(req));
+        metrics.orderCreated();
+        try {
+            List<CreateOrderResponse.PaymentAttemptView> views = new ArrayList<>();
+            try {
+                charge(req.cardToken, order, views);
+            } catch (RuntimeException e) {
+                if (views.stream().anyMatch(v -> v.approved)) {
+                    // ya hubo cobro y falló lo que vino después: la orden queda PENDING para
+                    // conciliar, sin devolver el stock de algo que el cliente pagó
+                    log.error("[ORDEN] Orden {} cobrada pero sin cerrar; queda PENDING: {}",
+                            order.getId(), e.toString());
+                } else {
+                    // sin cobro: se libera la reserva para no dejarla colgada
+                    finish(order, false, views.size());
+                }
+                throw e;
+            }
+            boolean approved = !views.isEmpty() && views.get(views.size() - 1).approved;
+            finish(order, approved, views.size());
+
+            // 3) Respuesta
+            CreateOrderResponse res = new CreateOrderResponse();
+            res.orderId = order.getId();
+            res.status = order.getStatus().name();
+            res.total = order.getTotal();
+            res.transactionUuid = order.getTransactionUuid();
+            res.attempts = views;
+            return res;
+        } finally {
+            metrics.orderCompleted(order.getStatus());
+        }
+    }
+
+    private Order reserve(CreateOrderRequest req) {
         // Step 1: Load products and calculate total
-        Map<Long, Product> map = productRepository.findAllById(
+        // catálogo desde la caché de segundo nivel (puede estar desactualizado entre instancias)
+        Map<Long, Product> map = productRepository.findAllCached(
                 req.items.stream().map(i -> i.productId).toList()).stream()
                 .collect(HashMap::new, (m, p) -> m.put(p.getId(), p), HashMap::putAll);
 
-        Order order = new Order();
-        order.setCustomerId(req.customerId);
-        order.setDeliveryAddress(req.deliveryAddress);
-        order.setCardToken(req.cardToken);
+        Order draft = assemble(req, map);
 
-        BigDecimal total = BigDecimal.ZERO;
-        List<OrderItem> items = new ArrayList<>();
-
-        for (CreateOrderRequest.Item it : req.items) {
-            Product p = map.get(it.productId);
-            if (p == null)
-                throw new IllegalArgumentException("Producto id=" + it.productId + " no existe");
-            if (p.getStock() < it.quantity)
-                throw new IllegalArgumentException("Stock insuficiente para " + p.getName());
-
-            OrderItem oi = new OrderItem();
-            oi.setOrder(order);
-            oi.setProductId(p.getId());
-            oi.setProductName(p.getName());
-            oi.setQuantity(it.quantity);
-            oi.setUnitPrice(p.getPrice());
-
-            items.add(oi);
-            total = total.add(p.getPrice().multiply(BigDecimal.valueOf(it.quantity)));
+        // Step 2: reservar el stock con UPDATE condicional antes de cobrar: si no alcanza, la
+        // transacción se revierte sin haber tocado la tarjeta
+        for (OrderItem it : draft.getItems()) {
+            if (!productRepository.decrementStock(it.getProductId(), it.getQuantity()))
+                throw new IllegalArgumentException("Stock insuficiente para " + it.getProductName());
         }
-
-        order.setItems(items);
-        order.setTotal(total);
-        order = orderRepository.save(order);
+        Order order = orderRepository.save(draft);
 
         // Log order creation
         tlog.log(order.getTransactionUuid(), order.getId(),
                 TransactionLog.Event.ORDER_CREATED, "Order created",
-                "{\"customerId\":" + order.getCustomerId() + ",\"total\":" + order.getTotal() + "}");
+                new TransactionPayloads.OrderCreated(order.getCustomerId(), order.getTotal()));
+        return order;
+    }
 
-        // Step 2: Payment attempts with retries
+    // Sin transacción: cada intento se guarda por separado, en la transacción del propio repositorio.
+    // Cada respuesta de la pasarela entra a views antes de persistirla, así quien llama sabe si
+    // hubo cobro aunque falle un save posterior
+    private void charge(String cardToken, Order order, List<CreateOrderResponse.PaymentAttemptView> views) {
+        // Step 3: Payment attempts with retries
         boolean approved = false;
         int attempts = 0;
-        List<CreateOrderResponse.PaymentAttemptView> views = new ArrayList<>();
 
         while (attempts < maxRetries && !approved) {
             attempts++;
-            approved = paymentService.tryCharge(req.cardToken, total);
+            approved = paymentService.tryCharge(cardToken, order.getTotal());
+            CreateOrderResponse.PaymentAttemptView v = new CreateOrderResponse.PaymentAttemptView();
+            v.attemptNumber = attempts;
+            v.approved = approved;
+            v.message = approved ? "APPROVED" : "REJECTED";
+            views.add(v);
+            metrics.paymentAttempt(attempts, approved);
 
             PaymentAttempt pa = new PaymentAttempt();
             pa.setOrderId(order.getId());
             pa.setAttemptNumber(attempts);
             pa.setApproved(approved);
-            pa.setMessage(approved ? "APPROVED" : "REJECTED");
+            pa.setMessage(v.message);
             paymentAttemptRepository.save(pa);
 
             // Log: PAYMENT_ATTEMPT
             tlog.log(order.getTransactionUuid(), order.getId(),
                     TransactionLog.Event.PAYMENT_ATTEMPT,
                     pa.getMessage(),
-                    "{\"attempt\":" + attempts + ",\"approved\":" + approved + "}");
+                    new TransactionPayloads.PaymentAttempt(attempts, approved));
+        }
+    }
 
-            CreateOrderResponse.PaymentAttemptView v = new CreateOrderResponse.PaymentAttemptView();
-            v.attemptNumber = attempts;
-            v.approved = approved;
-            v.message = pa.getMessage();
-            views.add(v);
+    // El correo sale tras el commit: el SMTP no retiene la conexión de la transacción de cierre
+    private void finish(Order order, boolean approved, int attempts) {
+        tx.executeWithoutResult(status -> complete(order, approved, attempts));
+        if (approved) {
+            notificationService.notifyOrderPaid(order.getCustomerId(), order.getId());
+        } else {
+            notificationService.notifyOrderFailed(order.getCustomerId(), order.getId(), "Max retries exceeded");
         }
+    }
 
+    private void complete(Order order, boolean approved, int attempts) {
         if (approved) {
             order.setStatus(Order.Status.PAID);
-            // descontar stock
-            for (OrderItem it : items) {
-                Product p = map.get(it.getProductId());
-                p.setStock(p.getStock() - it.getQuantity());
-            }
-            productRepository.saveAll(map.values());
             orderRepository.save(order);
-            notificationService.notifyOrderPaid(order.getCustomerId(), order.getId());
 
             // Log: ORDER_PAID
             tlog.log(order.getTransactionUuid(), order.getId(),
-                    TransactionLog.Event.ORDER_PAID, "Order paid", null);
+                    TransactionLog.Event.ORDER_PAID, "Order paid",
+                    new TransactionPayloads.OrderPaid(attempts));
 
         } else {
             order.setStatus(Order.Status.FAILED);
+            // sin cobro: se devuelve el stock reservado
+            for (OrderItem it : order.getItems()) {
+                productRepository.restoreStock(it.getProductId(), it.getQuantity());
+            }
             orderRepository.save(order);
-            notificationService.notifyOrderFailed(order.getCustomerId(), order.getId(), "Max retries exceeded");
 
             // Log: ORDER_FAILED
             tlog.log(order.getTransactionUuid(), order.getId(),
-                    TransactionLog.Event.ORDER_FAILED, "Order failed", "{\"reason\":\"retries_exceeded\"}");
+                    TransactionLog.Event.ORDER_FAILED, "Order failed",
+                    new TransactionPayloads.OrderFailed("retries_exceeded"));
         }
+    }
 
-        // 3) Respuesta
-        CreateOrderResponse res = new CreateOrderResponse();
-        res.orderId = order.getId();
-        res.status = order.getStatus().name();
-        res.total = order.getTotal();
-        res.transactionUuid = order.getTransactionUuid();
-        res.attempts = views;
-        return res;
+    /**
+     * Build the order with its items and total from the loaded products (no I/O). Stock is
+     * not checked here: the cached value may be stale, decrementStock is the authority.
+     */
+    static Order assemble(CreateOrderRequest req, Map<Long, Product> products) {
+        Order order = new Order();
+        order.setCustomerId(req.customerId);
+        order.setDeliveryAddress(req.deliveryAddress);
+        order.setCardToken(req.cardToken);
+
+        BigDecimal total = BigDecimal.ZERO;
+        List<OrderItem> items = new ArrayList<>();
+
+        for (CreateOrderRequest.Item it : req.items) {
+            Product p = products.get(it.productId);
+            if (p == null)
+                throw new IllegalArgumentException("Producto id=" + it.productId + " no existe");
+
+            OrderItem oi = new OrderItem();
+            oi.setOrder(order);
+            oi.setProductId(p.getId());
+            oi.setProductName(p.getName());
+            oi.setQuantity(it.quantity);
+            oi.setUnitPrice(p.getPrice());
+
+            items.add(oi);
+            total = total.add(p.getPrice().multiply(BigDecimal.valueOf(it.quantity)));
+        }
+
+        order.setItems(items);
+        order.setTotal(total);
+        return order;
     }
 }
@@ -1,26 +1,120 @@
 /**
- * Payment service implementation - simulates payment processing
+ * Payment service implementation - simulates payment processing, or charges through
+ * an HTTP gateway when payment.gateway.url is set (e.g. the loadtest stub)
  */
 package com.farmatodo.reto.service.impl;
 
 import com.farmatodo.reto.service.PaymentService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.concurrent.ThreadLocalRandom;
 
 @Service
+@Timed(value = "service.calls", histogram = true)
 public class PaymentServiceImpl implements PaymentService {
 
+    private static final Logger log = LoggerFactory.getLogger(PaymentServiceImpl.class);
+
     @Value("${payment.rejection-percentage:30}")
     private int rejectionPercentage; // 0..100
 
-    /** Simulate payment charge - randomly approves/rejects based on configured percentage */
+    @Value("${payment.simulated-latency-ms:0}")
+    private long simulatedLatencyMs; // latencia de una pasarela real, para pruebas de carga
+
+    @Value("${payment.gateway.url:}")
+    private String gatewayUrl; // vacío = simulación local
+
+    @Value("${payment.gateway.timeout-ms:2000}")
+    private long gatewayTimeoutMs;
+
+    private volatile HttpClient http;
+
+    // Cuerpo del cargo; el monto va como número sin notación científica (500.00, no 5.0E+2)
+    private final ObjectWriter chargeWriter;
+
+    record ChargeRequest(String cardToken, BigDecimal amount) {
+    }
+
+    public PaymentServiceImpl(ObjectMapper mapper) {
+        this.chargeWriter = mapper.writerFor(ChargeRequest.class)
+                .with(StreamWriteFeature.WRITE_BIGDECIMAL_AS_PLAIN);
+    }
+
+    /** Charge through the gateway if configured; otherwise randomly approve/reject based on configured percentage */
     @Override
     public boolean tryCharge(String cardToken, BigDecimal amount) {
+        if (gatewayUrl != null && !gatewayUrl.isBlank()) {
+            return chargeRemote(cardToken, amount);
+        }
+        if (simulatedLatencyMs > 0) {
+            try {
+                Thread.sleep(simulatedLatencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
         // Random approval: if random [0..99] >= rejectionPercentage, approve
         int r = ThreadLocalRandom.current().nextInt(100);
         return r >= rejectionPercentage;
     }
+
+    // 200 = aprobado, 402 = rechazado; un error o timeout de la pasarela cuenta como intento fallido
+    private boolean chargeRemote(String cardToken, BigDecimal amount) {
+        byte[] body;
+        try {
+            body = chargeWriter.writeValueAsBytes(new ChargeRequest(cardToken, amount));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(gatewayUrl))
+                .timeout(Duration.ofMillis(gatewayTimeoutMs))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        try {
+            int status = client().send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (status != 200 && status != 402) {
+                log.warn("[PAGO] Respuesta inesperada de la pasarela: {}", status);
+            }
+            return status == 200;
+        } catch (IOException e) {
+            log.warn("[PAGO] Pasarela no disponible: {}", e.toString());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private HttpClient client() {
+        HttpClient c = http;
+        if (c == null) {
+            synchronized (this) {
+                if (http == null) {
+                    http = HttpClient.newBuilder()
+                            .version(HttpClient.Version.HTTP_1_1)
+                            .connectTimeout(Duration.ofMillis(gatewayTimeoutMs))
+                            .build();
+                }
+                c = http;
+            }
+        }
+        return c;
+    }
 }
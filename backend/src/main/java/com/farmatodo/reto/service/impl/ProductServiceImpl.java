@@ -3,11 +3,13 @@
  */
 package com.farmatodo.reto.service.impl;
 
-import com.farmatodo.reto.entity.Product;
+import com.farmatodo.reto.dto.ProductView;
 import com.farmatodo.reto.entity.ProductSearchLog;
 import com.farmatodo.reto.repository.ProductRepository;
 import com.farmatodo.reto.repository.ProductSearchLogRepository;
+import com.farmatodo.reto.service.BusinessMetrics;
 import com.farmatodo.reto.service.ProductService;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
@@ -16,27 +18,34 @@ import java.util.List;
 import java.util.Objects;
 
 @Service
+@Timed(value = "service.calls", histogram = true)
 public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepository;
     private final ProductSearchLogRepository searchLogRepository;
+    private final BusinessMetrics metrics;
 
     @Value("${product.min-stock:0}")
     private Integer minStock;
 
     public ProductServiceImpl(ProductRepository productRepository,
-            ProductSearchLogRepository searchLogRepository) {
+            ProductSearchLogRepository searchLogRepository,
+            BusinessMetrics metrics) {
         this.productRepository = productRepository;
         this.searchLogRepository = searchLogRepository;
+        this.metrics = metrics;
     }
 
     /** Search products by name (case-insensitive) with minimum stock filter */
     @Override
-    public List<Product> search(String q, Long customerId) {
+    public List<ProductView> search(String q, Long customerId) {
         String term = Objects.requireNonNullElse(q, "").trim();
         logAsync(term, customerId);
-        return productRepository
-                .findByNameContainingIgnoreCaseAndStockGreaterThanEqual(term, minStock);
+        List<ProductView> found = productRepository
+                .findByNameContainingIgnoreCaseAndStockGreaterThanEqual(term, minStock)
+                .stream().map(ProductView::of).toList();
+        metrics.productSearch(found.size());
+        return found;
     }
 
     /** Asynchronously log search term for analytics */
@@ -1,48 +1,157 @@
 package com.farmatodo.reto.service.impl;
 
+import com.farmatodo.reto.dto.TokenizeBatchResponse;
 import com.farmatodo.reto.dto.TokenizeRequest;
 import com.farmatodo.reto.dto.TokenizeResponse;
 import com.farmatodo.reto.entity.CardToken;
 import com.farmatodo.reto.repository.CardTokenRepository;
+import com.farmatodo.reto.service.BusinessMetrics;
+import com.farmatodo.reto.service.CardSealingPool;
+import com.farmatodo.reto.service.CardTokenCache;
+import com.farmatodo.reto.service.KeyRing;
+import com.farmatodo.reto.service.TokenPool;
 import com.farmatodo.reto.service.TokenizationService;
-import com.farmatodo.reto.util.CryptoUtil;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Random;
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
+@Timed(value = "service.calls", histogram = true)
 public class TokenizationServiceImpl implements TokenizationService {
 
   private final CardTokenRepository repo;
-  private final Random random = new Random();
+  private final TokenPool tokenPool;
+  private final KeyRing keyRing;
+  private final CardTokenCache tokenCache;
+  private final BusinessMetrics metrics;
+  private final CardSealingPool sealing;
+  private final TransactionTemplate tx;
+  private final int chunkSize;
 
   @Value("${tokenization.rejection-percentage:20}")
   private int rejectionPct;
 
-  @Value("${encryption.secret}")
-  private String secret;
-
-  public TokenizationServiceImpl(CardTokenRepository repo) { this.repo = repo; }
+  public TokenizationServiceImpl(CardTokenRepository repo, TokenPool tokenPool, KeyRing keyRing,
+      CardTokenCache tokenCache, BusinessMetrics metrics,
+      CardSealingPool sealing, PlatformTransactionManager txManager,
+      @Value("${tokenization.batch.chunk-size:32}") int chunkSize) {
+    this.repo = repo;
+    this.tokenPool = tokenPool;
+    this.keyRing = keyRing;
+    this.tokenCache = tokenCache;
+    this.metrics = metrics;
+    this.sealing = sealing;
+    this.tx = new TransactionTemplate(txManager);
+    this.chunkSize = chunkSize;
+  }
 
   @Override
   public TokenizeResponse tokenize(TokenizeRequest req) {
-    int r = random.nextInt(100);            // 0..99
-    if (r < rejectionPct) {                 // % rechazo configurable
+    if (rejected()) {                       // % rechazo configurable
+      metrics.cardsTokenized(0, 1);
       throw new IllegalArgumentException("tokenization-rejected");
     }
 
+    CardToken ct = newToken(req);
+    repo.save(ct);
+    tokenCache.put(ct);
+    metrics.cardsTokenized(1, 0);
+
+    return new TokenizeResponse(ct.getToken());
+  }
+
+  /**
+   * Encrypt the cards in chunks on the dedicated CardSealingPool, then insert the accepted
+   * ones in one JDBC batch. Sealing runs outside any transaction so no pooled connection is
+   * held while waiting on the pool; only the insert and cache update share a short one.
+   * A full executor queue fails the whole batch with RejectedExecutionException (503)
+   * before anything is written.
+   */
+  @Override
+  public TokenizeBatchResponse tokenizeBatch(List<TokenizeRequest> cards) {
+    // Un bloque por tarea y no una por tarjeta: pocas entradas en la cola acotada
+    List<CompletableFuture<List<CardToken>>> chunks = new ArrayList<>();
+    for (int from = 0; from < cards.size(); from += chunkSize) {
+      List<TokenizeRequest> chunk = cards.subList(from, Math.min(from + chunkSize, cards.size()));
+      chunks.add(sealing.submit(() -> seal(chunk)));
+    }
+    List<CardToken> tokens = new ArrayList<>(cards.size());
+    for (CompletableFuture<List<CardToken>> chunk : chunks) {
+      try {
+        tokens.addAll(chunk.join());
+      } catch (CompletionException e) {
+        throw e.getCause() instanceof RuntimeException re ? re : e;
+      }
+    }
+
+    List<CardToken> accepted = new ArrayList<>(tokens.size());
+    List<TokenizeBatchResponse.Result> results = new ArrayList<>(tokens.size());
+    for (CardToken ct : tokens) {
+      if (ct == null) {
+        results.add(new TokenizeBatchResponse.Result(null, "tokenization-rejected"));
+      } else {
+        accepted.add(ct);
+        results.add(new TokenizeBatchResponse.Result(ct.getToken(), null));
+      }
+    }
+    if (!accepted.isEmpty()) {
+      // La caché se llena en afterCommit de esta transacción
+      tx.executeWithoutResult(status -> {
+        repo.insertBatch(accepted);
+        tokenCache.put(accepted);
+      });
+    }
+    metrics.cardsTokenized(accepted.size(), tokens.size() - accepted.size());
+    return new TokenizeBatchResponse(results);
+  }
+
+  @Override
+  @Transactional
+  public void revoke(String token, Long customerId) {
+    // El token de otro cliente se trata como inexistente: no revela cuáles existen
+    CardToken ct = repo.findByToken(token)
+        .filter(t -> customerId == null || customerId.equals(t.getCustomerId()))
+        .orElseThrow(() -> new IllegalArgumentException("Token no existe"));
+    // UPDATE de solo la columna status: save(ct) reescribiría la fila entera con la llave y el
+    // cifrado leídos y podría deshacer una re-encriptación concurrente de KeyRotationJob.
+    // ct no se modifica, así que el flush de la entidad tampoco escribe nada
+    repo.updateStatus(ct.getToken(), CardToken.Status.REVOKED);
+    // La caché se actualiza al confirmar (afterCommit): un rollback no deja el token inutilizable
+    tokenCache.revoked(ct);
+  }
+
+  // El rechazo simulado se decide por tarjeta; null = rechazada
+  private List<CardToken> seal(List<TokenizeRequest> chunk) {
+    List<CardToken> out = new ArrayList<>(chunk.size());
+    for (TokenizeRequest req : chunk) {
+      out.add(rejected() ? null : newToken(req));
+    }
+    return out;
+  }
+
+  private boolean rejected() {
+    return ThreadLocalRandom.current().nextInt(100) < rejectionPct;   // 0..99
+  }
+
+  private CardToken newToken(TokenizeRequest req) {
     String data = req.cardNumber()+"|"+req.cvv()+"|"+req.expDate();
-    String enc = CryptoUtil.aesEncrypt(data, secret);
-    String token = UUID.randomUUID().toString();
+    KeyRing.Sealed sealed = keyRing.seal(data);
 
     CardToken ct = new CardToken();
     ct.setCustomerId(req.customerId());
-    ct.setToken(token);
-    ct.setEncryptedData(enc);
-    repo.save(ct);
-
-    return new TokenizeResponse(token);
+    ct.setToken(tokenPool.take());
+    ct.setEncryptedData(sealed.encryptedData());
+    ct.setKeyVersion(sealed.keyVersion());
+    ct.setWrappedKey(sealed.wrappedKey());
+    return ct;
   }
 }
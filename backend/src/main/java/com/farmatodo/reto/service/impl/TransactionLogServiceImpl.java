@@ -1,27 +1,136 @@
 package com.farmatodo.reto.service.impl;
 
+import com.farmatodo.reto.dto.TransactionLogPage;
+import com.farmatodo.reto.dto.TransactionLogView;
+import com.farmatodo.reto.dto.TransactionPayloads;
 import com.farmatodo.reto.entity.TransactionLog;
 import com.farmatodo.reto.repository.TransactionLogRepository;
+import com.farmatodo.reto.service.TransactionLogArchive;
+import com.farmatodo.reto.service.TransactionLogBroadcaster;
 import com.farmatodo.reto.service.TransactionLogService;
+import com.farmatodo.reto.util.PayloadWriter;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
+@Timed(value = "service.calls", histogram = true)
 public class TransactionLogServiceImpl implements TransactionLogService {
 
     private final TransactionLogRepository repo;
+    private final TransactionLogBroadcaster broadcaster;
+    private final TransactionLogArchive archive;
 
-    public TransactionLogServiceImpl(TransactionLogRepository repo) {
+    public TransactionLogServiceImpl(TransactionLogRepository repo, TransactionLogBroadcaster broadcaster,
+            TransactionLogArchive archive) {
         this.repo = repo;
+        this.broadcaster = broadcaster;
+        this.archive = archive;
     }
 
     @Override
-    public void log(String txUuid, Long orderId, TransactionLog.Event event, String message, String payloadJson) {
+    public void log(String txUuid, Long orderId, TransactionLog.Event event, String message,
+            TransactionPayloads.Payload payload) {
         TransactionLog t = new TransactionLog();
         t.setTransactionUuid(txUuid);
         t.setOrderId(orderId);
         t.setEvent(event);
         t.setMessage(message);
-        t.setPayload(payloadJson);
-        repo.save(t);
+        t.setPayload(PayloadWriter.write(payload));
+        TransactionLog saved = repo.save(t);
+
+        // Solo eventos confirmados: una orden que se revierte no debe haber salido por SSE
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    broadcaster.publish(saved);
+                }
+            });
+        } else {
+            broadcaster.publish(saved);
+        }
+    }
+
+    /**
+     * One keyset page of a transaction's timeline, ordered by (createdAt, id). A timeline
+     * with no rows left in the DB is paged over the archived segments instead.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public TransactionLogPage pageByTransaction(String txUuid, String cursor, int limit, boolean includePayload) {
+        TransactionLogPage.Cursor after = TransactionLogPage.Cursor.decode(cursor);
+        if (after.archived()) {
+            return archivedPage(archive.findByTransactionUuid(txUuid), after, limit, includePayload);
+        }
+        List<TransactionLogView> rows = repo.pageByTransactionUuid(
+                txUuid, after.createdAt(), after.id(), Limit.of(limit + 1));
+        if (rows.isEmpty() && after == TransactionLogPage.Cursor.START) {
+            return archivedPage(archive.findByTransactionUuid(txUuid), after, limit, includePayload);
+        }
+        return toPage(rows, limit, includePayload);
+    }
+
+    /**
+     * One keyset page of an order's timeline, ordered by (createdAt, id). A timeline
+     * with no rows left in the DB is paged over the archived segments instead.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public TransactionLogPage pageByOrder(Long orderId, String cursor, int limit, boolean includePayload) {
+        TransactionLogPage.Cursor after = TransactionLogPage.Cursor.decode(cursor);
+        if (after.archived()) {
+            return archivedPage(archive.findByOrderId(orderId), after, limit, includePayload);
+        }
+        List<TransactionLogView> rows = repo.pageByOrderId(
+                orderId, after.createdAt(), after.id(), Limit.of(limit + 1));
+        if (rows.isEmpty() && after == TransactionLogPage.Cursor.START) {
+            return archivedPage(archive.findByOrderId(orderId), after, limit, includePayload);
+        }
+        return toPage(rows, limit, includePayload);
+    }
+
+    // El archivo solo se consulta si la DB no tiene nada (también para el listado completo,
+    // que pagina por aquí). El cursor queda marcado para que las páginas siguientes sigan en el archivo
+    private static TransactionLogPage archivedPage(List<TransactionLog> logs, TransactionLogPage.Cursor after,
+            int limit, boolean includePayload) {
+        List<TransactionLogView> rows = new ArrayList<>(Math.min(logs.size(), limit + 1));
+        for (TransactionLog t : logs) {
+            if (rows.size() > limit) {
+                break;
+            }
+            if (after.isBefore(t.getCreatedAt(), t.getId())) {
+                rows.add(TransactionLogView.of(t, includePayload));
+            }
+        }
+        List<TransactionLogView> items = rows.size() > limit ? rows.subList(0, limit) : rows;
+        String next = rows.size() > limit
+                ? TransactionLogPage.Cursor.afterArchived(items.get(items.size() - 1)).encode()
+                : null;
+        return new TransactionLogPage(List.copyOf(items), next);
+    }
+
+    // Se pide limit + 1 filas: si sobra una, hay página siguiente
+    private TransactionLogPage toPage(List<TransactionLogView> rows, int limit, boolean includePayload) {
+        List<TransactionLogView> items = rows.size() > limit ? rows.subList(0, limit) : rows;
+        String next = rows.size() > limit
+                ? TransactionLogPage.Cursor.after(items.get(items.size() - 1)).encode()
+                : null;
+        if (includePayload && !items.isEmpty()) {
+            Map<Long, String> payloads = new HashMap<>();
+            for (Object[] row : repo.findPayloads(items.stream().map(TransactionLogView::id).toList())) {
+                payloads.put((Long) row[0], (String) row[1]);
+            }
+            items = items.stream().map(v -> v.withPayload(payloads.get(v.id()))).toList();
+        }
+        return new TransactionLogPage(List.copyOf(items), next);
     }
 }
@@ -0,0 +1,73 @@
+package com.farmatodo.reto.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over strings. {@link #mightContain} never returns false for a
+ * key that was {@link #put}; a true may be a false positive at roughly the configured
+ * rate while the number of keys stays under the expected insertions. Bits live in an
+ * AtomicLongArray, so put and mightContain run concurrently without locks.
+ */
+public final class BloomFilter {
+
+  private final AtomicLongArray words;
+  private final long numBits;
+  private final int numHashes;
+
+  public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+    if (expectedInsertions <= 0) throw new IllegalArgumentException("expectedInsertions must be > 0");
+    if (falsePositiveRate <= 0 || falsePositiveRate >= 1) throw new IllegalArgumentException("falsePositiveRate must be in (0, 1)");
+    long m = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+    int words = (int) Math.min(Integer.MAX_VALUE - 8, (m + 63) / 64);
+    this.words = new AtomicLongArray(words);
+    this.numBits = (long) words * 64;
+    this.numHashes = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+  }
+
+  public void put(String key) {
+    long h1 = fnv1a64(key);
+    long h2 = fmix64(h1) | 1L; // impar: recorre todas las posiciones
+    for (int i = 0; i < numHashes; i++) {
+      long bit = Math.floorMod(h1 + i * h2, numBits);
+      int idx = (int) (bit >>> 6);
+      long mask = 1L << bit;
+      if ((words.get(idx) & mask) == 0) {
+        words.getAndAccumulate(idx, mask, (a, b) -> a | b);
+      }
+    }
+  }
+
+  public boolean mightContain(String key) {
+    long h1 = fnv1a64(key);
+    long h2 = fmix64(h1) | 1L;
+    for (int i = 0; i < numHashes; i++) {
+      long bit = Math.floorMod(h1 + i * h2, numBits);
+      if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+    }
+    return true;
+  }
+
+  public long bitSize() { return numBits; }
+
+  public int hashCount() { return numHashes; }
+
+  private static long fnv1a64(String key) {
+    long h = 0xcbf29ce484222325L;
+    for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+      h ^= (b & 0xff);
+      h *= 0x100000001b3L;
+    }
+    return fmix64(h);
+  }
+
+  // finalizador de MurmurHash3: dispersa bien los bits altos y bajos
+  private static long fmix64(long k) {
+    k ^= k >>> 33;
+    k *= 0xff51afd7ed558ccdL;
+    k ^= k >>> 33;
+    k *= 0xc4ceb9fe1a85ec53L;
+    k ^= k >>> 33;
+    return k;
+  }
+}
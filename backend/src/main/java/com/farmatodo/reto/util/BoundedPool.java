@@ -0,0 +1,52 @@
+package com.farmatodo.reto.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Small pool of reusable, non-thread-safe objects (Cipher, Mac, MessageDigest). A
+ * ThreadLocal cache does not survive virtual threads, which are one per request, so it
+ * would rebuild the object on every call; here instances are shared by whichever threads
+ * are running. An empty pool creates a new instance and a full pool drops what is given
+ * back, so at most {@code max} idle instances are kept.
+ */
+public final class BoundedPool<T> {
+
+  private final Queue<T> idle = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger idleCount = new AtomicInteger();
+  private final Supplier<T> factory;
+  private final int max;
+
+  public BoundedPool(Supplier<T> factory, int max) {
+    this.factory = factory;
+    this.max = max;
+  }
+
+  /** Default bound for CPU-bound work: more idle instances than busy cores is waste */
+  public static int defaultSize() {
+    return Math.max(2, Runtime.getRuntime().availableProcessors() * 2);
+  }
+
+  /** An idle instance, or a new one; hand it back with {@link #release} once done */
+  public T take() {
+    T t = idle.poll();
+    if (t == null) return factory.get();
+    idleCount.decrementAndGet();
+    return t;
+  }
+
+  /** Return an instance in a reusable state; one that failed mid-operation must not come back */
+  public void release(T t) {
+    if (idleCount.incrementAndGet() <= max) {
+      idle.offer(t);
+    } else {
+      idleCount.decrementAndGet();
+    }
+  }
+
+  public int idle() {
+    return idleCount.get();
+  }
+}
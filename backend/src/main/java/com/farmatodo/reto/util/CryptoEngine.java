@@ -0,0 +1,72 @@
+package com.farmatodo.reto.util;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * AES engine bound to one secret. The SecretKeySpec is derived once and initialized
+ * Ciphers are reused from a bounded pool (Cipher is not thread-safe, but doFinal leaves
+ * it ready for the next message), so the hot path never calls Cipher.getInstance/init.
+ */
+public final class CryptoEngine {
+
+  static final String TRANSFORMATION = "AES/ECB/PKCS5Padding";
+  private static final int MAX_CACHED_KEYS = 64;
+  private static final Map<String, CryptoEngine> BY_SECRET = new ConcurrentHashMap<>();
+
+  private final SecretKeySpec key;
+  private final BoundedPool<Cipher> encryptors;
+  private final BoundedPool<Cipher> decryptors;
+
+  private CryptoEngine(String secret) {
+    this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "AES");
+    newCipher(key, Cipher.ENCRYPT_MODE); // valida la clave una sola vez; una clave inválida no entra a la caché
+    this.encryptors = new BoundedPool<>(() -> newCipher(key, Cipher.ENCRYPT_MODE), BoundedPool.defaultSize());
+    this.decryptors = new BoundedPool<>(() -> newCipher(key, Cipher.DECRYPT_MODE), BoundedPool.defaultSize());
+  }
+
+  /** Engine for the given secret, from the derived key cache */
+  public static CryptoEngine forSecret(String secret) {
+    CryptoEngine engine = BY_SECRET.get(secret);
+    if (engine != null) return engine;
+    if (BY_SECRET.size() >= MAX_CACHED_KEYS) BY_SECRET.clear();
+    return BY_SECRET.computeIfAbsent(secret, CryptoEngine::new);
+  }
+
+  public String encrypt(String plain) {
+    Cipher c = encryptors.take();
+    try {
+      byte[] out = c.doFinal(plain.getBytes(StandardCharsets.UTF_8));
+      encryptors.release(c);
+      return Base64.getEncoder().encodeToString(out);
+    } catch (GeneralSecurityException e) {
+      // un Cipher en estado inconsistente no vuelve al pool
+      throw new RuntimeException(e);
+    }
+  }
+
+  /** Inverse of {@link #encrypt}; used to migrate legacy rows to envelope encryption */
+  public String decrypt(String encrypted) {
+    Cipher c = decryptors.take();
+    try {
+      byte[] out = c.doFinal(Base64.getDecoder().decode(encrypted));
+      decryptors.release(c);
+      return new String(out, StandardCharsets.UTF_8);
+    } catch (GeneralSecurityException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static Cipher newCipher(SecretKeySpec key, int mode) {
+    try {
+      Cipher c = Cipher.getInstance(TRANSFORMATION);
+      c.init(mode, key);
+      return c;
+    } catch (GeneralSecurityException e) { throw new RuntimeException(e); }
+  }
+}
@@ -0,0 +1,59 @@
+package com.farmatodo.reto.util;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * AES-GCM primitives for envelope encryption. Output is iv || ciphertext+tag. GCM needs a
+ * fresh init (new IV) per message anyway, but Ciphers come from a bounded pool so
+ * Cipher.getInstance is not paid per call; SecureRandom is thread-safe and shared.
+ */
+public final class EnvelopeCipher {
+
+  private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+  private static final int IV_BYTES = 12;
+  private static final int TAG_BITS = 128;
+  private static final int DATA_KEY_BYTES = 16;
+
+  private static final SecureRandom RANDOM = new SecureRandom();
+  private static final BoundedPool<Cipher> GCM = new BoundedPool<>(() -> {
+    try { return Cipher.getInstance(TRANSFORMATION); }
+    catch (GeneralSecurityException e) { throw new IllegalStateException(e); }
+  }, BoundedPool.defaultSize());
+
+  private EnvelopeCipher() {}
+
+  /** New random data key (DEK) */
+  public static byte[] newDataKey() {
+    byte[] k = new byte[DATA_KEY_BYTES];
+    RANDOM.nextBytes(k);
+    return k;
+  }
+
+  public static byte[] encrypt(SecretKeySpec key, byte[] plain) {
+    byte[] iv = new byte[IV_BYTES];
+    RANDOM.nextBytes(iv);
+    Cipher c = GCM.take();
+    try {
+      c.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+      byte[] out = Arrays.copyOf(iv, IV_BYTES + c.getOutputSize(plain.length));
+      c.doFinal(plain, 0, plain.length, out, IV_BYTES);
+      GCM.release(c);
+      return out;
+    } catch (GeneralSecurityException e) { throw new IllegalStateException(e); }
+  }
+
+  public static byte[] decrypt(SecretKeySpec key, byte[] sealed) {
+    Cipher c = GCM.take();
+    try {
+      c.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, sealed, 0, IV_BYTES));
+      byte[] plain = c.doFinal(sealed, IV_BYTES, sealed.length - IV_BYTES);
+      GCM.release(c);
+      return plain;
+    } catch (GeneralSecurityException e) { throw new IllegalStateException(e); }
+  }
+}
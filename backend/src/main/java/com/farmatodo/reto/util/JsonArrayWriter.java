@@ -0,0 +1,39 @@
+package com.farmatodo.reto.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes a JSON array element by element straight to the response stream, so
+ * long result sets never need to be held in memory as a whole.
+ */
+public class JsonArrayWriter implements Closeable {
+
+  private static final int FLUSH_EVERY = 100;
+
+  private final JsonGenerator gen;
+  private int written;
+
+  public JsonArrayWriter(ObjectMapper mapper, OutputStream out) throws IOException {
+    this.gen = mapper.getFactory().createGenerator(out);
+    this.gen.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+    this.gen.writeStartArray();
+  }
+
+  public void write(Object value) throws IOException {
+    gen.writeObject(value);
+    if (++written % FLUSH_EVERY == 0) gen.flush();
+  }
+
+  public int written() { return written; }
+
+  @Override
+  public void close() throws IOException {
+    gen.writeEndArray();
+    gen.close();
+  }
+}
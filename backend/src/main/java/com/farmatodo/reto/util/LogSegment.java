@@ -0,0 +1,387 @@
+package com.farmatodo.reto.util;
+
+import com.farmatodo.reto.entity.TransactionLog;
+
+import java.io.*;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Archived TransactionLog segment: a `.seg` file of deflate-compressed blocks and a
+ * `.idx` index with one entry per block (first transaction_uuid, offset, lengths)
+ * followed by an order_id posting list (the blocks holding each order). Records are
+ * written sorted by transaction_uuid and a uuid never spans two blocks, so a uuid lookup
+ * inflates exactly one block and an order lookup only the blocks listed for it. A
+ * segment without its `.idx` is incomplete and ignored. The data file is mapped as one
+ * buffer, so a segment is capped at {@link #MAX_BYTES}; {@link #close()} unmaps it once
+ * no lookup is still reading.
+ */
+public final class LogSegment implements Closeable {
+
+  public static final String DATA_EXT = ".seg";
+  public static final String INDEX_EXT = ".idx";
+  /** Largest data file a single MappedByteBuffer can address */
+  public static final long MAX_BYTES = Integer.MAX_VALUE;
+  private static final int MAGIC = 0x544c4732; // "TLG2"
+  private static final MethodHandle INVOKE_CLEANER = invokeCleaner();
+
+  private final Path data;
+  private final MappedByteBuffer mapped;
+  private final String[] firstUuids;
+  private final long[] offsets;
+  private final int[] compressedLengths;
+  private final int[] rawLengths;
+  // Lista de bloques por order_id: los bloques de orderIds[k] son postings[postingStart[k] .. postingStart[k+1])
+  private final long[] orderIds;
+  private final int[] postingStart;
+  private final int[] postings;
+  // Una referencia del dueño más una por lectura en curso; en 0 se libera el mapeo
+  private final AtomicInteger refs = new AtomicInteger(1);
+  private final AtomicBoolean closed = new AtomicBoolean();
+
+  private LogSegment(Path data, MappedByteBuffer mapped, String[] firstUuids, long[] offsets,
+      int[] compressedLengths, int[] rawLengths, long[] orderIds, int[] postingStart, int[] postings) {
+    this.data = data;
+    this.mapped = mapped;
+    this.firstUuids = firstUuids;
+    this.offsets = offsets;
+    this.compressedLengths = compressedLengths;
+    this.rawLengths = rawLengths;
+    this.orderIds = orderIds;
+    this.postingStart = postingStart;
+    this.postings = postings;
+  }
+
+  /** Open a finished segment from its index file; the data file is memory-mapped read-only */
+  public static LogSegment open(Path index) throws IOException {
+    String base = index.getFileName().toString();
+    Path data = index.resolveSibling(base.substring(0, base.length() - INDEX_EXT.length()) + DATA_EXT);
+
+    try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(index)))) {
+      if (in.readInt() != MAGIC) throw new IOException("Not a transaction log index: " + index);
+      int n = in.readInt();
+      String[] firstUuids = new String[n];
+      long[] offsets = new long[n];
+      int[] compressed = new int[n];
+      int[] raw = new int[n];
+      for (int i = 0; i < n; i++) {
+        firstUuids[i] = in.readUTF();
+        offsets[i] = in.readLong();
+        compressed[i] = in.readInt();
+        raw[i] = in.readInt();
+      }
+      int orders = in.readInt();
+      long[] orderIds = new long[orders];
+      int[] postingStart = new int[orders + 1];
+      int[] postings = new int[in.readInt()];
+      for (int k = 0, p = 0; k < orders; k++) {
+        orderIds[k] = in.readLong();
+        int count = in.readInt();
+        postingStart[k] = p;
+        for (int j = 0; j < count; j++) postings[p++] = in.readInt();
+        postingStart[k + 1] = p;
+      }
+      try (FileChannel ch = FileChannel.open(data, StandardOpenOption.READ)) {
+        if (ch.size() > MAX_BYTES) throw new IOException("Segment larger than " + MAX_BYTES + " bytes: " + data);
+        MappedByteBuffer mapped = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        return new LogSegment(data, mapped, firstUuids, offsets, compressed, raw, orderIds, postingStart, postings);
+      }
+    }
+  }
+
+  public Path path() { return data; }
+
+  public int blockCount() { return firstUuids.length; }
+
+  /** Records of {@code uuid}; empty once the segment is closed */
+  public List<TransactionLog> findByTransactionUuid(String uuid) {
+    int pos = Arrays.binarySearch(firstUuids, uuid);
+    int block = pos >= 0 ? pos : -pos - 2; // último bloque cuyo primer uuid <= uuid
+    List<TransactionLog> out = new ArrayList<>();
+    if (block < 0 || !acquire()) return out;
+    try {
+      for (TransactionLog t : readBlock(block)) {
+        if (uuid.equals(t.getTransactionUuid())) out.add(t);
+      }
+    } finally {
+      release();
+    }
+    return out;
+  }
+
+  /** Records of {@code orderId}; empty once the segment is closed */
+  public List<TransactionLog> findByOrderId(long orderId) {
+    int k = Arrays.binarySearch(orderIds, orderId);
+    List<TransactionLog> out = new ArrayList<>();
+    if (k < 0 || !acquire()) return out;
+    try {
+      for (int p = postingStart[k]; p < postingStart[k + 1]; p++) {
+        for (TransactionLog t : readBlock(postings[p])) {
+          if (t.getOrderId() != null && t.getOrderId() == orderId) out.add(t);
+        }
+      }
+    } finally {
+      release();
+    }
+    return out;
+  }
+
+  /** Unmap the data file once in-flight lookups finish; later lookups return nothing */
+  @Override
+  public void close() {
+    if (closed.compareAndSet(false, true)) release();
+  }
+
+  private boolean acquire() {
+    for (int r = refs.get(); r > 0; r = refs.get()) {
+      if (refs.compareAndSet(r, r + 1)) return true;
+    }
+    return false;
+  }
+
+  private void release() {
+    if (refs.decrementAndGet() == 0) unmap(mapped);
+  }
+
+  // Sin esto el mapeo vive hasta que el GC recoja el buffer, aunque el segmento ya no se use
+  private static void unmap(MappedByteBuffer buffer) {
+    if (INVOKE_CLEANER == null) return;
+    try {
+      INVOKE_CLEANER.invokeExact(buffer);
+    } catch (Throwable e) {
+      // se deja al GC
+    }
+  }
+
+  private static MethodHandle invokeCleaner() {
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      Field f = unsafeClass.getDeclaredField("theUnsafe");
+      f.setAccessible(true);
+      return MethodHandles.lookup()
+          .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+          .bindTo(f.get(null))
+          .asType(MethodType.methodType(void.class, MappedByteBuffer.class));
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  private List<TransactionLog> readBlock(int i) {
+    // open() rechaza archivos de más de MAX_BYTES: todo offset cabe en un int
+    ByteBuffer src = mapped.slice(Math.toIntExact(offsets[i]), compressedLengths[i]);
+    byte[] raw = new byte[rawLengths[i]];
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(src);
+      int read = 0;
+      while (read < raw.length && !inflater.finished()) {
+        read += inflater.inflate(raw, read, raw.length - read);
+      }
+    } catch (DataFormatException e) {
+      throw new UncheckedIOException(new IOException("Corrupt block " + i + " in " + data, e));
+    } finally {
+      inflater.end();
+    }
+
+    try (var in = new DataInputStream(new ByteArrayInputStream(raw))) {
+      int count = in.readInt();
+      List<TransactionLog> out = new ArrayList<>(count);
+      for (int k = 0; k < count; k++) out.add(readRecord(in));
+      return out;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static void writeRecord(DataOutputStream out, TransactionLog t) throws IOException {
+    out.writeLong(t.getId() != null ? t.getId() : -1L);
+    out.writeUTF(t.getTransactionUuid());
+    out.writeLong(t.getOrderId() != null ? t.getOrderId() : -1L);
+    out.writeUTF(t.getEvent().name());
+    out.writeUTF(t.getMessage());
+    writeBytes(out, t.getPayload());
+    out.writeLong(t.getCreatedAt().toEpochSecond(ZoneOffset.UTC));
+    out.writeInt(t.getCreatedAt().getNano());
+  }
+
+  private static TransactionLog readRecord(DataInputStream in) throws IOException {
+    TransactionLog t = new TransactionLog();
+    long id = in.readLong();
+    t.setId(id >= 0 ? id : null);
+    t.setTransactionUuid(in.readUTF());
+    long orderId = in.readLong();
+    t.setOrderId(orderId >= 0 ? orderId : null);
+    t.setEvent(TransactionLog.Event.valueOf(in.readUTF()));
+    t.setMessage(in.readUTF());
+    t.setPayload(readBytes(in));
+    t.setCreatedAt(LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC));
+    return t;
+  }
+
+  // payload puede superar el límite de 64KB de writeUTF
+  private static void writeBytes(DataOutputStream out, String s) throws IOException {
+    if (s == null) { out.writeInt(-1); return; }
+    byte[] b = s.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(b.length);
+    out.write(b);
+  }
+
+  private static String readBytes(DataInputStream in) throws IOException {
+    int len = in.readInt();
+    if (len < 0) return null;
+    return new String(in.readNBytes(len), StandardCharsets.UTF_8);
+  }
+
+  /** Start a new segment named {@code name} in {@code dir} */
+  public static Writer create(Path dir, String name, int blockSize) throws IOException {
+    Files.createDirectories(dir);
+    return new Writer(dir, name, blockSize);
+  }
+
+  /**
+   * Append-only writer. Records must arrive sorted by transaction_uuid. Nothing is visible
+   * to readers until {@link #commit()} atomically publishes the index.
+   */
+  public static final class Writer implements Closeable {
+    private final Path dataPath;
+    private final Path indexPath;
+    private final int blockSize;
+    private final FileChannel channel;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final ByteArrayOutputStream blockBytes = new ByteArrayOutputStream(64 * 1024);
+    private final DataOutputStream block = new DataOutputStream(blockBytes);
+    private final ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+    private final DataOutputStream index = new DataOutputStream(indexBytes);
+    private byte[] deflateBuf = new byte[64 * 1024];
+
+    private int blocks;
+    private long offset;
+    private long records;
+    private int blockCount;
+    private String firstUuid;
+    private String lastUuid;
+    // order_id -> bloques (ascendentes, sin repetir) donde aparece
+    private final Map<Long, List<Integer>> orderBlocks = new TreeMap<>();
+    private int orderPostings;
+    private boolean committed;
+
+    private Writer(Path dir, String name, int blockSize) throws IOException {
+      this.dataPath = dir.resolve(name + DATA_EXT);
+      this.indexPath = dir.resolve(name + INDEX_EXT);
+      this.blockSize = blockSize;
+      this.channel = FileChannel.open(dataPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    public void append(TransactionLog t) throws IOException {
+      String uuid = t.getTransactionUuid();
+      if (lastUuid != null && uuid.compareTo(lastUuid) < 0) {
+        throw new IllegalStateException("Records must be sorted by transaction_uuid");
+      }
+      // un mismo uuid nunca se parte entre bloques
+      if (blockCount >= blockSize && !uuid.equals(lastUuid)) flushBlock();
+      if (blockCount == 0) {
+        firstUuid = uuid;
+        blockBytes.reset();
+        block.writeInt(0); // placeholder del conteo
+      }
+      writeRecord(block, t);
+      if (t.getOrderId() != null) {
+        List<Integer> b = orderBlocks.computeIfAbsent(t.getOrderId(), k -> new ArrayList<>(1));
+        if (b.isEmpty() || b.get(b.size() - 1) != blocks) {
+          b.add(blocks);
+          orderPostings++;
+        }
+      }
+      lastUuid = uuid;
+      blockCount++;
+      records++;
+    }
+
+    public long records() { return records; }
+
+    public long bytesWritten() { return offset; }
+
+    public String lastUuid() { return lastUuid; }
+
+    private void flushBlock() throws IOException {
+      if (blockCount == 0) return;
+      block.flush();
+      byte[] raw = blockBytes.toByteArray();
+      ByteBuffer.wrap(raw).putInt(0, blockCount);
+
+      deflater.reset();
+      deflater.setInput(raw);
+      deflater.finish();
+      int len = 0;
+      while (!deflater.finished()) {
+        if (len == deflateBuf.length) deflateBuf = Arrays.copyOf(deflateBuf, len * 2);
+        len += deflater.deflate(deflateBuf, len, deflateBuf.length - len);
+      }
+      if (offset + len > MAX_BYTES) {
+        throw new IOException("Segment " + dataPath + " would exceed " + MAX_BYTES + " bytes");
+      }
+      ByteBuffer out = ByteBuffer.wrap(deflateBuf, 0, len);
+      while (out.hasRemaining()) channel.write(out);
+
+      index.writeUTF(firstUuid);
+      index.writeLong(offset);
+      index.writeInt(len);
+      index.writeInt(raw.length);
+
+      offset += len;
+      blocks++;
+      blockCount = 0;
+    }
+
+    /** Flush the last block, fsync the data and atomically publish the index */
+    public Path commit() throws IOException {
+      flushBlock();
+      channel.force(true);
+      index.flush();
+
+      Path tmp = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+      try (var out = new DataOutputStream(Files.newOutputStream(tmp))) {
+        out.writeInt(MAGIC);
+        out.writeInt(blocks);
+        indexBytes.writeTo(out);
+        out.writeInt(orderBlocks.size());
+        out.writeInt(orderPostings);
+        for (Map.Entry<Long, List<Integer>> e : orderBlocks.entrySet()) {
+          out.writeLong(e.getKey());
+          out.writeInt(e.getValue().size());
+          for (int b : e.getValue()) out.writeInt(b);
+        }
+      }
+      Files.move(tmp, indexPath, StandardCopyOption.ATOMIC_MOVE);
+      committed = true;
+      return indexPath;
+    }
+
+    @Override
+    public void close() throws IOException {
+      deflater.end();
+      channel.close();
+      if (!committed) Files.deleteIfExists(dataPath);
+    }
+  }
+}
@@ -0,0 +1,23 @@
+package com.farmatodo.reto.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+/**
+ * Serializes TransactionLog payload records. The ObjectWriter is immutable and
+ * thread-safe, so the per-type serializers are resolved once and reused.
+ */
+public class PayloadWriter {
+
+  private static final ObjectWriter WRITER = JsonMapper.builder().build().writer();
+
+  private PayloadWriter() {}
+
+  public static String write(Object payload) {
+    if (payload == null) return null;
+    try {
+      return WRITER.writeValueAsString(payload);
+    } catch (JsonProcessingException e) { throw new IllegalStateException(e); }
+  }
+}
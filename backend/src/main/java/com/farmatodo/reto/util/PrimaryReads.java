@@ -0,0 +1,31 @@
+package com.farmatodo.reto.util;
+
+import java.util.function.Supplier;
+
+/**
+ * Forces the reads inside {@link #call} to the primary even when they run in a read-only
+ * transaction, for lookups that must see a write a replica may not have replayed yet
+ * (e.g. login right after signup). A no-op when no replicas are configured.
+ */
+public final class PrimaryReads {
+
+  private static final ThreadLocal<Boolean> FORCED = new ThreadLocal<>();
+
+  private PrimaryReads() {
+  }
+
+  public static <T> T call(Supplier<T> reads) {
+    Boolean previous = FORCED.get();
+    FORCED.set(Boolean.TRUE);
+    try {
+      return reads.get();
+    } finally {
+      if (previous == null) FORCED.remove();
+      else FORCED.set(previous);
+    }
+  }
+
+  public static boolean forced() {
+    return FORCED.get() != null;
+  }
+}
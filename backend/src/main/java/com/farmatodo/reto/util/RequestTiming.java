@@ -0,0 +1,101 @@
+package com.farmatodo.reto.util;
+
+import java.util.Locale;
+
+/**
+ * Per-request breakdown of where the time went: database (repository calls), payment
+ * gateway and mail, plus the number of SQL statements Hibernate prepared. The context
+ * lives in a ThreadLocal opened by ServerTimingFilter; outside a request every call is a
+ * no-op. A segment entered while another one is open (a repository called from a
+ * notification, say) is charged to the outer segment only, so the parts never add up to
+ * more than the wall time.
+ */
+public final class RequestTiming {
+
+  public enum Segment {
+    DB("db"), PAYMENT("payment"), MAIL("mail");
+
+    final String metric;
+
+    Segment(String metric) { this.metric = metric; }
+  }
+
+  private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+  private static final int SEGMENTS = Segment.values().length;
+
+  private final long startNanos = System.nanoTime();
+  private final long[] nanos = new long[SEGMENTS];
+  private final int[] calls = new int[SEGMENTS];
+  private int sql;
+  private Segment open;
+
+  /** Open a context for the current thread */
+  public static RequestTiming begin() {
+    RequestTiming t = new RequestTiming();
+    CURRENT.set(t);
+    return t;
+  }
+
+  public static void end() {
+    CURRENT.remove();
+  }
+
+  /** The current thread's context, or null outside a request */
+  public static RequestTiming current() {
+    return CURRENT.get();
+  }
+
+  /** Start timing a segment; returns the token for {@link #exit}, or -1 if nothing is recorded */
+  public static long enter(Segment segment) {
+    RequestTiming t = CURRENT.get();
+    if (t == null || t.open != null) return -1;
+    t.open = segment;
+    return System.nanoTime();
+  }
+
+  public static void exit(Segment segment, long token) {
+    if (token < 0) return;
+    RequestTiming t = CURRENT.get();
+    if (t == null || t.open != segment) return;
+    t.open = null;
+    t.nanos[segment.ordinal()] += System.nanoTime() - token;
+    t.calls[segment.ordinal()]++;
+  }
+
+  public static void sqlExecuted() {
+    RequestTiming t = CURRENT.get();
+    if (t != null) t.sql++;
+  }
+
+  public long nanos(Segment segment) { return nanos[segment.ordinal()]; }
+
+  public int calls(Segment segment) { return calls[segment.ordinal()]; }
+
+  public int sqlCount() { return sql; }
+
+  public long elapsedNanos() { return System.nanoTime() - startNanos; }
+
+  /** Value for the Server-Timing header, e.g. {@code db;dur=12.3;desc="4 sql", payment;dur=201.0, app;dur=230.4} */
+  public String serverTiming() {
+    StringBuilder sb = new StringBuilder(96);
+    for (Segment s : Segment.values()) {
+      if (calls[s.ordinal()] == 0) continue;
+      sb.append(s.metric).append(";dur=").append(millis(nanos[s.ordinal()]));
+      if (s == Segment.DB) sb.append(";desc=\"").append(sql).append(" sql\"");
+      sb.append(", ");
+    }
+    return sb.append("app;dur=").append(millis(elapsedNanos())).toString();
+  }
+
+  /** One-line key=value summary for the request log */
+  public String summary() {
+    return "total_ms=" + millis(elapsedNanos())
+        + " db_ms=" + millis(nanos(Segment.DB)) + " db_calls=" + calls(Segment.DB) + " sql=" + sql
+        + " payment_ms=" + millis(nanos(Segment.PAYMENT)) + " payment_calls=" + calls(Segment.PAYMENT)
+        + " mail_ms=" + millis(nanos(Segment.MAIL)) + " mail_calls=" + calls(Segment.MAIL);
+  }
+
+  static String millis(long nanos) {
+    return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+  }
+}
@@ -0,0 +1,17 @@
+package com.farmatodo.reto.util;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares in the current request. Registered with
+ * {@code spring.jpa.properties.hibernate.session_factory.statement_inspector}; leaves
+ * the SQL untouched.
+ */
+public class SqlCountingInspector implements StatementInspector {
+
+  @Override
+  public String inspect(String sql) {
+    RequestTiming.sqlExecuted();
+    return sql;
+  }
+}
@@ -0,0 +1,98 @@
+-- Esquema que ddl-auto=update dejaba con las entidades de la versión original; las BD existentes
+-- se marcan en esta versión (baseline-on-migrate) y no lo re-ejecutan, así que todo lo agregado
+-- después va en V2+. Se conservan los nombres de restricción generados por Hibernate.
+
+create table customers (
+    id bigint generated by default as identity primary key,
+    address varchar(255) not null,
+    email varchar(120) not null,
+    first_name varchar(80) not null,
+    last_name varchar(80) not null,
+    password varchar(255) not null,
+    phone varchar(30) not null,
+    constraint uk_customer_email unique (email),
+    constraint uk_customer_phone unique (phone)
+);
+
+create table card_tokens (
+    id bigint generated by default as identity primary key,
+    customer_id bigint not null,
+    encrypted_data varchar(512) not null,
+    token varchar(60) not null,
+    constraint uk3pfg786flmc4po8j47i0qdhl2 unique (token)
+);
+create index idx_card_token_token on card_tokens (token);
+
+create table product (
+    id bigint generated by default as identity primary key,
+    description varchar(255),
+    name varchar(255),
+    price numeric(38, 2),
+    stock integer
+);
+
+create table product_search_log (
+    id bigint generated by default as identity primary key,
+    created_at timestamp(6),
+    customer_id bigint,
+    term varchar(255)
+);
+
+create table carts (
+    id bigint generated by default as identity primary key,
+    created_at timestamp(6),
+    customer_id bigint not null,
+    constraint uk_cart_customer unique (customer_id)
+);
+
+create table cart_items (
+    id bigint generated by default as identity primary key,
+    product_id bigint,
+    product_name varchar(255),
+    quantity integer,
+    cart_id bigint,
+    constraint fkpcttvuq4mxppo8sxggjtn5i2c foreign key (cart_id) references carts (id)
+);
+create index idx_cart_items_cart on cart_items (cart_id);
+
+create table orders (
+    id bigint generated by default as identity primary key,
+    card_token varchar(255),
+    created_at timestamp(6),
+    customer_id bigint,
+    delivery_address varchar(255),
+    status varchar(255) check (status in ('PENDING', 'PAID', 'FAILED')),
+    total numeric(38, 2),
+    transaction_uuid varchar(255)
+);
+
+create table order_items (
+    id bigint generated by default as identity primary key,
+    product_id bigint,
+    product_name varchar(255),
+    quantity integer,
+    unit_price numeric(38, 2),
+    order_id bigint,
+    constraint fkbioxgbv59vetrxe0ejfubep1w foreign key (order_id) references orders (id)
+);
+
+create table payment_attempts (
+    id bigint generated by default as identity primary key,
+    approved boolean not null,
+    attempt_number integer not null,
+    created_at timestamp(6),
+    message varchar(255),
+    order_id bigint
+);
+
+create table transaction_log (
+    id bigint generated by default as identity primary key,
+    created_at timestamp(6) not null,
+    event varchar(255) not null check (event in ('ORDER_CREATED', 'PAYMENT_ATTEMPT', 'ORDER_PAID', 'ORDER_FAILED')),
+    message varchar(255) not null,
+    order_id bigint,
+    payload text,
+    transaction_uuid varchar(255) not null
+);
+create index idx_tlog_tx on transaction_log (transaction_uuid);
+create index idx_tlog_order on transaction_log (order_id);
@@ -0,0 +1,38 @@
+-- Lo que se agregó al esquema después de la versión original. Todo es idempotente: una BD que
+-- corrió versiones intermedias (ddl-auto=update + initializers) ya puede tener parte.
+
+-- búsquedas sin distinguir mayúsculas y ON CONFLICT del alta; si falla hay correos repetidos
+-- con distinta capitalización que se deben unificar antes de migrar
+create unique index if not exists uk_customer_email_lower on customers (lower(email));
+
+-- envelope encryption (key_version null/0 = legado) y revocación de tokens (null = ACTIVE)
+alter table card_tokens add column if not exists key_version integer;
+alter table card_tokens add column if not exists wrapped_key varchar(128);
+alter table card_tokens add column if not exists status varchar(16) check (status in ('ACTIVE', 'REVOKED'));
+
+create table if not exists key_rotation_checkpoint (
+    target_version integer not null primary key,
+    completed boolean not null,
+    last_id bigint,
+    max_id bigint,
+    migrated bigint,
+    updated_at timestamp(6)
+);
+
+create table if not exists api_keys (
+    id bigint generated by default as identity primary key,
+    enabled boolean not null,
+    key_hash varchar(64) not null,
+    name varchar(80) not null,
+    constraint uk_api_key_hash unique (key_hash)
+);
+
+-- payload pasa de texto a jsonb (no-op si ya lo es); consultas payload @> '{...}'
+alter table transaction_log alter column payload type jsonb using payload::jsonb;
+create index if not exists idx_tlog_payload on transaction_log using gin (payload jsonb_path_ops);
+
+-- timeline paginado por (created_at, id); los índices de una columna quedan como prefijo de estos
+create index if not exists idx_tlog_tx_created on transaction_log (transaction_uuid, created_at, id);
+create index if not exists idx_tlog_order_created on transaction_log (order_id, created_at, id);
+drop index if exists idx_tlog_tx;
+drop index if exists idx_tlog_order;
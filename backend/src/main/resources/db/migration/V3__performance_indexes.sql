@@ -0,0 +1,10 @@
+-- Índices de las rutas de acceso que ddl-auto nunca creó. "if not exists": en BD marcadas con
+-- baseline alguno pudo haberse creado a mano.
+
+-- pedidos de un cliente / intentos de pago de un pedido / ítems de un pedido (carga EAGER)
+create index if not exists idx_orders_customer on orders (customer_id);
+create index if not exists idx_payment_attempts_order on payment_attempts (order_id);
+create index if not exists idx_order_items_order on order_items (order_id);
+
+-- El índice de trigramas de product.name necesita la extensión pg_trgm, que el usuario de la app
+-- puede no tener permiso de crear (Cloud SQL): lo crea afterMigrate__product_name_trgm.sql
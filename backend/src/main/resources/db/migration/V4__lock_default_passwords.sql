@@ -0,0 +1,3 @@
+-- Clientes creados por POST /customers guardaban la contraseña fija 'CHANGE_ME' en texto plano,
+-- que /auth/login aceptaba. Se reemplaza por un valor inutilizable (prefijo '!', ver PasswordHasher).
+update customers set password = '!' || md5(random()::text) where password = 'CHANGE_ME';
@@ -0,0 +1,17 @@
+-- Callback de Flyway: corre después de cada migrate, así el índice aparece en cuanto la extensión
+-- existe. búsqueda de productos: upper(name) like upper('%term%') (IgnoreCase + Containing de
+-- Spring Data) no puede usar un B-tree; un índice de trigramas sí.
+-- Crear pg_trgm requiere privilegios que el usuario de la app puede no tener (en Cloud SQL, un
+-- usuario con cloudsqlsuperuser): sin ellos se avisa y la búsqueda sigue sin índice hasta que un
+-- operador corra "create extension pg_trgm" en la BD (ver docs/DEPLOYMENT_GUIDE.md).
+do $$
+begin
+    begin
+        create extension if not exists pg_trgm;
+    exception when insufficient_privilege then
+        raise warning 'pg_trgm no instalada y sin privilegios para crearla; idx_product_name_trgm pendiente';
+    end;
+    if exists (select 1 from pg_extension where extname = 'pg_trgm') then
+        create index if not exists idx_product_name_trgm on product using gin (upper(name) gin_trgm_ops);
+    end if;
+end $$;
@@ -0,0 +1,30 @@
+package com.farmatodo.reto.config;
+
+import com.farmatodo.reto.dto.CartDtos;
+import com.farmatodo.reto.dto.CreateOrderRequest;
+import com.farmatodo.reto.entity.Product;
+import com.farmatodo.reto.util.SqlCountingInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NativeHintsConfigTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @Test
+    void registerHints_shouldCoverDtosEntitiesAndConfiguredClasses() {
+        // Act
+        new NativeHintsConfig.Hints().registerHints(hints, getClass().getClassLoader());
+
+        // Assert
+        assertTrue(RuntimeHintsPredicates.reflection().onType(CreateOrderRequest.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(CreateOrderRequest.Item.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(CartDtos.View.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(Product.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(SqlCountingInspector.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("hibernate-cache.conf").test(hints));
+    }
+}
@@ -0,0 +1,74 @@
+package com.farmatodo.reto.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaRoutingConfigTest {
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private void authenticate(Object principal, String role) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                principal, null, AuthorityUtils.createAuthorityList(role)));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @Test
+    void currentSubject_withSession_shouldUseCustomerId() {
+        // Arrange
+        authenticate(7L, "ROLE_CUSTOMER");
+
+        // Act & Assert
+        assertEquals("customer:7", ReplicaRoutingConfig.currentSubject());
+    }
+
+    @Test
+    void currentSubject_withApiKeyAndCustomerInBody_shouldUseThatCustomer() {
+        // Arrange: CustomerScopeAdvice dejó el customerId del cuerpo
+        authenticate("default", "ROLE_API");
+        request.setAttribute(CustomerScopeAdvice.CUSTOMER_ATTRIBUTE, 7L);
+
+        // Act & Assert
+        assertEquals("customer:7", ReplicaRoutingConfig.currentSubject());
+    }
+
+    @Test
+    void currentSubject_withApiKeyAndCustomerParam_shouldUseThatCustomer() {
+        // Arrange
+        authenticate("default", "ROLE_API");
+        request.setParameter("customerId", "7");
+
+        // Act & Assert
+        assertEquals("customer:7", ReplicaRoutingConfig.currentSubject());
+    }
+
+    @Test
+    void currentSubject_withApiKeyAndNoCustomer_shouldFallBackToClient() {
+        // Arrange
+        authenticate("default", "ROLE_API");
+        request.setParameter("customerId", "abc");
+
+        // Act & Assert
+        assertEquals("client:default", ReplicaRoutingConfig.currentSubject());
+    }
+
+    @Test
+    void currentSubject_whenAnonymous_shouldBeNull() {
+        // Act & Assert
+        assertNull(ReplicaRoutingConfig.currentSubject());
+    }
+}
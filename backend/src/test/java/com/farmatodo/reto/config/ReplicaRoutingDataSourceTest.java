@@ -0,0 +1,196 @@
+package com.farmatodo.reto.config;
+
+import com.farmatodo.reto.util.PrimaryReads;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final Connection primaryConn = mock(Connection.class);
+    private final Connection replica0Conn = mock(Connection.class);
+    private final Connection replica1Conn = mock(Connection.class);
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource replica0 = mock(DataSource.class);
+    private final DataSource replica1 = mock(DataSource.class);
+    private final AtomicLong clock = new AtomicLong(1_000);
+    private final AtomicReference<String> subject = new AtomicReference<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConn);
+        when(replica0.getConnection()).thenReturn(replica0Conn);
+        when(replica1.getConnection()).thenReturn(replica1Conn);
+        routing = new ReplicaRoutingDataSource(primary,
+                List.of(new ReplicaRoutingDataSource.Replica("replica-0", replica0),
+                        new ReplicaRoutingDataSource.Replica("replica-1", replica1)),
+                5_000, subject::get, clock::get, registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+    }
+
+    private static void readOnlyTransaction() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+
+    private double routes(String target, String reason) {
+        return registry.get("datasource.routes").tags("target", target, "reason", reason).counter().count();
+    }
+
+    @Test
+    void getConnection_outsideReadOnlyTransaction_shouldUsePrimary() throws SQLException {
+        // Act & Assert
+        assertSame(primaryConn, routing.getConnection());
+        assertEquals(1, routes("primary", "read-write"));
+    }
+
+    @Test
+    void getConnection_inReadOnlyTransaction_shouldRoundRobinReplicas() throws SQLException {
+        // Arrange
+        readOnlyTransaction();
+
+        // Act
+        Connection first = routing.getConnection();
+        Connection second = routing.getConnection();
+
+        // Assert
+        assertEquals(List.of(replica0Conn, replica1Conn), List.of(first, second));
+        assertEquals(1, routes("replica-0", "read-only"));
+        assertEquals(1, routes("replica-1", "read-only"));
+    }
+
+    @Test
+    void getConnection_afterSubjectCommitsWrite_shouldReadFromPrimaryDuringWindow() throws SQLException {
+        // Arrange: escritura del cliente 7 en una transacción que luego confirma
+        subject.set("7");
+        TransactionSynchronizationManager.initSynchronization();
+        routing.getConnection();
+        for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations()) {
+            s.afterCommit();
+        }
+        TransactionSynchronizationManager.clear();
+
+        // Act
+        readOnlyTransaction();
+        Connection during = routing.getConnection();
+        clock.addAndGet(5_000);
+        Connection after = routing.getConnection();
+
+        // Assert
+        assertSame(primaryConn, during);
+        assertNotSame(primaryConn, after);
+        assertEquals(1, routes("primary", "recent-write"));
+    }
+
+    @Test
+    void getConnection_whenWriteRollsBack_shouldNotPinReads() throws SQLException {
+        // Arrange: sin afterCommit (rollback)
+        subject.set("7");
+        TransactionSynchronizationManager.initSynchronization();
+        routing.getConnection();
+        TransactionSynchronizationManager.clear();
+
+        // Act
+        readOnlyTransaction();
+
+        // Assert
+        assertNotSame(primaryConn, routing.getConnection());
+    }
+
+    @Test
+    void getConnection_whenReplicaFails_shouldFailOverAndRecoverAfterHealthCheck() throws SQLException {
+        // Arrange
+        readOnlyTransaction();
+        when(replica0.getConnection()).thenThrow(new SQLException("Connection refused", "08001"));
+        when(replica1.getConnection()).thenThrow(new SQLException("Connection refused", "08001"));
+
+        // Act
+        Connection during = routing.getConnection();
+
+        // Assert
+        assertSame(primaryConn, during);
+        assertEquals(1, routes("primary", "failover"));
+        assertEquals(0, routing.healthyReplicas());
+
+        // Act: vuelve una réplica
+        doReturn(replica1Conn).when(replica1).getConnection();
+        when(replica1Conn.isValid(anyInt())).thenReturn(true);
+        int healthy = routing.checkHealth();
+
+        // Assert
+        assertEquals(1, healthy);
+        assertSame(replica1Conn, routing.getConnection());
+        assertEquals(1.0, registry.get("datasource.replicas.healthy").gauge().value());
+    }
+
+    @Test
+    void getConnection_whenReplicaPoolExhausted_shouldSkipItWithoutMarkingDown() throws SQLException {
+        // Arrange: timeout de Hikari en una réplica sana (sin SQLState de conexión)
+        readOnlyTransaction();
+        when(replica0.getConnection()).thenThrow(new SQLTransientConnectionException(
+                "replica-0 - Connection is not available, request timed out after 30000ms."));
+        when(replica1Conn.isValid(anyInt())).thenReturn(true);
+
+        // Act
+        Connection c = routing.getConnection();
+        int healthy = routing.checkHealth();
+
+        // Assert
+        assertSame(replica1Conn, c);
+        assertEquals(2, healthy);
+    }
+
+    @Test
+    void getConnection_whenPrimaryReadsForced_shouldUsePrimary() {
+        // Arrange
+        readOnlyTransaction();
+
+        // Act
+        Connection c = PrimaryReads.call(() -> {
+            try {
+                return routing.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // Assert
+        assertSame(primaryConn, c);
+        assertFalse(PrimaryReads.forced());
+    }
+
+    @Test
+    void sweep_shouldForgetExpiredWrites() throws SQLException {
+        // Arrange
+        subject.set("7");
+        routing.getConnection(); // sin sincronización: se registra al instante
+
+        // Act
+        int before = routing.sweep();
+        clock.addAndGet(5_000);
+        int after = routing.sweep();
+
+        // Assert
+        assertEquals(1, before);
+        assertEquals(0, after);
+    }
+}
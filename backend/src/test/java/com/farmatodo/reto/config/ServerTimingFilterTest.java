@@ -0,0 +1,59 @@
+package com.farmatodo.reto.config;
+
+import com.farmatodo.reto.util.RequestTiming;
+import com.farmatodo.reto.util.RequestTiming.Segment;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerTimingFilterTest {
+
+    @Test
+    void doFilter_shouldAddServerTimingBeforeBodyIsWritten() throws Exception {
+        // Arrange
+        ServerTimingFilter filter = new ServerTimingFilter(true, 500);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/orders");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, (req, res) -> {
+            RequestTiming.exit(Segment.PAYMENT, RequestTiming.enter(Segment.PAYMENT));
+            res.getWriter().write("{}");
+            res.flushBuffer();
+        });
+
+        // Assert
+        String header = response.getHeader(ServerTimingFilter.HEADER);
+        assertNotNull(header);
+        assertTrue(header.startsWith("payment;dur="), header);
+        assertNull(RequestTiming.current());
+    }
+
+    @Test
+    void doFilter_whenNoBody_shouldStillAddHeader() throws Exception {
+        // Arrange
+        ServerTimingFilter filter = new ServerTimingFilter(true, 500);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("POST", "/auth/logout"), response, (req, res) -> { });
+
+        // Assert
+        assertTrue(response.getHeader(ServerTimingFilter.HEADER).startsWith("app;dur="));
+    }
+
+    @Test
+    void doFilter_whenHeaderDisabled_shouldNotExposeTimings() throws Exception {
+        // Arrange
+        ServerTimingFilter filter = new ServerTimingFilter(false, 0);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/products"), response, (req, res) -> { });
+
+        // Assert
+        assertNull(response.getHeader(ServerTimingFilter.HEADER));
+    }
+}
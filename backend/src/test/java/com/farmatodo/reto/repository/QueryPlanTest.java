@@ -0,0 +1,146 @@
+package com.farmatodo.reto.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the Flyway migrations on a real Postgres (ddl-auto=validate must accept them), then
+ * captures the SQL of each keyed repository query and checks its EXPLAIN plan reaches an
+ * index. enable_seqscan=off makes the planner pick an index whenever one is usable, so the
+ * result does not depend on the (empty) tables' statistics. Full-table reads by design
+ * (api_keys reload, key rotation checkpoints, the Bloom filter seed) are not covered.
+ * Skipped when Docker is not available.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.farmatodo.reto.repository.QueryPlanTest$CapturedSql")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class QueryPlanTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    /** Hibernate statement inspector that keeps every SELECT it sees */
+    public static class CapturedSql implements StatementInspector {
+        static final List<String> SELECTS = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.stripLeading().toLowerCase().startsWith("select")) {
+                SELECTS.add(sql);
+            }
+            return sql;
+        }
+    }
+
+    @Autowired private CustomerRepository customers;
+    @Autowired private CardTokenRepository cardTokens;
+    @Autowired private CartRepository carts;
+    @Autowired private ProductRepository products;
+    @Autowired private OrderRepository orders;
+    @Autowired private PaymentAttemptRepository paymentAttempts;
+    @Autowired private TransactionLogRepository transactionLog;
+    @Autowired private JdbcTemplate jdbc;
+
+    private final LocalDateTime since = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @BeforeEach
+    void setUp() {
+        jdbc.execute("set local enable_seqscan = off");
+        CapturedSql.SELECTS.clear();
+    }
+
+    @Test
+    void customerLookups_shouldUseEmailAndPhoneIndexes() {
+        assertIndex("uk_customer_email_lower", () -> customers.findByEmailIgnoreCase("Ana@x.com"));
+        assertIndex("uk_customer_email_lower", () -> customers.existsByEmailIgnoreCase("Ana@x.com"));
+        assertIndex("uk_customer_phone", () -> customers.existsByPhone("+584141234567"));
+    }
+
+    @Test
+    void cardTokenLookups_shouldUseTokenIndex() {
+        assertIndex("card_tokens", () -> cardTokens.findByToken("tok"));
+        assertIndex("card_tokens", () -> cardTokens.findExistingTokens(List.of("a", "b")));
+    }
+
+    @Test
+    void cartByCustomer_shouldUseUniqueIndex() {
+        assertIndex("uk_cart_customer", () -> carts.findByCustomerId(1L));
+    }
+
+    @Test
+    void productSearch_shouldUseTrigramIndex() {
+        assertIndex("idx_product_name_trgm",
+                () -> products.findByNameContainingIgnoreCaseAndStockGreaterThanEqual("acetam", 0));
+    }
+
+    @Test
+    void orderLookups_shouldUseCustomerAndItemIndexes() {
+        assertIndex("idx_orders_customer", () -> orders.findByCustomerIdOrderByIdDesc(1L));
+        assertIndex("idx_order_items_order", () -> orders.findById(1L));
+        assertIndex("idx_payment_attempts_order", () -> paymentAttempts.findByOrderIdOrderByAttemptNumber(1L));
+    }
+
+    @Test
+    void transactionLogReads_shouldUseCompositeAndGinIndexes() {
+        assertIndex("idx_tlog_tx_created", () -> transactionLog.findByTransactionUuidOrderByCreatedAtAscIdAsc("tx"));
+        assertIndex("idx_tlog_tx_created", () -> transactionLog.pageByTransactionUuid("tx", since, 0L, Limit.of(50)));
+        assertIndex("idx_tlog_order_created", () -> transactionLog.pageByOrderId(1L, since, 0L, Limit.of(50)));
+        assertIndex("transaction_log_pkey", () -> transactionLog.findPayloads(List.of(1L, 2L)));
+        assertIndex("idx_tlog_payload",
+                () -> transactionLog.findByEventAndPayloadContaining("PAYMENT_ATTEMPT", "{\"approved\":false}"));
+    }
+
+    /** Every SELECT issued by {@code query} must avoid a Seq Scan, and one of them must use {@code index} */
+    private void assertIndex(String index, Runnable query) {
+        CapturedSql.SELECTS.clear();
+        query.run();
+        List<String> selects = List.copyOf(CapturedSql.SELECTS);
+        assertFalse(selects.isEmpty(), "no se capturó SQL");
+
+        List<String> plans = selects.stream().map(this::explain).toList();
+        for (int i = 0; i < plans.size(); i++) {
+            assertFalse(plans.get(i).contains("Seq Scan"), selects.get(i) + "\n" + plans.get(i));
+        }
+        assertTrue(plans.stream().anyMatch(p -> p.contains(index)), index + " no aparece en\n" + plans);
+    }
+
+    /** Generic plan (no bound values) of {@code sql}, via PREPARE + EXPLAIN EXECUTE */
+    private String explain(String sql) {
+        StringBuilder numbered = new StringBuilder();
+        int n = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++n);
+            } else {
+                numbered.append(c);
+            }
+        }
+        jdbc.execute("set local plan_cache_mode = force_generic_plan");
+        jdbc.execute("prepare plan_check as " + numbered);
+        try {
+            String args = n == 0 ? "" : "(" + String.join(", ", Collections.nCopies(n, "null")) + ")";
+            return String.join("\n", jdbc.queryForList("explain execute plan_check" + args, String.class));
+        } finally {
+            jdbc.execute("deallocate plan_check");
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.farmatodo.reto.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApiKeyFilterTest {
+
+    private final ApiKeyRegistry registry = new ApiKeyRegistry("SECRET123", null,
+            () -> List.of(new ApiKeyRegistry.Entry("pos", ApiKeyRegistry.sha256Hex("pos-key"))));
+    private final ApiKeyFilter filter = new ApiKeyFilter(registry, List.of("pos"));
+
+    {
+        registry.reload();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private MockHttpServletResponse call(MockHttpServletRequest request, MockFilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    @Test
+    void doFilter_whenKeyRegistered_shouldAuthenticateAsItsClient() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/orders");
+        request.addHeader("X-API-KEY", "pos-key");
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        call(request, chain);
+
+        // Assert
+        assertNotNull(chain.getRequest());
+        assertEquals("pos", SecurityContextHolder.getContext().getAuthentication().getName());
+    }
+
+    @Test
+    void doFilter_shouldGrantAdminOnlyToConfiguredClients() throws Exception {
+        // Arrange
+        MockHttpServletRequest admin = new MockHttpServletRequest("POST", "/keys/rotation/2");
+        admin.addHeader("X-API-KEY", "pos-key");
+        MockHttpServletRequest regular = new MockHttpServletRequest("POST", "/keys/rotation/2");
+        regular.addHeader("X-API-KEY", "SECRET123");
+
+        // Act
+        call(admin, new MockFilterChain());
+        var adminAuthorities = SecurityContextHolder.getContext().getAuthentication().getAuthorities();
+        SecurityContextHolder.clearContext();
+        call(regular, new MockFilterChain());
+        var regularAuthorities = SecurityContextHolder.getContext().getAuthentication().getAuthorities();
+
+        // Assert
+        assertTrue(adminAuthorities.stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN")));
+        assertTrue(regularAuthorities.stream().noneMatch(a -> a.getAuthority().equals("ROLE_ADMIN")));
+    }
+
+    @Test
+    void doFilter_whenKeyUnknown_shouldReturn401() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/orders");
+        request.addHeader("X-API-KEY", "nope");
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        MockHttpServletResponse response = call(request, chain);
+
+        // Assert
+        assertEquals(401, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void doFilter_whenSessionCarriesKey_shouldKeepSessionAndExposeKeyClient() throws Exception {
+        // Arrange
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(7L, null, List.of()));
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/orders");
+        request.addHeader("X-API-KEY", "pos-key");
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        call(request, chain);
+
+        // Assert
+        assertNotNull(chain.getRequest());
+        assertEquals(7L, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        assertEquals("pos", request.getAttribute(ApiKeyFilter.CLIENT_ATTRIBUTE));
+    }
+
+    @Test
+    void isPublic_shouldMatchPublicRoutesOnly() {
+        assertTrue(ApiKeyFilter.isPublic("POST", "/auth/login"));
+        assertTrue(ApiKeyFilter.isPublic("GET", "/actuator/health"));
+        assertFalse(ApiKeyFilter.isPublic("GET", "/actuator/metrics"));
+        assertFalse(ApiKeyFilter.isPublic("GET", "/actuator/prometheus"));
+        assertTrue(ApiKeyFilter.isPublic("GET", "/products"));
+        assertTrue(ApiKeyFilter.isPublic("GET", "/products/12"));
+        assertTrue(ApiKeyFilter.isPublic("GET", "/ping"));
+        assertFalse(ApiKeyFilter.isPublic("POST", "/products"));
+        assertFalse(ApiKeyFilter.isPublic("POST", "/orders"));
+        assertFalse(ApiKeyFilter.isPublic("GET", "/pingx"));
+    }
+}
@@ -0,0 +1,82 @@
+package com.farmatodo.reto.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApiKeyRegistryTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void lookup_shouldResolveLegacyFileAndDatabaseKeys() throws Exception {
+        // Arrange
+        Path file = dir.resolve("keys.txt");
+        Files.writeString(file, "# integraciones\npos:" + ApiKeyRegistry.sha256Hex("pos-key") + "\n");
+        ApiKeyRegistry registry = new ApiKeyRegistry("SECRET123", file,
+                () -> List.of(new ApiKeyRegistry.Entry("erp", ApiKeyRegistry.sha256Hex("erp-key").toUpperCase())));
+
+        // Act
+        registry.reload();
+
+        // Assert
+        assertEquals("default", registry.lookup("SECRET123"));
+        assertEquals("pos", registry.lookup("pos-key"));
+        assertEquals("erp", registry.lookup("erp-key"));
+        assertNull(registry.lookup("SECRET12"));
+        assertEquals(3, registry.size());
+    }
+
+    @Test
+    void reload_shouldPickUpFileChangesWithoutRestart() throws Exception {
+        // Arrange
+        Path file = dir.resolve("keys.txt");
+        Files.writeString(file, "a:" + ApiKeyRegistry.sha256Hex("key-a") + "\n");
+        ApiKeyRegistry registry = new ApiKeyRegistry(null, file, List::of);
+        registry.reload();
+
+        // Act: se revoca a y se agrega b
+        Files.writeString(file, "b:" + ApiKeyRegistry.sha256Hex("key-b") + "\n");
+        registry.reload();
+
+        // Assert
+        assertNull(registry.lookup("key-a"));
+        assertEquals("b", registry.lookup("key-b"));
+    }
+
+    @Test
+    void reload_whenDatabaseFails_shouldKeepOtherSources() {
+        // Arrange
+        AtomicReference<RuntimeException> failure = new AtomicReference<>(new IllegalStateException("db down"));
+        ApiKeyRegistry registry = new ApiKeyRegistry("SECRET123", null, () -> {
+            throw failure.get();
+        });
+
+        // Act
+        registry.reload();
+
+        // Assert
+        assertEquals("default", registry.lookup("SECRET123"));
+    }
+
+    @Test
+    void reload_shouldIgnoreMalformedLines() throws Exception {
+        // Arrange
+        Path file = dir.resolve("keys.txt");
+        Files.writeString(file, "sin-separador\nx:nohex\n:" + ApiKeyRegistry.sha256Hex("k") + "\n");
+        ApiKeyRegistry registry = new ApiKeyRegistry(null, file, List::of);
+
+        // Act
+        registry.reload();
+
+        // Assert
+        assertEquals(0, registry.size());
+    }
+}
@@ -0,0 +1,90 @@
+package com.farmatodo.reto.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitFilterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ConcurrencyLimiter limiter;
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new ConcurrencyLimiter(
+                List.of(new ConcurrencyLimiter.GroupSpec("checkout", 0, List.of("POST /orders"), 1, 1, 10)),
+                ConcurrencyLimiter.Tuning.DEFAULTS, clock::get);
+        filter = new ConcurrencyLimitFilter(limiter, registry);
+    }
+
+    @Test
+    void doFilter_whenGroupIsFull_shouldReturn503WithRetryAfter() throws Exception {
+        // Arrange: la única plaza está ocupada
+        limiter.tryAcquire(limiter.route("POST", "/orders"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("POST", "/orders"), response, chain);
+
+        // Assert
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("Servicio saturado"));
+        assertNull(chain.getRequest());
+        assertEquals(1.0, registry.get("concurrency.rejected").tag("group", "checkout").counter().count());
+    }
+
+    @Test
+    void doFilter_shouldReleaseSlotAfterChainAndExposeGauges() throws Exception {
+        // Act
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/orders"), response, new MockFilterChain());
+
+        // Assert
+        assertEquals(200, response.getStatus());
+        assertEquals(0.0, registry.get("concurrency.inflight").tag("group", "checkout").gauge().value());
+        assertEquals(1.0, registry.get("concurrency.limit").tag("group", "checkout").gauge().value());
+    }
+
+    @Test
+    void doFilter_whenRequestIsNotInAGroup_shouldPassThrough() throws Exception {
+        // Arrange
+        limiter.tryAcquire(limiter.route("POST", "/orders"));
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/products"), new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void doFilter_whenAsync_shouldHoldSlotUntilComplete() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/orders");
+        request.setAsyncSupported(true);
+        FilterChain startsAsync = (req, res) -> req.startAsync();
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), startsAsync);
+
+        // Assert
+        ConcurrencyLimiter.Group group = limiter.route("POST", "/orders");
+        assertEquals(1, group.inFlight());
+        request.getAsyncContext().complete();
+        assertEquals(0, group.inFlight());
+    }
+}
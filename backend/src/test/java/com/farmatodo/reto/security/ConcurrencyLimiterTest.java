@@ -0,0 +1,129 @@
+package com.farmatodo.reto.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimiterTest {
+
+    // Ventanas de 100 "unidades" de reloj, al menos 10 muestras
+    private static final ConcurrencyLimiter.Tuning TUNING = new ConcurrencyLimiter.Tuning(100, 10, 1.5, 0.2, 100, 0.5);
+
+    private final AtomicLong clock = new AtomicLong(1_000);
+    private ConcurrencyLimiter limiter;
+    private ConcurrencyLimiter.Group checkout;
+    private ConcurrencyLimiter.Group catalog;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new ConcurrencyLimiter(List.of(
+                new ConcurrencyLimiter.GroupSpec("checkout", 0, List.of("POST /cart/checkout", "POST /orders"), 20, 2, 100),
+                new ConcurrencyLimiter.GroupSpec("catalog", 1, List.of("GET /products/**"), 20, 2, 100)),
+                TUNING, clock::get);
+        checkout = limiter.route("POST", "/orders");
+        catalog = limiter.route("GET", "/products");
+    }
+
+    /** Lanza hasta {@code n} requests a la vez (las que el límite deje) que tardan {@code rtt} */
+    private int round(ConcurrencyLimiter.Group g, int n, long rtt) {
+        long start = clock.get();
+        int admitted = 0;
+        while (admitted < n && limiter.tryAcquire(g)) {
+            admitted++;
+        }
+        clock.addAndGet(rtt);
+        for (int i = 0; i < admitted; i++) {
+            limiter.release(g, start);
+        }
+        clock.addAndGet(100);
+        return admitted;
+    }
+
+    @Test
+    void route_shouldMatchMethodAndPrefixAndIgnoreOtherRequests() {
+        // Assert
+        assertEquals("checkout", limiter.route("POST", "/cart/checkout").name());
+        assertEquals("catalog", limiter.route("GET", "/products/42").name());
+        assertNull(limiter.route("GET", "/orders"));
+        assertNull(limiter.route("GET", "/productsx"));
+    }
+
+    @Test
+    void tryAcquire_whenAtLimit_shouldRejectUntilASlotIsReleased() {
+        // Arrange
+        for (int i = 0; i < 20; i++) {
+            assertTrue(limiter.tryAcquire(checkout));
+        }
+
+        // Act & Assert
+        assertFalse(limiter.tryAcquire(checkout));
+        assertEquals(20, checkout.inFlight());
+
+        limiter.release(checkout, clock.get());
+        assertTrue(limiter.tryAcquire(checkout));
+    }
+
+    @Test
+    void release_whenLatencyStaysFlatUnderFullLoad_shouldRaiseLimit() {
+        // Act
+        for (int i = 0; i < 30; i++) {
+            round(checkout, 1_000, 10);
+        }
+
+        // Assert
+        assertTrue(checkout.limit() > 20, "limit " + checkout.limit());
+    }
+
+    @Test
+    void release_whenLatencyClimbs_shouldLowerLimit() {
+        // Arrange
+        for (int i = 0; i < 10; i++) {
+            round(checkout, 1_000, 10);
+        }
+        int before = checkout.limit();
+
+        // Act: la cola multiplica la latencia
+        for (int i = 0; i < 10; i++) {
+            round(checkout, 1_000, 40);
+        }
+
+        // Assert
+        assertTrue(checkout.limit() < before, before + " -> " + checkout.limit());
+        assertTrue(checkout.limit() >= 2);
+    }
+
+    @Test
+    void release_whenDemandIsFarBelowLimit_shouldKeepLimit() {
+        // Act
+        for (int i = 0; i < 30; i++) {
+            round(checkout, 5, 10);
+            round(checkout, 5, 10);
+        }
+
+        // Assert
+        assertEquals(20, checkout.limit());
+    }
+
+    @Test
+    void tryAcquire_whenHigherPriorityGroupIsSaturated_shouldSqueezeLowerPriority() {
+        // Arrange
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire(checkout);
+        }
+
+        // Act
+        int admitted = 0;
+        while (limiter.tryAcquire(catalog)) {
+            admitted++;
+        }
+
+        // Assert: solo la mitad mientras checkout está al tope
+        assertEquals(10, admitted);
+        limiter.release(checkout, clock.get());
+        assertTrue(limiter.tryAcquire(catalog));
+    }
+}
@@ -0,0 +1,165 @@
+package com.farmatodo.reto.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private RateLimiter limiter;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new RateLimiter(
+                List.of(new RateLimiter.Rule("POST", "/orders", new RateLimiter.Limit(2, 1.0)),
+                        new RateLimiter.Rule(null, "/tokens/**", new RateLimiter.Limit(1, 0.5))),
+                null, 100, clock::get);
+        filter = new RateLimitFilter(limiter, registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private MockHttpServletResponse call(String method, String uri, Object principal) throws Exception {
+        return call(new MockHttpServletRequest(method, uri), principal);
+    }
+
+    private MockHttpServletResponse call(MockHttpServletRequest request, Object principal) throws Exception {
+        SecurityContextHolder.clearContext();
+        if (principal != null) {
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private MockHttpServletRequest withApiKey() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/orders");
+        request.setAttribute(ApiKeyFilter.CLIENT_ATTRIBUTE, "frontend");
+        return request;
+    }
+
+    private MockHttpServletRequest forwarded(String remoteAddr, String xForwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/orders");
+        request.setRemoteAddr(remoteAddr);
+        request.addHeader("X-Forwarded-For", xForwardedFor);
+        return request;
+    }
+
+    @Test
+    void doFilter_whenOverLimit_shouldReturn429WithRetryAfter() throws Exception {
+        // Act
+        call("POST", "/orders", 7L);
+        call("POST", "/orders", 7L);
+        MockHttpServletResponse limited = call("POST", "/orders", 7L);
+
+        // Assert
+        assertEquals(429, limited.getStatus());
+        assertEquals("1", limited.getHeader("Retry-After"));
+        assertEquals(1.0, registry.get("ratelimit.rejected").tag("route", "POST /orders").counter().count());
+    }
+
+    @Test
+    void doFilter_shouldKeepSeparateBucketsPerCustomerAndApiKey() throws Exception {
+        // Act
+        call("POST", "/orders", 7L);
+        call("POST", "/orders", 7L);
+
+        // Assert
+        assertEquals(429, call("POST", "/orders", 7L).getStatus());
+        assertEquals(200, call("POST", "/orders", 8L).getStatus());
+        assertEquals(200, call("POST", "/orders", "api-key-user").getStatus());
+    }
+
+    @Test
+    void doFilter_whenSessionCarriesApiKey_shouldChargeBothBuckets() throws Exception {
+        // Act: dos clientes distintos agotan entre ambos la cuota de la key
+        call(withApiKey(), 7L);
+        call(withApiKey(), 8L);
+        MockHttpServletResponse limited = call(withApiKey(), 9L);
+
+        // Assert
+        assertEquals(429, limited.getStatus());
+        assertEquals(200, call("POST", "/orders", 9L).getStatus());
+        assertEquals(4, limiter.bucketCount());
+    }
+
+    @Test
+    void doFilter_whenAnonymousBehindTrustedProxy_shouldKeyOnTheAddressItAppended() throws Exception {
+        // Arrange
+        filter = new RateLimitFilter(limiter, new SimpleMeterRegistry(), 1);
+
+        // Act: lo que el cliente ponga delante del último salto no cambia el bucket
+        call(forwarded("169.254.1.1", "1.1.1.1, 203.0.113.7"), null);
+        call(forwarded("169.254.1.1", "2.2.2.2, 203.0.113.7"), null);
+        MockHttpServletResponse limited = call(forwarded("169.254.1.1", "203.0.113.7"), null);
+
+        // Assert
+        assertEquals(429, limited.getStatus());
+        assertEquals(200, call(forwarded("169.254.1.1", "203.0.113.8"), null).getStatus());
+    }
+
+    @Test
+    void doFilter_whenNoTrustedProxy_shouldIgnoreForwardedFor() throws Exception {
+        // Act
+        call(forwarded("10.0.0.1", "1.1.1.1"), null);
+        call(forwarded("10.0.0.1", "2.2.2.2"), null);
+
+        // Assert
+        assertEquals(429, call(forwarded("10.0.0.1", "3.3.3.3"), null).getStatus());
+    }
+
+    @Test
+    void doFilter_shouldRecoverAfterRefill() throws Exception {
+        // Arrange
+        call("POST", "/tokens/batch", 7L);
+        assertEquals("2", call("POST", "/tokens/batch", 7L).getHeader("Retry-After"));
+
+        // Act
+        clock.addAndGet(2_000);
+
+        // Assert
+        assertEquals(200, call("POST", "/tokens/batch", 7L).getStatus());
+    }
+
+    @Test
+    void doFilter_whenNoRouteAndNoDefault_shouldNotLimit() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, call("GET", "/orders", 7L).getStatus());
+        }
+        assertEquals(0, limiter.bucketCount());
+    }
+
+    @Test
+    void sweep_shouldDropOnlyIdleBuckets() throws Exception {
+        // Arrange
+        call("POST", "/orders", 7L);
+        call("POST", "/tokens", 8L);
+
+        // Act
+        clock.addAndGet(1_000); // /orders vuelve a estar lleno; /tokens aún no (0.5/s)
+        int removed = limiter.sweep();
+
+        // Assert
+        assertEquals(1, removed);
+        assertEquals(1, limiter.bucketCount());
+    }
+}
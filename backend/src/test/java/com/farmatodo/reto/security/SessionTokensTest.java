@@ -0,0 +1,90 @@
+package com.farmatodo.reto.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionTokensTest {
+
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+    private static final Instant NOW = Instant.parse("2025-01-01T10:00:00Z");
+
+    private final SessionTokens tokens = new SessionTokens(SECRET, Duration.ofMinutes(30),
+            Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    void verify_shouldReturnSessionForIssuedToken() {
+        // Act
+        SessionTokens.Issued issued = tokens.issue(42L);
+        SessionTokens.Session session = tokens.verify(issued.token()).orElseThrow();
+
+        // Assert
+        assertEquals(42L, session.customerId());
+        assertEquals(NOW.plus(Duration.ofMinutes(30)), session.expiresAt());
+        assertEquals(issued.expiresAt(), session.expiresAt());
+    }
+
+    @Test
+    void verify_whenPayloadTampered_shouldReject() {
+        // Arrange
+        String token = tokens.issue(42L).token();
+        char[] chars = token.toCharArray();
+        chars[3] = chars[3] == 'A' ? 'B' : 'A';
+
+        // Act & Assert
+        assertTrue(tokens.verify(new String(chars)).isEmpty());
+    }
+
+    @Test
+    void verify_whenSignedWithOtherSecret_shouldReject() {
+        // Arrange
+        SessionTokens other = new SessionTokens("ffffffffffffffffffffffffffffffff".getBytes(StandardCharsets.UTF_8),
+                Duration.ofMinutes(30), Clock.fixed(NOW, ZoneOffset.UTC));
+
+        // Act & Assert
+        assertTrue(tokens.verify(other.issue(42L).token()).isEmpty());
+    }
+
+    @Test
+    void verify_whenExpired_shouldReject() {
+        // Arrange
+        String token = tokens.issue(42L).token();
+        SessionTokens later = new SessionTokens(SECRET, Duration.ofMinutes(30),
+                Clock.fixed(NOW.plus(Duration.ofMinutes(31)), ZoneOffset.UTC));
+
+        // Act & Assert
+        assertTrue(later.verify(token).isEmpty());
+    }
+
+    @Test
+    void verify_whenMalformed_shouldReject() {
+        assertTrue(tokens.verify("").isEmpty());
+        assertTrue(tokens.verify("abc").isEmpty());
+        assertTrue(tokens.verify("abc.").isEmpty());
+        assertTrue(tokens.verify("!!!.###").isEmpty());
+    }
+
+    @Test
+    void revoke_shouldRejectUntilPurgedAfterExpiry() {
+        // Arrange
+        String token = tokens.issue(42L).token();
+        tokens.revoke(tokens.verify(token).orElseThrow());
+
+        // Act & Assert
+        assertTrue(tokens.verify(token).isEmpty());
+        assertEquals(0, tokens.purgeExpired()); // aún no vence: se conserva
+        assertEquals(1, tokens.revokedCount());
+    }
+
+    @Test
+    void constructor_whenSecretTooShort_shouldThrowException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new SessionTokens(new byte[16], Duration.ofMinutes(1), Clock.systemUTC()));
+    }
+}
@@ -0,0 +1,96 @@
+package com.farmatodo.reto.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    @Test
+    void tryAcquire_shouldAllowBurstUpToCapacityThenReportWait() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(3, 2.0);
+        AtomicLong state = new AtomicLong(bucket.full(1_000));
+
+        // Act & Assert
+        assertEquals(0, bucket.tryAcquire(state, 1_000));
+        assertEquals(0, bucket.tryAcquire(state, 1_000));
+        assertEquals(0, bucket.tryAcquire(state, 1_000));
+        assertEquals(500, bucket.tryAcquire(state, 1_000)); // 2 tokens/s -> 500 ms por token
+    }
+
+    @Test
+    void tryAcquire_shouldRefillOverTime() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(1, 2.0);
+        AtomicLong state = new AtomicLong(bucket.full(0));
+        bucket.tryAcquire(state, 0);
+
+        // Act & Assert
+        assertEquals(250, bucket.tryAcquire(state, 250));
+        assertEquals(0, bucket.tryAcquire(state, 500));
+    }
+
+    @Test
+    void tryAcquire_shouldNeverExceedCapacityAfterLongIdle() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(2, 100.0);
+        AtomicLong state = new AtomicLong(bucket.full(0));
+
+        // Act & Assert
+        assertEquals(2, bucket.available(state.get(), 3_600_000));
+        assertTrue(bucket.isFull(state.get(), 3_600_000));
+    }
+
+    @Test
+    void tryAcquire_whenSlowerThanOnePerSecond_shouldStillRefill() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(1, 0.5);
+        AtomicLong state = new AtomicLong(bucket.full(0));
+        bucket.tryAcquire(state, 0);
+
+        // Act & Assert
+        assertEquals(2_000, bucket.tryAcquire(state, 0));
+        assertEquals(0, bucket.tryAcquire(state, 2_000));
+    }
+
+    @Test
+    void tryAcquire_underContention_shouldGrantExactlyCapacity() throws Exception {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(1_000, 1.0);
+        AtomicLong state = new AtomicLong(bucket.full(0));
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // Act: el reloj no avanza, solo cuenta la capacidad inicial
+        for (int t = 0; t < 8; t++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 500; i++) {
+                    if (bucket.tryAcquire(state, 0) == 0) granted.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Assert
+        assertEquals(1_000, granted.get());
+    }
+
+    @Test
+    void constructor_whenCapacityTooLarge_shouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(TokenBucket.MAX_CAPACITY + 1, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(10, 0));
+    }
+}
@@ -0,0 +1,215 @@
+package com.farmatodo.reto.service;
+
+import com.farmatodo.reto.dto.CustomerRegistrationRequest;
+import com.farmatodo.reto.dto.CustomerResponse;
+import com.farmatodo.reto.dto.LoginRequest;
+import com.farmatodo.reto.dto.LoginResponse;
+import com.farmatodo.reto.entity.Customer;
+import com.farmatodo.reto.repository.CustomerRepository;
+import com.farmatodo.reto.security.SessionTokens;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthServiceTest {
+
+    @Mock
+    private CustomerRepository customers;
+
+    @Mock
+    private CustomerUniqueness uniqueness;
+
+    private PasswordHasher hasher;
+    private SessionTokens sessions;
+    private AuthService authService;
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        hasher = new PasswordHasher(PasswordHasher.MIN_COST, 2, 16, new SimpleMeterRegistry());
+        sessions = new SessionTokens("0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8),
+                Duration.ofMinutes(5), Clock.systemUTC());
+        authService = new AuthService(customers, hasher, uniqueness, sessions, r -> new Thread(r, "io-test").start());
+
+        customer = new Customer();
+        customer.setId(1L);
+        customer.setFirstName("Ana");
+        customer.setLastName("Pérez");
+        customer.setEmail("ana@test.com");
+        customer.setPhone("555");
+        customer.setAddress("Calle 1");
+    }
+
+    @AfterEach
+    void tearDown() {
+        hasher.close();
+    }
+
+    @Test
+    void register_shouldStoreBcryptHash() {
+        // Arrange
+        String[] insertThread = new String[1];
+        when(uniqueness.insert(any(Customer.class))).thenAnswer(inv -> {
+            insertThread[0] = Thread.currentThread().getName();
+            inv.<Customer>getArgument(0).setId(9L);
+            return null;
+        });
+        CustomerRegistrationRequest req = new CustomerRegistrationRequest(
+                "Ana", "Pérez", "ana@test.com", "555", "Calle 1", "s3cret");
+
+        // Act
+        CustomerResponse res = authService.register(req).join();
+
+        // Assert
+        ArgumentCaptor<Customer> captor = ArgumentCaptor.forClass(Customer.class);
+        verify(uniqueness).insert(captor.capture());
+        assertEquals(9L, res.id());
+        assertTrue(PasswordHasher.isHash(captor.getValue().getPassword()));
+        assertNotEquals("s3cret", captor.getValue().getPassword());
+        assertEquals("io-test", insertThread[0]); // el INSERT no ocupa un hilo de bcrypt
+    }
+
+    @Test
+    void register_whenEmailTaken_shouldRejectBeforeHashing() {
+        // Arrange
+        when(uniqueness.firstConflict("ana@test.com", "555")).thenReturn(CustomerUniqueness.Conflict.EMAIL);
+        CustomerRegistrationRequest req = new CustomerRegistrationRequest(
+                "Ana", "Pérez", "ana@test.com", "555", "Calle 1", "s3cret");
+
+        // Act & Assert
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> authService.register(req));
+        assertEquals("El correo ya está registrado.", ex.getMessage());
+        verify(uniqueness, never()).insert(any());
+    }
+
+    @Test
+    void register_whenInsertLosesRace_shouldFail() {
+        // Arrange
+        when(uniqueness.insert(any(Customer.class))).thenReturn(CustomerUniqueness.Conflict.PHONE);
+        CustomerRegistrationRequest req = new CustomerRegistrationRequest(
+                "Ana", "Pérez", "ana@test.com", "555", "Calle 1", "s3cret");
+
+        // Act & Assert
+        CompletionException ex = assertThrows(CompletionException.class, () -> authService.register(req).join());
+        assertEquals("El teléfono ya está registrado.", ex.getCause().getMessage());
+    }
+
+    @Test
+    void login_whenHashedPasswordMatches_shouldNotRehash() {
+        // Arrange
+        customer.setPassword(hasher.hash("s3cret").join());
+        when(customers.findByEmailIgnoreCase("ana@test.com")).thenReturn(Optional.of(customer));
+
+        // Act
+        LoginResponse res = authService.login(new LoginRequest("ana@test.com", "s3cret")).join();
+
+        // Assert
+        assertEquals(1L, res.id());
+        assertEquals(1L, sessions.verify(res.token()).orElseThrow().customerId());
+        verify(customers, never()).replacePassword(anyLong(), anyString(), anyString());
+    }
+
+    @Test
+    void login_whenLegacyPlainText_shouldRehashOnSuccess() {
+        // Arrange
+        customer.setPassword("s3cret");
+        when(customers.findByEmailIgnoreCase("ana@test.com")).thenReturn(Optional.of(customer));
+        when(customers.replacePassword(eq(1L), eq("s3cret"), anyString())).thenReturn(1);
+
+        // Act
+        authService.login(new LoginRequest("ana@test.com", "s3cret")).join();
+
+        // Assert
+        ArgumentCaptor<String> hash = ArgumentCaptor.forClass(String.class);
+        verify(customers).replacePassword(eq(1L), eq("s3cret"), hash.capture());
+        assertTrue(PasswordHasher.isHash(hash.getValue()));
+    }
+
+    @Test
+    void login_whenRehashFails_shouldStillSucceed() {
+        // Arrange
+        customer.setPassword("s3cret");
+        when(customers.findByEmailIgnoreCase("ana@test.com")).thenReturn(Optional.of(customer));
+        when(customers.replacePassword(anyLong(), anyString(), anyString())).thenThrow(new RuntimeException("db down"));
+
+        // Act
+        LoginResponse res = authService.login(new LoginRequest("ana@test.com", "s3cret")).join();
+
+        // Assert
+        assertEquals(1L, res.id());
+        assertNotNull(res.token());
+    }
+
+    @Test
+    void login_whenWrongPassword_shouldFail() {
+        // Arrange
+        customer.setPassword("s3cret");
+        when(customers.findByEmailIgnoreCase("ana@test.com")).thenReturn(Optional.of(customer));
+
+        // Act & Assert
+        CompletionException ex = assertThrows(CompletionException.class,
+                () -> authService.login(new LoginRequest("ana@test.com", "wrong")).join());
+        assertInstanceOf(IllegalArgumentException.class, ex.getCause());
+        verify(customers, never()).replacePassword(anyLong(), anyString(), anyString());
+    }
+
+    @Test
+    void login_whenAccountHasNoPassword_shouldFail() {
+        // Arrange: cliente creado por POST /customers
+        customer.setPassword(PasswordHasher.unusablePassword());
+        when(customers.findByEmailIgnoreCase("ana@test.com")).thenReturn(Optional.of(customer));
+
+        // Act & Assert
+        for (String attempt : new String[] { "CHANGE_ME", customer.getPassword() }) {
+            CompletionException ex = assertThrows(CompletionException.class,
+                    () -> authService.login(new LoginRequest("ana@test.com", attempt)).join());
+            assertEquals("Credenciales inválidas.", ex.getCause().getMessage());
+        }
+        verify(customers, never()).replacePassword(anyLong(), anyString(), anyString());
+    }
+
+    @Test
+    void login_whenEmailUnknown_shouldFailWithSameMessage() {
+        // Arrange
+        when(customers.findByEmailIgnoreCase("x@test.com")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        CompletionException ex = assertThrows(CompletionException.class,
+                () -> authService.login(new LoginRequest("x@test.com", "whatever")).join());
+        assertEquals("Credenciales inválidas.", ex.getCause().getMessage());
+    }
+
+    @Test
+    void login_whenFieldsMissing_shouldThrowImmediately() {
+        assertThrows(IllegalArgumentException.class,
+                () -> authService.login(new LoginRequest("", "x")));
+    }
+
+    @Test
+    void logout_shouldRevokeSession() {
+        // Arrange
+        String token = sessions.issue(1L).token();
+
+        // Act
+        authService.logout(token);
+
+        // Assert
+        assertTrue(sessions.verify(token).isEmpty());
+    }
+}
@@ -0,0 +1,70 @@
+package com.farmatodo.reto.service;
+
+import com.farmatodo.reto.entity.Order;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BusinessMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final BusinessMetrics metrics = new BusinessMetrics(registry);
+
+    private double count(String name, String... tags) {
+        return registry.get(name).tags(tags).counter().count();
+    }
+
+    @Test
+    void orders_shouldCountByStatusAndTrackInFlight() {
+        // Act
+        metrics.orderCreated();
+        metrics.orderCreated();
+        metrics.orderCompleted(Order.Status.PAID);
+
+        // Assert
+        assertEquals(2, count("orders", "status", "PENDING"));
+        assertEquals(1, count("orders", "status", "PAID"));
+        assertEquals(0, count("orders", "status", "FAILED"));
+        assertEquals(1, registry.get("orders.in.flight").gauge().value());
+    }
+
+    @Test
+    void orderCompleted_whenStillPending_shouldOnlyLeaveInFlight() {
+        // Act: la orden abortó con una excepción antes de cerrarse
+        metrics.orderCreated();
+        metrics.orderCompleted(Order.Status.PENDING);
+
+        // Assert
+        assertEquals(1, count("orders", "status", "PENDING"));
+        assertEquals(0, registry.get("orders.in.flight").gauge().value());
+    }
+
+    @Test
+    void paymentAttempt_shouldTagAttemptNumberWithCap() {
+        // Act
+        metrics.paymentAttempt(1, false);
+        metrics.paymentAttempt(2, true);
+        metrics.paymentAttempt(7, false);
+
+        // Assert
+        assertEquals(1, count("payment.attempts", "attempt", "1", "outcome", "rejected"));
+        assertEquals(1, count("payment.attempts", "attempt", "2", "outcome", "approved"));
+        assertEquals(1, count("payment.attempts", "attempt", "5+", "outcome", "rejected"));
+        assertEquals(2 * BusinessMetrics.MAX_ATTEMPT_TAG, registry.find("payment.attempts").counters().size());
+    }
+
+    @Test
+    void tokenizationAndSearch_shouldCountByResult() {
+        // Act
+        metrics.cardsTokenized(3, 1);
+        metrics.productSearch(0);
+        metrics.productSearch(12);
+
+        // Assert
+        assertEquals(3, count("tokenization.cards", "result", "accepted"));
+        assertEquals(1, count("tokenization.cards", "result", "rejected"));
+        assertEquals(1, count("products.searches", "result", "empty"));
+        assertEquals(1, count("products.searches", "result", "found"));
+    }
+}
@@ -0,0 +1,209 @@
+package com.farmatodo.reto.service;
+
+import com.farmatodo.reto.entity.CardToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardTokenCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Map<String, CardToken> db = new HashMap<>();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final MutableClock clock = new MutableClock();
+
+    private CardTokenCache cache(int maxSize) {
+        return new CardTokenCache(maxSize, Duration.ofSeconds(60), t -> {
+            loads.incrementAndGet();
+            return Optional.ofNullable(db.get(t));
+        }, registry, clock);
+    }
+
+    private static CardToken token(String value, long customerId) {
+        CardToken t = new CardToken();
+        t.setToken(value);
+        t.setCustomerId(customerId);
+        t.setKeyVersion(1);
+        return t;
+    }
+
+    @Test
+    void resolve_shouldLoadOnceAndReportHitRatio() {
+        // Arrange
+        db.put("a", token("a", 7L));
+        CardTokenCache cache = cache(10);
+
+        // Act
+        Optional<CardTokenCache.Entry> first = cache.resolve("a");
+        Optional<CardTokenCache.Entry> second = cache.resolve("a");
+
+        // Assert
+        assertTrue(first.isPresent());
+        assertEquals(first, second);
+        assertTrue(second.get().usableBy(7L));
+        assertEquals(1, loads.get());
+        assertEquals(0.5, registry.get("tokenization.cache.hit.ratio").gauge().value());
+    }
+
+    @Test
+    void resolve_whenTokenUnknown_shouldReturnEmptyAndNotCache() {
+        // Arrange
+        CardTokenCache cache = cache(10);
+
+        // Act & Assert
+        assertTrue(cache.resolve("missing").isEmpty());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void put_shouldServeFreshTokensWithoutLoading() {
+        // Arrange
+        CardTokenCache cache = cache(10);
+
+        // Act
+        cache.put(token("b", 3L));
+
+        // Assert
+        assertTrue(cache.resolve("b").orElseThrow().usableBy(3L));
+        assertFalse(cache.resolve("b").orElseThrow().usableBy(4L));
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void revoked_shouldWinOverLaterStaleLoad() {
+        // Arrange
+        CardToken stale = token("c", 1L);
+        CardToken revoked = token("c", 1L);
+        revoked.setStatus(CardToken.Status.REVOKED);
+        CardTokenCache cache = cache(10);
+
+        // Act
+        cache.revoked(revoked);
+        cache.put(stale);
+
+        // Assert
+        assertEquals(CardToken.Status.REVOKED, cache.resolve("c").orElseThrow().status());
+    }
+
+    @Test
+    void revoked_shouldCacheRevokedEvenIfEntityStillActive() {
+        // Arrange: el servicio ya no toca la entidad; solo hace el UPDATE de status
+        CardTokenCache cache = cache(10);
+        cache.put(token("g", 1L));
+
+        // Act
+        cache.revoked(token("g", 1L));
+
+        // Assert
+        assertEquals(CardToken.Status.REVOKED, cache.resolve("g").orElseThrow().status());
+    }
+
+    @Test
+    void revoked_insideTransaction_shouldApplyOnlyAfterCommit() {
+        // Arrange
+        CardToken revoked = token("e", 1L);
+        revoked.setStatus(CardToken.Status.REVOKED);
+        CardTokenCache cache = cache(10);
+        cache.put(token("e", 1L));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            cache.revoked(revoked);
+
+            // Assert
+            assertEquals(CardToken.Status.ACTIVE, cache.resolve("e").orElseThrow().status());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertEquals(CardToken.Status.REVOKED, cache.resolve("e").orElseThrow().status());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void rekeyed_shouldUpdateKeyVersionInPlace() {
+        // Arrange
+        CardTokenCache cache = cache(10);
+        cache.put(token("d", 1L));
+
+        // Act
+        cache.rekeyed("d", 2);
+        cache.rekeyed("not-cached", 2);
+
+        // Assert
+        assertEquals(2, cache.resolve("d").orElseThrow().keyVersion());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void resolve_afterTtl_shouldReloadAndSeeRevocationFromAnotherInstance() {
+        // Arrange: esta instancia tiene el token ACTIVE; otra lo revoca en la BD
+        db.put("f", token("f", 1L));
+        CardTokenCache cache = cache(10);
+        cache.resolve("f");
+        CardToken revokedElsewhere = token("f", 1L);
+        revokedElsewhere.setStatus(CardToken.Status.REVOKED);
+        db.put("f", revokedElsewhere);
+
+        // Act
+        CardToken.Status beforeTtl = cache.resolve("f").orElseThrow().status();
+        clock.advance(Duration.ofSeconds(61));
+        CardToken.Status afterTtl = cache.resolve("f").orElseThrow().status();
+
+        // Assert
+        assertEquals(CardToken.Status.ACTIVE, beforeTtl);
+        assertEquals(CardToken.Status.REVOKED, afterTtl);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void put_whenFull_shouldStayBounded() {
+        // Arrange
+        CardTokenCache cache = cache(5);
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            cache.put(token("t" + i, 1L));
+        }
+
+        // Assert
+        assertEquals(5, cache.size());
+        assertTrue(cache.resolve("t49").isPresent());
+    }
+
+    static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration d) {
+            now = now.plus(d);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
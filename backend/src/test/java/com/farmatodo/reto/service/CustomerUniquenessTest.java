@@ -0,0 +1,139 @@
+package com.farmatodo.reto.service;
+
+import com.farmatodo.reto.entity.Customer;
+import com.farmatodo.reto.repository.CustomerRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerUniquenessTest {
+
+    @Mock
+    private CustomerRepository customers;
+
+    @Mock
+    private JdbcTemplate jdbc;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private CustomerUniqueness uniqueness;
+
+    @BeforeEach
+    void setUp() {
+        uniqueness = new CustomerUniqueness(customers, jdbc, registry, 1_000, 0.01, 2);
+    }
+
+    // Simula la tabla en páginas por id: filas[i] = {email, phone}, con id = i + 1
+    private void seedWith(String... rows) {
+        doAnswer(inv -> {
+            long after = inv.getArgument(2);
+            int limit = inv.getArgument(3);
+            for (int i = (int) after; i < rows.length / 2 && i < after + limit; i++) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong(1)).thenReturn(i + 1L);
+                when(rs.getString(2)).thenReturn(rows[2 * i]);
+                when(rs.getString(3)).thenReturn(rows[2 * i + 1]);
+                inv.<RowCallbackHandler>getArgument(1).processRow(rs);
+            }
+            return null;
+        }).when(jdbc).query(anyString(), any(RowCallbackHandler.class), anyLong(), anyInt());
+        uniqueness.seed();
+    }
+
+    @Test
+    void firstConflict_whenFilterSaysNew_shouldSkipDatabase() {
+        // Arrange
+        seedWith("ana@test.com", "555");
+
+        // Act
+        CustomerUniqueness.Conflict conflict = uniqueness.firstConflict("luis@test.com", "777");
+
+        // Assert
+        assertNull(conflict);
+        verifyNoInteractions(customers);
+        assertEquals(2.0, registry.get("customers.uniqueness.precheck").tag("result", "definitely_new")
+                .counter().count());
+    }
+
+    @Test
+    void firstConflict_whenFilterSaysMaybe_shouldAskDatabaseIgnoringCase() {
+        // Arrange
+        seedWith("ana@test.com", "555");
+        when(customers.existsByEmailIgnoreCase("ana@test.com")).thenReturn(true);
+
+        // Act & Assert
+        assertEquals(CustomerUniqueness.Conflict.EMAIL, uniqueness.firstConflict(" ANA@test.com ", "777"));
+    }
+
+    @Test
+    void firstConflict_beforeSeeding_shouldAlwaysAskDatabase() {
+        // Arrange
+        when(customers.existsByEmailIgnoreCase("luis@test.com")).thenReturn(false);
+        when(customers.existsByPhone("777")).thenReturn(true);
+
+        // Act & Assert
+        assertEquals(CustomerUniqueness.Conflict.PHONE, uniqueness.firstConflict("luis@test.com", "777"));
+    }
+
+    @Test
+    void insert_shouldTeachFilterNewKeys() {
+        // Arrange
+        seedWith("ana@test.com", "555");
+        Customer c = new Customer();
+        c.setEmail("Luis@test.com");
+        c.setPhone("777");
+        when(customers.insertIfAbsent(c)).thenReturn(Optional.of(5L));
+        when(customers.existsByEmailIgnoreCase("luis@test.com")).thenReturn(false);
+        when(customers.existsByPhone("777")).thenReturn(false);
+
+        // Act
+        assertNull(uniqueness.insert(c));
+
+        // Assert: ahora el filtro dice "quizás" y se consulta la BD
+        assertNull(uniqueness.firstConflict("luis@test.com", "777"));
+        assertEquals(5L, c.getId());
+        verify(customers).existsByEmailIgnoreCase("luis@test.com");
+    }
+
+    @Test
+    void seed_shouldReadEveryPageAndNormalizeKeys() {
+        // Arrange: 5 filas en páginas de 2 -> 3 consultas
+        seedWith("a@test.com", "1", "b@test.com", "2", " C@Test.com ", " 333 ", "d@test.com", "4",
+                "e@test.com", "5");
+
+        // Act & Assert: lo que está en la última página y la fila con espacios se reconocen
+        uniqueness.firstConflict("e@test.com", "9");
+        uniqueness.firstConflict("c@test.com", "333");
+        verify(jdbc, times(3)).query(anyString(), any(RowCallbackHandler.class), anyLong(), anyInt());
+        verify(customers).existsByEmailIgnoreCase("e@test.com");
+        verify(customers).existsByEmailIgnoreCase("c@test.com");
+        verify(customers).existsByPhone("333");
+        verify(customers, never()).existsByPhone("9");
+    }
+
+    @Test
+    void insert_whenConflict_shouldReportField() {
+        // Arrange
+        Customer c = new Customer();
+        c.setEmail(" Ana@test.com");
+        c.setPhone("555");
+        when(customers.insertIfAbsent(c)).thenReturn(Optional.empty());
+        when(customers.existsByEmailIgnoreCase("ana@test.com")).thenReturn(false);
+
+        // Act & Assert
+        assertEquals(CustomerUniqueness.Conflict.PHONE, uniqueness.insert(c));
+        assertNull(c.getId());
+    }
+}
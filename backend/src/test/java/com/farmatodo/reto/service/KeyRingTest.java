@@ -0,0 +1,128 @@
+package com.farmatodo.reto.service;
+
+import com.farmatodo.reto.util.CryptoUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyRingTest {
+
+    private static final String LEGACY = "1234567890123456";
+    private static final String CARD = "4111111111111111|123|12/25";
+
+    private final KeyRing keyRing = new KeyRing(LEGACY, 1,
+            Map.of(1, "abcdefghijklmnop", 2, "ponmlkjihgfedcba"));
+
+    @Test
+    void seal_shouldUseActiveVersionAndRoundTrip() {
+        // Act
+        KeyRing.Sealed sealed = keyRing.seal(CARD);
+
+        // Assert
+        assertEquals(1, sealed.keyVersion());
+        assertNotNull(sealed.wrappedKey());
+        assertEquals(CARD, keyRing.open(sealed));
+    }
+
+    @Test
+    void seal_shouldUseFreshDataKeyPerCard() {
+        // Act
+        KeyRing.Sealed a = keyRing.seal(CARD);
+        KeyRing.Sealed b = keyRing.seal(CARD);
+
+        // Assert
+        assertNotEquals(a.wrappedKey(), b.wrappedKey());
+        assertNotEquals(a.encryptedData(), b.encryptedData());
+    }
+
+    @Test
+    void rotate_shouldOnlyRewrapDataKey() {
+        // Arrange
+        KeyRing.Sealed v1 = keyRing.seal(CARD);
+
+        // Act
+        KeyRing.Sealed v2 = keyRing.rotate(v1, 2);
+
+        // Assert
+        assertEquals(2, v2.keyVersion());
+        assertEquals(v1.encryptedData(), v2.encryptedData());
+        assertNotEquals(v1.wrappedKey(), v2.wrappedKey());
+        assertEquals(CARD, keyRing.open(v2));
+    }
+
+    @Test
+    void rotate_whenLegacyRow_shouldMoveToEnvelope() {
+        // Arrange
+        KeyRing.Sealed legacy = new KeyRing.Sealed(KeyRing.LEGACY_VERSION, null, CryptoUtil.aesEncrypt(CARD, LEGACY));
+
+        // Act
+        KeyRing.Sealed v2 = keyRing.rotate(legacy, 2);
+
+        // Assert
+        assertEquals(2, v2.keyVersion());
+        assertEquals(CARD, keyRing.open(v2));
+    }
+
+    @Test
+    void open_whenWrappedWithOtherKey_shouldFail() {
+        // Arrange
+        KeyRing.Sealed v1 = keyRing.seal(CARD);
+        KeyRing.Sealed tampered = new KeyRing.Sealed(2, v1.wrappedKey(), v1.encryptedData());
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> keyRing.open(tampered));
+    }
+
+    @Test
+    void hkdfSha256_shouldMatchRfc5869TestCase1() {
+        // Arrange
+        HexFormat hex = HexFormat.of();
+        byte[] ikm = hex.parseHex("0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b");
+        byte[] salt = hex.parseHex("000102030405060708090a0b0c");
+        byte[] info = hex.parseHex("f0f1f2f3f4f5f6f7f8f9");
+
+        // Act
+        byte[] okm = KeyRing.hkdfSha256(ikm, salt, info, 42);
+
+        // Assert
+        assertEquals("3cb25f25faacd57a90434f64d0362f2a2d2d0a90cf1a5a4c5db02d56ecc4c5bf34007208d5b887185865",
+                hex.formatHex(okm));
+    }
+
+    @Test
+    void kekFor_shouldDerive256BitKeysThatDifferPerVersion() {
+        // Act
+        byte[] v1 = KeyRing.kekFor(1, "abcdefghijklmnop").getEncoded();
+        byte[] v2 = KeyRing.kekFor(2, "abcdefghijklmnop").getEncoded();
+
+        // Assert
+        assertEquals(32, v1.length);
+        assertFalse(Arrays.equals(v1, v2));
+    }
+
+    @Test
+    void kekFor_whenBase64Key_shouldUseItAsIs() {
+        // Arrange
+        byte[] key = new byte[32];
+        key[0] = 7;
+
+        // Act & Assert
+        assertArrayEquals(key, KeyRing.kekFor(1, "base64:" + Base64.getEncoder().encodeToString(key)).getEncoded());
+        assertThrows(IllegalArgumentException.class, () -> KeyRing.kekFor(1, "base64:" + Base64.getEncoder().encodeToString(new byte[16])));
+    }
+
+    @Test
+    void kekFor_whenSecretTooShort_shouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> KeyRing.kekFor(1, "short"));
+    }
+
+    @Test
+    void constructor_whenActiveVersionMissing_shouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> new KeyRing(LEGACY, 3, Map.of(1, "abcdefghijklmnop")));
+    }
+}
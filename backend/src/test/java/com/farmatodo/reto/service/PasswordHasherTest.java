@@ -0,0 +1,96 @@
+package com.farmatodo.reto.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final PasswordHasher hasher = new PasswordHasher(PasswordHasher.MIN_COST, 2, 4, registry);
+
+    @AfterEach
+    void tearDown() {
+        hasher.close();
+    }
+
+    @Test
+    void hash_shouldProduceVerifiableBcrypt() {
+        // Act
+        String hash = hasher.hash("s3cret").join();
+
+        // Assert
+        assertTrue(PasswordHasher.isHash(hash));
+        assertEquals(PasswordHasher.Verdict.MATCH, hasher.verify("s3cret", hash).join());
+        assertEquals(PasswordHasher.Verdict.MISMATCH, hasher.verify("other", hash).join());
+    }
+
+    @Test
+    void verify_whenLegacyPlainText_shouldAskForRehash() {
+        assertEquals(PasswordHasher.Verdict.MATCH_NEEDS_REHASH, hasher.verify("plain", "plain").join());
+        assertEquals(PasswordHasher.Verdict.MISMATCH, hasher.verify("plain", "Plain").join());
+    }
+
+    @Test
+    void verify_whenUnusable_shouldNeverMatch() {
+        // Arrange
+        String stored = PasswordHasher.unusablePassword();
+
+        // Act & Assert: ni el valor guardado ni la vieja contraseña fija sirven
+        assertEquals(PasswordHasher.Verdict.MISMATCH, hasher.verify(stored, stored).join());
+        assertEquals(PasswordHasher.Verdict.MISMATCH, hasher.verify("CHANGE_ME", stored).join());
+        assertEquals(PasswordHasher.Verdict.MISMATCH, hasher.verify("!", "!").join());
+    }
+
+    @Test
+    void verify_whenStoredWithLowerCost_shouldAskForRehash() {
+        // Arrange
+        PasswordHasher stronger = new PasswordHasher(PasswordHasher.MIN_COST + 1, 1, 4, new SimpleMeterRegistry());
+        String weak = hasher.hash("s3cret").join();
+
+        // Act & Assert
+        try {
+            assertEquals(PasswordHasher.Verdict.MATCH_NEEDS_REHASH, stronger.verify("s3cret", weak).join());
+        } finally {
+            stronger.close();
+        }
+    }
+
+    @Test
+    void verifyAgainstDummy_shouldAlwaysMismatch() {
+        assertEquals(PasswordHasher.Verdict.MISMATCH, hasher.verifyAgainstDummy("dummy-password").join());
+    }
+
+    @Test
+    void hash_whenQueueFull_shouldRejectInsteadOfQueueing() {
+        // Arrange: 1 hilo y cola de 1; con costo 12 el primer hash ocupa el hilo varios ms
+        PasswordHasher tiny = new PasswordHasher(12, 1, 1, registry);
+        try {
+            tiny.hash("running");
+            tiny.hash("queued");
+
+            // Act
+            CompletableFuture<String> rejected = tiny.hash("rejected");
+
+            // Assert
+            CompletionException ex = assertThrows(CompletionException.class, rejected::join);
+            assertInstanceOf(RejectedExecutionException.class, ex.getCause());
+            assertEquals(1.0, registry.get("auth.password.rejected").counter().count());
+        } finally {
+            tiny.close();
+        }
+    }
+
+    @Test
+    void calibrate_shouldStayWithinBounds() {
+        int cost = PasswordHasher.calibrate(1, PasswordHasher.MIN_COST);
+
+        assertTrue(cost >= PasswordHasher.MIN_COST && cost <= PasswordHasher.MAX_COST);
+    }
+}
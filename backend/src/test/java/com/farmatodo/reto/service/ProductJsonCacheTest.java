@@ -0,0 +1,71 @@
+package com.farmatodo.reto.service;
+
+import com.farmatodo.reto.dto.ProductView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductJsonCacheTest {
+
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private static ProductView product(long id, String price, int stock) {
+        return new ProductView(id, "Acetaminofén \"500mg\" #" + id, null, new BigDecimal(price), stock);
+    }
+
+    @Test
+    void writeArray_shouldMatchJacksonOutputForTheList() throws Exception {
+        // Arrange
+        ProductJsonCache cache = new ProductJsonCache(mapper, 10, registry);
+        List<ProductView> products = List.of(product(1, "3.50", 10), product(2, "12.00", 0));
+
+        // Act
+        byte[] first = cache.writeArray(products);
+        byte[] second = cache.writeArray(products);
+
+        // Assert
+        assertArrayEquals(mapper.writeValueAsBytes(products), first);
+        assertArrayEquals(first, second);
+        assertArrayEquals(mapper.writeValueAsBytes(List.of()), cache.writeArray(List.of()));
+        assertEquals(0.5, cache.hitRatio(), 1e-9);
+    }
+
+    @Test
+    void writeArray_whenProductChanged_shouldReserializeIt() throws Exception {
+        // Arrange
+        ProductJsonCache cache = new ProductJsonCache(mapper, 10, registry);
+        cache.writeArray(List.of(product(1, "3.50", 10)));
+
+        // Act: mismo id con otro stock
+        byte[] json = cache.writeArray(List.of(product(1, "3.50", 9)));
+
+        // Assert
+        assertArrayEquals(mapper.writeValueAsBytes(List.of(product(1, "3.50", 9))), json);
+        assertEquals(1, cache.size());
+        assertEquals(0.0, cache.hitRatio(), 1e-9);
+    }
+
+    @Test
+    void writeArray_shouldStayWithinMaxSize() {
+        // Arrange
+        ProductJsonCache cache = new ProductJsonCache(mapper, 2, registry);
+
+        // Act
+        cache.writeArray(List.of(product(1, "1.00", 1), product(2, "2.00", 2), product(3, "3.00", 3)));
+
+        // Assert
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void constructor_whenMaxSizeNotPositive_shouldFail() {
+        assertThrows(IllegalArgumentException.class, () -> new ProductJsonCache(mapper, 0, registry));
+    }
+}
@@ -0,0 +1,69 @@
+package com.farmatodo.reto.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenPoolTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void take_whenPoolEmpty_shouldFallBackToInlineGeneration() {
+        // Arrange
+        TokenPool pool = new TokenPool(8, 2, ids -> List.of(), registry);
+
+        // Act
+        String token = pool.take();
+
+        // Assert
+        assertNotNull(token);
+        assertEquals(1.0, registry.get("tokenization.pool.fallback").counter().count());
+    }
+
+    @Test
+    void refill_shouldFillToCapacityWithUniqueTokens() {
+        // Arrange
+        TokenPool pool = new TokenPool(300, 50, ids -> List.of(), registry);
+
+        // Act
+        int added = pool.refill();
+        Set<String> taken = new HashSet<>();
+        for (int i = 0; i < 300; i++) {
+            taken.add(pool.take());
+        }
+
+        // Assert
+        assertEquals(300, added);
+        assertEquals(300, taken.size());
+        assertEquals(0, pool.depth());
+        assertEquals(0.0, registry.get("tokenization.pool.fallback").counter().count());
+    }
+
+    @Test
+    void refill_shouldDiscardTokensThatAlreadyExist() {
+        // Arrange: la "DB" reporta como existente el primer candidato del primer lote
+        AtomicBoolean first = new AtomicBoolean(true);
+        TokenPool pool = new TokenPool(10, 5,
+                ids -> first.getAndSet(false) ? List.of(ids.iterator().next()) : List.of(), registry);
+
+        // Act
+        pool.refill();
+
+        // Assert
+        assertEquals(10, pool.depth());
+        assertEquals(1.0, registry.get("tokenization.pool.collisions").counter().count());
+        assertEquals(10.0, registry.get("tokenization.pool.depth").gauge().value());
+    }
+
+    @Test
+    void constructor_whenLowWaterAboveCapacity_shouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenPool(10, 20, ids -> List.of(), registry));
+    }
+}
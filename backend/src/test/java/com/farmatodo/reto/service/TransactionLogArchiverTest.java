@@ -0,0 +1,108 @@
+package com.farmatodo.reto.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs a full archive pass on a real Postgres: cursor read into segment files, then the
+ * chunked delete bounded by {@code id <= maxId and created_at < cutoff}. Each pass commits
+ * on its own, as in production. Skipped when Docker is not available.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class TransactionLogArchiverTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired private DataSource dataSource;
+    @Autowired private PlatformTransactionManager txManager;
+    @Autowired private JdbcTemplate jdbc;
+
+    @TempDir
+    Path dir;
+
+    private final LocalDateTime cutoff = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @BeforeEach
+    void setUp() {
+        jdbc.execute("truncate transaction_log restart identity");
+    }
+
+    private long insert(String txUuid, LocalDateTime createdAt) {
+        return jdbc.queryForObject("insert into transaction_log (transaction_uuid, order_id, event, message, "
+                + "payload, created_at) values (?, 1, 'ORDER_CREATED', 'Order created', '{}', ?) returning id",
+                Long.class, txUuid, Timestamp.valueOf(createdAt));
+    }
+
+    @Test
+    void archiveOlderThan_shouldDeleteOnlyArchivedRowsBeforeCutoff() {
+        // Arrange: 5 filas viejas (3 bloques de borrado de 2) y una justo en el corte
+        for (int i = 0; i < 5; i++) {
+            insert("tx-" + i, cutoff.minusDays(i + 1));
+        }
+        long atCutoff = insert("tx-edge", cutoff);
+        // reload corre entre la lectura con cursor y el borrado: una fila vieja que llega
+        // en ese hueco queda con id > maxId y no está en ningún segmento
+        AtomicLong late = new AtomicLong();
+        TransactionLogArchive archive = new TransactionLogArchive(dir.toString()) {
+            @Override
+            public void reload() {
+                super.reload();
+                if (late.get() == 0) {
+                    late.set(insert("tx-late", cutoff.minusDays(30)));
+                }
+            }
+        };
+        TransactionLogArchiver archiver = new TransactionLogArchiver(dataSource, txManager, archive, 2);
+        ReflectionTestUtils.setField(archiver, "deleteChunkSize", 2);
+
+        // Act
+        long archived = archiver.archiveOlderThan(cutoff);
+
+        // Assert
+        assertEquals(5, archived);
+        assertEquals(List.of(atCutoff, late.get()),
+                jdbc.queryForList("select id from transaction_log order by id", Long.class));
+        assertEquals(1, archive.findByTransactionUuid("tx-3").size());
+        assertTrue(archive.findByTransactionUuid("tx-edge").isEmpty());
+        assertTrue(archive.findByTransactionUuid("tx-late").isEmpty());
+    }
+
+    @Test
+    void archiveOlderThan_whenNothingOld_shouldNotDelete() {
+        // Arrange
+        long atCutoff = insert("tx-edge", cutoff);
+        TransactionLogArchiver archiver = new TransactionLogArchiver(dataSource, txManager,
+                new TransactionLogArchive(dir.toString()), 2);
+
+        // Act & Assert
+        assertEquals(0, archiver.archiveOlderThan(cutoff));
+        assertEquals(List.of(atCutoff), jdbc.queryForList("select id from transaction_log", Long.class));
+    }
+}
@@ -0,0 +1,91 @@
+package com.farmatodo.reto.service;
+
+import com.farmatodo.reto.entity.TransactionLog;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionLogBroadcasterTest {
+
+    private final TransactionLogBroadcaster broadcaster = new TransactionLogBroadcaster(Runnable::run);
+
+    @Test
+    void publish_whenNonTerminalEvent_shouldKeepStreamOpen() {
+        // Arrange
+        broadcaster.replay(broadcaster.subscribe("tx-1"), List.of());
+
+        // Act
+        broadcaster.publish(event(1, "tx-1", TransactionLog.Event.PAYMENT_ATTEMPT));
+
+        // Assert
+        assertEquals(1, broadcaster.activeStreams());
+    }
+
+    @Test
+    void publish_whenTerminalEvent_shouldCloseStreams() {
+        // Arrange
+        broadcaster.replay(broadcaster.subscribe("tx-1"), List.of());
+        broadcaster.replay(broadcaster.subscribe("tx-1"), List.of());
+        broadcaster.replay(broadcaster.subscribe("tx-2"), List.of());
+
+        // Act
+        broadcaster.publish(event(1, "tx-1", TransactionLog.Event.ORDER_PAID));
+
+        // Assert
+        assertEquals(1, broadcaster.activeStreams());
+    }
+
+    @Test
+    void publish_whenNoSubscribers_shouldDoNothing() {
+        // Act & Assert
+        assertDoesNotThrow(() -> broadcaster.publish(event(1, "tx-9", TransactionLog.Event.ORDER_FAILED)));
+        assertEquals(0, broadcaster.activeStreams());
+    }
+
+    @Test
+    void publish_beforeReplay_shouldHoldEventsAndDropThoseAlreadyReplayed() {
+        // Arrange: el evento 2 llega en vivo mientras se lee la DB, que también lo trae
+        TransactionLogBroadcaster.Subscription s = broadcaster.subscribe("tx-1");
+        broadcaster.publish(event(2, "tx-1", TransactionLog.Event.ORDER_PAID));
+        assertEquals(1, broadcaster.activeStreams());
+
+        // Act
+        broadcaster.replay(s, List.of(event(1, "tx-1", TransactionLog.Event.ORDER_CREATED),
+                event(2, "tx-1", TransactionLog.Event.PAYMENT_ATTEMPT)));
+
+        // Assert: el 2 en vivo quedó bajo la marca del replay y no se reenvía (ni cierra)
+        assertEquals(1, broadcaster.activeStreams());
+        broadcaster.publish(event(3, "tx-1", TransactionLog.Event.ORDER_PAID));
+        assertEquals(0, broadcaster.activeStreams());
+    }
+
+    @Test
+    void publish_shouldSendOnTheExecutorWithOneTaskPerStream() {
+        // Arrange
+        List<Runnable> tasks = new ArrayList<>();
+        TransactionLogBroadcaster queued = new TransactionLogBroadcaster(tasks::add);
+        queued.replay(queued.subscribe("tx-1"), List.of());
+
+        // Act
+        queued.publish(event(1, "tx-1", TransactionLog.Event.PAYMENT_ATTEMPT));
+        queued.publish(event(2, "tx-1", TransactionLog.Event.ORDER_PAID));
+
+        // Assert: nada se envió en el hilo que publica
+        assertEquals(1, queued.activeStreams());
+        assertEquals(1, tasks.size());
+        tasks.get(0).run();
+        assertEquals(0, queued.activeStreams());
+    }
+
+    private TransactionLog event(long id, String tx, TransactionLog.Event type) {
+        TransactionLog t = new TransactionLog();
+        t.setId(id);
+        t.setTransactionUuid(tx);
+        t.setEvent(type);
+        t.setMessage(type.name());
+        return t;
+    }
+}
@@ -8,6 +8,7 @@ import com.farmatodo.reto.entity.CartItem;
 import com.farmatodo.reto.entity.Product;
 import com.farmatodo.reto.repository.CartRepository;
 import com.farmatodo.reto.repository.ProductRepository;
+import com.farmatodo.reto.service.CartService;
 import com.farmatodo.reto.service.OrderService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,6 +16,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -37,6 +46,9 @@ class CartServiceImplTest {
     @Mock
     private OrderService orderService;
 
+    @Mock
+    private PlatformTransactionManager txManager;
+
     @InjectMocks
     private CartServiceImpl cartService;
 
@@ -96,7 +108,7 @@ class CartServiceImplTest {
         request.quantity = 2;
 
         when(cartRepository.findByCustomerId(1L)).thenReturn(Optional.empty());
-        when(productRepository.findAllById(anyList())).thenReturn(List.of(testProduct));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
         when(cartRepository.save(any(Cart.class))).thenReturn(testCart);
 
         // Act
@@ -116,7 +128,7 @@ class CartServiceImplTest {
         request.quantity = 2;
 
         when(cartRepository.findByCustomerId(1L)).thenReturn(Optional.of(testCart));
-        when(productRepository.findAllById(anyList())).thenReturn(List.of(testProduct));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
         when(cartRepository.save(any(Cart.class))).thenReturn(testCart);
 
         // Act
@@ -143,7 +155,7 @@ class CartServiceImplTest {
         request.quantity = 5;
 
         when(cartRepository.findByCustomerId(1L)).thenReturn(Optional.of(testCart));
-        when(productRepository.findAllById(anyList())).thenReturn(List.of(testProduct));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
         when(cartRepository.save(any(Cart.class))).thenReturn(testCart);
 
         // Act
@@ -164,7 +176,7 @@ class CartServiceImplTest {
         request.quantity = 2;
 
         when(cartRepository.findByCustomerId(1L)).thenReturn(Optional.of(testCart));
-        when(productRepository.findAllById(anyList())).thenReturn(List.of());
+        when(productRepository.findById(anyLong())).thenReturn(Optional.empty());
 
         // Act & Assert
         IllegalArgumentException exception = assertThrows(
@@ -301,4 +313,88 @@ class CartServiceImplTest {
         // Act & Assert
         assertThrows(IllegalArgumentException.class, () -> cartService.checkout(request));
     }
+
+    @Test
+    void checkout_throughTransactionProxy_shouldCreateOrderOutsideAnyTransaction() {
+        // Arrange: servicio detrás del mismo proxy @Transactional que arma Spring
+        RecordingTransactionManager tm = new RecordingTransactionManager();
+        ProxyFactory factory = new ProxyFactory(new CartServiceImpl(cartRepository, productRepository, orderService, tm));
+        factory.addAdvice(new TransactionInterceptor(tm, new AnnotationTransactionAttributeSource()));
+        CartService proxied = (CartService) factory.getProxy();
+
+        CartItem item = new CartItem();
+        item.setProductId(1L);
+        item.setQuantity(2);
+        item.setCart(testCart);
+        testCart.getItems().add(item);
+        CartDtos.CheckoutRequest request = new CartDtos.CheckoutRequest();
+        request.customerId = 1L;
+        request.cardToken = "token123";
+
+        when(cartRepository.findByCustomerId(1L)).thenReturn(Optional.of(testCart));
+        boolean[] inTransaction = new boolean[1];
+        when(orderService.createOrder(any(CreateOrderRequest.class))).thenAnswer(inv -> {
+            inTransaction[0] = TransactionSynchronizationManager.isActualTransactionActive();
+            return new CreateOrderResponse();
+        });
+
+        // Act
+        proxied.checkout(request);
+
+        // Assert: el cobro no corre dentro de una transacción; el carrito se limpia en una propia
+        assertFalse(inTransaction[0]);
+        assertEquals(List.of("begin", "commit"), tm.events);
+        assertTrue(testCart.getItems().isEmpty());
+    }
+
+    @Test
+    void checkout_whenItemAddedDuringPayment_shouldKeepIt() {
+        // Arrange
+        CartItem ordered = new CartItem();
+        ordered.setProductId(1L);
+        ordered.setQuantity(2);
+        testCart.getItems().add(ordered);
+        CartDtos.CheckoutRequest request = new CartDtos.CheckoutRequest();
+        request.customerId = 1L;
+
+        when(cartRepository.findByCustomerId(1L)).thenReturn(Optional.of(testCart));
+        when(orderService.createOrder(any(CreateOrderRequest.class))).thenAnswer(inv -> {
+            CartItem added = new CartItem();
+            added.setProductId(2L);
+            added.setQuantity(1);
+            testCart.getItems().add(added);
+            return new CreateOrderResponse();
+        });
+
+        // Act
+        cartService.checkout(request);
+
+        // Assert
+        assertEquals(List.of(2L), testCart.getItems().stream().map(CartItem::getProductId).toList());
+    }
+
+    /** Minimal real transaction manager: begins, commits and binds synchronization like JPA's */
+    static class RecordingTransactionManager extends AbstractPlatformTransactionManager {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            events.add("begin");
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            events.add("commit");
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            events.add("rollback");
+        }
+    }
 }
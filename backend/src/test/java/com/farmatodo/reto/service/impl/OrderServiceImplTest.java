@@ -4,21 +4,24 @@ import com.farmatodo.reto.dto.CreateOrderRequest;
 import com.farmatodo.reto.dto.CreateOrderResponse;
 import com.farmatodo.reto.entity.*;
 import com.farmatodo.reto.repository.*;
+import com.farmatodo.reto.service.BusinessMetrics;
+import com.farmatodo.reto.service.CardTokenCache;
 import com.farmatodo.reto.service.NotificationService;
 import com.farmatodo.reto.service.PaymentService;
 import com.farmatodo.reto.service.TransactionLogService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -45,6 +48,15 @@ class OrderServiceImplTest {
     @Mock
     private TransactionLogService transactionLogService;
 
+    @Mock
+    private CardTokenCache tokenCache;
+
+    @Mock
+    private BusinessMetrics metrics;
+
+    @Mock
+    private PlatformTransactionManager txManager;
+
     @InjectMocks
     private OrderServiceImpl orderService;
 
@@ -70,12 +82,16 @@ class OrderServiceImplTest {
         testRequest.deliveryAddress = "Test Address";
         testRequest.cardToken = "token123";
         testRequest.items = List.of(item);
+
+        lenient().when(productRepository.decrementStock(anyLong(), anyInt())).thenReturn(true);
+        lenient().when(tokenCache.resolve("token123"))
+                .thenReturn(Optional.of(new CardTokenCache.Entry(1L, 1, CardToken.Status.ACTIVE)));
     }
 
     @Test
     void createOrder_whenPaymentApprovedOnFirstAttempt_shouldCreatePaidOrder() {
         // Arrange
-        when(productRepository.findAllById(anyList())).thenReturn(List.of(testProduct));
+        when(productRepository.findAllCached(anyList())).thenReturn(List.of(testProduct));
         when(paymentService.tryCharge(anyString(), any(BigDecimal.class))).thenReturn(true);
         
         when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
@@ -100,12 +116,15 @@ class OrderServiceImplTest {
         verify(paymentAttemptRepository, times(1)).save(any(PaymentAttempt.class));
         verify(notificationService, times(1)).notifyOrderPaid(eq(1L), eq(1L));
         verify(transactionLogService, times(3)).log(anyString(), anyLong(), any(), anyString(), any());
+        verify(metrics).orderCreated();
+        verify(metrics).paymentAttempt(1, true);
+        verify(metrics).orderCompleted(Order.Status.PAID);
     }
 
     @Test
     void createOrder_whenPaymentFailsAllRetries_shouldCreateFailedOrder() {
         // Arrange
-        when(productRepository.findAllById(anyList())).thenReturn(List.of(testProduct));
+        when(productRepository.findAllCached(anyList())).thenReturn(List.of(testProduct));
         when(paymentService.tryCharge(anyString(), any(BigDecimal.class))).thenReturn(false);
         
         when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
@@ -129,12 +148,14 @@ class OrderServiceImplTest {
         verify(paymentAttemptRepository, times(3)).save(any(PaymentAttempt.class));
         verify(notificationService, times(1)).notifyOrderFailed(eq(1L), eq(1L), anyString());
         verify(productRepository, never()).saveAll(anyCollection());
+        verify(metrics, times(3)).paymentAttempt(anyInt(), eq(false));
+        verify(metrics).orderCompleted(Order.Status.FAILED);
     }
 
     @Test
     void createOrder_whenPaymentSucceedsOnSecondRetry_shouldCreatePaidOrder() {
         // Arrange
-        when(productRepository.findAllById(anyList())).thenReturn(List.of(testProduct));
+        when(productRepository.findAllCached(anyList())).thenReturn(List.of(testProduct));
         when(paymentService.tryCharge(anyString(), any(BigDecimal.class)))
                 .thenReturn(false)
                 .thenReturn(true);
@@ -164,7 +185,7 @@ class OrderServiceImplTest {
     @Test
     void createOrder_whenProductNotFound_shouldThrowException() {
         // Arrange
-        when(productRepository.findAllById(anyList())).thenReturn(List.of());
+        when(productRepository.findAllCached(anyList())).thenReturn(List.of());
 
         // Act & Assert
         IllegalArgumentException exception = assertThrows(
@@ -175,23 +196,25 @@ class OrderServiceImplTest {
     }
 
     @Test
-    void createOrder_whenInsufficientStock_shouldThrowException() {
-        // Arrange
+    void createOrder_whenCachedStockIsStale_shouldReserveThroughConditionalUpdate() {
+        // Arrange: la caché dice 1 unidad, pero la fila ya se repuso y el UPDATE sí alcanza
         testProduct.setStock(1);
-        when(productRepository.findAllById(anyList())).thenReturn(List.of(testProduct));
+        when(productRepository.findAllCached(anyList())).thenReturn(List.of(testProduct));
+        when(paymentService.tryCharge(anyString(), any(BigDecimal.class))).thenReturn(true);
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        // Act & Assert
-        IllegalArgumentException exception = assertThrows(
-                IllegalArgumentException.class,
-                () -> orderService.createOrder(testRequest)
-        );
-        assertTrue(exception.getMessage().contains("Stock insuficiente"));
+        // Act
+        CreateOrderResponse response = orderService.createOrder(testRequest);
+
+        // Assert
+        assertEquals("PAID", response.status);
+        verify(productRepository).decrementStock(1L, 2);
     }
 
     @Test
     void createOrder_whenSuccessful_shouldDeductStockCorrectly() {
         // Arrange
-        when(productRepository.findAllById(anyList())).thenReturn(List.of(testProduct));
+        when(productRepository.findAllCached(anyList())).thenReturn(List.of(testProduct));
         when(paymentService.tryCharge(anyString(), any(BigDecimal.class))).thenReturn(true);
         
         when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
@@ -206,12 +229,91 @@ class OrderServiceImplTest {
         orderService.createOrder(testRequest);
 
         // Assert
-        @SuppressWarnings("unchecked")
-        ArgumentCaptor<Iterable<Product>> captor = ArgumentCaptor.forClass(Iterable.class);
-        verify(productRepository).saveAll(captor.capture());
-        
-        Product savedProduct = captor.getValue().iterator().next();
-        assertEquals(8, savedProduct.getStock()); // 10 - 2
+        verify(productRepository).decrementStock(1L, 2);
+        verify(productRepository, never()).saveAll(anyCollection());
+        assertEquals(10, testProduct.getStock()); // la entidad cacheada no se escribe
+    }
+
+    @Test
+    void createOrder_whenStockTakenConcurrently_shouldFailBeforeCharging() {
+        // Arrange: el stock cacheado alcanzaba, pero el UPDATE condicional no afecta filas
+        when(productRepository.findAllCached(anyList())).thenReturn(List.of(testProduct));
+        when(productRepository.decrementStock(1L, 2)).thenReturn(false);
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> orderService.createOrder(testRequest)
+        );
+        assertTrue(exception.getMessage().contains("Stock insuficiente"));
+        verifyNoInteractions(paymentService, notificationService);
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void createOrder_whenPaymentFailsAllRetries_shouldRestoreReservedStock() {
+        // Arrange
+        when(productRepository.findAllCached(anyList())).thenReturn(List.of(testProduct));
+        when(paymentService.tryCharge(anyString(), any(BigDecimal.class))).thenReturn(false);
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        orderService.createOrder(testRequest);
+
+        // Assert
+        var inOrder = inOrder(productRepository, paymentService);
+        inOrder.verify(productRepository).decrementStock(1L, 2);
+        inOrder.verify(paymentService, times(3)).tryCharge(anyString(), any(BigDecimal.class));
+        inOrder.verify(productRepository).restoreStock(1L, 2);
+    }
+
+    @Test
+    void createOrder_shouldChargeBetweenTwoShortTransactions() {
+        // Arrange
+        when(productRepository.findAllCached(anyList())).thenReturn(List.of(testProduct));
+        when(paymentService.tryCharge(anyString(), any(BigDecimal.class))).thenReturn(true);
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        orderService.createOrder(testRequest);
+
+        // Assert: la conexión no queda tomada mientras responde la pasarela
+        var inOrder = inOrder(txManager, productRepository, paymentService, notificationService);
+        inOrder.verify(txManager).getTransaction(any());
+        inOrder.verify(productRepository).decrementStock(1L, 2);
+        inOrder.verify(txManager).commit(any());
+        inOrder.verify(paymentService).tryCharge(anyString(), any(BigDecimal.class));
+        inOrder.verify(txManager).getTransaction(any());
+        inOrder.verify(txManager).commit(any());
+        inOrder.verify(notificationService).notifyOrderPaid(any(), any()); // SMTP tras el commit
+    }
+
+    @Test
+    void createOrder_whenFailureAfterApproval_shouldLeaveOrderPendingWithStockReserved() {
+        // Arrange: la pasarela aprueba, pero guardar el intento falla
+        when(productRepository.findAllCached(anyList())).thenReturn(List.of(testProduct));
+        when(paymentService.tryCharge(anyString(), any(BigDecimal.class))).thenReturn(true);
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(paymentAttemptRepository.save(any(PaymentAttempt.class))).thenThrow(new IllegalStateException("db down"));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> orderService.createOrder(testRequest));
+        verify(productRepository, never()).restoreStock(anyLong(), anyInt());
+        verifyNoInteractions(notificationService);
+        verify(metrics).orderCompleted(Order.Status.PENDING);
+    }
+
+    @Test
+    void createOrder_whenGatewayThrows_shouldReleaseReservationAndRethrow() {
+        // Arrange
+        when(productRepository.findAllCached(anyList())).thenReturn(List.of(testProduct));
+        when(paymentService.tryCharge(anyString(), any(BigDecimal.class))).thenThrow(new IllegalStateException("boom"));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> orderService.createOrder(testRequest));
+        verify(productRepository).restoreStock(1L, 2);
+        verify(metrics).orderCompleted(Order.Status.FAILED);
     }
 
     @Test
@@ -228,7 +330,7 @@ class OrderServiceImplTest {
         item2.quantity = 3;
         testRequest.items = Arrays.asList(testRequest.items.get(0), item2);
 
-        when(productRepository.findAllById(anyList())).thenReturn(Arrays.asList(testProduct, product2));
+        when(productRepository.findAllCached(anyList())).thenReturn(Arrays.asList(testProduct, product2));
         when(paymentService.tryCharge(anyString(), any(BigDecimal.class))).thenReturn(true);
         
         when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
@@ -245,4 +347,40 @@ class OrderServiceImplTest {
         // Assert
         assertEquals(new BigDecimal("350.00"), response.total); // (100*2) + (50*3)
     }
+
+    @Test
+    void createOrder_whenCardTokenUnknown_shouldRejectBeforeTransaction() {
+        // Arrange
+        when(tokenCache.resolve("token123")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> orderService.createOrder(testRequest));
+        assertEquals("Token de tarjeta inválido", ex.getMessage());
+        verifyNoInteractions(txManager, productRepository, paymentService);
+    }
+
+    @Test
+    void createOrder_whenCardTokenBelongsToOtherCustomer_shouldRejectBeforeTransaction() {
+        // Arrange
+        when(tokenCache.resolve("token123"))
+                .thenReturn(Optional.of(new CardTokenCache.Entry(2L, 1, CardToken.Status.ACTIVE)));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> orderService.createOrder(testRequest));
+        verifyNoInteractions(txManager, productRepository, paymentService);
+    }
+
+    @Test
+    void createOrder_whenCardTokenRevoked_shouldRejectBeforeTransaction() {
+        // Arrange
+        when(tokenCache.resolve("token123"))
+                .thenReturn(Optional.of(new CardTokenCache.Entry(1L, 1, CardToken.Status.REVOKED)));
+
+        // Act & Assert
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> orderService.createOrder(testRequest));
+        assertEquals("Token de tarjeta revocado", ex.getMessage());
+        verifyNoInteractions(txManager, productRepository, paymentService);
+    }
 }
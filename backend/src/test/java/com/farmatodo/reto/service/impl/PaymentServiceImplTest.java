@@ -1,20 +1,25 @@
 package com.farmatodo.reto.service.impl;
 
+import com.sun.net.httpserver.HttpServer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @ExtendWith(MockitoExtension.class)
 class PaymentServiceImplTest {
 
-    @InjectMocks
-    private PaymentServiceImpl paymentService;
+    private final PaymentServiceImpl paymentService = new PaymentServiceImpl(new ObjectMapper());
 
     @Test
     void tryCharge_withZeroRejection_shouldAlwaysApprove() {
@@ -59,4 +64,75 @@ class PaymentServiceImplTest {
         assertTrue(approvals > 0, "Should have some approvals");
         assertTrue(rejections > 0, "Should have some rejections");
     }
+
+    @Test
+    void tryCharge_withSimulatedLatency_shouldWaitBeforeAnswering() {
+        // Arrange
+        ReflectionTestUtils.setField(paymentService, "rejectionPercentage", 0);
+        ReflectionTestUtils.setField(paymentService, "simulatedLatencyMs", 30L);
+
+        // Act
+        long start = System.nanoTime();
+        boolean approved = paymentService.tryCharge("token", new BigDecimal("100.00"));
+
+        // Assert
+        assertTrue(approved);
+        assertTrue(System.nanoTime() - start >= 30_000_000L);
+    }
+
+    @Test
+    void tryCharge_withGateway_shouldFollowItsAnswer() throws IOException {
+        // Arrange: la pasarela solo rechaza 500.00; la simulación local aprobaría todo
+        HttpServer gateway = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        gateway.createContext("/charge", exchange -> {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(body.contains("\"amount\":500.00") ? 402 : 200, -1);
+            exchange.close();
+        });
+        gateway.start();
+        ReflectionTestUtils.setField(paymentService, "rejectionPercentage", 0);
+        ReflectionTestUtils.setField(paymentService, "gatewayTimeoutMs", 2000L);
+        ReflectionTestUtils.setField(paymentService, "gatewayUrl",
+                "http://localhost:" + gateway.getAddress().getPort() + "/charge");
+
+        try {
+            // Act & Assert
+            assertTrue(paymentService.tryCharge("token", new BigDecimal("100.00")));
+            assertFalse(paymentService.tryCharge("token", new BigDecimal("500.00")));
+        } finally {
+            gateway.stop(0);
+        }
+
+        // Assert: sin pasarela el intento falla en vez de caer en la simulación
+        assertFalse(paymentService.tryCharge("token", new BigDecimal("100.00")));
+    }
+
+    @Test
+    void tryCharge_withGateway_shouldSendEscapedJsonBody() throws IOException {
+        // Arrange: un token con comillas no debe romper ni alterar el JSON
+        AtomicReference<String> received = new AtomicReference<>();
+        HttpServer gateway = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        gateway.createContext("/charge", exchange -> {
+            received.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        gateway.start();
+        ReflectionTestUtils.setField(paymentService, "gatewayTimeoutMs", 2000L);
+        ReflectionTestUtils.setField(paymentService, "gatewayUrl",
+                "http://localhost:" + gateway.getAddress().getPort() + "/charge");
+
+        try {
+            // Act
+            paymentService.tryCharge("tok\",\"amount\":0", new BigDecimal("1E+3"));
+        } finally {
+            gateway.stop(0);
+        }
+
+        // Assert
+        JsonNode body = new ObjectMapper().readTree(received.get());
+        assertEquals("tok\",\"amount\":0", body.get("cardToken").asText());
+        assertTrue(received.get().contains("\"amount\":1000"));
+        assertEquals(2, body.size());
+    }
 }
@@ -1,9 +1,11 @@
 package com.farmatodo.reto.service.impl;
 
+import com.farmatodo.reto.dto.ProductView;
 import com.farmatodo.reto.entity.Product;
 import com.farmatodo.reto.entity.ProductSearchLog;
 import com.farmatodo.reto.repository.ProductRepository;
 import com.farmatodo.reto.repository.ProductSearchLogRepository;
+import com.farmatodo.reto.service.BusinessMetrics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -30,6 +32,9 @@ class ProductServiceImplTest {
     @Mock
     private ProductSearchLogRepository searchLogRepository;
 
+    @Mock
+    private BusinessMetrics metrics;
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -47,12 +52,12 @@ class ProductServiceImplTest {
                 .thenReturn(List.of(product1));
 
         // Act
-        List<Product> results = productService.search("asp", 1L);
+        List<ProductView> results = productService.search("asp", 1L);
 
         // Assert
         assertNotNull(results);
         assertEquals(1, results.size());
-        assertEquals("Aspirin", results.get(0).getName());
+        assertEquals("Aspirin", results.get(0).name());
         verify(searchLogRepository, timeout(1000)).save(any(ProductSearchLog.class));
     }
 
@@ -66,7 +71,7 @@ class ProductServiceImplTest {
                 .thenReturn(Arrays.asList(product1, product2));
 
         // Act
-        List<Product> results = productService.search(null, 1L);
+        List<ProductView> results = productService.search(null, 1L);
 
         // Assert
         assertNotNull(results);
@@ -80,11 +85,12 @@ class ProductServiceImplTest {
                 .thenReturn(List.of());
 
         // Act
-        List<Product> results = productService.search("xyz", 1L);
+        List<ProductView> results = productService.search("xyz", 1L);
 
         // Assert
         assertNotNull(results);
         assertTrue(results.isEmpty());
+        verify(metrics).productSearch(0);
     }
 
     @Test
@@ -116,7 +122,7 @@ class ProductServiceImplTest {
                 .thenReturn(List.of(product1));
 
         // Act
-        List<Product> results = productService.search("asp", 1L);
+        List<ProductView> results = productService.search("asp", 1L);
 
         // Assert
         assertNotNull(results);
@@ -1,20 +1,36 @@
 package com.farmatodo.reto.service.impl;
 
+import com.farmatodo.reto.dto.TokenizeBatchResponse;
 import com.farmatodo.reto.dto.TokenizeRequest;
 import com.farmatodo.reto.dto.TokenizeResponse;
 import com.farmatodo.reto.entity.CardToken;
 import com.farmatodo.reto.repository.CardTokenRepository;
+import com.farmatodo.reto.service.BusinessMetrics;
+import com.farmatodo.reto.service.CardSealingPool;
+import com.farmatodo.reto.service.CardTokenCache;
+import com.farmatodo.reto.service.KeyRing;
+import com.farmatodo.reto.service.TokenPool;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -23,13 +39,30 @@ class TokenizationServiceImplTest {
     @Mock
     private CardTokenRepository cardTokenRepository;
 
-    @InjectMocks
+    @Mock
+    private TokenPool tokenPool;
+
+    @Mock
+    private CardTokenCache tokenCache;
+
+    @Mock
+    private BusinessMetrics metrics;
+
+    @Mock
+    private PlatformTransactionManager txManager;
+
+    @Spy
+    private KeyRing keyRing = new KeyRing("1234567890123456", 1, Map.of(1, "abcdefghijklmnop"));
+
     private TokenizationServiceImpl tokenizationService;
 
     @BeforeEach
     void setUp() {
+        // bloques de 2 tarjetas en el hilo del test
+        tokenizationService = new TokenizationServiceImpl(cardTokenRepository, tokenPool, keyRing,
+                tokenCache, metrics, new CardSealingPool(Runnable::run), txManager, 2);
         ReflectionTestUtils.setField(tokenizationService, "rejectionPct", 0);
-        ReflectionTestUtils.setField(tokenizationService, "secret", "1234567890123456");
+        lenient().when(tokenPool.take()).thenAnswer(inv -> UUID.randomUUID().toString());
     }
 
     @Test
@@ -63,6 +96,9 @@ class TokenizationServiceImplTest {
         CardToken savedToken = captor.getValue();
         assertNotNull(savedToken.getEncryptedData());
         assertNotEquals("4111111111111111|123|12/25", savedToken.getEncryptedData());
+        assertEquals(1, savedToken.getKeyVersion());
+        assertEquals("4111111111111111|123|12/25", keyRing.open(new KeyRing.Sealed(
+                savedToken.getKeyVersion(), savedToken.getWrappedKey(), savedToken.getEncryptedData())));
     }
 
     @Test
@@ -111,4 +147,148 @@ class TokenizationServiceImplTest {
         // Assert
         assertNotEquals(response1.token(), response2.token());
     }
+
+    @Test
+    void tokenizeBatch_shouldInsertAllCardsInOneBatch() {
+        // Arrange
+        List<TokenizeRequest> cards = List.of(
+                new TokenizeRequest(1L, "4111111111111111", "123", "12/25"),
+                new TokenizeRequest(2L, "5500000000000004", "456", "01/27"),
+                new TokenizeRequest(3L, "340000000000009", "7890", "03/28"));
+
+        // Act
+        TokenizeBatchResponse response = tokenizationService.tokenizeBatch(cards);
+
+        // Assert
+        assertEquals(3, response.results().size());
+        assertTrue(response.results().stream().allMatch(r -> r.token() != null && r.error() == null));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CardToken>> captor = ArgumentCaptor.forClass(List.class);
+        verify(cardTokenRepository, times(1)).insertBatch(captor.capture());
+        List<CardToken> saved = captor.getValue();
+        assertEquals(List.of(1L, 2L, 3L), saved.stream().map(CardToken::getCustomerId).toList());
+        assertEquals(response.results().get(1).token(), saved.get(1).getToken());
+        verify(cardTokenRepository, never()).save(any(CardToken.class));
+        verify(metrics).cardsTokenized(3, 0);
+    }
+
+    @Test
+    void tokenizeBatch_shouldSealBeforeOpeningTheInsertTransaction() {
+        // Arrange
+        List<TokenizeRequest> cards = List.of(
+                new TokenizeRequest(1L, "4111111111111111", "123", "12/25"),
+                new TokenizeRequest(2L, "5500000000000004", "456", "01/27"),
+                new TokenizeRequest(3L, "340000000000009", "7890", "03/28"));
+
+        // Act
+        tokenizationService.tokenizeBatch(cards);
+
+        // Assert: ninguna conexión retenida mientras se cifra
+        InOrder order = inOrder(keyRing, txManager, cardTokenRepository, tokenCache);
+        order.verify(keyRing, times(3)).seal(anyString());
+        order.verify(txManager).getTransaction(any());
+        order.verify(cardTokenRepository).insertBatch(anyList());
+        order.verify(tokenCache).put(anyList());
+        order.verify(txManager).commit(any());
+    }
+
+    @Test
+    void tokenizeBatch_whenExecutorFull_shouldFailWithoutInserting() {
+        // Arrange
+        tokenizationService = new TokenizationServiceImpl(cardTokenRepository, tokenPool, keyRing,
+                tokenCache, metrics, new CardSealingPool(r -> { throw new RejectedExecutionException("full"); }), txManager, 2);
+        List<TokenizeRequest> cards = List.of(new TokenizeRequest(1L, "4111111111111111", "123", "12/25"));
+
+        // Act & Assert
+        assertThrows(RejectedExecutionException.class, () -> tokenizationService.tokenizeBatch(cards));
+        verify(cardTokenRepository, never()).insertBatch(anyList());
+        verifyNoInteractions(txManager);
+    }
+
+    @Test
+    void tokenizeBatch_whenAllRejected_shouldNotInsert() {
+        // Arrange
+        ReflectionTestUtils.setField(tokenizationService, "rejectionPct", 100);
+        List<TokenizeRequest> cards = List.of(new TokenizeRequest(1L, "4111111111111111", "123", "12/25"));
+
+        // Act
+        TokenizeBatchResponse response = tokenizationService.tokenizeBatch(cards);
+
+        // Assert
+        assertEquals("tokenization-rejected", response.results().get(0).error());
+        verify(cardTokenRepository, never()).insertBatch(anyList());
+        verify(metrics).cardsTokenized(0, 1);
+    }
+
+    @Test
+    void tokenize_shouldPopulateTokenCache() {
+        // Arrange
+        TokenizeRequest request = new TokenizeRequest(1L, "4111111111111111", "123", "12/25");
+
+        // Act
+        TokenizeResponse response = tokenizationService.tokenize(request);
+
+        // Assert
+        ArgumentCaptor<CardToken> captor = ArgumentCaptor.forClass(CardToken.class);
+        verify(tokenCache).put(captor.capture());
+        assertEquals(response.token(), captor.getValue().getToken());
+    }
+
+    @Test
+    void revoke_shouldUpdateOnlyStatusAndUpdateCache() {
+        // Arrange
+        CardToken stored = new CardToken();
+        stored.setCustomerId(1L);
+        stored.setToken("tok-1");
+        when(cardTokenRepository.findByToken("tok-1")).thenReturn(Optional.of(stored));
+
+        // Act
+        tokenizationService.revoke("tok-1", null);
+
+        // Assert: nada de save(entidad), que reescribiría llave y cifrado
+        verify(cardTokenRepository).updateStatus("tok-1", CardToken.Status.REVOKED);
+        verify(cardTokenRepository, never()).save(any());
+        assertEquals(CardToken.Status.ACTIVE, stored.getStatus());
+        verify(tokenCache).revoked(stored);
+    }
+
+    @Test
+    void revoke_whenTokenUnknown_shouldThrowException() {
+        // Arrange
+        when(cardTokenRepository.findByToken("nope")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> tokenizationService.revoke("nope", null));
+        verifyNoInteractions(tokenCache);
+    }
+
+    @Test
+    void revoke_whenCustomerOwnsToken_shouldRevoke() {
+        // Arrange
+        CardToken stored = new CardToken();
+        stored.setCustomerId(1L);
+        stored.setToken("tok-1");
+        when(cardTokenRepository.findByToken("tok-1")).thenReturn(Optional.of(stored));
+
+        // Act
+        tokenizationService.revoke("tok-1", 1L);
+
+        // Assert
+        verify(cardTokenRepository).updateStatus("tok-1", CardToken.Status.REVOKED);
+    }
+
+    @Test
+    void revoke_whenTokenBelongsToAnotherCustomer_shouldThrowException() {
+        // Arrange
+        CardToken stored = new CardToken();
+        stored.setCustomerId(1L);
+        stored.setToken("tok-1");
+        when(cardTokenRepository.findByToken("tok-1")).thenReturn(Optional.of(stored));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> tokenizationService.revoke("tok-1", 2L));
+        verify(cardTokenRepository, never()).updateStatus(any(), any());
+        verifyNoInteractions(tokenCache);
+    }
 }
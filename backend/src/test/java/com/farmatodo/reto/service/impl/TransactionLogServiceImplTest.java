@@ -0,0 +1,158 @@
+package com.farmatodo.reto.service.impl;
+
+import com.farmatodo.reto.dto.TransactionLogPage;
+import com.farmatodo.reto.dto.TransactionLogView;
+import com.farmatodo.reto.dto.TransactionPayloads;
+import com.farmatodo.reto.entity.TransactionLog;
+import com.farmatodo.reto.repository.TransactionLogRepository;
+import com.farmatodo.reto.service.TransactionLogArchive;
+import com.farmatodo.reto.service.TransactionLogBroadcaster;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionLogServiceImplTest {
+
+    @Mock
+    private TransactionLogRepository repo;
+
+    @Mock
+    private TransactionLogBroadcaster broadcaster;
+
+    @Mock
+    private TransactionLogArchive archive;
+
+    @InjectMocks
+    private TransactionLogServiceImpl service;
+
+    @Test
+    void log_shouldSerializePayloadAndPublish() {
+        // Arrange
+        when(repo.save(any(TransactionLog.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act
+        service.log("tx", 1L, TransactionLog.Event.PAYMENT_ATTEMPT, "APPROVED",
+                new TransactionPayloads.PaymentAttempt(1, true));
+
+        // Assert
+        ArgumentCaptor<TransactionLog> captor = ArgumentCaptor.forClass(TransactionLog.class);
+        verify(broadcaster).publish(captor.capture());
+        assertEquals("{\"attempt\":1,\"approved\":true}", captor.getValue().getPayload());
+    }
+
+    @Test
+    void log_whenInsideTransaction_shouldPublishOnlyAfterCommit() {
+        // Arrange
+        when(repo.save(any(TransactionLog.class))).thenAnswer(inv -> inv.getArgument(0));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            service.log("tx", 1L, TransactionLog.Event.ORDER_CREATED, "Order created", null);
+
+            // Assert
+            verify(broadcaster, never()).publish(any());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(broadcaster).publish(any(TransactionLog.class));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void pageByTransaction_whenMoreRows_shouldReturnCursorOfLastItem() {
+        // Arrange
+        when(repo.pageByTransactionUuid(eq("tx"), any(), anyLong(), eq(Limit.of(3))))
+                .thenReturn(List.of(view(1), view(2), view(3)));
+
+        // Act
+        TransactionLogPage page = service.pageByTransaction("tx", null, 2, false);
+
+        // Assert
+        assertEquals(2, page.items().size());
+        TransactionLogPage.Cursor next = TransactionLogPage.Cursor.decode(page.nextCursor());
+        assertEquals(2L, next.id());
+        assertEquals(view(2).createdAt(), next.createdAt());
+        verify(repo, never()).findPayloads(any());
+    }
+
+    @Test
+    void pageByTransaction_whenLastPage_shouldReturnNoCursor() {
+        // Arrange
+        TransactionLogPage.Cursor after = new TransactionLogPage.Cursor(view(1).createdAt(), 1L);
+        when(repo.pageByTransactionUuid("tx", after.createdAt(), 1L, Limit.of(3)))
+                .thenReturn(List.of(view(2)));
+
+        // Act
+        TransactionLogPage page = service.pageByTransaction("tx", after.encode(), 2, false);
+
+        // Assert
+        assertEquals(1, page.items().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void pageByOrder_whenNothingInDb_shouldPageOverArchive() {
+        // Arrange
+        when(repo.pageByOrderId(eq(7L), any(), anyLong(), any())).thenReturn(List.of());
+        when(archive.findByOrderId(7L)).thenReturn(List.of(archived(1), archived(2), archived(3)));
+
+        // Act
+        TransactionLogPage first = service.pageByOrder(7L, null, 2, false);
+        TransactionLogPage second = service.pageByOrder(7L, first.nextCursor(), 2, false);
+
+        // Assert
+        assertEquals(List.of(1L, 2L), first.items().stream().map(TransactionLogView::id).toList());
+        assertTrue(TransactionLogPage.Cursor.decode(first.nextCursor()).archived());
+        assertEquals(List.of(3L), second.items().stream().map(TransactionLogView::id).toList());
+        assertNull(second.nextCursor());
+        verify(repo, times(1)).pageByOrderId(eq(7L), any(), anyLong(), any());
+    }
+
+    @Test
+    void pageByOrder_whenPayloadRequested_shouldLoadPayloadsForPageOnly() {
+        // Arrange
+        when(repo.pageByOrderId(eq(7L), any(), anyLong(), any())).thenReturn(List.of(view(1)));
+        when(repo.findPayloads(List.of(1L))).thenReturn(List.<Object[]>of(new Object[] { 1L, "{\"a\":1}" }));
+
+        // Act
+        TransactionLogPage page = service.pageByOrder(7L, null, 10, true);
+
+        // Assert
+        assertEquals("{\"a\":1}", page.items().get(0).payload());
+    }
+
+    @Test
+    void pageByOrder_whenCursorIsGarbage_shouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> service.pageByOrder(7L, "%%%", 10, false));
+    }
+
+    private TransactionLogView view(long id) {
+        return new TransactionLogView(id, "tx", 7L, TransactionLog.Event.PAYMENT_ATTEMPT, "REJECTED",
+                LocalDateTime.of(2025, 1, 1, 12, 0).plusSeconds(id));
+    }
+
+    private TransactionLog archived(long id) {
+        TransactionLog t = new TransactionLog();
+        t.setId(id);
+        t.setTransactionUuid("tx");
+        t.setOrderId(7L);
+        t.setEvent(TransactionLog.Event.PAYMENT_ATTEMPT);
+        t.setMessage("REJECTED");
+        t.setCreatedAt(LocalDateTime.of(2024, 1, 1, 12, 0).plusSeconds(id));
+        return t;
+    }
+}
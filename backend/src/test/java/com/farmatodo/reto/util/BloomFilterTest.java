@@ -0,0 +1,58 @@
+package com.farmatodo.reto.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_shouldNeverMissInsertedKeys() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+
+        // Act
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user" + i + "@test.com");
+        }
+
+        // Assert
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("user" + i + "@test.com"));
+        }
+    }
+
+    @Test
+    void mightContain_shouldKeepFalsePositivesNearConfiguredRate() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user" + i + "@test.com");
+        }
+
+        // Act
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other" + i + "@test.com")) {
+                falsePositives++;
+            }
+        }
+
+        // Assert: 1% esperado, margen amplio para no ser frágil
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void constructor_shouldSizeFromExpectedInsertions() {
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+
+        assertTrue(filter.bitSize() >= 9_585);
+        assertEquals(7, filter.hashCount());
+    }
+
+    @Test
+    void constructor_whenRateOutOfRange_shouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(1_000, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+    }
+}
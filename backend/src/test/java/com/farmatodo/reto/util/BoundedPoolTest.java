@@ -0,0 +1,44 @@
+package com.farmatodo.reto.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPoolTest {
+
+    @Test
+    void take_afterRelease_shouldReuseInstance() {
+        // Arrange
+        AtomicInteger created = new AtomicInteger();
+        BoundedPool<Object> pool = new BoundedPool<>(() -> { created.incrementAndGet(); return new Object(); }, 2);
+
+        // Act
+        Object first = pool.take();
+        pool.release(first);
+        Object second = pool.take();
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    void release_whenFull_shouldDropExtraInstances() {
+        // Arrange
+        BoundedPool<Object> pool = new BoundedPool<>(Object::new, 2);
+        Object a = pool.take();
+        Object b = pool.take();
+        Object c = pool.take();
+
+        // Act
+        pool.release(a);
+        pool.release(b);
+        pool.release(c);
+
+        // Assert
+        assertEquals(2, pool.idle());
+        assertNotSame(c, pool.take());
+    }
+}
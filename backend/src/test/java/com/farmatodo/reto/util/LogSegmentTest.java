@@ -0,0 +1,133 @@
+package com.farmatodo.reto.util;
+
+import com.farmatodo.reto.entity.TransactionLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogSegmentTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void commit_thenLookupByUuid_shouldReturnOnlyThatTransaction() throws Exception {
+        // Arrange: 3 eventos por transacción, bloques de 4 registros
+        try (LogSegment.Writer w = LogSegment.create(dir, "seg", 4)) {
+            long id = 1;
+            for (int tx = 0; tx < 10; tx++) {
+                for (int e = 0; e < 3; e++) {
+                    w.append(log(id++, "tx-" + tx, 100L + tx, "{\"attempt\":" + e + "}"));
+                }
+            }
+            w.commit();
+        }
+
+        // Act
+        LogSegment segment = LogSegment.open(dir.resolve("seg" + LogSegment.INDEX_EXT));
+        List<TransactionLog> found = segment.findByTransactionUuid("tx-7");
+
+        // Assert
+        assertEquals(3, found.size());
+        assertTrue(found.stream().allMatch(t -> t.getOrderId() == 107L));
+        assertEquals("{\"attempt\":2}", found.get(2).getPayload());
+        assertTrue(segment.blockCount() > 1);
+    }
+
+    @Test
+    void lookupByOrderId_shouldReadOnlyListedBlocks() throws Exception {
+        // Arrange
+        try (LogSegment.Writer w = LogSegment.create(dir, "seg", 2)) {
+            w.append(log(1, "a", 5L, null));
+            w.append(log(2, "b", 9L, null));
+            w.append(log(3, "c", 1L, null));
+            w.commit();
+        }
+
+        // Act
+        LogSegment segment = LogSegment.open(dir.resolve("seg" + LogSegment.INDEX_EXT));
+
+        // Assert
+        assertEquals(1, segment.findByOrderId(9L).size());
+        assertNull(segment.findByOrderId(9L).get(0).getPayload());
+        assertTrue(segment.findByOrderId(42L).isEmpty());
+        assertTrue(segment.findByTransactionUuid("0").isEmpty());
+    }
+
+    @Test
+    void lookupByOrderId_whenOrderSpansDistantBlocks_shouldFindEveryRecord() throws Exception {
+        // Arrange: la orden 7 aparece en el primer y el último bloque, con otras en medio
+        try (LogSegment.Writer w = LogSegment.create(dir, "seg", 1)) {
+            w.append(log(1, "a", 7L, null));
+            w.append(log(2, "b", 3L, null));
+            w.append(log(3, "c", 50L, null));
+            w.append(log(4, "d", 7L, null));
+            w.commit();
+        }
+
+        // Act
+        LogSegment segment = LogSegment.open(dir.resolve("seg" + LogSegment.INDEX_EXT));
+        List<TransactionLog> found = segment.findByOrderId(7L);
+
+        // Assert
+        assertEquals(List.of(1L, 4L), found.stream().map(TransactionLog::getId).toList());
+        assertTrue(segment.findByOrderId(5L).isEmpty());
+    }
+
+    @Test
+    void close_shouldUnmapAndReturnNothingAfterwards() throws Exception {
+        // Arrange
+        try (LogSegment.Writer w = LogSegment.create(dir, "seg", 4)) {
+            w.append(log(1, "a", 1L, null));
+            w.commit();
+        }
+        LogSegment segment = LogSegment.open(dir.resolve("seg" + LogSegment.INDEX_EXT));
+
+        // Act
+        segment.close();
+        segment.close();
+
+        // Assert
+        assertTrue(segment.findByTransactionUuid("a").isEmpty());
+        assertTrue(segment.findByOrderId(1L).isEmpty());
+    }
+
+    @Test
+    void close_withoutCommit_shouldLeaveNoFiles() throws Exception {
+        // Act
+        try (LogSegment.Writer w = LogSegment.create(dir, "seg", 4)) {
+            w.append(log(1, "a", 1L, null));
+        }
+
+        // Assert
+        try (var files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void append_whenUnsorted_shouldThrowException() throws Exception {
+        try (LogSegment.Writer w = LogSegment.create(dir, "seg", 4)) {
+            w.append(log(1, "b", 1L, null));
+            assertThrows(IllegalStateException.class, () -> w.append(log(2, "a", 1L, null)));
+        }
+    }
+
+    private TransactionLog log(long id, String tx, Long orderId, String payload) {
+        TransactionLog t = new TransactionLog();
+        t.setId(id);
+        t.setTransactionUuid(tx);
+        t.setOrderId(orderId);
+        t.setEvent(TransactionLog.Event.PAYMENT_ATTEMPT);
+        t.setMessage("REJECTED");
+        t.setPayload(payload);
+        t.setCreatedAt(LocalDateTime.of(2024, 1, 1, 10, 0).plusSeconds(id));
+        return t;
+    }
+}
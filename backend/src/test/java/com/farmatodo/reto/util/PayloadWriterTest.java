@@ -0,0 +1,43 @@
+package com.farmatodo.reto.util;
+
+import com.farmatodo.reto.dto.TransactionPayloads;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PayloadWriterTest {
+
+    @Test
+    void write_shouldSerializeRecordFields() {
+        // Act
+        String json = PayloadWriter.write(new TransactionPayloads.PaymentAttempt(2, false));
+
+        // Assert
+        assertEquals("{\"attempt\":2,\"approved\":false}", json);
+    }
+
+    @Test
+    void write_shouldKeepDecimalTotalsAsNumbers() {
+        // Act
+        String json = PayloadWriter.write(new TransactionPayloads.OrderCreated(7L, new BigDecimal("350.00")));
+
+        // Assert
+        assertEquals("{\"customerId\":7,\"total\":350.00}", json);
+    }
+
+    @Test
+    void write_shouldEscapeStrings() {
+        // Act
+        String json = PayloadWriter.write(new TransactionPayloads.OrderFailed("quote\"d"));
+
+        // Assert
+        assertEquals("{\"reason\":\"quote\\\"d\"}", json);
+    }
+
+    @Test
+    void write_whenNull_shouldReturnNull() {
+        assertNull(PayloadWriter.write(null));
+    }
+}
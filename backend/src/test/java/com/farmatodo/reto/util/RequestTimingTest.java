@@ -0,0 +1,80 @@
+package com.farmatodo.reto.util;
+
+import com.farmatodo.reto.util.RequestTiming.Segment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestTimingTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestTiming.end();
+    }
+
+    @Test
+    void segments_shouldAccumulateTimeAndCalls() throws Exception {
+        // Arrange
+        RequestTiming timing = RequestTiming.begin();
+
+        // Act
+        for (int i = 0; i < 2; i++) {
+            long token = RequestTiming.enter(Segment.PAYMENT);
+            Thread.sleep(5);
+            RequestTiming.exit(Segment.PAYMENT, token);
+        }
+        RequestTiming.sqlExecuted();
+
+        // Assert
+        assertEquals(2, timing.calls(Segment.PAYMENT));
+        assertTrue(timing.nanos(Segment.PAYMENT) >= 10_000_000L);
+        assertEquals(0, timing.calls(Segment.DB));
+        assertEquals(1, timing.sqlCount());
+    }
+
+    @Test
+    void nestedSegment_shouldBeChargedToOuterOnly() {
+        // Arrange
+        RequestTiming timing = RequestTiming.begin();
+
+        // Act: repositorio llamado desde una notificación
+        long mail = RequestTiming.enter(Segment.MAIL);
+        long db = RequestTiming.enter(Segment.DB);
+        RequestTiming.exit(Segment.DB, db);
+        RequestTiming.exit(Segment.MAIL, mail);
+
+        // Assert
+        assertEquals(-1, db);
+        assertEquals(1, timing.calls(Segment.MAIL));
+        assertEquals(0, timing.calls(Segment.DB));
+    }
+
+    @Test
+    void withoutContext_shouldBeNoOp() {
+        // Act
+        long token = RequestTiming.enter(Segment.DB);
+        RequestTiming.exit(Segment.DB, token);
+        RequestTiming.sqlExecuted();
+
+        // Assert
+        assertEquals(-1, token);
+        assertNull(RequestTiming.current());
+    }
+
+    @Test
+    void serverTiming_shouldListOnlyUsedSegmentsPlusApp() {
+        // Arrange
+        RequestTiming timing = RequestTiming.begin();
+        RequestTiming.exit(Segment.DB, RequestTiming.enter(Segment.DB));
+        RequestTiming.sqlExecuted();
+        RequestTiming.sqlExecuted();
+
+        // Act
+        String header = timing.serverTiming();
+
+        // Assert
+        assertTrue(header.matches("db;dur=\\d+\\.\\d;desc=\"2 sql\", app;dur=\\d+\\.\\d"), header);
+        assertTrue(timing.summary().contains("db_calls=1 sql=2"));
+    }
+}
@@ -2,6 +2,8 @@
 
 # Quick deployment script for GCP Cloud Run
 # Usage: ./deploy-cloud-run.sh [PROJECT_ID] [REGION]
+# VARIANT=jvm|aot|native elige la imagen del backend (aot/native arrancan más rápido desde cero;
+# comparar con ./startup-benchmark.sh)
 
 set -e
 
@@ -9,6 +11,13 @@ set -e
 PROJECT_ID=${1:-$(gcloud config get-value project)}
 REGION=${2:-us-central1}
 SERVICE_NAME="farmatodo-backend"
+VARIANT=${VARIANT:-jvm}
+case "$VARIANT" in
+  jvm) DOCKERFILE="backend/Dockerfile" ;;
+  aot) DOCKERFILE="backend/Dockerfile.aot" ;;
+  native) DOCKERFILE="backend/Dockerfile.native" ;;
+  *) echo "Error: VARIANT debe ser jvm, aot o native"; exit 1 ;;
+esac
 IMAGE_NAME="gcr.io/$PROJECT_ID/$SERVICE_NAME"
 
 echo "====================================="
@@ -17,6 +26,7 @@ echo "====================================="
 echo "Project ID: $PROJECT_ID"
 echo "Region: $REGION"
 echo "Service: $SERVICE_NAME"
+echo "Variant: $VARIANT ($DOCKERFILE)"
 echo "====================================="
 
 # Check if gcloud is installed
@@ -39,7 +49,7 @@ gcloud services enable \
 
 # Build with Cloud Build
 echo "Building Docker image with Cloud Build..."
-gcloud builds submit --config cloudbuild.yaml
+gcloud builds submit --config cloudbuild.yaml --substitutions=_BACKEND_DOCKERFILE=$DOCKERFILE
 
 # Deploy to Cloud Run
 echo "Deploying to Cloud Run..."
@@ -51,6 +61,7 @@ gcloud run deploy $SERVICE_NAME \
   --port 8080 \
   --memory 512Mi \
   --cpu 1 \
+  --cpu-boost \
   --min-instances 0 \
   --max-instances 10 \
   --timeout 300 \
@@ -79,5 +90,6 @@ echo "IMPORTANT: Update secrets using:"
 echo "  gcloud run services update $SERVICE_NAME \\"
 echo "    --set-env-vars APP_API_KEY=your-api-key \\"
 echo "    --set-env-vars ENCRYPTION_SECRET=your-16-char-secret \\"
+echo "    --set-env-vars SESSION_SECRET=your-32-byte-session-secret \\"
 echo "    --region $REGION"
 echo "====================================="
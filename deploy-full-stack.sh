@@ -79,6 +79,8 @@ gcloud run deploy $BACKEND_SERVICE_NAME \
   --set-env-vars "SPRING_PROFILES_ACTIVE=gcp" \
   --set-env-vars "APP_API_KEY=SECRET123" \
   --set-env-vars "ENCRYPTION_SECRET=1234567890123456" \
+  --set-env-vars "SESSION_SECRET=demo-session-secret-0123456789abcdef" \
+  --set-env-vars "RATELIMIT_TRUSTED_PROXIES=1" \
   --set-env-vars "DB_NAME=farmatodo" \
   --set-env-vars "DB_USER=farmatodo_user" \
   --set-env-vars "DB_PASS=$DB_PASS" \
@@ -54,7 +54,9 @@ PAYMENT_REJECTION_PERCENTAGE=35,\
 PAYMENT_MAX_RETRIES=3,\
 PRODUCT_MIN_STOCK=0,\
 APP_API_KEY=SECRET123,\
-ENCRYPTION_SECRET=1234567890123456"
+ENCRYPTION_SECRET=1234567890123456,\
+SESSION_SECRET=demo-session-secret-0123456789abcdef,\
+RATELIMIT_TRUSTED_PROXIES=1"
 
 # Get the service URL
 echo ""
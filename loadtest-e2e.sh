@@ -0,0 +1,41 @@
+#!/bin/bash
+# Prueba de carga end-to-end del flujo de compra: registro → tokenización → carrito → checkout.
+# Compila la API y el generador (backend/loadtest), levanta la API apuntando a la pasarela de
+# pago y al SMTP falsos que trae el generador y corre una carga de ciclo abierto (llegadas
+# Poisson a RATE viajes/s) con latencias en HdrHistogram; imprime throughput y percentiles por
+# endpoint. Opciones extra del generador van al final: ./loadtest-e2e.sh --gateway-p99-ms=2000
+#
+# Requisitos: Java 17, Postgres con DB_URL/DB_USER/DB_PASS y productos PRODUCT_IDS con stock de
+# sobra (cada checkout pagado descuenta 1).
+set -euo pipefail
+
+RATE=${RATE:-5}
+DURATION=${DURATION:-60}
+WARMUP=${WARMUP:-10}
+PRODUCT_IDS=${PRODUCT_IDS:-1}
+API_KEY=${API_KEY:-SECRET123}
+PORT=${PORT:-8080}
+GATEWAY_PORT=${GATEWAY_PORT:-9099}
+SMTP_PORT=${SMTP_PORT:-2525}
+# Una sola instancia: basta un secreto de sesión aleatorio por corrida
+export SESSION_SECRET=${SESSION_SECRET:-$(head -c 32 /dev/urandom | base64)}
+
+cd "$(dirname "$0")/backend"
+./gradlew -q :bootJar :loadtest:bootJar
+OUT=build/loadtest-e2e
+mkdir -p "$OUT"
+
+java -jar build/libs/reto-0.0.1-SNAPSHOT.jar --server.port="$PORT" \
+    --payment.gateway.url="http://localhost:${GATEWAY_PORT}/charge" --spring.mail.port="$SMTP_PORT" \
+    --ratelimit.enabled=false --spring.jpa.show-sql=false --logging.level.org.hibernate.SQL=WARN \
+    --logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN \
+    --logging.level.org.springframework.security=WARN > "$OUT/app.log" 2>&1 &
+pid=$!
+trap "kill $pid 2>/dev/null || true" EXIT
+
+# El generador levanta los stubs, espera a que la API responda y luego mide
+java -jar loadtest/build/libs/loadtest-0.0.1-SNAPSHOT.jar --base-url="http://localhost:${PORT}" \
+    --api-key="$API_KEY" --rate="$RATE" --duration="$DURATION" --warmup="$WARMUP" \
+    --products="$PRODUCT_IDS" --gateway-port="$GATEWAY_PORT" --smtp-port="$SMTP_PORT" \
+    --out="$OUT" "$@" | tee "$OUT/report.txt"
+echo "Log de la API en backend/${OUT}/app.log"
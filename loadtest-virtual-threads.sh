@@ -0,0 +1,87 @@
+#!/bin/bash
+# Prueba de carga: hilos de plataforma vs hilos virtuales con una pasarela de pago lenta.
+# Levanta el backend dos veces (VIRTUAL_THREADS=false/true) contra la misma BD, dispara
+# POST /orders con 'hey' y compara throughput, latencias, hilos y memoria (RSS pico).
+#
+# Requisitos: Java 21, 'hey' (go install github.com/rakyll/hey@latest), Postgres con
+# DB_URL/DB_USER/DB_PASS y un producto PRODUCT_ID con stock de sobra.
+set -euo pipefail
+
+LATENCY_MS=${PAYMENT_LATENCY_MS:-200}
+REQUESTS=${REQUESTS:-4000}
+CONCURRENCY=${CONCURRENCY:-400}
+PRODUCT_ID=${PRODUCT_ID:-1}
+API_KEY=${API_KEY:-SECRET123}
+PORT=${PORT:-8080}
+DB_POOL_SIZE=${DB_POOL_SIZE:-50}
+BASE="http://localhost:${PORT}"
+# Una sola instancia: basta un secreto de sesión aleatorio por corrida
+export SESSION_SECRET=${SESSION_SECRET:-$(head -c 32 /dev/urandom | base64)}
+
+command -v hey >/dev/null || { echo "❌ Se requiere 'hey'"; exit 1; }
+
+cd "$(dirname "$0")/backend"
+./gradlew -q bootJar -PjavaVersion=21
+JAR=$(ls build/libs/*.jar | grep -v plain | head -1)
+OUT=build/loadtest
+mkdir -p "$OUT"
+
+metric() {
+    curl -s -H "X-API-KEY: ${API_KEY}" "${BASE}/actuator/metrics/$1" | grep -o '"value":[0-9.E+-]*' | head -1 | cut -d: -f2
+}
+
+run_mode() {
+    local virtual=$1
+    echo "▶ VIRTUAL_THREADS=${virtual} (pago ${LATENCY_MS} ms/intento, ${REQUESTS} req, ${CONCURRENCY} concurrentes)"
+
+    VIRTUAL_THREADS=$virtual PAYMENT_LATENCY_MS=$LATENCY_MS DB_POOL_SIZE=$DB_POOL_SIZE \
+        java -Xmx512m -jar "$JAR" --server.port="$PORT" \
+        --payment.rejection-percentage=0 --ratelimit.enabled=false --concurrency.enabled=false \
+        --spring.jpa.show-sql=false --logging.level.org.hibernate.SQL=WARN \
+        --logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN \
+        --logging.level.org.springframework.security=WARN > "$OUT/app-${virtual}.log" 2>&1 &
+    local pid=$!
+    trap "kill $pid 2>/dev/null || true" EXIT
+
+    for _ in $(seq 1 60); do
+        curl -sf "${BASE}/actuator/health" >/dev/null && break
+        sleep 1
+    done
+
+    local suffix
+    suffix=$(date +%s%N)
+    local customer
+    customer=$(curl -sf -X POST "${BASE}/auth/register" -H 'Content-Type: application/json' \
+        -d "{\"firstName\":\"Carga\",\"lastName\":\"Test\",\"email\":\"carga${suffix}@example.com\",\"phone\":\"+58${suffix: -10}\",\"address\":\"Caracas\",\"password\":\"secreto123\"}" \
+        | grep -o '"id":[0-9]*' | head -1 | cut -d: -f2)
+    local token
+    token=$(curl -sf -X POST "${BASE}/tokens" -H 'Content-Type: application/json' -H "X-API-KEY: ${API_KEY}" \
+        -d "{\"customerId\":${customer},\"cardNumber\":\"4111111111111111\",\"cvv\":\"123\",\"expDate\":\"12/30\"}" \
+        | grep -o '"token":"[^"]*"' | cut -d'"' -f4)
+    local body="{\"customerId\":${customer},\"deliveryAddress\":\"Caracas\",\"cardToken\":\"${token}\",\"items\":[{\"productId\":${PRODUCT_ID},\"quantity\":1}]}"
+
+    hey -n "$REQUESTS" -c "$CONCURRENCY" -m POST -T application/json -H "X-API-KEY: ${API_KEY}" \
+        -d "$body" "${BASE}/orders" > "$OUT/hey-${virtual}.txt"
+
+    local rps p99 threads heap rss
+    rps=$(grep 'Requests/sec' "$OUT/hey-${virtual}.txt" | awk '{print $2}')
+    p99=$(grep '99% in' "$OUT/hey-${virtual}.txt" | awk '{print $3}')
+    threads=$(metric jvm.threads.peak)
+    heap=$(metric "jvm.memory.used?tag=area:heap")
+    rss=$(grep VmHWM "/proc/${pid}/status" | awk '{print $2}')
+
+    kill "$pid"; wait "$pid" 2>/dev/null || true
+    trap - EXIT
+    printf "%-8s %10s req/s  p99 %8ss  hilos pico %6s  heap %6s MB  RSS pico %6d MB\n" \
+        "$virtual" "$rps" "$p99" "$threads" "$(awk -v b="$heap" 'BEGIN { printf "%d", b / 1048576 }')" \
+        "$((rss / 1024))" >> "$OUT/summary.txt"
+}
+
+: > "$OUT/summary.txt"
+run_mode false
+run_mode true
+
+echo ""
+echo "virtual  throughput        latencia      hilos              memoria"
+cat "$OUT/summary.txt"
+echo "Detalle de hey y logs en backend/${OUT}/"
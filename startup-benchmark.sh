@@ -0,0 +1,89 @@
+#!/bin/bash
+# Arranque en frío por variante: JVM normal, Spring AOT + AppCDS y (si hay GraalVM) imagen nativa.
+# Para cada variante arranca el backend RUNS veces y mide el tiempo hasta la primera respuesta
+# 200 de GET /products (público y pasa por la BD; /ping exige API key y el health incluye el SMTP)
+# y el RSS del proceso en ese momento y tras calentar con WARM_REQUESTS.
+#
+# Requisitos: Java 17, curl, Postgres con DB_URL/DB_USER/DB_PASS (como en Cloud Run).
+# Para la variante nativa: native-image en el PATH (o GRAALVM_HOME); si no, se omite.
+set -euo pipefail
+
+RUNS=${RUNS:-5}
+PORT=${PORT:-8080}
+WARM_REQUESTS=${WARM_REQUESTS:-200}
+BASE="http://localhost:${PORT}"
+# Una sola instancia: basta un secreto de sesión aleatorio por corrida
+export SESSION_SECRET=${SESSION_SECRET:-$(head -c 32 /dev/urandom | base64)}
+APP_ARGS=(--server.port="$PORT" --spring.jpa.show-sql=false --logging.level.org.hibernate.SQL=WARN
+    --logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN
+    --logging.level.org.springframework.security=WARN)
+
+cd "$(dirname "$0")/backend"
+# clean antes de crear OUT, que vive dentro de build/
+./gradlew -q clean
+OUT=build/startup
+mkdir -p "$OUT"
+
+now_ms() { date +%s%3N; }
+rss_mb() { awk '/VmRSS/ { printf "%d", $2 / 1024 }' "/proc/$1/status"; }
+
+# Arranca "$@" RUNS veces; imprime media de ms hasta la 1a respuesta, RSS al arrancar y tras calentar
+measure() {
+    local name=$1; shift
+    local total_ms=0 total_rss=0 total_warm=0
+    for run in $(seq 1 "$RUNS"); do
+        local start pid ready=""
+        start=$(now_ms)
+        "$@" "${APP_ARGS[@]}" > "$OUT/${name}-${run}.log" 2>&1 &
+        pid=$!
+        trap "kill $pid 2>/dev/null || true" EXIT
+        for _ in $(seq 1 1200); do
+            if curl -sf "${BASE}/products?q=a" >/dev/null 2>&1; then ready=$(now_ms); break; fi
+            kill -0 "$pid" 2>/dev/null || break
+            sleep 0.05
+        done
+        [ -n "$ready" ] || { echo "❌ ${name}: no respondió (ver backend/${OUT}/${name}-${run}.log)"; exit 1; }
+
+        local rss warm
+        rss=$(rss_mb "$pid")
+        for _ in $(seq 1 "$WARM_REQUESTS"); do curl -sf "${BASE}/products?q=a" >/dev/null || true; done
+        warm=$(rss_mb "$pid")
+
+        kill "$pid"; wait "$pid" 2>/dev/null || true
+        trap - EXIT
+        total_ms=$((total_ms + ready - start))
+        total_rss=$((total_rss + rss))
+        total_warm=$((total_warm + warm))
+    done
+    printf "%-10s %8d ms %10d MB %12d MB\n" "$name" $((total_ms / RUNS)) $((total_rss / RUNS)) \
+        $((total_warm / RUNS)) >> "$OUT/summary.txt"
+}
+
+echo "▶ JVM (bootJar)"
+./gradlew -q bootJar
+cp build/libs/reto-0.0.1-SNAPSHOT.jar "$OUT/jvm.jar"
+measure jvm java -jar "$OUT/jvm.jar"
+
+echo "▶ Spring AOT + AppCDS"
+./gradlew -q bootJar -Paot
+java -Djarmode=tools -jar build/libs/reto-0.0.1-SNAPSHOT.jar extract --destination "$OUT/aot"
+# entrenamiento sin BD (ver Dockerfile.aot)
+(cd "$OUT/aot" && java -XX:ArchiveClassesAtExit=app.jsa -Dspring.context.exit=onRefresh \
+    -jar reto-0.0.1-SNAPSHOT.jar --spring.flyway.enabled=false --spring.jpa.hibernate.ddl-auto=none \
+    --spring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=false \
+    --logging.level.root=WARN > ../cds-training.log 2>&1)
+measure aot-cds java -XX:SharedArchiveFile="$OUT/aot/app.jsa" -Dspring.aot.enabled=true \
+    -jar "$OUT/aot/reto-0.0.1-SNAPSHOT.jar"
+
+if command -v native-image >/dev/null || [ -n "${GRAALVM_HOME:-}" ]; then
+    echo "▶ Imagen nativa (tarda varios minutos)"
+    ./gradlew -q nativeCompile -Pnative
+    measure native build/native/nativeCompile/reto
+else
+    echo "⚠ native-image no encontrado: se omite la variante nativa"
+fi
+
+echo ""
+echo "variante   1a respuesta   RSS arranque   RSS tras ${WARM_REQUESTS} req   (media de ${RUNS})"
+cat "$OUT/summary.txt"
+echo "Logs en backend/${OUT}/"